@@ -14,7 +14,9 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @ComponentScan(basePackages = {
     "com.payment.api",
     "com.payment.core",
-    "com.payment.infrastructure"
+    "com.payment.infrastructure",
+    // StandInConfig, only on the classpath of the -Pstandin build
+    "com.payment.standin"
 })
 @EntityScan(basePackages = "com.payment.persistence.entity")
 @EnableJpaRepositories(basePackages = "com.payment.persistence.repository")
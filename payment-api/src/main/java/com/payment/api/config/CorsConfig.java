@@ -44,7 +44,8 @@ public class CorsConfig {
             "Origin",
             "Access-Control-Request-Method",
             "Access-Control-Request-Headers",
-            "X-Idempotency-Key"
+            "X-Idempotency-Key",
+            "X-Request-Timeout-Ms"
         ));
         
         // Exposed headers (accessible to frontend)
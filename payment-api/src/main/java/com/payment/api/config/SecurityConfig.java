@@ -1,14 +1,28 @@
 package com.payment.api.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+
+import java.util.Locale;
+import java.util.Set;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 /**
  * Spring Security configuration
@@ -21,12 +35,18 @@ import org.springframework.security.web.SecurityFilterChain;
  * 2. Create UserDetailsService 
  * 3. Lock down /api/v1/payments/** endpoints
  * 4. Add role-based authorization
+ *
+ * Until then the routes that must never be open (webhook registration, flight recordings) take HTTP Basic
+ * credentials of the single admin account in payment.security.admin
  */
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final Set<String> REFRESH_OFF = Set.of("", "false", "off", "no", "0");
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -53,14 +73,51 @@ public class SecurityConfig {
                 // payment endpoints - currently OPEN for testing
                 // this is a HUGE security hole, fix ASAP
                 .requestMatchers("/api/v1/payments/**").permitAll()
+
+                // starting or resuming a bulk ingest loads a whole inbox file: admin only
+                .requestMatchers(HttpMethod.POST, "/api/v1/ingest-jobs/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/ingest-jobs/**").permitAll()
+                // a refresh reloads the whole window from the database instead of the cached snapshot: admin only
+                .requestMatchers(new AndRequestMatcher(antMatcher("/api/v1/reports/**"), SecurityConfig::isRefresh))
+                    .hasRole("ADMIN")
+                .requestMatchers("/api/v1/reports/**").permitAll()
+                // a rebuild reloads every counter from the payments table: admin only
+                .requestMatchers(HttpMethod.POST, "/api/v1/stats/merchants/rebuild").hasRole("ADMIN")
+                .requestMatchers("/api/v1/stats/**").permitAll()
+                // on-demand flight recordings hold a thread for up to max-seconds and expose
+                // stacks and arguments: admin only
+                .requestMatchers(HttpMethod.POST, "/actuator/jfr").hasRole("ADMIN")
+
+                // webhook endpoints choose where a merchant's signed events are sent: admin only
+                // FIXME: the merchant itself once JWT auth exists
+                .requestMatchers("/api/v1/webhooks/**").hasRole("ADMIN")
                 
                 // All other requests require authentication
                 .anyRequest().authenticated()
-            );
+            )
+
+            .httpBasic(Customizer.withDefaults());
 
         return http.build();
     }
 
+    /**
+     * Whether the request asks for refresh, with any value Spring binds to true
+     * Only the values it binds to false (or an empty one, which takes the default) keep the cached snapshot
+     */
+    private static boolean isRefresh(HttpServletRequest request) {
+        String[] values = request.getParameterValues("refresh");
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (!REFRESH_OFF.contains(value.trim().toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Password encoder for hashing passwords
      */
@@ -68,4 +125,22 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
+
+    /**
+     * The admin account; without payment.security.admin.password there is none and admin
+     * routes refuse every request
+     */
+    @Bean
+    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder,
+                                                 @Value("${payment.security.admin.username:admin}") String username,
+                                                 @Value("${payment.security.admin.password:}") String password) {
+        if (password.isBlank()) {
+            log.warn("payment.security.admin.password is not set: admin endpoints are closed");
+            return new InMemoryUserDetailsManager();
+        }
+        return new InMemoryUserDetailsManager(User.withUsername(username)
+            .password(passwordEncoder.encode(password))
+            .roles("ADMIN")
+            .build());
+    }
 }
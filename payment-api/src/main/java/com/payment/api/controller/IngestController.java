@@ -0,0 +1,72 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.IngestJobRequest;
+import com.payment.common.dto.IngestJobResponse;
+import com.payment.core.ingest.BulkIngestService;
+import com.payment.core.mapper.IngestJobMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for bulk ingest of payment CSV files
+ * Jobs run in the background; poll the job for progress
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/ingest-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Bulk Ingest", description = "Bulk payment file ingest endpoints")
+public class IngestController {
+
+    private final BulkIngestService bulkIngestService;
+    private final IngestJobMapper ingestJobMapper;
+
+    /**
+     * Start ingesting a CSV file from the inbox directory
+     */
+    @PostMapping
+    @Operation(summary = "Start ingest job", description = "Loads a CSV file from the ingest inbox with COPY")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Job started"),
+        @ApiResponse(responseCode = "400", description = "Invalid file name"),
+        @ApiResponse(responseCode = "404", description = "File not found")
+    })
+    public ResponseEntity<IngestJobResponse> startJob(@Valid @RequestBody IngestJobRequest request) {
+        log.info("Received ingest request for file: {}", request.getFileName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ingestJobMapper.toResponse(bulkIngestService.startJob(request.getFileName())));
+    }
+
+    /**
+     * Get ingest job progress
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get ingest job", description = "Returns progress counters of an ingest job")
+    public ResponseEntity<IngestJobResponse> getJob(@Parameter(description = "Job ID") @PathVariable String id) {
+        return ResponseEntity.ok(ingestJobMapper.toResponse(bulkIngestService.getJob(id)));
+    }
+
+    /**
+     * Resume a failed job from its last committed offset
+     */
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume ingest job", description = "Continues a failed job from its last committed chunk")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Job resumed"),
+        @ApiResponse(responseCode = "409", description = "Job is not resumable")
+    })
+    public ResponseEntity<IngestJobResponse> resumeJob(@PathVariable String id) {
+        log.info("Resuming ingest job: {}", id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ingestJobMapper.toResponse(bulkIngestService.resumeJob(id)));
+    }
+}
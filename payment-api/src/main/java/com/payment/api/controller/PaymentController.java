@@ -1,12 +1,18 @@
 package com.payment.api.controller;
 
+import com.payment.common.dto.PaymentLookupRequest;
+import com.payment.common.dto.PaymentLookupResponse;
 import com.payment.common.dto.PaymentRequest;
 import com.payment.common.dto.PaymentResponse;
+import com.payment.common.exception.PaymentException;
+import com.payment.core.processing.LaneSelector;
+import com.payment.core.processing.PaymentProcessingScheduler;
+import com.payment.core.processing.ProcessingLane;
 import com.payment.core.service.PaymentService;
+import com.payment.infrastructure.ratelimit.MerchantRateLimiter;
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,21 +23,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for payment operations
- * Includes resilience patterns: circuit breaker, retry, rate limiter, bulkhead
+ * Includes resilience patterns: circuit breaker, rate limiter, bulkhead
  */
 @Slf4j
 @RestController
@@ -41,6 +47,12 @@ import java.util.concurrent.CompletableFuture;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentProcessingScheduler processingScheduler;
+    private final LaneSelector laneSelector;
+    private final MerchantRateLimiter merchantRateLimiter;
+
+    @Value("${payment.lookup.max-ids:1000}")
+    private int lookupMaxIds;
 
     /**
      * Create a new payment
@@ -51,7 +63,7 @@ public class PaymentController {
     @PostMapping
     @CircuitBreaker(name = "paymentService", fallbackMethod = "createPaymentFallback")
     @RateLimiter(name = "paymentApi")
-    @Bulkhead(name = "paymentBulkhead", type = Bulkhead.Type.THREADPOOL)
+    @Bulkhead(name = "paymentBulkhead", type = Bulkhead.Type.SEMAPHORE)
     @Operation(
         summary = "Create new payment",
         description = "Creates a new payment transaction with idempotency protection"
@@ -60,16 +72,29 @@ public class PaymentController {
         @ApiResponse(responseCode = "201", description = "Payment created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid request data"),
         @ApiResponse(responseCode = "409", description = "Duplicate idempotency key"),
-        @ApiResponse(responseCode = "429", description = "Rate limit exceeded"),
-        @ApiResponse(responseCode = "503", description = "Service unavailable")
+        @ApiResponse(responseCode = "429", description = "Rate limit exceeded (node or merchant)"),
+        @ApiResponse(responseCode = "503", description = "Service unavailable or processing saturated")
     })
     public ResponseEntity<PaymentResponse> createPayment(@Valid @RequestBody PaymentRequest request) {
         log.info("Received payment request for merchant: {}", request.getMerchantId());
+        merchantRateLimiter.acquire(request.getMerchantId());
+
+        // push back before writing anything while the payment's processing lane is full
+        ProcessingLane lane = laneSelector.select(request);
+        processingScheduler.admit(lane);
+
+        PaymentResponse response;
+        try {
+            response = paymentService.createPayment(request);
+        } catch (DataIntegrityViolationException e) {
+            // the key is in payments but not in Redis (bulk-ingested, or expired there)
+            response = paymentService.findByIdempotencyKey(request.getIdempotencyKey()).orElseThrow(() -> e);
+        }
         
-        PaymentResponse response = paymentService.createPayment(request);
-        
-        // Trigger async processing
-        processPaymentAsync(response.getPaymentId());
+        // Queue for processing (replays of finished payments have nothing left to do)
+        if (!response.getStatus().isTerminal()) {
+            processingScheduler.submit(response.getPaymentId(), lane);
+        }
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -92,6 +117,30 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Look up many payments by ID in one call
+     * Costs a single rate-limiter permit however many IDs it carries
+     */
+    @PostMapping("/lookup")
+    @CircuitBreaker(name = "paymentService")
+    @RateLimiter(name = "paymentApi")
+    @Operation(summary = "Look up payments", description = "Retrieves up to payment.lookup.max-ids payments by ID, with a result per ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup done; IDs that do not exist have found=false"),
+        @ApiResponse(responseCode = "400", description = "No IDs, or more than payment.lookup.max-ids")
+    })
+    public ResponseEntity<PaymentLookupResponse> lookupPayments(@Valid @RequestBody PaymentLookupRequest request) {
+        if (request.getPaymentIds().size() > lookupMaxIds) {
+            throw new PaymentException(
+                "At most " + lookupMaxIds + " payment IDs per lookup",
+                "LOOKUP_TOO_MANY_IDS",
+                400
+            );
+        }
+        log.info("Looking up {} payments", request.getPaymentIds().size());
+        return ResponseEntity.ok(paymentService.lookupPayments(request.getPaymentIds()));
+    }
+
     /**
      * Get payments by merchant with pagination
      */
@@ -103,6 +152,7 @@ public class PaymentController {
             @PageableDefault(size = 20) Pageable pageable) {
         
         log.info("Retrieving payments for merchant: {}", merchantId);
+        merchantRateLimiter.acquire(merchantId);
         Page<PaymentResponse> payments = paymentService.getPaymentsByMerchant(merchantId, pageable);
         return ResponseEntity.ok(payments);
     }
@@ -113,7 +163,6 @@ public class PaymentController {
     @PostMapping("/{id}/refund")
     @CircuitBreaker(name = "paymentService", fallbackMethod = "refundPaymentFallback")
     @RateLimiter(name = "paymentApi")
-    @Retry(name = "paymentRetry")
     public ResponseEntity<PaymentResponse> refundPayment(@PathVariable String id) {
         log.info("Refunding payment: {}", id);
         PaymentResponse response = paymentService.refundPayment(id);
@@ -131,21 +180,6 @@ public class PaymentController {
         return ResponseEntity.ok(health);
     }
 
-    /**
-     * Async payment processing
-     * Uses virtual threads executor
-     */
-    @Async("paymentTaskExecutor")
-    public CompletableFuture<Void> processPaymentAsync(String paymentId) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                paymentService.processPayment(paymentId);
-            } catch (Exception e) {
-                log.error("Async payment processing failed for: {}", paymentId, e);
-            }
-        });
-    }
-
     // ========== Fallback Methods ==========
 
     /**
@@ -159,6 +193,13 @@ public class PaymentController {
                 .build());
     }
 
+    /**
+     * Payment errors (including the processing pushback) keep their own status and error code
+     */
+    public ResponseEntity<PaymentResponse> createPaymentFallback(PaymentRequest request, PaymentException e) {
+        throw e;
+    }
+
     /**
      * Fallback for getPayment
      */
@@ -171,6 +212,13 @@ public class PaymentController {
                 .build());
     }
 
+    /**
+     * Payment errors (not found, deadline exceeded) keep their own status and error code
+     */
+    public ResponseEntity<PaymentResponse> getPaymentFallback(String id, PaymentException e) {
+        throw e;
+    }
+
     /**
      * Fallback for refundPayment
      */
@@ -182,4 +230,11 @@ public class PaymentController {
                 .failureReason("Refund service temporarily unavailable.")
                 .build());
     }
+
+    /**
+     * Payment errors (invalid status, deadline exceeded) keep their own status and error code
+     */
+    public ResponseEntity<PaymentResponse> refundPaymentFallback(String id, PaymentException e) {
+        throw e;
+    }
 }
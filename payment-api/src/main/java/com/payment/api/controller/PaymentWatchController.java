@@ -0,0 +1,197 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.PaymentResponse;
+import com.payment.common.dto.PaymentStatusUpdate;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.core.service.PaymentService;
+import com.payment.core.watch.PaymentStatusWatcher;
+import com.payment.core.watch.PaymentStatusWatcher.Kind;
+import com.payment.core.watch.PaymentStatusWatcher.Subscription;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * REST controller for clients waiting on a payment's status instead of polling it
+ * Both endpoints are async: a waiting request holds no thread and no database connection,
+ * and is woken by the payment's transitions on any node (see PaymentStatusWatcher)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/payments")
+@Tag(name = "Payments", description = "Payment processing endpoints")
+public class PaymentWatchController {
+
+    private static final Set<PaymentStatus> TERMINAL = EnumSet.of(
+        PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.REFUNDED, PaymentStatus.CANCELLED);
+
+    private final PaymentService paymentService;
+    private final PaymentStatusWatcher watcher;
+    private final long maxWaitMillis;
+    private final long streamTimeoutMillis;
+
+    // reads for woken long-polls, by payment and status reached, while in flight
+    private final Map<String, CompletableFuture<PaymentResponse>> sharedReads = new ConcurrentHashMap<>();
+
+    public PaymentWatchController(PaymentService paymentService,
+                                  PaymentStatusWatcher watcher,
+                                  @Value("${payment.watch.max-wait-ms:30000}") long maxWaitMillis,
+                                  @Value("${payment.watch.stream-timeout-ms:300000}") long streamTimeoutMillis) {
+        this.paymentService = paymentService;
+        this.watcher = watcher;
+        this.maxWaitMillis = maxWaitMillis;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+    }
+
+    /**
+     * Long-poll until the payment reaches one of the statuses
+     * Answers at once if it already has; after the timeout answers with the current payment,
+     * whatever its status, and the client asks again
+     */
+    @GetMapping("/{id}/wait-for-status")
+    @RateLimiter(name = "paymentApi")
+    @Operation(summary = "Wait for payment status",
+        description = "Returns the payment once it reaches one of the statuses (default: any terminal status) or the timeout passes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Payment in a requested status, or current payment after the timeout"),
+        @ApiResponse(responseCode = "404", description = "Payment not found"),
+        @ApiResponse(responseCode = "429", description = "Too many clients waiting on this payment"),
+        @ApiResponse(responseCode = "503", description = "Too many clients waiting on this node")
+    })
+    public DeferredResult<ResponseEntity<PaymentResponse>> waitForStatus(
+            @Parameter(description = "Payment ID") @PathVariable String id,
+            @Parameter(description = "Statuses to wait for") @RequestParam(required = false) List<PaymentStatus> status,
+            @Parameter(description = "Longest wait in milliseconds") @RequestParam(required = false) Long timeoutMs) {
+        Set<PaymentStatus> wanted = status == null || status.isEmpty() ? TERMINAL : EnumSet.copyOf(status);
+        // at least 1 ms: a DeferredResult timeout of 0 would never expire
+        long timeout = timeoutMs == null ? maxWaitMillis : Math.max(1, Math.min(timeoutMs, maxWaitMillis));
+        DeferredResult<ResponseEntity<PaymentResponse>> result = new DeferredResult<>(timeout);
+
+        Subscription subscription = watcher.subscribe(id, Kind.LONG_POLL, update -> {
+            if (wanted.contains(update.getStatus())) {
+                respond(result, id, update.getStatus());
+            }
+        });
+        result.onCompletion(subscription::close);
+        result.onTimeout(() -> respond(result, id, null));
+        result.onError(error -> subscription.close());
+
+        PaymentResponse current = readAfterSubscribing(subscription, id);
+        if (wanted.contains(current.getStatus())) {
+            subscription.close();
+            result.setResult(ResponseEntity.ok(current));
+        } else {
+            subscription.deliver(statusOf(current));
+        }
+        return result;
+    }
+
+    /**
+     * Server-sent events: the current status, then every transition
+     * The stream ends after a terminal status or stream-timeout-ms; browsers reconnect by themselves
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimiter(name = "paymentApi")
+    @Operation(summary = "Stream payment status", description = "Server-sent events with the payment's status transitions")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "404", description = "Payment not found"),
+        @ApiResponse(responseCode = "429", description = "Too many clients waiting on this payment"),
+        @ApiResponse(responseCode = "503", description = "Too many clients waiting on this node")
+    })
+    public SseEmitter streamStatus(@Parameter(description = "Payment ID") @PathVariable String id) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+
+        Subscription subscription = watcher.subscribe(id, Kind.STREAM, new PaymentStatusWatcher.Listener() {
+            @Override
+            public void onStatus(PaymentStatusUpdate update) throws Exception {
+                emitter.send(SseEmitter.event().name("status").data(update, MediaType.APPLICATION_JSON));
+                if (update.getStatus().isTerminal()) {
+                    emitter.complete();
+                }
+            }
+
+            @Override
+            public void onHeartbeat() throws Exception {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.close());
+
+        subscription.deliver(statusOf(readAfterSubscribing(subscription, id)));
+        return emitter;
+    }
+
+    /**
+     * Read the payment after subscribing, so a transition committed in between is not missed
+     */
+    private PaymentResponse readAfterSubscribing(Subscription subscription, String id) {
+        try {
+            return paymentService.getPayment(id);
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+    }
+
+    private static PaymentStatusUpdate statusOf(PaymentResponse payment) {
+        return PaymentStatusUpdate.builder()
+            .paymentId(payment.getPaymentId())
+            .status(payment.getStatus())
+            .changedAt(payment.getUpdatedAt())
+            .build();
+    }
+
+    /**
+     * Answer with a fresh read; the update only says the status was reached
+     * A transition wakes all of the payment's waiters at once, so they share one read: the
+     * first starts it, the others (woken for the same status) take its result
+     *
+     * @param reached Status the waiter was woken for, null on timeout
+     */
+    private void respond(DeferredResult<ResponseEntity<PaymentResponse>> result, String id, PaymentStatus reached) {
+        if (result.isSetOrExpired()) {
+            return;
+        }
+        String key = id + ':' + reached;
+        CompletableFuture<PaymentResponse> read = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> shared = sharedReads.putIfAbsent(key, read);
+        if (shared == null) {
+            shared = read;
+            try {
+                read.complete(paymentService.getPayment(id));
+            } catch (RuntimeException e) {
+                log.debug("Failed to read payment {} for waiting clients: {}", id, e.toString());
+                read.completeExceptionally(e);
+            } finally {
+                sharedReads.remove(key, read);
+            }
+        }
+        shared.whenComplete((payment, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(ResponseEntity.ok(payment));
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.MerchantReportResponse;
+import com.payment.core.reporting.MerchantReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * REST controller for merchant reporting
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Merchant reporting endpoints")
+public class ReportController {
+
+    private final MerchantReportService merchantReportService;
+
+    /**
+     * Aggregates per merchant, currency and status for payments created in [from, to)
+     */
+    @GetMapping("/merchants")
+    @Operation(summary = "Merchant report",
+        description = "Count, total, min and max amount (optionally percentiles) per merchant, currency and status")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Report computed"),
+        @ApiResponse(responseCode = "400", description = "Invalid report window")
+    })
+    public ResponseEntity<MerchantReportResponse> merchantReport(
+            @Parameter(description = "Window start (inclusive)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Window end (exclusive)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only this merchant")
+            @RequestParam(required = false) String merchantId,
+            @Parameter(description = "Compute p50 / p95 / p99 amounts")
+            @RequestParam(defaultValue = "false") boolean percentiles,
+            @Parameter(description = "Reload the window instead of reusing the cached snapshot")
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(merchantReportService.report(from, to, merchantId, percentiles, refresh));
+    }
+}
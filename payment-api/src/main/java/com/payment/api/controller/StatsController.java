@@ -0,0 +1,75 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.LiveMerchantStatsResponse;
+import com.payment.common.dto.MerchantStatsResponse;
+import com.payment.core.stats.MerchantStatsProjection;
+import com.payment.core.window.LiveMetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the per-merchant stats read model
+ *
+ * Counts are maintained from the payment-events stream: eventually consistent and
+ * served per node, so two nodes can briefly disagree. Use the reports endpoint when
+ * an exact answer from the database is needed. Live rolling-window metrics are kept
+ * per node and can be merged across nodes through Redis.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/stats/merchants")
+@RequiredArgsConstructor
+@Tag(name = "Merchant Stats", description = "Incrementally maintained merchant counters")
+public class StatsController {
+
+    private final MerchantStatsProjection merchantStatsProjection;
+    private final LiveMetricsService liveMetricsService;
+
+    /**
+     * Payment counts and amount totals per currency and status
+     */
+    @GetMapping("/{merchantId}")
+    @Operation(summary = "Get merchant stats", description = "Counts and totals per currency and status")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stats found"),
+        @ApiResponse(responseCode = "503", description = "Stats are being loaded")
+    })
+    public ResponseEntity<MerchantStatsResponse> getStats(
+            @Parameter(description = "Merchant ID") @PathVariable String merchantId) {
+        return ResponseEntity.ok(merchantStatsProjection.getStats(merchantId));
+    }
+
+    /**
+     * Volume, approval rate and average ticket over the last 1, 5 and 60 minutes
+     */
+    @GetMapping("/{merchantId}/live")
+    @Operation(summary = "Get live merchant metrics", description = "Rolling 1 / 5 / 60 minute windows per currency")
+    public ResponseEntity<LiveMerchantStatsResponse> getLiveStats(
+            @Parameter(description = "Merchant ID") @PathVariable String merchantId,
+            @Parameter(description = "node (this node only) or cluster (merged through Redis)")
+            @RequestParam(defaultValue = "cluster") String scope) {
+        return ResponseEntity.ok(liveMetricsService.getLiveStats(merchantId, "cluster".equalsIgnoreCase(scope)));
+    }
+
+    /**
+     * Rebuild the read model on this node from the database
+     */
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild merchant stats", description = "Reloads this node's counters from the database")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Rebuild started"),
+        @ApiResponse(responseCode = "409", description = "A load is already running")
+    })
+    public ResponseEntity<Void> rebuild() {
+        log.info("Rebuilding merchant stats");
+        merchantStatsProjection.rebuild();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.WebhookEndpointRequest;
+import com.payment.common.dto.WebhookEndpointResponse;
+import com.payment.core.webhook.WebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for merchant webhook endpoints
+ * Each status transition of the merchant's payments is POSTed to the endpoint, signed with its secret
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/webhooks")
+@RequiredArgsConstructor
+@Tag(name = "Webhooks", description = "Merchant webhook endpoint registration")
+public class WebhookController {
+
+    private final WebhookService webhookService;
+
+    /**
+     * Register or replace the merchant's endpoint
+     */
+    @PutMapping("/{merchantId}")
+    @Operation(summary = "Save webhook endpoint", description = "Registers or replaces the merchant's callback URL, secret and batching")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Endpoint saved"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<WebhookEndpointResponse> saveEndpoint(
+            @Parameter(description = "Merchant ID") @PathVariable String merchantId,
+            @Valid @RequestBody WebhookEndpointRequest request) {
+        log.info("Saving webhook endpoint for merchant: {}", merchantId);
+        return ResponseEntity.ok(webhookService.saveEndpoint(merchantId, request));
+    }
+
+    @GetMapping("/{merchantId}")
+    @Operation(summary = "Get webhook endpoint", description = "Returns the merchant's endpoint without its secret")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Endpoint found"),
+        @ApiResponse(responseCode = "404", description = "No endpoint registered")
+    })
+    public ResponseEntity<WebhookEndpointResponse> getEndpoint(
+            @Parameter(description = "Merchant ID") @PathVariable String merchantId) {
+        return ResponseEntity.ok(webhookService.getEndpoint(merchantId));
+    }
+
+    /**
+     * Remove the endpoint; undelivered events of the merchant are dropped
+     */
+    @DeleteMapping("/{merchantId}")
+    @Operation(summary = "Delete webhook endpoint", description = "Stops callbacks to the merchant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Endpoint deleted"),
+        @ApiResponse(responseCode = "404", description = "No endpoint registered")
+    })
+    public ResponseEntity<Void> deleteEndpoint(@Parameter(description = "Merchant ID") @PathVariable String merchantId) {
+        webhookService.deleteEndpoint(merchantId);
+        return ResponseEntity.noContent().build();
+    }
+}
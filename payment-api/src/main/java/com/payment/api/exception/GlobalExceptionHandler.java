@@ -1,13 +1,21 @@
 package com.payment.api.exception;
 
+import com.payment.common.deadline.Deadline;
+import com.payment.common.exception.DeadlineExceededException;
 import com.payment.common.exception.IdempotencyException;
+import com.payment.common.exception.MerchantRateLimitException;
 import com.payment.common.exception.PaymentException;
+import com.payment.core.metrics.PaymentMetrics;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,8 +32,11 @@ import java.util.concurrent.TimeoutException;
  */
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final PaymentMetrics metrics;
+
     /**
      * Handle payment exceptions
      */
@@ -62,6 +73,63 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    /**
+     * Handle merchant rate limiting
+     */
+    @ExceptionHandler(MerchantRateLimitException.class)
+    public ResponseEntity<ErrorResponse> handleMerchantRateLimit(MerchantRateLimitException ex) {
+        log.warn("Merchant rate limit exceeded: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.TOO_MANY_REQUESTS.value())
+            .error("Too Many Requests")
+            .message(ex.getMessage())
+            .errorCode(ex.getErrorCode())
+            .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(error);
+    }
+
+    /**
+     * Handle work abandoned at the request deadline
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.warn("Request deadline exceeded at {}", ex.getStage());
+        metrics.deadlineExceeded(ex.getStage());
+        return deadlineExceeded(ex.getMessage());
+    }
+
+    /**
+     * Handle database statements cut off by the transaction timeout
+     * Under a request deadline that timeout is the deadline (see DeadlineTransactionManager)
+     */
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleStatementTimeout(RuntimeException ex) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null || !deadline.isExpired()) {
+            return handleGenericException(ex);
+        }
+        log.warn("Request deadline exceeded in the database: {}", ex.getMessage());
+        metrics.deadlineExceeded("repository");
+        return deadlineExceeded("Request deadline exceeded (repository)");
+    }
+
+    private static ResponseEntity<ErrorResponse> deadlineExceeded(String message) {
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.GATEWAY_TIMEOUT.value())
+            .error("Gateway Timeout")
+            .message(message)
+            .errorCode("DEADLINE_EXCEEDED")
+            .build();
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+
     /**
      * Handle optimistic locking failures
      */
@@ -0,0 +1,139 @@
+package com.payment.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.exception.GlobalExceptionHandler.ErrorResponse;
+import com.payment.common.deadline.Deadline;
+import com.payment.core.metrics.PaymentMetrics;
+import com.payment.infrastructure.admission.ConnectionAdmission;
+import com.payment.infrastructure.admission.ConnectionAdmission.Priority;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Runs database-bound API requests through {@link ConnectionAdmission}
+ * Refunds and single-payment reads go first, bulk listing and reports last; requests
+ * that are shed get a 503 with a Retry-After hint, those whose deadline ran out a 504
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.admission.enabled", matchIfMissing = true)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final ConnectionAdmission admission;
+    private final ObjectMapper objectMapper;
+    private final PaymentMetrics metrics;
+    private final List<String> paths;
+    private final List<String> excludedPaths;
+    private final List<String> highPriority;
+    private final List<String> lowPriority;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public AdmissionFilter(ConnectionAdmission admission,
+                           ObjectMapper objectMapper,
+                           PaymentMetrics metrics,
+                           @Value("${payment.admission.paths:/api/v1/payments/**,/api/v1/reports/**,/api/v1/ingest-jobs/**}")
+                           List<String> paths,
+                           @Value("${payment.admission.excluded-paths:/api/v1/payments/health}")
+                           List<String> excludedPaths,
+                           @Value("${payment.admission.high-priority:POST /api/v1/payments/*/refund,GET /api/v1/payments/*}")
+                           List<String> highPriority,
+                           @Value("${payment.admission.low-priority:GET /api/v1/payments,POST /api/v1/payments/lookup,/api/v1/reports/**,/api/v1/ingest-jobs/**}")
+                           List<String> lowPriority) {
+        this.admission = admission;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.paths = paths;
+        this.excludedPaths = excludedPaths;
+        this.highPriority = highPriority;
+        this.lowPriority = lowPriority;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> matcher.match(pattern, path))
+            || excludedPaths.stream().anyMatch(pattern -> matcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = priorityOf(request);
+        boolean admitted;
+        try {
+            admitted = admission.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            Deadline deadline = Deadline.current();
+            if (deadline != null && deadline.isExpired()) {
+                metrics.deadlineExceeded("admission");
+                DeadlineFilter.writeDeadlineExceeded(response, objectMapper);
+            } else {
+                reject(response, priority);
+            }
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private Priority priorityOf(HttpServletRequest request) {
+        if (matchesAny(highPriority, request)) {
+            return Priority.HIGH;
+        }
+        return matchesAny(lowPriority, request) ? Priority.LOW : Priority.NORMAL;
+    }
+
+    /**
+     * Rules are "[METHOD ]pattern"; without a method they match any
+     */
+    private boolean matchesAny(List<String> rules, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String rule : rules) {
+            int space = rule.indexOf(' ');
+            if (space < 0 ? matcher.match(rule, path)
+                    : rule.substring(0, space).equalsIgnoreCase(request.getMethod())
+                        && matcher.match(rule.substring(space + 1).trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response, Priority priority) throws IOException {
+        log.debug("{} request rejected by admission ({} active, {} queued, overloaded: {})",
+            priority, admission.active(), admission.queued(), admission.isOverloaded());
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Service Unavailable")
+            .message("Server is at capacity. Please retry shortly.")
+            .errorCode("SERVER_BUSY")
+            .build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(admission.retryAfterSeconds(priority)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
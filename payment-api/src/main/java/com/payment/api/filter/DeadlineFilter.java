@@ -0,0 +1,101 @@
+package com.payment.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.exception.GlobalExceptionHandler.ErrorResponse;
+import com.payment.common.deadline.Deadline;
+import com.payment.core.metrics.PaymentMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Attaches a {@link Deadline} to every API request for the rest of the chain
+ * The budget is the client's timeout header in milliseconds, capped at max-ms, or default-ms
+ * without one. Runs first, so admission and everything after it see the deadline; a request
+ * that arrives with no budget left is answered 504 without doing any work.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "payment.deadline.enabled", matchIfMissing = true)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final PaymentMetrics metrics;
+    private final String header;
+    private final long defaultMillis;
+    private final long maxMillis;
+
+    public DeadlineFilter(ObjectMapper objectMapper,
+                          PaymentMetrics metrics,
+                          @Value("${payment.deadline.header:X-Request-Timeout-Ms}") String header,
+                          @Value("${payment.deadline.default-ms:10000}") long defaultMillis,
+                          @Value("${payment.deadline.max-ms:30000}") long maxMillis) {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.header = header;
+        this.defaultMillis = defaultMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long budgetMillis = budgetMillis(request.getHeader(header));
+        if (budgetMillis <= 0) {
+            metrics.deadlineExceeded("arrival");
+            writeDeadlineExceeded(response, objectMapper);
+            return;
+        }
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(Duration.ofMillis(budgetMillis)))) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private long budgetMillis(String value) {
+        if (value == null || value.isBlank()) {
+            return defaultMillis;
+        }
+        try {
+            return Math.min(maxMillis, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", header, value);
+            return defaultMillis;
+        }
+    }
+
+    /**
+     * 504 for a request whose deadline passed before it reached a controller
+     */
+    static void writeDeadlineExceeded(HttpServletResponse response, ObjectMapper objectMapper) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.GATEWAY_TIMEOUT.value())
+            .error("Gateway Timeout")
+            .message("Request deadline exceeded")
+            .errorCode("DEADLINE_EXCEEDED")
+            .build();
+        response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -1,90 +1,65 @@
 package com.payment.api.interceptor;
 
+import com.payment.infrastructure.audit.AuditPipeline;
+import com.payment.infrastructure.audit.AuditRecord;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
-
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
 
 /**
  * Audit logging interceptor for compliance
- * Logs all API requests and responses for payment operations
+ * Records every payment API request (with its duration) to the audit pipeline
+ * An async request is recorded once, when its async dispatch completes, timed from the first dispatch
+ * No I/O or formatting happens on the request thread
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class AuditLogInterceptor implements HandlerInterceptor {
 
+    private static final String START_NANOS_ATTRIBUTE = AuditLogInterceptor.class.getName() + ".startNanos";
+
+    private final AuditPipeline auditPipeline;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // Log request details
-        logRequest(request);
+        // the async dispatch of a DeferredResult or SseEmitter passes here again: keep the original start
+        if (request.getAttribute(START_NANOS_ATTRIBUTE) == null) {
+            request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+        }
         return true;
     }
 
     @Override
-    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, 
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
                                 Object handler, Exception ex) {
-        // Log response details
-        logResponse(request, response, ex);
-    }
-
-    private void logRequest(HttpServletRequest request) {
-        if (!shouldLog(request.getRequestURI())) {
+        Object startNanos = request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (startNanos == null) {
             return;
         }
+        long durationNanos = System.nanoTime() - (Long) startNanos;
 
-        String logMessage = String.format(
-            "[AUDIT] Request: %s %s | IP: %s | User-Agent: %s | Timestamp: %s",
+        auditPipeline.record(new AuditRecord(
+            System.currentTimeMillis(),
             request.getMethod(),
             request.getRequestURI(),
+            response.getStatus(),
+            durationNanos,
             getClientIp(request),
             request.getHeader("User-Agent"),
-            LocalDateTime.now()
-        );
-
-        log.info(logMessage);
-
-        // Log idempotency key if present (important for payment audit)
-        String idempotencyKey = request.getHeader("X-Idempotency-Key");
-        if (idempotencyKey != null) {
-            log.info("[AUDIT] Idempotency-Key: {}", idempotencyKey);
-        }
-    }
-
-    private void logResponse(HttpServletRequest request, HttpServletResponse response, Exception ex) {
-        if (!shouldLog(request.getRequestURI())) {
-            return;
-        }
-
-        String logMessage = String.format(
-            "[AUDIT] Response: %s %s | Status: %d | Duration: %dms",
-            request.getMethod(),
-            request.getRequestURI(),
-            response.getStatus(),
-            calculateDuration(request)
-        );
+            request.getHeader("X-Idempotency-Key"),
+            ex == null ? null : ex.getClass().getName() + ": " + ex.getMessage()
+        ));
 
-        log.info(logMessage);
-
-        // Log errors
+        // Errors still get a stack trace in the application log
         if (ex != null) {
             log.error("[AUDIT] Exception occurred: ", ex);
         }
     }
 
-    private boolean shouldLog(String uri) {
-        // Don't log health checks and actuator endpoints to reduce noise
-        return !uri.contains("/health") && 
-               !uri.contains("/actuator") && 
-               !uri.contains("/swagger") &&
-               !uri.contains("/api-docs");
-    }
-
     private String getClientIp(HttpServletRequest request) {
         String ip = request.getHeader("X-Forwarded-For");
         if (ip == null || ip.isEmpty()) {
@@ -95,13 +70,4 @@ public class AuditLogInterceptor implements HandlerInterceptor {
         }
         return ip;
     }
-
-    private long calculateDuration(HttpServletRequest request) {
-        Long startTime = (Long) request.getAttribute("startTime");
-        if (startTime == null) {
-            request.setAttribute("startTime", System.currentTimeMillis());
-            return 0;
-        }
-        return System.currentTimeMillis() - startTime;
-    }
 }
@@ -0,0 +1,92 @@
+package com.payment.api.controller;
+
+import com.payment.common.dto.PaymentRequest;
+import com.payment.common.dto.PaymentResponse;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.core.processing.LaneSelector;
+import com.payment.core.processing.PaymentProcessingScheduler;
+import com.payment.core.service.PaymentService;
+import com.payment.infrastructure.ratelimit.MerchantRateLimiter;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests PaymentController through its Resilience4j aspects, configured from application.yml
+ */
+@SpringBootTest(classes = PaymentController.class)
+@ImportAutoConfiguration({AopAutoConfiguration.class, CircuitBreakerAutoConfiguration.class,
+    RateLimiterAutoConfiguration.class, BulkheadAutoConfiguration.class})
+class PaymentControllerTest {
+
+    @Autowired
+    private PaymentController paymentController;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @MockBean
+    private PaymentProcessingScheduler processingScheduler;
+
+    @MockBean
+    private LaneSelector laneSelector;
+
+    @MockBean
+    private MerchantRateLimiter merchantRateLimiter;
+
+    @Test
+    void createPayment_ThroughResilienceAspects_ShouldReturnCreated() {
+        // Given
+        PaymentRequest request = PaymentRequest.builder()
+            .idempotencyKey("test-key-001")
+            .amount(new BigDecimal("100.00"))
+            .currency(Currency.USD)
+            .merchantId("merchant-001")
+            .customerId("customer-001")
+            .paymentMethod("CREDIT_CARD")
+            .build();
+        when(paymentService.createPayment(any(PaymentRequest.class))).thenReturn(PaymentResponse.builder()
+            .paymentId("payment-id-001")
+            .status(PaymentStatus.PENDING)
+            .build());
+
+        // When
+        ResponseEntity<PaymentResponse> response = paymentController.createPayment(request);
+
+        // Then: not the circuit breaker's 503 fallback
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("payment-id-001", response.getBody().getPaymentId());
+        verify(paymentService).createPayment(request);
+    }
+
+    @Test
+    void paymentBulkhead_ShouldUseSemaphoreSettingsFromApplicationYml() {
+        // When
+        BulkheadConfig config = bulkheadRegistry.bulkhead("paymentBulkhead").getBulkheadConfig();
+
+        // Then: fails fast, queueing is left to the admission gate
+        assertEquals(25, config.getMaxConcurrentCalls());
+        assertEquals(Duration.ZERO, config.getMaxWaitDuration());
+    }
+}
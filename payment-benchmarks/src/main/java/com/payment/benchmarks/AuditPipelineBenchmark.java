@@ -0,0 +1,77 @@
+package com.payment.benchmarks;
+
+import com.payment.infrastructure.audit.AuditOverflowPolicy;
+import com.payment.infrastructure.audit.AuditPipeline;
+import com.payment.infrastructure.audit.AuditRecord;
+import com.payment.infrastructure.audit.AuditWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request-thread cost of auditing one request: what AuditLogInterceptor does between
+ * preHandle and afterCompletion (two nanoTime reads, building the record, ring buffer
+ * hand-off) while the writer thread drains in the background. Budget: under 1 us/op.
+ *
+ * java -jar payment-benchmarks/target/benchmarks.jar AuditPipelineBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditPipelineBenchmark {
+
+    private AuditPipeline pipeline;
+    private final LongAdder writtenRecords = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        // counting writer: measures the hand-off, not the disk
+        AuditWriter writer = new AuditWriter() {
+            @Override
+            public void write(List<AuditRecord> batch) {
+                writtenRecords.add(batch.size());
+            }
+        };
+        pipeline = new AuditPipeline(writer, 65536, AuditOverflowPolicy.DROP, 0, 512, 1,
+            new SimpleMeterRegistry());
+        pipeline.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean recordSingleThread() {
+        return record();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean recordEightThreads() {
+        return record();
+    }
+
+    private boolean record() {
+        long start = System.nanoTime();
+        return pipeline.record(new AuditRecord(
+            System.currentTimeMillis(),
+            "POST",
+            "/api/v1/payments",
+            201,
+            System.nanoTime() - start,
+            "10.0.0.1",
+            "loadgen/1.0",
+            "key-42",
+            null
+        ));
+    }
+}
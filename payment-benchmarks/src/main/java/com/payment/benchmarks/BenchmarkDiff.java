@@ -0,0 +1,100 @@
+package com.payment.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compare two JMH JSON result files (base first, then head)
+ *
+ * java -cp payment-benchmarks/target/benchmarks.jar com.payment.benchmarks.BenchmarkDiff \
+ *     jmh-results/base.json jmh-results/head.json
+ *
+ * Prints score and gc.alloc.rate.norm per benchmark and parameter set with the relative
+ * change; scores are compared in the unit JMH reported them in.
+ */
+public final class BenchmarkDiff {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private BenchmarkDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: BenchmarkDiff <base.json> <head.json>");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> base = index(objectMapper.readTree(Path.of(args[0]).toFile()));
+        Map<String, JsonNode> head = index(objectMapper.readTree(Path.of(args[1]).toFile()));
+
+        System.out.printf("%-70s %14s %14s %9s %12s %12s %9s%n",
+            "benchmark", "base", "head", "change", "base B/op", "head B/op", "change");
+        for (Map.Entry<String, JsonNode> entry : head.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double headScore = after.path("primaryMetric").path("score").asDouble();
+            double headAlloc = alloc(after);
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s %12.1f %9s%n",
+                    entry.getKey(), "-", headScore, "new", "-", headAlloc, "");
+                continue;
+            }
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double baseAlloc = alloc(before);
+            System.out.printf("%-70s %14.3f %14.3f %9s %12.1f %12.1f %9s%n",
+                entry.getKey(), baseScore, headScore, change(baseScore, headScore),
+                baseAlloc, headAlloc, change(baseAlloc, headAlloc));
+        }
+        for (String key : base.keySet()) {
+            if (!head.containsKey(key)) {
+                System.out.printf("%-70s %14s%n", key, "removed");
+            }
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                .replace("com.payment.benchmarks.", ""));
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            if (!params.isEmpty()) {
+                key.append(params);
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+
+    private static double alloc(JsonNode result) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            // older JMH versions prefix secondary metric names with a middle dot
+            if (metric.getKey().replace("·", "").equals(ALLOC_NORM)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return "";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
@@ -0,0 +1,65 @@
+package com.payment.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar: the regular JMH command line, plus
+ * - the GC / allocation profiler (gc.alloc.rate.norm = bytes per op) on every run
+ * - JSON results in jmh-results/&lt;label&gt;.json, label from -Dbench.label, GIT_COMMIT
+ *   or the current time, ready for {@link BenchmarkDiff}
+ *
+ * Explicit -prof / -rf / -rff options still win.
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RESULTS_DIR = Path.of("jmh-results");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+                || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        boolean gcProfiler = cmd.getProfilers().stream()
+            .anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfiler) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResult().hasValue()) {
+            Files.createDirectories(RESULTS_DIR);
+            Path result = RESULTS_DIR.resolve(label() + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String label() {
+        String label = System.getProperty("bench.label");
+        if (label == null || label.isBlank()) {
+            label = System.getenv("GIT_COMMIT");
+        }
+        if (label == null || label.isBlank()) {
+            label = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        }
+        return label;
+    }
+}
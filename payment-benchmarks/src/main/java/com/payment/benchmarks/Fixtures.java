@@ -0,0 +1,53 @@
+package com.payment.benchmarks;
+
+import com.payment.common.dto.PaymentRequest;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.persistence.entity.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Representative payloads shared by the benchmarks
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static PaymentRequest request() {
+        return PaymentRequest.builder()
+            .idempotencyKey(UUID.randomUUID().toString())
+            .amount(new BigDecimal("129.99"))
+            .currency(Currency.USD)
+            .merchantId("merchant-000123")
+            .customerId("customer-0004567")
+            .paymentMethod("CARD")
+            .description("Order #100045678")
+            .metadata(Map.of("orderId", "100045678", "channel", "web"))
+            .build();
+    }
+
+    static Payment payment() {
+        LocalDateTime now = LocalDateTime.now();
+        return Payment.builder()
+            .paymentId(UUID.randomUUID().toString())
+            .idempotencyKey(UUID.randomUUID().toString())
+            .status(PaymentStatus.COMPLETED)
+            .amount(new BigDecimal("129.99"))
+            .currency(Currency.USD)
+            .merchantId("merchant-000123")
+            .customerId("customer-0004567")
+            .paymentMethod("CARD")
+            .description("Order #100045678")
+            .metadata(Map.of("orderId", "100045678", "channel", "web"))
+            .createdAt(now.minusSeconds(2))
+            .updatedAt(now)
+            .completedAt(now)
+            .version(2L)
+            .build();
+    }
+}
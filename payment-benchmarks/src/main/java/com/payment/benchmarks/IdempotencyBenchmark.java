@@ -0,0 +1,105 @@
+package com.payment.benchmarks;
+
+import com.payment.common.exception.IdempotencyException;
+import com.payment.core.service.IdempotencyService;
+import com.payment.standin.InMemoryRedisson;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdempotencyService lookup / store paths
+ *
+ * backend=memory uses {@link InMemoryRedisson} and measures the service alone;
+ * backend=redis talks to a local Redis (docker compose up redis) for the round trip:
+ * java -jar payment-benchmarks/target/benchmarks.jar IdempotencyBenchmark -p backend=redis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IdempotencyBenchmark {
+
+    @Param({"memory"})
+    private String backend;
+
+    @Param({"redis://localhost:6379"})
+    private String redisAddress;
+
+    private RedissonClient redissonClient;
+    private IdempotencyService idempotencyService;
+
+    private String keyPrefix;
+    private String knownKey;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        if ("redis".equals(backend)) {
+            Config config = new Config();
+            config.useSingleServer().setAddress(redisAddress);
+            redissonClient = Redisson.create(config);
+        } else {
+            redissonClient = InMemoryRedisson.create();
+        }
+        idempotencyService = new IdempotencyService(redissonClient);
+
+        knownKey = "bench-known-" + UUID.randomUUID();
+        idempotencyService.checkAndStore(knownKey, UUID.randomUUID().toString());
+
+        keyPrefix = "bench-" + UUID.randomUUID() + "-";
+    }
+
+    /**
+     * Drop the keys stored by storeNew so the stand-in map (or Redis) does not keep growing
+     */
+    @TearDown(Level.Iteration)
+    public void removeNewKeys() {
+        for (long i = 0; i < next; i++) {
+            idempotencyService.remove(keyPrefix + i);
+        }
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        idempotencyService.remove(knownKey);
+        redissonClient.shutdown();
+    }
+
+    @Benchmark
+    public String lookupHit() {
+        return idempotencyService.getPaymentId(knownKey);
+    }
+
+    @Benchmark
+    public String lookupMiss() {
+        return idempotencyService.getPaymentId(keyPrefix + "missing");
+    }
+
+    /**
+     * First store of a fresh key; short iterations bound the number of keys left to clean up
+     */
+    @Benchmark
+    @Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    public void storeNew() {
+        idempotencyService.checkAndStore(keyPrefix + next++, "payment");
+    }
+
+    @Benchmark
+    public boolean storeDuplicate() {
+        try {
+            idempotencyService.checkAndStore(knownKey, "payment");
+            return true;
+        } catch (IdempotencyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.payment.benchmarks;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.money.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money (long minor units) vs BigDecimal over a large batch of amounts
+ *
+ * Run with -prof gc to compare gc.alloc.rate.norm (bytes allocated per batch):
+ * java -jar payment-benchmarks/target/benchmarks.jar MoneyBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    @Param({"100000"})
+    private int batchSize;
+
+    private BigDecimal[] decimals;
+    private Money[] amounts;
+    private String[] texts;
+    private StringBuilder out;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimals = new BigDecimal[batchSize];
+        amounts = new Money[batchSize];
+        texts = new String[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            long minor = 100 + random.nextLong(1_000_000);
+            amounts[i] = Money.of(minor, Currency.USD);
+            decimals[i] = BigDecimal.valueOf(minor, 2);
+            texts[i] = decimals[i].toPlainString();
+        }
+        out = new StringBuilder(batchSize * 12);
+    }
+
+    // ========== Aggregation ==========
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        Money total = Money.zero(Currency.USD);
+        for (Money amount : amounts) {
+            total = total.plus(amount);
+        }
+        return total;
+    }
+
+    // ========== Serialisation ==========
+
+    @Benchmark
+    public int formatBigDecimal() {
+        out.setLength(0);
+        for (BigDecimal amount : decimals) {
+            out.append(amount.toPlainString()).append('\n');
+        }
+        return out.length();
+    }
+
+    @Benchmark
+    public int formatMoney() {
+        out.setLength(0);
+        for (Money amount : amounts) {
+            amount.appendTo(out).append('\n');
+        }
+        return out.length();
+    }
+
+    // ========== Parsing ==========
+
+    @Benchmark
+    public void parseBigDecimal(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(new BigDecimal(text));
+        }
+    }
+
+    @Benchmark
+    public void parseMoney(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(Money.parse(text, Currency.USD).minorUnits());
+        }
+    }
+}
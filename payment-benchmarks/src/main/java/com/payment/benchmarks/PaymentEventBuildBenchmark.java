@@ -0,0 +1,70 @@
+package com.payment.benchmarks;
+
+import com.payment.common.enums.PaymentEventType;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.core.event.PaymentStatusChanged;
+import com.payment.infrastructure.kafka.PaymentEventSerializer;
+import com.payment.persistence.entity.Payment;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What PaymentService.publishPaymentEvent does on the request thread before the
+ * producer takes over: build the in-process event and the Kafka message from the
+ * entity, then encode the message with the payment-events codec
+ *
+ * java -jar payment-benchmarks/target/benchmarks.jar PaymentEventBuildBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentEventBuildBenchmark {
+
+    private static final String TOPIC = "payment-events";
+
+    private Payment payment;
+    private PaymentEventSerializer serializer;
+
+    @Setup
+    public void setUp() {
+        payment = Fixtures.payment();
+        serializer = new PaymentEventSerializer();
+    }
+
+    private PaymentEventMessage message() {
+        return new PaymentEventMessage(
+            payment.getPaymentId(),
+            payment.getMerchantId(),
+            payment.getCustomerId(),
+            PaymentEventType.PAYMENT_COMPLETED,
+            PaymentStatus.PROCESSING,
+            payment.getStatus(),
+            payment.getMoney(),
+            System.currentTimeMillis()
+        );
+    }
+
+    @Benchmark
+    public PaymentEventMessage buildMessage() {
+        return message();
+    }
+
+    @Benchmark
+    public void buildAndEncode(Blackhole blackhole) {
+        blackhole.consume(new PaymentStatusChanged(
+            payment.getPaymentId(),
+            payment.getMerchantId(),
+            payment.getMoney(),
+            PaymentStatus.PROCESSING,
+            payment.getStatus(),
+            System.currentTimeMillis()
+        ));
+        blackhole.consume(serializer.serialize(TOPIC, message()));
+    }
+}
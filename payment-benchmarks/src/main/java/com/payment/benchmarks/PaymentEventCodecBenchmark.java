@@ -0,0 +1,129 @@
+package com.payment.benchmarks;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentEventType;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.common.money.Money;
+import com.payment.infrastructure.kafka.PaymentEventDeserializer;
+import com.payment.infrastructure.kafka.PaymentEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * payment-events payload: binary codec vs the previous HashMap + JsonSerializer
+ *
+ * serialize* and deserialize* report ns/op per message; consume* decode a poll-sized
+ * batch (max.poll.records = 500) and report ns per message via OperationsPerInvocation.
+ * Payload sizes (including JSON type headers) are printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentEventCodecBenchmark {
+
+    private static final String TOPIC = "payment-events";
+    private static final int POLL_BATCH = 500;
+
+    private PaymentEventMessage message;
+    private Map<String, Object> jsonEvent;
+
+    private PaymentEventSerializer binarySerializer;
+    private PaymentEventDeserializer binaryDeserializer;
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+
+    private byte[] binaryPayload;
+    private byte[] jsonPayload;
+    private RecordHeaders jsonHeaders;
+
+    @Setup
+    public void setUp() {
+        message = new PaymentEventMessage(
+            UUID.randomUUID().toString(),
+            "merchant-000123",
+            "customer-0004567",
+            PaymentEventType.PAYMENT_COMPLETED,
+            PaymentStatus.PROCESSING,
+            PaymentStatus.COMPLETED,
+            Money.of(12_999L, Currency.USD),
+            System.currentTimeMillis()
+        );
+
+        // same shape publishPaymentEvent used to build
+        jsonEvent = new HashMap<>();
+        jsonEvent.put("paymentId", message.paymentId());
+        jsonEvent.put("merchantId", message.merchantId());
+        jsonEvent.put("customerId", message.customerId());
+        jsonEvent.put("amount", new BigDecimal("129.99"));
+        jsonEvent.put("currency", message.amount().currency());
+        jsonEvent.put("status", message.status());
+        jsonEvent.put("eventType", message.eventType().name());
+        jsonEvent.put("timestamp", message.timestamp());
+
+        binarySerializer = new PaymentEventSerializer();
+        binaryDeserializer = new PaymentEventDeserializer();
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.addTrustedPackages("*");
+
+        binaryPayload = binarySerializer.serialize(TOPIC, message);
+        jsonHeaders = new RecordHeaders();
+        jsonPayload = jsonSerializer.serialize(TOPIC, jsonHeaders, jsonEvent);
+
+        int headerBytes = 0;
+        for (var header : jsonHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%npayload bytes/message: binary=%d, json=%d (+%d type header bytes)%n",
+            binaryPayload.length, jsonPayload.length, headerBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), jsonEvent);
+    }
+
+    @Benchmark
+    public PaymentEventMessage deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binaryPayload);
+    }
+
+    @Benchmark
+    public Object deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonPayload);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_BATCH)
+    public void consumeBinary(Blackhole blackhole) {
+        for (int i = 0; i < POLL_BATCH; i++) {
+            blackhole.consume(binaryDeserializer.deserialize(TOPIC, binaryPayload));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_BATCH)
+    public void consumeJson(Blackhole blackhole) {
+        for (int i = 0; i < POLL_BATCH; i++) {
+            blackhole.consume(jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonPayload));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.payment.benchmarks;
+
+import com.payment.common.dto.PaymentRequest;
+import com.payment.common.dto.PaymentResponse;
+import com.payment.core.mapper.PaymentMapper;
+import com.payment.persistence.entity.Payment;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct-generated PaymentMapper, the first and last step of every payment call
+ *
+ * java -jar payment-benchmarks/target/benchmarks.jar PaymentMapperBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentMapperBenchmark {
+
+    private PaymentMapper mapper;
+    private PaymentRequest request;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(PaymentMapper.class);
+        request = Fixtures.request();
+        payment = Fixtures.payment();
+    }
+
+    @Benchmark
+    public Payment toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public PaymentResponse toResponse() {
+        return mapper.toResponse(payment);
+    }
+}
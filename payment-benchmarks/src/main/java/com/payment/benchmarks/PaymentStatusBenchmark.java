@@ -0,0 +1,73 @@
+package com.payment.benchmarks;
+
+import com.payment.common.enums.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentStatus transition guards over a mixed batch of statuses
+ *
+ * Both checks are evaluated on every process / refund call and in the stats
+ * projections; the batch keeps branch prediction honest.
+ *
+ * java -jar payment-benchmarks/target/benchmarks.jar PaymentStatusBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentStatusBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private PaymentStatus[] statuses;
+
+    @Setup
+    public void setUp() {
+        PaymentStatus[] values = PaymentStatus.values();
+        SplittableRandom random = new SplittableRandom(42);
+        statuses = new PaymentStatus[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            statuses[i] = values[random.nextInt(values.length)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int isTerminal() {
+        int terminal = 0;
+        for (PaymentStatus status : statuses) {
+            if (status.isTerminal()) {
+                terminal++;
+            }
+        }
+        return terminal;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int canRefund() {
+        int refundable = 0;
+        for (PaymentStatus status : statuses) {
+            if (status.canRefund()) {
+                refundable++;
+            }
+        }
+        return refundable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int valueOf() {
+        // status round trip through its name, as in the JPA / JSON mapping
+        int hash = 0;
+        for (PaymentStatus status : statuses) {
+            hash += PaymentStatus.valueOf(status.name()).ordinal();
+        }
+        return hash;
+    }
+}
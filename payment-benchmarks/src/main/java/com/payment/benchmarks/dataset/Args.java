@@ -0,0 +1,56 @@
+package com.payment.benchmarks.dataset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * --key=value command line options; unknown keys are rejected so typos do not
+ * silently fall back to defaults
+ */
+public final class Args {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public Args(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            values.put(key, eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = values.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = values.remove(key);
+        return value != null ? Long.parseLong(value.replace("_", "")) : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return Math.toIntExact(getLong(key, defaultValue));
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = values.remove(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(values.remove(key));
+    }
+
+    /**
+     * Call after every option has been read
+     */
+    public void rejectUnknown() {
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.payment.benchmarks.dataset;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Shape of a generated dataset; the generator, the query scenarios and the load generator
+ * read the same options so they agree on which merchants and customers are hot
+ *
+ * merchant-000001 is the most frequent merchant (Zipf rank 1), customer-0000001 the most
+ * frequent customer.
+ */
+public record DatasetShape(
+    long payments,
+    int merchants,
+    double merchantSkew,
+    int customers,
+    double customerSkew,
+    String statusMix,
+    String currencyMix,
+    String methodMix,
+    String metadataMix,
+    int days,
+    LocalDateTime end,
+    long seed
+) {
+
+    static final String DEFAULT_STATUS_MIX =
+        "COMPLETED:70,FAILED:8,REFUNDED:5,CANCELLED:3,PROCESSING:2,PENDING:12";
+    static final String DEFAULT_CURRENCY_MIX = "USD:50,EUR:20,GBP:10,IDR:12,JPY:8";
+    static final String DEFAULT_METHOD_MIX = "CARD:70,BANK_TRANSFER:15,E_WALLET:15";
+    static final String DEFAULT_METADATA_MIX = "none:20,small:60,large:20";
+
+    public static DatasetShape from(Args args) {
+        return new DatasetShape(
+            args.getLong("payments", 1_000_000),
+            args.getInt("merchants", 10_000),
+            args.getDouble("merchant-skew", 1.1),
+            args.getInt("customers", 1_000_000),
+            args.getDouble("customer-skew", 0.8),
+            args.get("status-mix", DEFAULT_STATUS_MIX),
+            args.get("currency-mix", DEFAULT_CURRENCY_MIX),
+            args.get("method-mix", DEFAULT_METHOD_MIX),
+            args.get("metadata-mix", DEFAULT_METADATA_MIX),
+            args.getInt("days", 365),
+            LocalDateTime.parse(args.get("end", "2026-01-01T00:00:00")),
+            args.getLong("seed", 42)
+        );
+    }
+
+    WeightedChoice<PaymentStatus> statuses() {
+        return WeightedChoice.parse(statusMix, PaymentStatus::valueOf);
+    }
+
+    WeightedChoice<Currency> currencies() {
+        return WeightedChoice.parse(currencyMix, Currency::valueOf);
+    }
+
+    public WeightedChoice<String> methods() {
+        return WeightedChoice.parse(methodMix, method -> method);
+    }
+
+    WeightedChoice<MetadataShape> metadata() {
+        return WeightedChoice.parse(metadataMix, shape -> MetadataShape.valueOf(shape.toUpperCase()));
+    }
+
+    /**
+     * Settlement currency of each merchant, indexed by rank; a merchant settles in one currency
+     */
+    public Currency[] merchantCurrencies() {
+        WeightedChoice<Currency> currencies = currencies();
+        SplittableRandom random = new SplittableRandom(seed);
+        Currency[] byRank = new Currency[merchants + 1];
+        for (int rank = 1; rank <= merchants; rank++) {
+            byRank[rank] = currencies.pick(random);
+        }
+        return byRank;
+    }
+
+    /**
+     * Log-normal amounts around 50 major units, scaled for low-value currencies
+     */
+    public static long amountMinor(SplittableRandom random, Currency currency) {
+        double scale = switch (currency) {
+            case JPY -> 150;
+            case IDR -> 15_000;
+            default -> 1;
+        };
+        double major = Math.exp(Math.log(50) + 1.2 * random.nextGaussian()) * scale;
+        long minor = Math.round(major * Math.pow(10, currency.getFractionDigits()));
+        return Math.max(1, minor);
+    }
+
+    public static String merchantId(int rank) {
+        return String.format("merchant-%06d", rank);
+    }
+
+    public static String customerId(int rank) {
+        return String.format("customer-%07d", rank);
+    }
+
+    /**
+     * JSONB metadata variants: absent, a couple of flat keys, or a nested document
+     * with an array (what GIN indexing and TOAST have to deal with)
+     */
+    enum MetadataShape {
+        NONE,
+        SMALL,
+        LARGE
+    }
+}
@@ -0,0 +1,385 @@
+package com.payment.benchmarks.dataset;
+
+import com.payment.benchmarks.dataset.DatasetShape.MetadataShape;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills payments and payment_events with a synthetic, repeatable dataset
+ *
+ * java -cp payment-benchmarks/target/benchmarks.jar com.payment.benchmarks.dataset.PaymentDatasetGenerator \
+ *     --payments=50000000 --merchants=20000 --merchant-skew=1.1 --threads=8 --truncate --defer-indexes
+ *
+ * Rows are produced in fixed-size chunks, each from its own seeded random stream, so the
+ * same options give the same rows whatever the thread count. Every worker has its own
+ * connection and loads a chunk with two COPY statements (payments, then their events) in
+ * one transaction. --defer-indexes drops the secondary indexes first and rebuilds them
+ * in parallel afterwards, which is much faster than maintaining them row by row.
+ *
+ * Shape options: see {@link DatasetShape}. Connection: --url, --user, --password.
+ */
+public final class PaymentDatasetGenerator {
+
+    private static final String COPY_PAYMENTS_SQL =
+        "COPY payments (payment_id, idempotency_key, status, amount, currency, merchant_id, customer_id, " +
+        "payment_method, description, metadata, failure_reason, created_at, updated_at, completed_at, version) " +
+        "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String COPY_EVENTS_SQL =
+        "COPY payment_events (event_id, payment_id, event_type, previous_status, new_status, event_data, " +
+        "event_timestamp) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String SECONDARY_INDEXES_SQL =
+        "SELECT i.indexname, i.indexdef FROM pg_indexes i " +
+        "WHERE i.schemaname = current_schema() AND i.tablename IN ('payments', 'payment_events') " +
+        "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conname = i.indexname)";
+
+    private static final int FLUSH_THRESHOLD = 256 * 1024;
+
+    private final DatasetShape shape;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int threads;
+    private final int chunkSize;
+
+    private final ZipfSampler merchantSampler;
+    private final ZipfSampler customerSampler;
+    private final WeightedChoice<PaymentStatus> statuses;
+    private final WeightedChoice<String> methods;
+    private final WeightedChoice<MetadataShape> metadata;
+    private final Currency[] merchantCurrency;
+    private final long endMillis;
+    private final long spreadMillis;
+
+    private final AtomicLong paymentsLoaded = new AtomicLong();
+    private final AtomicLong eventsLoaded = new AtomicLong();
+
+    PaymentDatasetGenerator(DatasetShape shape, String url, String user, String password,
+                            int threads, int chunkSize) {
+        this.shape = shape;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.merchantSampler = new ZipfSampler(shape.merchants(), shape.merchantSkew());
+        this.customerSampler = new ZipfSampler(shape.customers(), shape.customerSkew());
+        this.statuses = shape.statuses();
+        this.methods = shape.methods();
+        this.metadata = shape.metadata();
+        this.endMillis = shape.end().toInstant(ZoneOffset.UTC).toEpochMilli();
+        this.spreadMillis = shape.days() * 86_400_000L;
+        this.merchantCurrency = shape.merchantCurrencies();
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        DatasetShape shape = DatasetShape.from(args);
+        String url = args.get("url", "jdbc:postgresql://localhost:5432/payment_db");
+        String user = args.get("user", "payment_user");
+        String password = args.get("password", "payment_pass");
+        int threads = args.getInt("threads", Runtime.getRuntime().availableProcessors());
+        int chunkSize = args.getInt("chunk-size", 20_000);
+        boolean truncate = args.getBoolean("truncate");
+        boolean deferIndexes = args.getBoolean("defer-indexes");
+        args.rejectUnknown();
+
+        new PaymentDatasetGenerator(shape, url, user, password, threads, chunkSize).run(truncate, deferIndexes);
+    }
+
+    void run(boolean truncate, boolean deferIndexes) throws Exception {
+        List<String[]> droppedIndexes = List.of();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE payments CASCADE");
+            }
+            if (deferIndexes) {
+                droppedIndexes = secondaryIndexes(statement);
+                for (String[] index : droppedIndexes) {
+                    // printed so a failed run can be repaired by hand
+                    System.out.printf("dropping %s: %s%n", index[0], index[1]);
+                    statement.execute("DROP INDEX " + index[0]);
+                }
+            }
+            connection.commit();
+        }
+
+        long chunks = (shape.payments() + chunkSize - 1) / chunkSize;
+        AtomicLong nextChunk = new AtomicLong();
+        long started = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(workers.submit(() -> {
+                    try (Connection connection = connect()) {
+                        long chunk;
+                        while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                            loadChunk(connection, chunk);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            while (!allDone(futures)) {
+                Thread.sleep(5000);
+                report(started);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            report(started);
+
+            if (!droppedIndexes.isEmpty()) {
+                rebuildIndexes(workers, droppedIndexes);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute("ANALYZE payments");
+            statement.execute("ANALYZE payment_events");
+        }
+        System.out.printf("done in %d s%n", (System.nanoTime() - started) / 1_000_000_000L);
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        return futures.stream().allMatch(Future::isDone);
+    }
+
+    private void report(long started) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - started) / 1e9);
+        long payments = paymentsLoaded.get();
+        System.out.printf("%,d / %,d payments, %,d events, %,.0f payments/s%n",
+            payments, shape.payments(), eventsLoaded.get(), payments / seconds);
+    }
+
+    private List<String[]> secondaryIndexes(Statement statement) throws SQLException {
+        List<String[]> indexes = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(SECONDARY_INDEXES_SQL)) {
+            while (rs.next()) {
+                indexes.add(new String[] {rs.getString(1), rs.getString(2)});
+            }
+        }
+        return indexes;
+    }
+
+    private void rebuildIndexes(ExecutorService workers, List<String[]> indexes) throws Exception {
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (String[] index : indexes) {
+            futures.add(workers.submit(() -> {
+                try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                    connection.setAutoCommit(true);
+                    statement.execute(index[1]);
+                }
+                System.out.printf("rebuilt %s%n", index[0]);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        System.out.printf("%d indexes rebuilt in %d s%n", indexes.size(),
+            (System.nanoTime() - started) / 1_000_000_000L);
+    }
+
+    private void loadChunk(Connection connection, long chunk) throws SQLException {
+        long first = chunk * chunkSize;
+        int rows = (int) Math.min(chunkSize, shape.payments() - first);
+        // one stream per chunk: the data does not depend on the thread count
+        SplittableRandom random = new SplittableRandom(shape.seed() * 0x9E3779B97F4A7C15L + chunk);
+
+        StringBuilder payments = new StringBuilder(FLUSH_THRESHOLD + 4096);
+        StringBuilder events = new StringBuilder(rows * 4 * 160);
+        int eventCount = 0;
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_PAYMENTS_SQL);
+        try {
+            for (int i = 0; i < rows; i++) {
+                eventCount += appendPayment(payments, events, random, first + i);
+                if (payments.length() >= FLUSH_THRESHOLD) {
+                    write(copyIn, payments);
+                }
+            }
+            write(copyIn, payments);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_EVENTS_SQL);
+        try {
+            write(copyIn, events);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        connection.commit();
+        paymentsLoaded.addAndGet(rows);
+        eventsLoaded.addAndGet(eventCount);
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * @return number of event rows appended
+     */
+    private int appendPayment(StringBuilder payments, StringBuilder events, SplittableRandom random, long row) {
+        int merchantRank = merchantSampler.sample(random);
+        int customerRank = customerSampler.sample(random);
+        PaymentStatus status = statuses.pick(random);
+        Currency currency = merchantCurrency[merchantRank];
+        Money amount = Money.of(DatasetShape.amountMinor(random, currency), currency);
+        String paymentId = uuid(random).toString();
+
+        long createdMillis = endMillis - random.nextLong(spreadMillis);
+        // lifecycle: created -> processing -> final, refunds hours or days later
+        List<String[]> lifecycle = lifecycle(status);
+        long[] timestamps = new long[lifecycle.size()];
+        long at = createdMillis;
+        for (int i = 0; i < timestamps.length; i++) {
+            if (i > 0) {
+                at += "PAYMENT_REFUNDED".equals(lifecycle.get(i)[0])
+                    ? 3_600_000L + random.nextLong(7 * 86_400_000L)
+                    : 50 + random.nextLong(2_000);
+            }
+            timestamps[i] = at;
+        }
+        long updatedMillis = timestamps[timestamps.length - 1];
+
+        payments.append(paymentId).append(',');
+        payments.append("gen-").append(shape.seed()).append('-').append(row).append(',');
+        payments.append(status.name()).append(',');
+        amount.appendTo(payments).append(',');
+        payments.append(currency.name()).append(',');
+        payments.append(DatasetShape.merchantId(merchantRank)).append(',');
+        payments.append(DatasetShape.customerId(customerRank)).append(',');
+        payments.append(methods.pick(random)).append(',');
+        payments.append("\"Order #").append(row).append("\",");
+        appendMetadata(payments, metadata.pick(random), random, row);
+        payments.append(',');
+        if (status == PaymentStatus.FAILED) {
+            payments.append("Payment processing failed");
+        }
+        payments.append(',');
+        appendTimestamp(payments, createdMillis).append(',');
+        appendTimestamp(payments, updatedMillis).append(',');
+        if (status.isTerminal()) {
+            appendTimestamp(payments, updatedMillis);
+        }
+        payments.append(',').append(lifecycle.size() - 1).append('\n');
+
+        for (int i = 0; i < lifecycle.size(); i++) {
+            String[] event = lifecycle.get(i);
+            events.append(uuid(random)).append(',');
+            events.append(paymentId).append(',');
+            events.append(event[0]).append(',');
+            events.append(event[1] == null ? "" : event[1]).append(',');
+            events.append(event[2]).append(',');
+            events.append("\"{}\",");
+            appendTimestamp(events, timestamps[i]).append('\n');
+        }
+        return lifecycle.size();
+    }
+
+    /**
+     * Event rows (type, previous status, new status) the service would have written
+     */
+    private static List<String[]> lifecycle(PaymentStatus status) {
+        List<String[]> events = new ArrayList<>(4);
+        events.add(new String[] {"PAYMENT_CREATED", null, "PENDING"});
+        switch (status) {
+            case PENDING -> {
+            }
+            case CANCELLED -> events.add(new String[] {"STATUS_CHANGED", "PENDING", "CANCELLED"});
+            default -> {
+                events.add(new String[] {"STATUS_CHANGED", "PENDING", "PROCESSING"});
+                if (status == PaymentStatus.FAILED) {
+                    events.add(new String[] {"STATUS_CHANGED", "PROCESSING", "FAILED"});
+                } else if (status != PaymentStatus.PROCESSING) {
+                    events.add(new String[] {"STATUS_CHANGED", "PROCESSING", "COMPLETED"});
+                }
+                if (status == PaymentStatus.REFUNDED) {
+                    events.add(new String[] {"PAYMENT_REFUNDED", "COMPLETED", "REFUNDED"});
+                }
+            }
+        }
+        return events;
+    }
+
+    private static void appendMetadata(StringBuilder out, MetadataShape shape, SplittableRandom random, long row) {
+        switch (shape) {
+            case NONE -> {
+            }
+            case SMALL -> out.append("\"{\"\"orderId\"\": \"\"").append(row)
+                .append("\"\", \"\"channel\"\": \"\"").append(random.nextBoolean() ? "web" : "app").append("\"\"}\"");
+            case LARGE -> {
+                out.append("\"{\"\"orderId\"\": \"\"").append(row).append("\"\", \"\"channel\"\": \"\"web\"\", ")
+                    .append("\"\"customer\"\": {\"\"tier\"\": \"\"").append(random.nextInt(4))
+                    .append("\"\", \"\"country\"\": \"\"").append(random.nextBoolean() ? "ID" : "SG").append("\"\"}, ")
+                    .append("\"\"items\"\": [");
+                int items = 1 + random.nextInt(8);
+                for (int i = 0; i < items; i++) {
+                    if (i > 0) {
+                        out.append(", ");
+                    }
+                    out.append("{\"\"sku\"\": \"\"SKU-").append(random.nextInt(100_000))
+                        .append("\"\", \"\"qty\"\": ").append(1 + random.nextInt(5)).append('}');
+                }
+                out.append("]}\"");
+            }
+        }
+    }
+
+    private static StringBuilder appendTimestamp(StringBuilder out, long epochMillis) {
+        return out.append(LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+            (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC));
+    }
+
+    private static UUID uuid(SplittableRandom random) {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
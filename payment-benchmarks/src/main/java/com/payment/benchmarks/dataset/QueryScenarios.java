@@ -0,0 +1,338 @@
+package com.payment.benchmarks.dataset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repeatable timing of every PaymentRepository / PaymentEventRepository query and the
+ * list endpoint against a dataset from {@link PaymentDatasetGenerator}
+ *
+ * java -cp payment-benchmarks/target/benchmarks.jar com.payment.benchmarks.dataset.QueryScenarios \
+ *     --label=$(git rev-parse --short HEAD) --api-url=http://localhost:8080 --explain
+ *
+ * Pass the same shape options (--payments, --merchants, --seed, ...) as the generator so
+ * hot, median and tail merchants and customers are picked consistently. The SQL is what
+ * Hibernate issues for each repository method, including the count query behind every
+ * Page. Results go to jmh-results/&lt;label&gt;-queries.json in JMH's JSON layout (score is
+ * the median in ms), so BenchmarkDiff compares two runs; --explain also writes
+ * EXPLAIN (ANALYZE, BUFFERS) plans next to it.
+ */
+public final class QueryScenarios {
+
+    private static final String PAYMENT_COLUMNS =
+        "SELECT payment_id, idempotency_key, status, amount, currency, merchant_id, customer_id, payment_method, " +
+        "description, metadata, failure_reason, created_at, updated_at, completed_at, version FROM payments ";
+
+    private static final String EVENT_COLUMNS =
+        "SELECT event_id, payment_id, event_type, previous_status, new_status, event_data, event_timestamp " +
+        "FROM payment_events ";
+
+    private static final String PAGE = " OFFSET ? ROWS FETCH FIRST ? ROWS ONLY";
+    private static final int PAGE_SIZE = 20;
+
+    private static final Path RESULTS_DIR = Path.of("jmh-results");
+
+    /**
+     * One timed SQL statement; FOR UPDATE statements are rolled back after each run
+     */
+    record Query(String sql, Object... params) {
+    }
+
+    record Scenario(String name, String variant, List<Query> queries) {
+    }
+
+    private QueryScenarios() {
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        DatasetShape shape = DatasetShape.from(args);
+        String url = args.get("url", "jdbc:postgresql://localhost:5432/payment_db");
+        String user = args.get("user", "payment_user");
+        String password = args.get("password", "payment_pass");
+        String apiUrl = args.get("api-url", null);
+        String label = args.get("label", "queries");
+        int warmup = args.getInt("warmup", 5);
+        int runs = args.getInt("runs", 30);
+        boolean explain = args.getBoolean("explain");
+        args.rejectUnknown();
+
+        Files.createDirectories(RESULTS_DIR);
+        List<Map<String, Object>> results = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            List<Scenario> scenarios = scenarios(connection, shape);
+            try (PrintWriter plans = explain
+                    ? new PrintWriter(Files.newBufferedWriter(RESULTS_DIR.resolve(label + "-explain.txt")))
+                    : null) {
+                for (Scenario scenario : scenarios) {
+                    long[] rows = new long[1];
+                    double[] millis = time(warmup, runs, () -> rows[0] = run(connection, scenario));
+                    results.add(result("queries." + scenario.name(), scenario.variant(), millis, rows[0]));
+                    print(scenario.name() + " " + scenario.variant(), millis, rows[0]);
+                    if (plans != null) {
+                        explain(connection, scenario, plans);
+                    }
+                }
+            }
+        }
+
+        if (apiUrl != null) {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            for (Map.Entry<String, String> endpoint : endpoints(apiUrl, shape).entrySet()) {
+                long[] bytes = new long[1];
+                double[] millis = time(warmup, runs, () -> bytes[0] = get(client, endpoint.getValue()));
+                results.add(result("endpoints.listPayments", endpoint.getKey(), millis, bytes[0]));
+                print("GET " + endpoint.getValue(), millis, bytes[0]);
+            }
+        }
+
+        Path out = RESULTS_DIR.resolve(label + "-queries.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), results);
+        System.out.println("results: " + out);
+    }
+
+    private static List<Scenario> scenarios(Connection connection, DatasetShape shape) throws SQLException {
+        String hot = DatasetShape.merchantId(1);
+        String median = DatasetShape.merchantId(Math.max(1, shape.merchants() / 2));
+        String tail = DatasetShape.merchantId(shape.merchants());
+        String hotCustomer = DatasetShape.customerId(1);
+        String tailCustomer = DatasetShape.customerId(shape.customers());
+        String idempotencyKey = "gen-" + shape.seed() + "-" + shape.payments() / 2;
+        String paymentId = paymentId(connection, idempotencyKey);
+        LocalDateTime end = shape.end();
+
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("findByIdempotencyKey", "hit", List.of(
+            new Query(PAYMENT_COLUMNS + "WHERE idempotency_key = ?", idempotencyKey))));
+        scenarios.add(new Scenario("existsByIdempotencyKey", "miss", List.of(
+            new Query("SELECT payment_id FROM payments WHERE idempotency_key = ? FETCH FIRST 1 ROWS ONLY",
+                "missing-key"))));
+        scenarios.add(new Scenario("findById", "hit", List.of(
+            new Query(PAYMENT_COLUMNS + "WHERE payment_id = ?", paymentId))));
+        scenarios.add(new Scenario("findByIdForUpdate", "hit", List.of(
+            new Query(PAYMENT_COLUMNS + "WHERE payment_id = ? FOR NO KEY UPDATE", paymentId))));
+
+        for (String[] merchant : List.of(new String[] {"hot", hot}, new String[] {"median", median},
+                new String[] {"tail", tail})) {
+            scenarios.add(new Scenario("findByMerchantId", merchant[0], List.of(
+                new Query(PAYMENT_COLUMNS + "WHERE merchant_id = ?" + PAGE, merchant[1], 0, PAGE_SIZE),
+                new Query("SELECT count(payment_id) FROM payments WHERE merchant_id = ?", merchant[1]))));
+            scenarios.add(new Scenario("findByMerchantIdSortedByCreatedAt", merchant[0], List.of(
+                new Query(PAYMENT_COLUMNS + "WHERE merchant_id = ? ORDER BY created_at DESC" + PAGE,
+                    merchant[1], 0, PAGE_SIZE),
+                new Query("SELECT count(payment_id) FROM payments WHERE merchant_id = ?", merchant[1]))));
+        }
+        scenarios.add(new Scenario("findByMerchantId", "hot-page-500", List.of(
+            new Query(PAYMENT_COLUMNS + "WHERE merchant_id = ? ORDER BY created_at DESC" + PAGE,
+                hot, 500 * PAGE_SIZE, PAGE_SIZE))));
+
+        for (String[] customer : List.of(new String[] {"hot", hotCustomer}, new String[] {"tail", tailCustomer})) {
+            scenarios.add(new Scenario("findByCustomerId", customer[0], List.of(
+                new Query(PAYMENT_COLUMNS + "WHERE customer_id = ?" + PAGE, customer[1], 0, PAGE_SIZE),
+                new Query("SELECT count(payment_id) FROM payments WHERE customer_id = ?", customer[1]))));
+        }
+        for (String status : List.of("PENDING", "COMPLETED")) {
+            scenarios.add(new Scenario("findByStatus", status, List.of(
+                new Query(PAYMENT_COLUMNS + "WHERE status = ?" + PAGE, status, 0, PAGE_SIZE),
+                new Query("SELECT count(payment_id) FROM payments WHERE status = ?", status))));
+        }
+        scenarios.add(new Scenario("findByMerchantIdAndStatus", "hot-COMPLETED", List.of(
+            new Query(PAYMENT_COLUMNS + "WHERE merchant_id = ? AND status = ?" + PAGE, hot, "COMPLETED", 0, PAGE_SIZE),
+            new Query("SELECT count(payment_id) FROM payments WHERE merchant_id = ? AND status = ?",
+                hot, "COMPLETED"))));
+        for (int days : new int[] {1, 30}) {
+            scenarios.add(new Scenario("findByMerchantAndDateRange", "hot-" + days + "d", List.of(
+                new Query(PAYMENT_COLUMNS + "WHERE merchant_id = ? AND created_at BETWEEN ? AND ? " +
+                    "ORDER BY created_at DESC" + PAGE, hot, end.minusDays(days), end, 0, PAGE_SIZE),
+                new Query("SELECT count(payment_id) FROM payments WHERE merchant_id = ? AND created_at BETWEEN ? AND ?",
+                    hot, end.minusDays(days), end))));
+        }
+        scenarios.add(new Scenario("countByMerchantAndStatus", "hot-COMPLETED", List.of(
+            new Query("SELECT count(payment_id) FROM payments WHERE merchant_id = ? AND status = ?",
+                hot, "COMPLETED"))));
+
+        scenarios.add(new Scenario("findByPaymentIdOrderByEventTimestampAsc", "hit", List.of(
+            new Query(EVENT_COLUMNS + "WHERE payment_id = ? ORDER BY event_timestamp", paymentId))));
+        scenarios.add(new Scenario("findByEventTimestampBetween", "1h", List.of(
+            new Query(EVENT_COLUMNS + "WHERE event_timestamp BETWEEN ? AND ?" + PAGE,
+                end.minusHours(1), end, 0, PAGE_SIZE),
+            new Query("SELECT count(event_id) FROM payment_events WHERE event_timestamp BETWEEN ? AND ?",
+                end.minusHours(1), end))));
+        scenarios.add(new Scenario("findTransitionsSince", "10m", List.of(
+            new Query("SELECT payment_id, new_status FROM payment_events WHERE event_timestamp >= ?",
+                end.minusMinutes(10)))));
+
+        scenarios.add(new Scenario("scanForReport", "hot-30d", List.of(
+            new Query("SELECT merchant_id, currency, status, (amount * 100)::bigint, " +
+                "(EXTRACT(EPOCH FROM created_at) * 1000)::bigint FROM payments " +
+                "WHERE created_at >= ? AND created_at < ? AND merchant_id = ?", end.minusDays(30), end, hot))));
+        scenarios.add(new Scenario("merchantTotals", "all", List.of(
+            new Query("SELECT merchant_id, currency, status, COUNT(*), SUM((amount * 100)::bigint) " +
+                "FROM payments GROUP BY merchant_id, currency, status"))));
+        return scenarios;
+    }
+
+    private static Map<String, String> endpoints(String apiUrl, DatasetShape shape) {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        String base = apiUrl + "/api/v1/payments?size=" + PAGE_SIZE + "&merchantId=";
+        endpoints.put("hot", base + DatasetShape.merchantId(1));
+        endpoints.put("median", base + DatasetShape.merchantId(Math.max(1, shape.merchants() / 2)));
+        endpoints.put("tail", base + DatasetShape.merchantId(shape.merchants()));
+        endpoints.put("hot-sorted", base + DatasetShape.merchantId(1) + "&sort=createdAt,desc");
+        return endpoints;
+    }
+
+    private static String paymentId(Connection connection, String idempotencyKey) throws SQLException {
+        try (PreparedStatement statement =
+                 connection.prepareStatement("SELECT payment_id FROM payments WHERE idempotency_key = ?")) {
+            statement.setString(1, idempotencyKey);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("No payment with idempotency key " + idempotencyKey +
+                        ", were the shape options the same as for the generator?");
+                }
+                return rs.getString(1);
+            }
+        } finally {
+            connection.rollback();
+        }
+    }
+
+    /**
+     * @return rows read by the first statement
+     */
+    private static long run(Connection connection, Scenario scenario) throws SQLException {
+        long rows = -1;
+        try {
+            for (Query query : scenario.queries()) {
+                try (PreparedStatement statement = prepare(connection, query.sql(), query.params());
+                     ResultSet rs = statement.executeQuery()) {
+                    long read = 0;
+                    while (rs.next()) {
+                        read++;
+                    }
+                    if (rows < 0) {
+                        rows = read;
+                    }
+                }
+            }
+        } finally {
+            connection.rollback();
+        }
+        return rows;
+    }
+
+    private static void explain(Connection connection, Scenario scenario, PrintWriter out) throws SQLException {
+        for (Query query : scenario.queries()) {
+            out.printf("== %s %s%n%s%n%s%n", scenario.name(), scenario.variant(), query.sql(),
+                Arrays.toString(query.params()));
+            try (PreparedStatement statement =
+                     prepare(connection, "EXPLAIN (ANALYZE, BUFFERS) " + query.sql(), query.params());
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    out.println(rs.getString(1));
+                }
+            } finally {
+                connection.rollback();
+            }
+            out.println();
+        }
+        out.flush();
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object[] params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement;
+    }
+
+    private static long get(HttpClient client, String uri) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    @FunctionalInterface
+    private interface Timed {
+        void run() throws Exception;
+    }
+
+    /**
+     * @return sorted wall-clock times in ms of the measured runs
+     */
+    private static double[] time(int warmup, int runs, Timed timed) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            timed.run();
+        }
+        double[] millis = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            timed.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static void print(String name, double[] millis, long size) {
+        System.out.printf("%-70s p50 %9.3f ms  p95 %9.3f ms  max %9.3f ms  (%d)%n", name,
+            percentile(millis, 50), percentile(millis, 95), millis[millis.length - 1], size);
+    }
+
+    /**
+     * One entry in JMH's JSON result layout
+     */
+    private static Map<String, Object> result(String benchmark, String variant, double[] millis, long size) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("50.0", percentile(millis, 50));
+        percentiles.put("95.0", percentile(millis, 95));
+        percentiles.put("99.0", percentile(millis, 99));
+        percentiles.put("100.0", millis[millis.length - 1]);
+
+        Map<String, Object> primary = new LinkedHashMap<>();
+        primary.put("score", percentile(millis, 50));
+        primary.put("scoreUnit", "ms/op");
+        primary.put("scorePercentiles", percentiles);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", benchmark);
+        result.put("mode", "sample");
+        result.put("measurementIterations", millis.length);
+        result.put("params", Map.of("case", variant));
+        result.put("primaryMetric", primary);
+        result.put("secondaryMetrics", Map.of("size", Map.of("score", size, "scoreUnit", "rows|bytes")));
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package com.payment.benchmarks.dataset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Pick one of a few values by relative weight, parsed from "A:70,B:20,C:10"
+ */
+public final class WeightedChoice<T> {
+
+    private final List<T> values;
+    private final double[] cumulative;
+
+    private WeightedChoice(List<T> values, double[] cumulative) {
+        this.values = values;
+        this.cumulative = cumulative;
+    }
+
+    public static <T> WeightedChoice<T> parse(String spec, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected value:weight, got '" + part + "' in " + spec);
+            }
+            values.add(parser.apply(pair[0].trim()));
+            weights.add(Double.parseDouble(pair[1].trim()));
+        }
+        double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must add up to more than 0: " + spec);
+        }
+        double[] cumulative = new double[weights.size()];
+        double running = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            running += weights.get(i) / total;
+            cumulative[i] = running;
+        }
+        cumulative[cumulative.length - 1] = 1.0;
+        return new WeightedChoice<>(values, cumulative);
+    }
+
+    public T pick(SplittableRandom random) {
+        return pick(random.nextDouble());
+    }
+
+    /**
+     * @param u uniform in [0, 1)
+     */
+    public T pick(double u) {
+        for (int i = 0; i < cumulative.length; i++) {
+            if (u < cumulative[i]) {
+                return values.get(i);
+            }
+        }
+        return values.get(values.size() - 1);
+    }
+}
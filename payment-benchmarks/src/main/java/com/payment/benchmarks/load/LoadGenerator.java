@@ -0,0 +1,173 @@
+package com.payment.benchmarks.load;
+
+import com.payment.benchmarks.dataset.Args;
+import com.payment.benchmarks.dataset.DatasetShape;
+import com.payment.benchmarks.dataset.WeightedChoice;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the payment API
+ *
+ * java -cp payment-benchmarks/target/benchmarks.jar com.payment.benchmarks.load.LoadGenerator \
+ *     --api-url=http://localhost:8080 --rates=50,100,200,400,800 --label=$(git rev-parse --short HEAD)
+ *
+ * Requests start on a schedule (Poisson or evenly spaced arrivals at each rate) whether or not
+ * earlier ones have returned, the way independent clients behave, and latency is measured from
+ * each scheduled start. The rate steps up until p99 passes --slo-p99-ms or more than 1% of
+ * requests fail, which gives the throughput / latency curve up to the knee. Each step is
+ * preceded by an unrecorded warmup at the same rate. Pass the dataset shape options
+ * (--merchants, --merchant-skew, --seed, ...) to send traffic to the generated merchants.
+ * Run the service with the standin profile to take Redis, Kafka and the gateway out of the picture.
+ */
+public final class LoadGenerator {
+
+    private static final Path RESULTS_DIR = Path.of("jmh-results");
+
+    private final HttpClient client;
+    private final PaymentTraffic traffic;
+    private final WeightedChoice<Operation> mix;
+    private final boolean poisson;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LoadGenerator(HttpClient client, PaymentTraffic traffic, WeightedChoice<Operation> mix,
+                          boolean poisson, int maxInFlight, long seed) {
+        this.client = client;
+        this.traffic = traffic;
+        this.mix = mix;
+        this.poisson = poisson;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        DatasetShape shape = DatasetShape.from(args);
+        String apiUrl = args.get("api-url", "http://localhost:8080");
+        double[] rates = Arrays.stream(args.get("rates", "50,100,200,400,800").split(","))
+            .mapToDouble(rate -> Double.parseDouble(rate.trim())).toArray();
+        int warmupSeconds = args.getInt("warmup-seconds", 10);
+        int stepSeconds = args.getInt("step-seconds", 60);
+        WeightedChoice<Operation> mix = WeightedChoice.parse(
+            args.get("mix", "CREATE:60,GET:30,REFUND:10"), Operation::valueOf);
+        String arrivals = args.get("arrivals", "poisson");
+        Duration timeout = Duration.ofMillis(args.getLong("timeout-ms", 10_000));
+        int maxInFlight = args.getInt("max-in-flight", 10_000);
+        int recentPayments = args.getInt("recent-payments", 10_000);
+        double sloP99Millis = args.getDouble("slo-p99-ms", 500);
+        boolean continueAfterSaturation = args.getBoolean("continue-after-saturation");
+        String label = args.get("label", "load");
+        args.rejectUnknown();
+        if (!arrivals.equals("poisson") && !arrivals.equals("uniform")) {
+            throw new IllegalArgumentException("--arrivals must be poisson or uniform");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        String runId = label + "-" + Long.toString(System.currentTimeMillis(), 36);
+        PaymentTraffic traffic = new PaymentTraffic(apiUrl, timeout, runId, shape, recentPayments);
+        LoadGenerator generator = new LoadGenerator(client, traffic, mix, arrivals.equals("poisson"),
+            maxInFlight, shape.seed());
+
+        List<StepResult> steps = new ArrayList<>();
+        LoadReport.printHeader();
+        for (double rate : rates) {
+            generator.drive(rate, warmupSeconds);
+            StepStats stats = generator.drive(rate, stepSeconds);
+            generator.awaitIdle(timeout.plusSeconds(1));
+            StepResult step = stats.finish(rate, stepSeconds);
+            steps.add(step);
+            LoadReport.print(step, sloP99Millis);
+            if (step.saturated(sloP99Millis) && !continueAfterSaturation) {
+                break;
+            }
+        }
+        LoadReport.write(RESULTS_DIR, label, steps, sloP99Millis);
+        System.exit(0);
+    }
+
+    /**
+     * Issue requests at the given rate for the given time; completions land in the returned stats
+     */
+    private StepStats drive(double rate, int seconds) {
+        StepStats stats = new StepStats();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        double offset = 0;
+        while (offset < durationNanos) {
+            long intended = start + (long) offset;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            issue(stats, intended);
+            offset += poisson ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+        }
+        return stats;
+    }
+
+    private void issue(StepStats stats, long intended) {
+        Operation operation = mix.pick(random);
+        PaymentTraffic.Call call = traffic.next(operation, random);
+        if (call == null) {
+            stats.unavailable(operation);
+            return;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            stats.dropped(operation);
+            return;
+        }
+        long sent = System.nanoTime();
+        stats.sent(operation, intended, sent);
+        client.sendAsync(call.request(), HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                long end = System.nanoTime();
+                try {
+                    String failure;
+                    if (error != null) {
+                        failure = failureName(error);
+                    } else {
+                        traffic.onResponse(call, response.statusCode(), response.body());
+                        failure = response.statusCode() / 100 == 2 ? null : "http-" + response.statusCode();
+                    }
+                    stats.completed(operation, intended, sent, end, failure);
+                } catch (Exception e) {
+                    stats.completed(operation, intended, sent, end, e.getClass().getSimpleName());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+    }
+
+    private void awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String failureName(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? "timeout" : cause.getClass().getSimpleName();
+    }
+}
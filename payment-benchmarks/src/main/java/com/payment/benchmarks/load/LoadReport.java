@@ -0,0 +1,138 @@
+package com.payment.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Console table and result files of a load run
+ *
+ * - &lt;label&gt;-load.csv: the throughput / latency curve, one row per step and operation
+ * - &lt;label&gt;-load.json: JMH's JSON layout (score is the corrected p99 in ms), for BenchmarkDiff
+ * - &lt;label&gt;-load/&lt;rate&gt;-&lt;operation&gt;.hgrm: full percentile distributions, in ms,
+ *   for the HdrHistogram plotter
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private LoadReport() {
+    }
+
+    static void printHeader() {
+        System.out.printf("%8s %-7s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n", "rate", "op", "sent", "ok/s",
+            "err%", "p50", "p90", "p99", "p99.9", "max", "svc p99");
+    }
+
+    static void print(StepResult step, double sloP99Millis) {
+        for (Map.Entry<String, StepResult.OperationResult> row : rows(step).entrySet()) {
+            StepResult.OperationResult result = row.getValue();
+            System.out.printf(Locale.ROOT, "%8.0f %-7s %9d %9.1f %6.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                step.rate(), row.getKey(), result.sent(), result.ok() / step.seconds(), result.errorRatio() * 100,
+                result.millis(50), result.millis(90), result.millis(99), result.millis(99.9), result.millis(100),
+                result.serviceMillis(99));
+        }
+        StepResult.OperationResult total = step.total();
+        if (!total.failures().isEmpty() || total.dropped() > 0 || total.unavailable() > 0) {
+            System.out.printf("         failures %s, dropped %d, skipped (no payment to target) %d%n",
+                total.failures(), total.dropped(), total.unavailable());
+        }
+        if (step.saturated(sloP99Millis)) {
+            System.out.printf(Locale.ROOT, "         saturated: p99 %.2f ms (objective %.0f ms), errors %.2f%%%n",
+                step.total().millis(99), sloP99Millis, step.total().errorRatio() * 100);
+        }
+        System.out.printf(Locale.ROOT, "         generator lag max %.2f ms%n", step.maxLagMicros() / 1000.0);
+    }
+
+    static void write(Path dir, String label, List<StepResult> steps, double sloP99Millis) throws IOException {
+        Files.createDirectories(dir);
+        Path curve = dir.resolve(label + "-load.csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(curve))) {
+            out.println("rate,operation,sent,ok_per_s,error_ratio,p50_ms,p90_ms,p99_ms,p999_ms,max_ms," +
+                "service_p99_ms,generator_lag_ms,saturated");
+            for (StepResult step : steps) {
+                for (Map.Entry<String, StepResult.OperationResult> row : rows(step).entrySet()) {
+                    StepResult.OperationResult result = row.getValue();
+                    out.printf(Locale.ROOT, "%.0f,%s,%d,%.2f,%.5f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%b%n",
+                        step.rate(), row.getKey(), result.sent(), result.ok() / step.seconds(), result.errorRatio(),
+                        result.millis(50), result.millis(90), result.millis(99), result.millis(99.9),
+                        result.millis(100), result.serviceMillis(99), step.maxLagMicros() / 1000.0,
+                        step.saturated(sloP99Millis));
+                }
+            }
+        }
+
+        Path histograms = dir.resolve(label + "-load");
+        Files.createDirectories(histograms);
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (StepResult step : steps) {
+            for (Map.Entry<String, StepResult.OperationResult> row : rows(step).entrySet()) {
+                StepResult.OperationResult result = row.getValue();
+                if (result.latency().getTotalCount() == 0) {
+                    continue;
+                }
+                Path file = histograms.resolve(String.format(Locale.ROOT, "%.0f-%s.hgrm", step.rate(), row.getKey()));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    result.latency().outputPercentileDistribution(out, 1000.0);
+                }
+                results.add(result(row.getKey(), step, result));
+            }
+        }
+        Path json = dir.resolve(label + "-load.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), results);
+        System.out.println("results: " + curve + ", " + json + ", " + histograms);
+    }
+
+    /**
+     * "all" first, then each operation that sent anything
+     */
+    private static Map<String, StepResult.OperationResult> rows(StepResult step) {
+        Map<String, StepResult.OperationResult> rows = new LinkedHashMap<>();
+        rows.put("all", step.total());
+        step.operations().forEach((operation, result) -> {
+            if (result.sent() + result.unavailable() + result.dropped() > 0) {
+                rows.put(operation.name().toLowerCase(Locale.ROOT), result);
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * One entry in JMH's JSON result layout
+     */
+    private static Map<String, Object> result(String operation, StepResult step, StepResult.OperationResult result) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put(String.valueOf(percentile), result.millis(percentile));
+        }
+
+        Map<String, Object> primary = new LinkedHashMap<>();
+        primary.put("score", result.millis(99));
+        primary.put("scoreUnit", "ms/op");
+        primary.put("scorePercentiles", percentiles);
+
+        Map<String, Object> secondary = new LinkedHashMap<>();
+        secondary.put("throughput", Map.of("score", result.ok() / step.seconds(), "scoreUnit", "ops/s"));
+        secondary.put("errorRatio", Map.of("score", result.errorRatio(), "scoreUnit", "ratio"));
+        secondary.put("serviceP99", Map.of("score", result.serviceMillis(99), "scoreUnit", "ms/op"));
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("benchmark", "load." + operation);
+        entry.put("mode", "sample");
+        entry.put("measurementIterations", 1);
+        entry.put("params", Map.of("rate", String.format(Locale.ROOT, "%.0f", step.rate())));
+        entry.put("primaryMetric", primary);
+        entry.put("secondaryMetrics", secondary);
+        return entry;
+    }
+}
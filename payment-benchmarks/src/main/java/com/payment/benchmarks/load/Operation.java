@@ -0,0 +1,10 @@
+package com.payment.benchmarks.load;
+
+/**
+ * Request kinds the load generator mixes
+ */
+enum Operation {
+    CREATE,
+    GET,
+    REFUND
+}
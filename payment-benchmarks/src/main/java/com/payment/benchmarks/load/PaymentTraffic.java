@@ -0,0 +1,149 @@
+package com.payment.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.payment.benchmarks.dataset.DatasetShape;
+import com.payment.benchmarks.dataset.WeightedChoice;
+import com.payment.benchmarks.dataset.ZipfSampler;
+import com.payment.common.enums.Currency;
+import com.payment.common.money.Money;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Requests for the load generator and the payments they leave behind
+ *
+ * Creates follow the dataset shape (Zipf merchants and customers, the merchant's currency,
+ * log-normal amounts). GETs pick one of the most recently created payments; refunds take
+ * payments a GET has seen COMPLETED, so they are not rejected for being in flight or declined.
+ * next is called from the issuing thread only, onResponse from any thread.
+ */
+final class PaymentTraffic {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_REFUNDABLE = 100_000;
+
+    /**
+     * A payment created during the run
+     */
+    record Tracked(String paymentId, AtomicBoolean refundQueued) {
+    }
+
+    /**
+     * One request to send; tracked is the payment it targets (null for creates)
+     */
+    record Call(Operation operation, HttpRequest request, Tracked tracked) {
+    }
+
+    private final String paymentsUrl;
+    private final Duration timeout;
+    private final String runId;
+    private final ZipfSampler merchants;
+    private final ZipfSampler customers;
+    private final Currency[] merchantCurrency;
+    private final WeightedChoice<String> methods;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicReferenceArray<Tracked> recent;
+    private final AtomicLong created = new AtomicLong();
+    private final ConcurrentLinkedQueue<Tracked> refundable = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger refundableCount = new AtomicInteger();
+
+    PaymentTraffic(String apiUrl, Duration timeout, String runId, DatasetShape shape, int recentPayments) {
+        this.paymentsUrl = apiUrl + "/api/v1/payments";
+        this.timeout = timeout;
+        this.runId = runId;
+        this.merchants = new ZipfSampler(shape.merchants(), shape.merchantSkew());
+        this.customers = new ZipfSampler(shape.customers(), shape.customerSkew());
+        this.merchantCurrency = shape.merchantCurrencies();
+        this.methods = shape.methods();
+        this.recent = new AtomicReferenceArray<>(recentPayments);
+    }
+
+    /**
+     * @return null when there is nothing to GET or refund yet
+     */
+    Call next(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case CREATE -> create(random);
+            case GET -> get(random);
+            case REFUND -> refund();
+        };
+    }
+
+    private Call create(SplittableRandom random) {
+        int rank = merchants.sample(random);
+        Currency currency = merchantCurrency[rank];
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("idempotencyKey", "load-" + runId + "-" + sequence.incrementAndGet());
+        body.put("amount", Money.of(DatasetShape.amountMinor(random, currency), currency).toBigDecimal());
+        body.put("currency", currency.name());
+        body.put("merchantId", DatasetShape.merchantId(rank));
+        body.put("customerId", DatasetShape.customerId(customers.sample(random)));
+        body.put("paymentMethod", methods.pick(random));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(paymentsUrl))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+        return new Call(Operation.CREATE, request, null);
+    }
+
+    private Call get(SplittableRandom random) {
+        long count = created.get();
+        if (count == 0) {
+            return null;
+        }
+        Tracked tracked = recent.get(random.nextInt((int) Math.min(count, recent.length())));
+        if (tracked == null) {
+            return null;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(paymentsUrl + "/" + tracked.paymentId()))
+            .timeout(timeout)
+            .GET()
+            .build();
+        return new Call(Operation.GET, request, tracked);
+    }
+
+    private Call refund() {
+        Tracked tracked = refundable.poll();
+        if (tracked == null) {
+            return null;
+        }
+        refundableCount.decrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(paymentsUrl + "/" + tracked.paymentId() + "/refund"))
+            .timeout(timeout)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        return new Call(Operation.REFUND, request, tracked);
+    }
+
+    /**
+     * Remember created payments and the ones that can be refunded
+     */
+    void onResponse(Call call, int status, byte[] body) throws IOException {
+        if (call.operation() == Operation.CREATE && status == 201) {
+            JsonNode payment = MAPPER.readTree(body);
+            long slot = created.getAndIncrement() % recent.length();
+            recent.set((int) slot, new Tracked(payment.path("paymentId").asText(), new AtomicBoolean()));
+        } else if (call.operation() == Operation.GET && status == 200) {
+            JsonNode payment = MAPPER.readTree(body);
+            if ("COMPLETED".equals(payment.path("status").asText())
+                    && refundableCount.get() < MAX_REFUNDABLE
+                    && call.tracked().refundQueued().compareAndSet(false, true)) {
+                refundableCount.incrementAndGet();
+                refundable.offer(call.tracked());
+            }
+        }
+    }
+}
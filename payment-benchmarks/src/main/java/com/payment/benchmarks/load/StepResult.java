@@ -0,0 +1,64 @@
+package com.payment.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Outcome of one arrival-rate step
+ *
+ * @param rate offered arrivals per second
+ * @param maxLagMicros how far the generator fell behind its schedule; large values mean
+ * the generator, not the service, limited the step
+ */
+record StepResult(
+    double rate,
+    double seconds,
+    long maxLagMicros,
+    Map<Operation, OperationResult> operations,
+    OperationResult total
+) {
+
+    /**
+     * @param latency corrected latency in microseconds (from the intended start)
+     * @param service service time in microseconds (from the actual send)
+     */
+    record OperationResult(
+        long sent,
+        long ok,
+        long unavailable,
+        long dropped,
+        Map<String, Long> failures,
+        Histogram latency,
+        Histogram service
+    ) {
+
+        long failed() {
+            return failures.values().stream().mapToLong(Long::longValue).sum() + dropped;
+        }
+
+        double errorRatio() {
+            long attempted = sent + dropped;
+            return attempted == 0 ? 0 : (double) failed() / attempted;
+        }
+
+        double millis(double percentile) {
+            return latency.getTotalCount() == 0 ? 0 : latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        double serviceMillis(double percentile) {
+            return service.getTotalCount() == 0 ? 0 : service.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    double throughput() {
+        return total.ok() / seconds;
+    }
+
+    /**
+     * Past the knee: p99 over the objective or more than 1% of requests failing
+     */
+    boolean saturated(double sloP99Millis) {
+        return total.millis(99) > sloP99Millis || total.errorRatio() > 0.01;
+    }
+}
@@ -0,0 +1,113 @@
+package com.payment.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the requests issued during one step
+ *
+ * Latency runs from the intended start of a request, not from when it was sent, so time a
+ * request spent waiting behind a slow one is counted (coordinated omission); service time
+ * runs from the actual send and shows what a closed-loop client would have reported.
+ * Values are recorded in microseconds.
+ */
+final class StepStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+
+    // written by the issuing thread only
+    private long maxLagNanos;
+
+    StepStats() {
+        for (Operation operation : Operation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+    }
+
+    void sent(Operation operation, long intendedNanos, long sentNanos) {
+        operations.get(operation).sent.increment();
+        maxLagNanos = Math.max(maxLagNanos, sentNanos - intendedNanos);
+    }
+
+    /**
+     * @param failure null for a 2xx response, otherwise http-&lt;status&gt;, timeout or the exception name
+     */
+    void completed(Operation operation, long intendedNanos, long sentNanos, long endNanos, String failure) {
+        OperationStats stats = operations.get(operation);
+        stats.latency.recordValue(Math.max(0, (endNanos - intendedNanos) / 1000));
+        stats.service.recordValue(Math.max(0, (endNanos - sentNanos) / 1000));
+        if (failure == null) {
+            stats.ok.increment();
+        } else {
+            stats.failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Nothing to GET or refund yet
+     */
+    void unavailable(Operation operation) {
+        operations.get(operation).unavailable.increment();
+    }
+
+    /**
+     * Not sent because --max-in-flight requests were outstanding
+     */
+    void dropped(Operation operation) {
+        operations.get(operation).dropped.increment();
+    }
+
+    /**
+     * Call once every request of the step has completed
+     */
+    StepResult finish(double rate, double seconds) {
+        Map<Operation, StepResult.OperationResult> results = new EnumMap<>(Operation.class);
+        Histogram allLatency = new Histogram(SIGNIFICANT_DIGITS);
+        Histogram allService = new Histogram(SIGNIFICANT_DIGITS);
+        long sent = 0;
+        long ok = 0;
+        long unavailable = 0;
+        long dropped = 0;
+        Map<String, Long> failures = new TreeMap<>();
+        for (Map.Entry<Operation, OperationStats> entry : operations.entrySet()) {
+            StepResult.OperationResult result = entry.getValue().finish();
+            results.put(entry.getKey(), result);
+            allLatency.add(result.latency());
+            allService.add(result.service());
+            sent += result.sent();
+            ok += result.ok();
+            unavailable += result.unavailable();
+            dropped += result.dropped();
+            result.failures().forEach((failure, count) -> failures.merge(failure, count, Long::sum));
+        }
+        StepResult.OperationResult total =
+            new StepResult.OperationResult(sent, ok, unavailable, dropped, failures, allLatency, allService);
+        return new StepResult(rate, seconds, maxLagNanos / 1000, results, total);
+    }
+
+    private static final class OperationStats {
+
+        private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder service = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder unavailable = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        StepResult.OperationResult finish() {
+            Map<String, Long> failed = new TreeMap<>();
+            failures.forEach((failure, count) -> failed.put(failure, count.sum()));
+            return new StepResult.OperationResult(sent.sum(), ok.sum(), unavailable.sum(), dropped.sum(), failed,
+                latency.getIntervalHistogram(), service.getIntervalHistogram());
+        }
+    }
+}
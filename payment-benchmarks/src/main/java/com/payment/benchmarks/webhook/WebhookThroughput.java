@@ -0,0 +1,245 @@
+package com.payment.benchmarks.webhook;
+
+import com.payment.benchmarks.dataset.Args;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+import com.payment.core.webhook.WebhookDispatcher;
+import com.payment.core.webhook.WebhookTarget;
+import com.payment.core.webhook.WebhookUrlPolicy;
+import com.payment.persistence.webhook.WebhookDelivery;
+import com.payment.persistence.webhook.WebhookDeliveryStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Webhook delivery throughput against an in-process stub receiver
+ *
+ * java -cp payment-benchmarks/target/benchmarks.jar com.payment.benchmarks.webhook.WebhookThroughput \
+ *     --rate=10000 --seconds=30 --merchants=20 --batch-size=50 --max-concurrency=2
+ *
+ * Deliveries are offered to a {@link WebhookDispatcher} on a fixed schedule (open model), spread
+ * over the merchants' payments, and POSTed over loopback to a com.sun.net.httpserver receiver on
+ * virtual threads. The receiver records now - occurredAt of every event it gets, so the latency
+ * covers queueing in the dispatcher, retries and the round trip. The store is in memory: this
+ * measures the dispatcher and the HTTP path, not webhook_deliveries. --failure-rate makes the
+ * receiver answer 503 to that share of callbacks, to exercise the backoff.
+ */
+public final class WebhookThroughput {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final byte[] OCCURRED_AT = "\"occurredAt\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final double failureRate;
+    private final long receiverDelayMillis;
+
+    private WebhookThroughput(double failureRate, long receiverDelayMillis) {
+        this.failureRate = failureRate;
+        this.receiverDelayMillis = receiverDelayMillis;
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        int rate = args.getInt("rate", 10_000);
+        int seconds = args.getInt("seconds", 30);
+        int warmupSeconds = args.getInt("warmup-seconds", 5);
+        int merchants = args.getInt("merchants", 200);
+        int paymentsPerMerchant = args.getInt("payments-per-merchant", 1_000);
+        int batchSize = args.getInt("batch-size", 1);
+        int maxConcurrency = args.getInt("max-concurrency", 16);
+        int maxPending = args.getInt("max-pending", 200_000);
+        double failureRate = args.getDouble("failure-rate", 0);
+        long receiverDelayMillis = args.getLong("receiver-delay-ms", 0);
+        long seed = args.getLong("seed", 42);
+        args.rejectUnknown();
+
+        // the receiver would otherwise leave Nagle on and stall small responses behind delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        WebhookThroughput benchmark = new WebhookThroughput(failureRate, receiverDelayMillis);
+        HttpServer receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        receiver.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        receiver.createContext("/hooks/", benchmark::receive);
+        receiver.start();
+        String base = "http://127.0.0.1:" + receiver.getAddress().getPort() + "/hooks/";
+
+        WebhookDispatcher dispatcher = new WebhookDispatcher(new MemoryStore(),
+            WebhookDispatcher.newHttpClient(Duration.ofSeconds(5)), WebhookUrlPolicy.ANY_ADDRESS, Duration.ofSeconds(10),
+            12, 100, 5_000, maxPending, maxPending, 10, 100, new SimpleMeterRegistry());
+        Map<String, WebhookTarget> targets = new HashMap<>();
+        for (int m = 0; m < merchants; m++) {
+            String merchantId = "MERCHANT-" + m;
+            targets.put(merchantId, new WebhookTarget(merchantId, URI.create(base + merchantId),
+                "benchmark-secret-benchmark-secret", batchSize, maxConcurrency));
+        }
+        dispatcher.setTargets(targets);
+        dispatcher.start();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        System.out.printf("rate=%d/s merchants=%d batch-size=%d max-concurrency=%d failure-rate=%.3f%n",
+            rate, merchants, batchSize, maxConcurrency, failureRate);
+        benchmark.offer(dispatcher, random, rate, warmupSeconds, merchants, paymentsPerMerchant);
+        benchmark.drain(dispatcher, Duration.ofSeconds(30));
+        benchmark.latency.reset();
+        benchmark.received.set(0);
+
+        long start = System.nanoTime();
+        long refused = benchmark.offer(dispatcher, random, rate, seconds, merchants, paymentsPerMerchant);
+        long offeredNanos = System.nanoTime() - start;
+        long receivedWhileOffering = benchmark.received.get();
+        boolean drained = benchmark.drain(dispatcher, Duration.ofSeconds(60));
+        Histogram histogram = benchmark.latency.getIntervalHistogram();
+
+        System.out.printf("offered     %,d (%,d refused)%n", (long) rate * seconds, refused);
+        System.out.printf("delivered   %,d events, %,.0f/s while offering%s%n", histogram.getTotalCount(),
+            receivedWhileOffering / (offeredNanos / 1e9), drained ? "" : " (not drained after 60 s)");
+        System.out.printf("callbacks   %,d rejected by the receiver%n", benchmark.rejected.get());
+        System.out.printf("latency ms  p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+            histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+            histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+
+        dispatcher.stop();
+        receiver.stop(0);
+        System.exit(0);
+    }
+
+    /**
+     * Offer deliveries every millisecond for the given time
+     *
+     * @return Deliveries the dispatcher refused
+     */
+    private long offer(WebhookDispatcher dispatcher, SplittableRandom random, int rate, int seconds,
+                       int merchants, int paymentsPerMerchant) {
+        long refused = 0;
+        long ticks = TimeUnit.SECONDS.toMillis(seconds);
+        long start = System.nanoTime();
+        long nextId = System.nanoTime();
+        double carry = 0;
+        for (long tick = 0; tick < ticks; tick++) {
+            long intended = start + TimeUnit.MILLISECONDS.toNanos(tick);
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            carry += rate / 1000.0;
+            int count = (int) carry;
+            carry -= count;
+            long now = System.currentTimeMillis();
+            List<WebhookDelivery> deliveries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int merchant = random.nextInt(merchants);
+                String paymentId = "PAY-" + merchant + "-" + random.nextInt(paymentsPerMerchant);
+                deliveries.add(new WebhookDelivery(nextId++, paymentId, "MERCHANT-" + merchant,
+                    PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Money.of(1_999, Currency.USD), now, 0));
+            }
+            refused += dispatcher.offer(deliveries).size();
+        }
+        return refused;
+    }
+
+    private boolean drain(WebhookDispatcher dispatcher, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (dispatcher.pending() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void receive(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            if (receiverDelayMillis > 0) {
+                Thread.sleep(receiverDelayMillis);
+            }
+            if (failureRate > 0 && Math.random() < failureRate) {
+                rejected.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int events = 0;
+            for (int at = indexOf(body, OCCURRED_AT, 0); at >= 0; at = indexOf(body, OCCURRED_AT, at)) {
+                at += OCCURRED_AT.length;
+                long occurredAt = 0;
+                while (at < body.length && body[at] >= '0' && body[at] <= '9') {
+                    occurredAt = occurredAt * 10 + (body[at++] - '0');
+                }
+                latency.recordValue(Math.max(0, now - occurredAt));
+                events++;
+            }
+            received.addAndGet(events);
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle, int from) {
+        outer:
+        for (int i = from; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Deliveries already carry their IDs and nothing is persisted
+     */
+    private static final class MemoryStore implements WebhookDeliveryStore {
+
+        @Override
+        public List<WebhookDelivery> insert(List<WebhookDelivery> deliveries, long leaseUntil) {
+            return deliveries;
+        }
+
+        @Override
+        public void delete(long[] deliveryIds) {
+        }
+
+        @Override
+        public void recordAttempts(long[] deliveryIds, int[] attempts) {
+        }
+
+        @Override
+        public void markDead(long[] deliveryIds, int[] attempts) {
+        }
+
+        @Override
+        public void renewLeases(long[] deliveryIds, long leaseUntil) {
+        }
+
+        @Override
+        public List<WebhookDelivery> claimExpired(long now, long leaseUntil, int limit) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.payment.common.deadline;
+
+import com.payment.common.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+/**
+ * Point in time after which nobody is waiting for the result of a request
+ *
+ * The API attaches one to the request thread; blocking calls below it (admission, transactions,
+ * Redis, the gateway) bound their waits by {@link #remainingNanos} and give up with
+ * {@link DeadlineExceededException} once it has passed. Work without an attached deadline
+ * (processing workers, schedulers) is unaffected.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Deadline of the request running on this thread, null if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make the deadline current until the returned scope is closed
+     */
+    public static Scope attach(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @throws DeadlineExceededException if the current deadline has passed
+     */
+    public static void checkCurrent(String stage) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check(stage);
+        }
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Restores the previous deadline on close
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
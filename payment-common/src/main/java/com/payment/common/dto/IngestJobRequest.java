@@ -0,0 +1,25 @@
+package com.payment.common.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for starting a bulk ingest job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestJobRequest {
+
+    /**
+     * CSV file name, relative to the server's ingest inbox directory
+     */
+    @NotBlank(message = "File name is required")
+    @Size(max = 500, message = "File name must not exceed 500 characters")
+    private String fileName;
+}
@@ -0,0 +1,58 @@
+package com.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.payment.common.enums.IngestJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO with bulk ingest job progress
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestJobResponse {
+
+    private String jobId;
+
+    private String filePath;
+
+    private IngestJobStatus status;
+
+    /**
+     * Source file size in bytes
+     */
+    private long fileSize;
+
+    /**
+     * Bytes of the file that are loaded and committed
+     */
+    private long committedOffset;
+
+    private long rowsRead;
+
+    private long rowsLoaded;
+
+    /**
+     * Rows skipped because their idempotency key was already loaded
+     */
+    private long rowsDuplicate;
+
+    /**
+     * Rows that failed validation (written to the .rejects.csv file)
+     */
+    private long rowsRejected;
+
+    private String errorMessage;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,74 @@
+package com.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.common.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Response DTO with rolling-window metrics of a merchant (1, 5 and 60 minutes)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveMerchantStatsResponse {
+
+    private String merchantId;
+
+    /**
+     * "node" for this node only, "cluster" when merged across nodes
+     */
+    private String scope;
+
+    /**
+     * Number of nodes whose values are included
+     */
+    private int nodes;
+
+    private List<Entry> entries;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Entry {
+
+        private Currency currency;
+
+        /**
+         * Window label: 1m, 5m or 60m
+         */
+        private String window;
+
+        /**
+         * Payments created in the window
+         */
+        private long payments;
+
+        /**
+         * Amount of payments created in the window
+         */
+        private BigDecimal volume;
+
+        private long approved;
+
+        private long failed;
+
+        /**
+         * approved / (approved + failed), absent when nothing was decided
+         */
+        private Double approvalRate;
+
+        /**
+         * Mean approved amount, absent when nothing was approved
+         */
+        private BigDecimal averageTicket;
+    }
+}
@@ -0,0 +1,83 @@
+package com.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO with payment aggregates per merchant, currency and status
+ * Amounts are per currency, no conversion is applied
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantReportResponse {
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private String merchantId;
+
+    /**
+     * Rows in the columnar snapshot the report was computed from
+     */
+    private long snapshotRows;
+
+    /**
+     * Time spent loading the snapshot, 0 when an existing one was reused
+     */
+    private long loadMillis;
+
+    private long aggregateMillis;
+
+    /**
+     * Whether the SIMD (Vector API) aggregation path was used
+     */
+    private boolean vectorized;
+
+    private List<Entry> entries;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Entry {
+
+        private String merchantId;
+
+        private Currency currency;
+
+        private PaymentStatus status;
+
+        private long count;
+
+        private BigDecimal totalAmount;
+
+        private BigDecimal minAmount;
+
+        private BigDecimal maxAmount;
+
+        /**
+         * Percentiles are only present when requested
+         */
+        private BigDecimal p50Amount;
+
+        private BigDecimal p95Amount;
+
+        private BigDecimal p99Amount;
+    }
+}
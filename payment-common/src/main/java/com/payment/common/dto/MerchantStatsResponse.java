@@ -0,0 +1,49 @@
+package com.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO with payment counts and amount totals of a merchant
+ * Served from the in-memory stats read model, see the stats endpoint docs for its consistency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantStatsResponse {
+
+    private String merchantId;
+
+    /**
+     * Publish time of the latest event applied on this node
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastEventAt;
+
+    private List<Entry> entries;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        private Currency currency;
+
+        private PaymentStatus status;
+
+        private long count;
+
+        private BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.payment.common.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for looking up many payments in one call
+ * The number of IDs is capped by payment.lookup.max-ids
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentLookupRequest {
+
+    @NotEmpty(message = "Payment IDs are required")
+    private List<@NotBlank(message = "Payment ID must not be blank")
+                 @Size(max = 36, message = "Payment ID must not exceed 36 characters") String> paymentIds;
+}
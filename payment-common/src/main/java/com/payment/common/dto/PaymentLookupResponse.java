@@ -0,0 +1,27 @@
+package com.payment.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO of a bulk lookup: one result per distinct requested ID, in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentLookupResponse {
+
+    /**
+     * Distinct IDs looked up
+     */
+    private int requested;
+
+    private int found;
+
+    private List<PaymentLookupResult> results;
+}
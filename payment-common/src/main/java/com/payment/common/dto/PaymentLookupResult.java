@@ -0,0 +1,22 @@
+package com.payment.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one ID of a bulk lookup; payment is null when it was not found
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentLookupResult {
+
+    private String paymentId;
+
+    private boolean found;
+
+    private PaymentResponse payment;
+}
@@ -1,6 +1,7 @@
 package com.payment.common.dto;
 
 import com.payment.common.enums.Currency;
+import com.payment.common.money.Money;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -73,4 +74,12 @@ public class PaymentRequest {
      * Additional metadata (stored as JSON)
      */
     private Map<String, Object> metadata;
+
+    /**
+     * Amount as {@link Money}, checking the decimals against the currency
+     * (e.g. 100.5 is rejected for JPY)
+     */
+    public Money toMoney() {
+        return Money.of(amount, currency);
+    }
 }
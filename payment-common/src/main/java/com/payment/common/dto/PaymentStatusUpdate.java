@@ -0,0 +1,35 @@
+package com.payment.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.payment.common.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of a payment as pushed to clients waiting on it (server-sent events)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusUpdate {
+
+    private String paymentId;
+
+    /**
+     * Null for the payment's current status when the stream opens
+     */
+    private PaymentStatus previousStatus;
+
+    private PaymentStatus status;
+
+    /**
+     * When the payment entered the status
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,48 @@
+package com.payment.common.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for registering or replacing a merchant's webhook endpoint
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEndpointRequest {
+
+    @NotBlank(message = "URL is required")
+    @Size(max = 2000, message = "URL must not exceed 2000 characters")
+    @Pattern(regexp = "https?://\\S+", message = "URL must be an http or https URL")
+    private String url;
+
+    /**
+     * HMAC-SHA256 key for the X-Webhook-Signature header
+     */
+    @NotBlank(message = "Secret is required")
+    @Size(min = 32, max = 255, message = "Secret must be between 32 and 255 characters")
+    private String secret;
+
+    /**
+     * Events per callback (default 1: one event per callback)
+     */
+    @Min(value = 1, message = "Batch size must be at least 1")
+    @Max(value = 100, message = "Batch size must not exceed 100")
+    private Integer batchSize;
+
+    /**
+     * Callbacks in flight at once, per node (default 4; 1 keeps all events of the merchant in order)
+     */
+    @Min(value = 1, message = "Max concurrency must be at least 1")
+    @Max(value = 64, message = "Max concurrency must not exceed 64")
+    private Integer maxConcurrency;
+
+    /**
+     * Default true; false keeps the endpoint but sends nothing
+     */
+    private Boolean enabled;
+}
@@ -5,16 +5,24 @@ import lombok.RequiredArgsConstructor;
 
 /**
  * Supported currencies for payment processing
+ *
+ * Ordinals are written to the payment-events wire format: only append new
+ * constants, never reorder or remove existing ones.
  */
 @Getter
 @RequiredArgsConstructor
 public enum Currency {
-    USD("US Dollar", "$"),
-    EUR("Euro", "€"),
-    GBP("British Pound", "£"),
-    JPY("Japanese Yen", "¥"),
-    IDR("Indonesian Rupiah", "Rp");
+    USD("US Dollar", "$", 2),
+    EUR("Euro", "€", 2),
+    GBP("British Pound", "£", 2),
+    JPY("Japanese Yen", "¥", 0),
+    IDR("Indonesian Rupiah", "Rp", 2);
 
     private final String name;
     private final String symbol;
+
+    /**
+     * Number of minor-unit digits (ISO 4217 exponent), e.g. 2 for cents, 0 for yen
+     */
+    private final int fractionDigits;
 }
@@ -0,0 +1,24 @@
+package com.payment.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bulk ingest job lifecycle status
+ */
+@Getter
+@RequiredArgsConstructor
+public enum IngestJobStatus {
+    RUNNING("Job is reading and loading the file"),
+    COMPLETED("Whole file has been loaded"),
+    FAILED("Job stopped on an error, can be resumed");
+
+    private final String description;
+
+    /**
+     * Check if the job can be resumed from its committed offset
+     */
+    public boolean isResumable() {
+        return this == FAILED;
+    }
+}
@@ -0,0 +1,23 @@
+package com.payment.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Type of event published on the payment-events topic
+ *
+ * Ordinals are written to the payment-events wire format: only append new
+ * constants, never reorder or remove existing ones.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PaymentEventType {
+    PAYMENT_CREATED("Payment accepted and pending processing"),
+    PAYMENT_COMPLETED("Payment approved by the gateway"),
+    PAYMENT_FAILED("Payment declined or failed"),
+    PAYMENT_REFUNDED("Payment refunded"),
+    PAYMENT_PROCESSING("Payment picked up for processing"),
+    PAYMENT_CANCELLED("Payment expired or was cancelled before processing");
+
+    private final String description;
+}
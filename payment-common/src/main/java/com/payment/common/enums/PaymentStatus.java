@@ -6,6 +6,9 @@ import lombok.RequiredArgsConstructor;
 /**
  * Payment lifecycle status
  * Represents the current state of a payment transaction
+ *
+ * Ordinals are written to the payment-events wire format: only append new
+ * constants, never reorder or remove existing ones.
  */
 @Getter
 @RequiredArgsConstructor
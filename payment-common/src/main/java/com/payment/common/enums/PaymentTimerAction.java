@@ -0,0 +1,15 @@
+package com.payment.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Timed transition scheduled for a payment
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PaymentTimerAction {
+    EXPIRE("Cancel the payment if it is still PENDING when its TTL runs out");
+
+    private final String description;
+}
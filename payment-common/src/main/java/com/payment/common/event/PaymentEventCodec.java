@@ -0,0 +1,276 @@
+package com.payment.common.event;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentEventType;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary codec for {@link PaymentEventMessage}
+ *
+ * Layout (version 1, big-endian):
+ * <pre>
+ *  offset size field
+ *  0      1    version (1)
+ *  1      1    event type ordinal
+ *  2      1    status ordinal
+ *  3      1    previous status ordinal + 1 (0 = none)
+ *  4      1    currency ordinal
+ *  5      1    flags (bit 0: payment ID packed as 16-byte UUID)
+ *  6      8    amount in minor units
+ *  14     8    timestamp, epoch millis
+ *  22     16   payment ID as UUID, or u16 length + UTF-8 when flag bit 0 is clear
+ *  ..     2+n  merchant ID, u16 length + UTF-8
+ *  ..     2+n  customer ID, u16 length + UTF-8
+ * </pre>
+ *
+ * Schema evolution rules:
+ * <ul>
+ *   <li>New fields are only appended after the last field. Appending does not bump the
+ *       version: old readers ignore trailing bytes, new readers check {@code remaining()}
+ *       and fall back to a default when an older writer left the field out.</li>
+ *   <li>Enum ordinals are part of the format. Constants are only appended; a reader that
+ *       sees an ordinal it does not know rejects the record.</li>
+ *   <li>Any change to an existing field (width, meaning, order) bumps the version byte.
+ *       Readers reject versions newer than they understand, so consumers are upgraded
+ *       before producers start writing a new version.</li>
+ * </ul>
+ *
+ * Encoding allocates only the result array; ASCII identifiers are written without
+ * an intermediate byte[].
+ */
+public final class PaymentEventCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int FIXED_SIZE = 22;
+    private static final int UUID_SIZE = 16;
+    private static final int FLAG_UUID_PAYMENT_ID = 1;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final PaymentEventType[] EVENT_TYPES = PaymentEventType.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private PaymentEventCodec() {
+    }
+
+    /**
+     * Encode a message into a new, exactly sized array
+     *
+     * @throws IllegalArgumentException if a string field is longer than 65535 UTF-8 bytes
+     */
+    public static byte[] encode(PaymentEventMessage message) {
+        byte[] bytes = new byte[encodedSize(message)];
+        encode(message, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Exact number of bytes {@link #encode(PaymentEventMessage, ByteBuffer)} writes
+     *
+     * @throws IllegalArgumentException if a string field is longer than 65535 UTF-8 bytes
+     */
+    public static int encodedSize(PaymentEventMessage message) {
+        int paymentIdSize = isPackableUuid(message.paymentId())
+            ? UUID_SIZE
+            : 2 + checkLength(utf8Length(message.paymentId()));
+        return FIXED_SIZE + paymentIdSize
+            + 2 + checkLength(utf8Length(message.merchantId()))
+            + 2 + checkLength(utf8Length(message.customerId()));
+    }
+
+    /**
+     * Encode a message at the buffer's position
+     *
+     * @throws IllegalArgumentException if a string field is longer than 65535 UTF-8 bytes
+     */
+    public static void encode(PaymentEventMessage message, ByteBuffer out) {
+        boolean uuid = isPackableUuid(message.paymentId());
+        PaymentStatus previous = message.previousStatus();
+
+        out.put(VERSION);
+        out.put((byte) message.eventType().ordinal());
+        out.put((byte) message.status().ordinal());
+        out.put((byte) (previous == null ? 0 : previous.ordinal() + 1));
+        out.put((byte) message.amount().currency().ordinal());
+        out.put((byte) (uuid ? FLAG_UUID_PAYMENT_ID : 0));
+        out.putLong(message.amount().minorUnits());
+        out.putLong(message.timestamp());
+
+        if (uuid) {
+            putUuid(message.paymentId(), out);
+        } else {
+            putString(message.paymentId(), out);
+        }
+        putString(message.merchantId(), out);
+        putString(message.customerId(), out);
+    }
+
+    /**
+     * Decode a message
+     *
+     * @throws IllegalArgumentException if the data is truncated, of an unknown version
+     *                                  or contains unknown enum ordinals
+     */
+    public static PaymentEventMessage decode(byte[] data) {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Decode a message from the buffer's position; trailing bytes are ignored
+     */
+    public static PaymentEventMessage decode(ByteBuffer in) {
+        try {
+            byte version = in.get();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Unsupported payment event version: " + version);
+            }
+            PaymentEventType eventType = lookup(EVENT_TYPES, in.get(), "event type");
+            PaymentStatus status = lookup(STATUSES, in.get(), "status");
+            int previousOrdinal = in.get();
+            PaymentStatus previous = previousOrdinal == 0 ? null : lookup(STATUSES, previousOrdinal - 1, "status");
+            Currency currency = lookup(CURRENCIES, in.get(), "currency");
+            int flags = in.get();
+            long amountMinor = in.getLong();
+            long timestamp = in.getLong();
+
+            String paymentId = (flags & FLAG_UUID_PAYMENT_ID) != 0 ? getUuid(in) : getString(in);
+            String merchantId = getString(in);
+            String customerId = getString(in);
+
+            return new PaymentEventMessage(paymentId, merchantId, customerId, eventType,
+                previous, status, Money.of(amountMinor, currency), timestamp);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated payment event", e);
+        }
+    }
+
+    private static <E> E lookup(E[] values, int ordinal, String what) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown " + what + " ordinal: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    // ========== Strings ==========
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return value.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The u16 length prefix would silently wrap past 65535
+     */
+    private static int checkLength(int utf8Length) {
+        if (utf8Length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String field of " + utf8Length
+                + " UTF-8 bytes exceeds the " + MAX_STRING_BYTES + " byte limit");
+        }
+        return utf8Length;
+    }
+
+    private static void putString(String value, ByteBuffer out) {
+        // UTF-8 never takes fewer bytes than chars, so this also covers the re-encode below
+        int length = checkLength(value.length());
+        int lengthPosition = out.position();
+        out.putShort((short) length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // non-ASCII: rewrite the field through the encoder
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.position(lengthPosition);
+                out.putShort((short) checkLength(bytes.length));
+                out.put(bytes);
+                return;
+            }
+            out.put((byte) c);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (in.hasArray()) {
+            int start = in.arrayOffset() + in.position();
+            if (length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            in.position(in.position() + length);
+            return new String(in.array(), start, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ========== UUID packing ==========
+
+    /**
+     * Only canonical lower-case UUIDs are packed, so decoding reproduces the exact string
+     */
+    private static boolean isPackableUuid(String value) {
+        if (value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putUuid(String value, ByteBuffer out) {
+        long high = 0;
+        long low = 0;
+        int nibbles = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            int nibble = c <= '9' ? c - '0' : c - 'a' + 10;
+            if (nibbles < 16) {
+                high = (high << 4) | nibble;
+            } else {
+                low = (low << 4) | nibble;
+            }
+            nibbles++;
+        }
+        out.putLong(high);
+        out.putLong(low);
+    }
+
+    private static String getUuid(ByteBuffer in) {
+        long high = in.getLong();
+        long low = in.getLong();
+        char[] chars = new char[36];
+        int position = 0;
+        for (int nibble = 0; nibble < 32; nibble++) {
+            if (nibble == 8 || nibble == 12 || nibble == 16 || nibble == 20) {
+                chars[position++] = '-';
+            }
+            long word = nibble < 16 ? high : low;
+            int shift = (15 - (nibble & 15)) * 4;
+            chars[position++] = HEX[(int) (word >>> shift) & 0xF];
+        }
+        return new String(chars);
+    }
+}
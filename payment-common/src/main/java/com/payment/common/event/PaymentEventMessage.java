@@ -0,0 +1,30 @@
+package com.payment.common.event;
+
+import com.payment.common.enums.PaymentEventType;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+
+/**
+ * Typed payload of the payment-events topic
+ * Encoded on the wire by {@link PaymentEventCodec}
+ *
+ * @param paymentId Payment ID (also the record key)
+ * @param merchantId Merchant ID
+ * @param customerId Customer ID
+ * @param eventType Event type
+ * @param previousStatus Status before the transition, null for PAYMENT_CREATED
+ * @param status Status after the transition
+ * @param amount Amount, carried in minor units of its currency
+ * @param timestamp Event time in epoch milliseconds
+ */
+public record PaymentEventMessage(
+    String paymentId,
+    String merchantId,
+    String customerId,
+    PaymentEventType eventType,
+    PaymentStatus previousStatus,
+    PaymentStatus status,
+    Money amount,
+    long timestamp
+) {
+}
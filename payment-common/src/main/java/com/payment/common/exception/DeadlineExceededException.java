@@ -0,0 +1,24 @@
+package com.payment.common.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a request's deadline passes before its work is done
+ */
+@Getter
+public class DeadlineExceededException extends PaymentException {
+
+    /**
+     * Where the deadline was found expired, e.g. admission, idempotency_lookup, gateway
+     */
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super(
+                "Request deadline exceeded (" + stage + ")",
+                "DEADLINE_EXCEEDED",
+                504 // Gateway Timeout
+        );
+        this.stage = stage;
+    }
+}
@@ -0,0 +1,21 @@
+package com.payment.common.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a merchant is over its request rate
+ */
+@Getter
+public class MerchantRateLimitException extends PaymentException {
+
+    private final long retryAfterSeconds;
+
+    public MerchantRateLimitException(String merchantId, long retryAfterSeconds) {
+        super(
+                "Request rate limit exceeded for merchant: " + merchantId,
+                "MERCHANT_RATE_LIMITED",
+                429 // Too Many Requests
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,196 @@
+package com.payment.common.money;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.exception.PaymentException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monetary amount stored as a long count of minor units (cents, yen, ...)
+ *
+ * Arithmetic is exact: overflow throws {@link ArithmeticException} instead of wrapping,
+ * and mixing currencies throws {@link IllegalArgumentException}. The scale comes from
+ * {@link Currency#getFractionDigits()}, so 1.00 USD is 100 and 100 JPY is 100.
+ *
+ * Parsing and formatting work on characters directly; {@link BigDecimal} is only used
+ * by {@link #of(BigDecimal, Currency)} and {@link #toBigDecimal()} at the database and
+ * JSON boundary.
+ */
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+    }
+
+    /**
+     * Amount from minor units
+     */
+    public static Money of(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Amount from a decimal value, e.g. a NUMERIC column or a JSON number
+     *
+     * @throws PaymentException if the value has more decimals than the currency allows
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            long minorUnits = amount.movePointRight(currency.getFractionDigits())
+                .setScale(0, RoundingMode.UNNECESSARY)
+                .longValueExact();
+            return new Money(minorUnits, currency);
+        } catch (ArithmeticException e) {
+            throw invalidAmount(amount.toPlainString(), currency);
+        }
+    }
+
+    /**
+     * Parse a plain decimal string such as "-12.5" or "1000"
+     * Accepts at most {@link Currency#getFractionDigits()} decimals, no exponent or grouping
+     *
+     * @throws PaymentException if the text is not a valid amount for the currency
+     */
+    public static Money parse(CharSequence text, Currency currency) {
+        int length = text.length();
+        int fractionDigits = currency.getFractionDigits();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int integerDigits = 0;
+        int decimals = -1;
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw invalidAmount(text, currency);
+                }
+                if (decimals >= 0) {
+                    if (++decimals > fractionDigits) {
+                        throw invalidAmount(text, currency);
+                    }
+                } else {
+                    integerDigits++;
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            }
+            if (integerDigits == 0 && decimals <= 0) {
+                throw invalidAmount(text, currency);
+            }
+            value = Math.multiplyExact(value, POWERS_OF_TEN[fractionDigits - Math.max(decimals, 0)]);
+        } catch (ArithmeticException e) {
+            throw invalidAmount(text, currency);
+        }
+        return new Money(negative ? -value : value, currency);
+    }
+
+    // ========== Arithmetic ==========
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    // ========== Conversion ==========
+
+    /**
+     * Decimal value for the database and JSON boundary
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getFractionDigits());
+    }
+
+    /**
+     * Plain decimal text, e.g. "129.99", "-0.05" or "1500" for JPY
+     */
+    public String format() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Append the plain decimal text without intermediate strings
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        int fractionDigits = currency.getFractionDigits();
+        if (fractionDigits == 0) {
+            return out.append(minorUnits);
+        }
+        long divisor = POWERS_OF_TEN[fractionDigits];
+        long integerPart = minorUnits / divisor;
+        long fraction = Math.abs(minorUnits % divisor);
+        if (minorUnits < 0 && integerPart == 0) {
+            out.append('-');
+        }
+        out.append(integerPart).append('.');
+        for (long scale = divisor / 10; scale > fraction && scale > 1; scale /= 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(28).append(currency.name()).append(' ')).toString();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    private static PaymentException invalidAmount(CharSequence text, Currency currency) {
+        return new PaymentException(
+            "Invalid amount " + text + " for " + currency + " (max " + currency.getFractionDigits() + " decimals)",
+            "INVALID_AMOUNT",
+            400
+        );
+    }
+}
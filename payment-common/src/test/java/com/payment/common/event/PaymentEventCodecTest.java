@@ -0,0 +1,122 @@
+package com.payment.common.event;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentEventType;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PaymentEventCodec
+ * Round trips, size accounting and the schema evolution rules
+ */
+class PaymentEventCodecTest {
+
+    private PaymentEventMessage message(String paymentId, PaymentStatus previous) {
+        return new PaymentEventMessage(
+            paymentId,
+            "merchant-001",
+            "customer-001",
+            PaymentEventType.PAYMENT_COMPLETED,
+            previous,
+            PaymentStatus.COMPLETED,
+            Money.of(12_345L, Currency.JPY),
+            1_700_000_000_000L
+        );
+    }
+
+    @Test
+    void encode_WithUuidPaymentId_ShouldPackIdAndRoundTrip() {
+        PaymentEventMessage original = message(UUID.randomUUID().toString(), PaymentStatus.PROCESSING);
+
+        byte[] bytes = PaymentEventCodec.encode(original);
+
+        assertEquals(PaymentEventCodec.encodedSize(original), bytes.length);
+        // 22 fixed + 16 uuid + 2 * (2 + 12)
+        assertEquals(66, bytes.length);
+        assertEquals(original, PaymentEventCodec.decode(bytes));
+    }
+
+    @Test
+    void encode_WithNonUuidIdAndNonAsciiText_ShouldRoundTrip() {
+        PaymentEventMessage original = new PaymentEventMessage(
+            "legacy-42", "toko-ümlaut", "pelanggan", PaymentEventType.PAYMENT_CREATED,
+            null, PaymentStatus.PENDING, Money.of(150_000L, Currency.IDR), 1L);
+
+        byte[] bytes = PaymentEventCodec.encode(original);
+
+        assertEquals(PaymentEventCodec.encodedSize(original), bytes.length);
+        assertEquals(original, PaymentEventCodec.decode(bytes));
+    }
+
+    @Test
+    void encode_WithUpperCaseUuid_ShouldKeepExactString() {
+        PaymentEventMessage original = message(UUID.randomUUID().toString().toUpperCase(), null);
+
+        assertEquals(original, PaymentEventCodec.decode(PaymentEventCodec.encode(original)));
+    }
+
+    @Test
+    void decode_WithTrailingBytesFromNewerWriter_ShouldIgnoreThem() {
+        PaymentEventMessage original = message(UUID.randomUUID().toString(), PaymentStatus.PROCESSING);
+        byte[] bytes = PaymentEventCodec.encode(original);
+        byte[] extended = Arrays.copyOf(bytes, bytes.length + 8);
+
+        assertEquals(original, PaymentEventCodec.decode(ByteBuffer.wrap(extended)));
+    }
+
+    @Test
+    void decode_WithNewerVersion_ShouldReject() {
+        byte[] bytes = PaymentEventCodec.encode(message(UUID.randomUUID().toString(), null));
+        bytes[0] = PaymentEventCodec.VERSION + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> PaymentEventCodec.decode(bytes));
+    }
+
+    @Test
+    void decode_WithUnknownOrdinal_ShouldReject() {
+        byte[] bytes = PaymentEventCodec.encode(message(UUID.randomUUID().toString(), null));
+        bytes[2] = (byte) PaymentStatus.values().length;
+
+        assertThrows(IllegalArgumentException.class, () -> PaymentEventCodec.decode(bytes));
+    }
+
+    @Test
+    void decode_WithTruncatedPayload_ShouldReject() {
+        byte[] bytes = PaymentEventCodec.encode(message(UUID.randomUUID().toString(), null));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> PaymentEventCodec.decode(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test
+    void encode_WithStringAtU16Limit_ShouldRoundTrip() {
+        PaymentEventMessage original = withCustomer("c".repeat(65_535));
+
+        assertEquals(original, PaymentEventCodec.decode(PaymentEventCodec.encode(original)));
+    }
+
+    @Test
+    void encode_WithStringOverU16Limit_ShouldRejectInsteadOfWrapping() {
+        PaymentEventMessage ascii = withCustomer("c".repeat(65_536));
+        // 32 768 chars, 65 536 bytes: only the UTF-8 re-encode sees the overflow
+        PaymentEventMessage nonAscii = withCustomer("ü".repeat(32_768));
+
+        assertThrows(IllegalArgumentException.class, () -> PaymentEventCodec.encode(ascii));
+        assertThrows(IllegalArgumentException.class, () -> PaymentEventCodec.encodedSize(nonAscii));
+        assertThrows(IllegalArgumentException.class,
+            () -> PaymentEventCodec.encode(nonAscii, ByteBuffer.allocate(200_000)));
+    }
+
+    private PaymentEventMessage withCustomer(String customerId) {
+        PaymentEventMessage base = message(UUID.randomUUID().toString(), null);
+        return new PaymentEventMessage(base.paymentId(), base.merchantId(), customerId, base.eventType(),
+            base.previousStatus(), base.status(), base.amount(), base.timestamp());
+    }
+}
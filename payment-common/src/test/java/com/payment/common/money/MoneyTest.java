@@ -0,0 +1,69 @@
+package com.payment.common.money;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.exception.PaymentException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Money
+ * Currency-aware scale, exact arithmetic, parse and format
+ */
+class MoneyTest {
+
+    @Test
+    void parse_ShouldUseCurrencyScale() {
+        assertEquals(12_999L, Money.parse("129.99", Currency.USD).minorUnits());
+        assertEquals(12_990L, Money.parse("129.9", Currency.USD).minorUnits());
+        assertEquals(12_900L, Money.parse("129", Currency.USD).minorUnits());
+        assertEquals(1_500L, Money.parse("1500", Currency.JPY).minorUnits());
+        assertEquals(-5L, Money.parse("-0.05", Currency.EUR).minorUnits());
+    }
+
+    @Test
+    void parse_WithTooManyDecimalsOrGarbage_ShouldReject() {
+        assertThrows(PaymentException.class, () -> Money.parse("100.5", Currency.JPY));
+        assertThrows(PaymentException.class, () -> Money.parse("1.001", Currency.USD));
+        assertThrows(PaymentException.class, () -> Money.parse("1e3", Currency.USD));
+        assertThrows(PaymentException.class, () -> Money.parse("", Currency.USD));
+        assertThrows(PaymentException.class, () -> Money.parse(".", Currency.USD));
+        assertThrows(PaymentException.class, () -> Money.parse("99999999999999999999", Currency.USD));
+    }
+
+    @Test
+    void format_ShouldRoundTripWithParse() {
+        for (String text : new String[]{"129.99", "0.05", "-0.05", "-1.05", "10.00", "0.00"}) {
+            assertEquals(text, Money.parse(text, Currency.USD).format());
+        }
+        assertEquals("1500", Money.parse("1500", Currency.JPY).format());
+        assertEquals("USD 1.50", Money.of(150, Currency.USD).toString());
+    }
+
+    @Test
+    void of_BigDecimal_ShouldBeExactAtTheBoundary() {
+        Money usd = Money.of(new BigDecimal("100.00"), Currency.USD);
+        assertEquals(10_000L, usd.minorUnits());
+        assertEquals(new BigDecimal("100.00"), usd.toBigDecimal());
+
+        // NUMERIC(19,2) column value for a yen payment
+        assertEquals(100L, Money.of(new BigDecimal("100.00"), Currency.JPY).minorUnits());
+        assertThrows(PaymentException.class, () -> Money.of(new BigDecimal("100.50"), Currency.JPY));
+    }
+
+    @Test
+    void arithmetic_ShouldBeExactAndCurrencySafe() {
+        Money a = Money.of(150, Currency.USD);
+        Money b = Money.of(75, Currency.USD);
+
+        assertEquals(Money.of(225, Currency.USD), a.plus(b));
+        assertEquals(Money.of(75, Currency.USD), a.minus(b));
+        assertEquals(Money.of(450, Currency.USD), a.times(3));
+        assertTrue(a.compareTo(b) > 0);
+
+        assertThrows(IllegalArgumentException.class, () -> a.plus(Money.of(1, Currency.JPY)));
+        assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE, Currency.USD).plus(a));
+    }
+}
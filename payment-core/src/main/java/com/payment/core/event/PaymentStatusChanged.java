@@ -0,0 +1,23 @@
+package com.payment.core.event;
+
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+
+/**
+ * In-process application event for every payment state transition
+ *
+ * Published inside the transaction that made the change; listen with
+ * {@code @TransactionalEventListener} to only see committed transitions.
+ *
+ * @param previousStatus Null when the payment was created
+ * @param timestamp Epoch millis of the transition
+ */
+public record PaymentStatusChanged(
+    String paymentId,
+    String merchantId,
+    Money amount,
+    PaymentStatus previousStatus,
+    PaymentStatus status,
+    long timestamp
+) {
+}
@@ -0,0 +1,292 @@
+package com.payment.core.ingest;
+
+import com.payment.common.enums.IngestJobStatus;
+import com.payment.common.exception.PaymentException;
+import com.payment.persistence.bulk.PaymentCopyRow;
+import com.payment.persistence.entity.IngestJob;
+import com.payment.persistence.repository.IngestJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Bulk ingest of payment CSV files
+ *
+ * Pipeline per job: the file is scanned through memory-mapped windows, each chunk is
+ * validated in parallel on the common fork/join pool while the previous chunk is being
+ * loaded, duplicate idempotency keys are dropped in memory and by the database, and
+ * every chunk is loaded with COPY in its own transaction together with the job offset.
+ * A failed (or orphaned) job resumes from its last committed offset.
+ *
+ * Rejected records go to a .rejects.csv file next to the source. They are written and
+ * synced before their chunk commits, and the commit records the file's length, so a resumed
+ * job cuts off the rejects of a chunk that did not commit and writes them again.
+ *
+ * Files are only read from the configured inbox directory.
+ */
+@Slf4j
+@Service
+public class BulkIngestService {
+
+    private final IngestJobRepository ingestJobRepository;
+    private final IngestRowValidator rowValidator;
+    private final IngestChunkWriter chunkWriter;
+    private final Executor executor;
+    private final Path inboxDir;
+    private final int chunkRows;
+
+    // jobs currently running on this node
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public BulkIngestService(IngestJobRepository ingestJobRepository,
+                             IngestRowValidator rowValidator,
+                             IngestChunkWriter chunkWriter,
+                             @Qualifier("paymentTaskExecutor") Executor executor,
+                             @Value("${payment.ingest.inbox-dir:ingest}") String inboxDir,
+                             @Value("${payment.ingest.chunk-rows:50000}") int chunkRows) {
+        this.ingestJobRepository = ingestJobRepository;
+        this.rowValidator = rowValidator;
+        this.chunkWriter = chunkWriter;
+        this.executor = executor;
+        this.inboxDir = Path.of(inboxDir).toAbsolutePath().normalize();
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Start ingesting a file from the inbox directory
+     *
+     * @param fileName File name relative to the inbox directory
+     * @return Created job (loading continues in the background)
+     */
+    public IngestJob startJob(String fileName) {
+        Path path = resolveInboxFile(fileName);
+        long fileSize;
+        long rejectsOffset;
+        try {
+            fileSize = Files.size(path);
+            // rejects of earlier jobs on the same file stay
+            rejectsOffset = sizeIfExists(rejectsFile(path));
+        } catch (IOException e) {
+            throw new PaymentException("Cannot read ingest file: " + fileName, "INGEST_FILE_NOT_FOUND", 404, e);
+        }
+
+        IngestJob job = ingestJobRepository.save(IngestJob.builder()
+            .filePath(path.toString())
+            .fileSize(fileSize)
+            .status(IngestJobStatus.RUNNING)
+            .rejectsOffset(rejectsOffset)
+            .build());
+
+        log.info("Starting ingest job {} for {} ({} bytes)", job.getJobId(), path, fileSize);
+        submit(job.getJobId());
+        return job;
+    }
+
+    /**
+     * Resume a failed job, or a RUNNING job orphaned by a node that died
+     */
+    public IngestJob resumeJob(String jobId) {
+        IngestJob job = getJob(jobId);
+        boolean orphaned = job.getStatus() == IngestJobStatus.RUNNING && !activeJobs.contains(jobId);
+        if (!job.getStatus().isResumable() && !orphaned) {
+            throw new PaymentException(
+                "Ingest job cannot be resumed in status: " + job.getStatus(),
+                "INGEST_JOB_NOT_RESUMABLE",
+                409
+            );
+        }
+
+        job.setStatus(IngestJobStatus.RUNNING);
+        job.setErrorMessage(null);
+        job = ingestJobRepository.save(job);
+
+        log.info("Resuming ingest job {} from offset {}", jobId, job.getCommittedOffset());
+        submit(jobId);
+        return job;
+    }
+
+    /**
+     * Get job progress
+     */
+    public IngestJob getJob(String jobId) {
+        return ingestJobRepository.findById(jobId)
+            .orElseThrow(() -> new PaymentException(
+                "Ingest job not found: " + jobId,
+                "INGEST_JOB_NOT_FOUND",
+                404
+            ));
+    }
+
+    private void submit(String jobId) {
+        if (!activeJobs.add(jobId)) {
+            throw new PaymentException("Ingest job already running: " + jobId, "INGEST_JOB_RUNNING", 409);
+        }
+        executor.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+        });
+    }
+
+    private void run(String jobId) {
+        IngestJob job = getJob(jobId);
+        Path path = Path.of(job.getFilePath());
+        long startNanos = System.nanoTime();
+        long rowsAtStart = job.getRowsRead();
+
+        try (CsvChunkReader reader = new CsvChunkReader(path, job.getCommittedOffset(), chunkRows)) {
+            if (reader.fileSize() != job.getFileSize()) {
+                throw new IllegalStateException("File size changed since the job was created: " + path);
+            }
+
+            long committed = job.getCommittedOffset();
+            if (committed == 0) {
+                String[] header = reader.readRecord();
+                if (header == null) {
+                    throw new IllegalStateException("Ingest file is empty: " + path);
+                }
+                rowValidator.checkHeader(header);
+            }
+
+            Path rejectsFile = rejectsFile(path);
+            long rejectsOffset = job.getRejectsOffset() != null ? job.getRejectsOffset() : sizeIfExists(rejectsFile);
+
+            LocalDateTime loadTime = LocalDateTime.now();
+            CompletableFuture<IngestChunkWriter.ValidatedChunk> pending = validateAsync(reader.next(), loadTime);
+            while (pending != null) {
+                IngestChunkWriter.ValidatedChunk current = pending.join();
+
+                // validate the next chunk while this one is loading
+                CsvChunkReader.Chunk next = reader.next();
+                pending = next == null ? null : validateAsync(next, loadTime);
+
+                rejectsOffset = writeRejects(rejectsFile, rejectsOffset, current.rejected());
+                job = chunkWriter.commitChunk(jobId, committed, current, rejectsOffset);
+                committed = current.endOffset();
+
+                double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+                log.info("Ingest job {}: {}/{} bytes, {} loaded, {} duplicate, {} rejected, {} rows/s",
+                    jobId, committed, job.getFileSize(), job.getRowsLoaded(), job.getRowsDuplicate(),
+                    job.getRowsRejected(), (long) ((job.getRowsRead() - rowsAtStart) / Math.max(seconds, 0.001)));
+            }
+
+            finish(jobId, IngestJobStatus.COMPLETED, null);
+            log.info("Ingest job {} completed", jobId);
+        } catch (Exception e) {
+            log.error("Ingest job {} failed, resumable from last committed offset", jobId, e);
+            finish(jobId, IngestJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private CompletableFuture<IngestChunkWriter.ValidatedChunk> validateAsync(CsvChunkReader.Chunk chunk,
+                                                                              LocalDateTime loadTime) {
+        if (chunk == null) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(() -> validate(chunk, loadTime));
+    }
+
+    private IngestChunkWriter.ValidatedChunk validate(CsvChunkReader.Chunk chunk, LocalDateTime loadTime) {
+        List<IngestRowValidator.Result> results = chunk.records().parallelStream()
+            .map(record -> rowValidator.validate(record, loadTime))
+            .toList();
+
+        List<PaymentCopyRow> rows = new ArrayList<>(results.size());
+        List<IngestRowValidator.Result> rejected = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>(results.size() * 2);
+        int duplicates = 0;
+        for (IngestRowValidator.Result result : results) {
+            if (!result.isValid()) {
+                rejected.add(result);
+            } else if (seenKeys.add(result.row().idempotencyKey())) {
+                rows.add(result.row());
+            } else {
+                duplicates++;
+            }
+        }
+        return new IngestChunkWriter.ValidatedChunk(rows, rejected, duplicates, results.size(), chunk.endOffset());
+    }
+
+    /**
+     * Write rejected records with their reason at the given offset of the rejects file, dropping
+     * whatever a chunk that did not commit left after it, and sync them to disk
+     *
+     * @return Offset after the written records
+     */
+    private long writeRejects(Path rejectsFile, long offset, List<IngestRowValidator.Result> rejected) throws IOException {
+        if (rejected.isEmpty() && sizeIfExists(rejectsFile) <= offset) {
+            return offset;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (IngestRowValidator.Result result : rejected) {
+            lines.append(quote(result.rejectReason()));
+            for (String field : result.record()) {
+                lines.append(',').append(quote(field));
+            }
+            lines.append(System.lineSeparator());
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(rejectsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            // (the file was cut short by hand: continue at its end)
+            long position = Math.min(offset, channel.size());
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            channel.force(false);
+            return position;
+        }
+    }
+
+    private static Path rejectsFile(Path source) {
+        return source.resolveSibling(source.getFileName() + ".rejects.csv");
+    }
+
+    private static long sizeIfExists(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    private void finish(String jobId, IngestJobStatus status, String errorMessage) {
+        IngestJob job = getJob(jobId);
+        job.setStatus(status);
+        if (errorMessage != null && errorMessage.length() > 2000) {
+            errorMessage = errorMessage.substring(0, 2000);
+        }
+        job.setErrorMessage(errorMessage);
+        ingestJobRepository.save(job);
+    }
+
+    private Path resolveInboxFile(String fileName) {
+        Path path = inboxDir.resolve(fileName).normalize();
+        if (!path.startsWith(inboxDir)) {
+            throw new PaymentException("Ingest file must be inside the inbox directory", "INVALID_INGEST_PATH", 400);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new PaymentException("Ingest file not found: " + fileName, "INGEST_FILE_NOT_FOUND", 404);
+        }
+        return path;
+    }
+
+    private String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,210 @@
+package com.payment.core.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-mapped CSV scanner that hands out fixed-size chunks of records
+ *
+ * The file is mapped in windows; a record crossing the window end is re-read from
+ * the start of the next window, so a chunk always ends on a record boundary and its
+ * end offset can be committed and used to resume. Supports RFC 4180 quoting
+ * (quoted fields may contain commas, doubled quotes and line breaks).
+ *
+ * Not thread-safe: one reader per ingest job.
+ */
+class CsvChunkReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int chunkRows;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    // scratch buffer for decoding one field, grows on demand
+    private byte[] fieldBytes = new byte[256];
+
+    /**
+     * A chunk of parsed records and the file offset right after its last record
+     */
+    record Chunk(List<String[]> records, long endOffset) {
+    }
+
+    CsvChunkReader(Path path, long startOffset, int chunkRows) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.chunkRows = chunkRows;
+        this.position = startOffset;
+    }
+
+    long fileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Offset right after the last record handed out
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Read the next chunk
+     *
+     * @return Next chunk, or null at end of file
+     */
+    Chunk next() throws IOException {
+        if (position >= fileSize) {
+            return null;
+        }
+        List<String[]> records = new ArrayList<>(chunkRows);
+        while (records.size() < chunkRows) {
+            String[] record = readRecord();
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+        }
+        return new Chunk(records, position);
+    }
+
+    /**
+     * Read a single record, skipping blank lines
+     *
+     * @return Record fields, or null at end of file
+     */
+    String[] readRecord() throws IOException {
+        List<String> fields = new ArrayList<>(16);
+        while (position < fileSize) {
+            ensureWindow();
+            int start = (int) (position - windowStart);
+            int end = parseRecord(start, fields);
+            if (end < 0) {
+                // record crosses the window end: remap from its start
+                if (windowStart == position) {
+                    throw new IOException("CSV record at offset " + position + " exceeds " + WINDOW_SIZE + " bytes");
+                }
+                window = null;
+                fields.clear();
+                continue;
+            }
+            position = windowStart + end;
+            if (!isBlank(fields)) {
+                return fields.toArray(new String[0]);
+            }
+            fields.clear();
+        }
+        return null;
+    }
+
+    private void ensureWindow() throws IOException {
+        long windowEnd = window == null ? -1 : windowStart + window.limit();
+        if (window == null || position >= windowEnd) {
+            windowStart = position;
+            long size = Math.min(WINDOW_SIZE, fileSize - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+        }
+    }
+
+    /**
+     * Parse one record starting at the window index
+     *
+     * @return Index just past the record terminator, or -1 if the window ends first
+     */
+    private int parseRecord(int start, List<String> fields) {
+        int limit = window.limit();
+        boolean lastWindow = windowStart + limit >= fileSize;
+        int i = start;
+        while (true) {
+            int fieldLength = 0;
+            boolean quoted = i < limit && window.get(i) == '"';
+            if (quoted) {
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        return -1;
+                    }
+                    byte b = window.get(i);
+                    if (b == '"') {
+                        if (i + 1 < limit && window.get(i + 1) == '"') {
+                            fieldLength = appendByte(fieldLength, b);
+                            i += 2;
+                            continue;
+                        }
+                        if (i + 1 >= limit && !lastWindow) {
+                            return -1;
+                        }
+                        i++;
+                        break;
+                    }
+                    fieldLength = appendByte(fieldLength, b);
+                    i++;
+                }
+            } else {
+                while (i < limit) {
+                    byte b = window.get(i);
+                    if (b == ',' || b == '\n' || b == '\r') {
+                        break;
+                    }
+                    fieldLength = appendByte(fieldLength, b);
+                    i++;
+                }
+            }
+            fields.add(new String(fieldBytes, 0, fieldLength, StandardCharsets.UTF_8));
+
+            if (i >= limit) {
+                return lastWindow ? i : -1;
+            }
+            byte delimiter = window.get(i);
+            if (delimiter == ',') {
+                i++;
+                continue;
+            }
+            if (delimiter == '\r') {
+                i++;
+                if (i >= limit) {
+                    return lastWindow ? i : -1;
+                }
+                if (window.get(i) == '\n') {
+                    i++;
+                }
+                return i;
+            }
+            if (delimiter == '\n') {
+                return i + 1;
+            }
+            // garbage after a closing quote: keep it in the next field so validation reports it
+        }
+    }
+
+    private int appendByte(int length, byte b) {
+        if (length == fieldBytes.length) {
+            byte[] grown = new byte[fieldBytes.length * 2];
+            System.arraycopy(fieldBytes, 0, grown, 0, length);
+            fieldBytes = grown;
+        }
+        fieldBytes[length] = b;
+        return length + 1;
+    }
+
+    private boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isEmpty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.payment.core.ingest;
+
+import com.payment.common.exception.PaymentException;
+import com.payment.persistence.bulk.PaymentCopyRow;
+import com.payment.persistence.entity.IngestJob;
+import com.payment.persistence.repository.IngestJobRepository;
+import com.payment.persistence.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Commits one ingest chunk atomically
+ * The rows, the job's committed offset and the length of its rejects file move forward
+ * in the same transaction, so a resumed job never loads a chunk twice and never skips one
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestChunkWriter {
+
+    private final PaymentRepository paymentRepository;
+    private final IngestJobRepository ingestJobRepository;
+
+    /**
+     * Load a chunk and advance the job
+     *
+     * @param jobId Ingest job
+     * @param startOffset Offset the chunk starts at; must equal the job's committed offset
+     * @param chunk Validated chunk
+     * @param rejectsOffset Length of the rejects file once the chunk's rejects are written
+     * @return Updated job
+     */
+    @Transactional
+    public IngestJob commitChunk(String jobId, long startOffset, ValidatedChunk chunk, long rejectsOffset) {
+        IngestJob job = ingestJobRepository.findById(jobId)
+            .orElseThrow(() -> new PaymentException(
+                "Ingest job not found: " + jobId,
+                "INGEST_JOB_NOT_FOUND",
+                404
+            ));
+
+        // another runner already moved the job on (e.g. a concurrent resume)
+        if (job.getCommittedOffset() != startOffset) {
+            throw new PaymentException(
+                "Ingest job " + jobId + " is at offset " + job.getCommittedOffset() + ", expected " + startOffset,
+                "INGEST_OFFSET_CONFLICT",
+                409
+            );
+        }
+
+        int loaded = paymentRepository.copyInPayments(chunk.rows());
+
+        job.setCommittedOffset(chunk.endOffset());
+        job.setRowsRead(job.getRowsRead() + chunk.rowsRead());
+        job.setRowsLoaded(job.getRowsLoaded() + loaded);
+        job.setRowsDuplicate(job.getRowsDuplicate() + chunk.duplicatesInChunk() + (chunk.rows().size() - loaded));
+        job.setRowsRejected(job.getRowsRejected() + chunk.rejected().size());
+        job.setRejectsOffset(rejectsOffset);
+        return ingestJobRepository.save(job);
+    }
+
+    /**
+     * Chunk after parallel validation and in-chunk de-duplication
+     */
+    public record ValidatedChunk(
+        List<PaymentCopyRow> rows,
+        List<IngestRowValidator.Result> rejected,
+        int duplicatesInChunk,
+        int rowsRead,
+        long endOffset
+    ) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.payment.core.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.common.dto.PaymentRequest;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.exception.PaymentException;
+import com.payment.common.money.Money;
+import com.payment.persistence.bulk.PaymentCopyRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns raw CSV records into validated {@link PaymentCopyRow}s
+ * Applies the same bean validation constraints as the create payment API
+ *
+ * Expected columns (header required on the first line):
+ * idempotency_key,amount,currency,merchant_id,customer_id,payment_method,status,created_at,description,metadata
+ * status defaults to PENDING, created_at (ISO-8601) defaults to load time,
+ * description and metadata (JSON object) are optional.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestRowValidator {
+
+    static final List<String> COLUMNS = List.of(
+        "idempotency_key", "amount", "currency", "merchant_id", "customer_id",
+        "payment_method", "status", "created_at", "description", "metadata"
+    );
+
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validation outcome for one record: either a row or a reject reason
+     */
+    public record Result(PaymentCopyRow row, String rejectReason, String[] record) {
+
+        boolean isValid() {
+            return row != null;
+        }
+    }
+
+    /**
+     * Check the header line matches the expected column layout
+     */
+    public void checkHeader(String[] header) {
+        List<String> actual = Arrays.stream(header).map(String::trim).map(String::toLowerCase).toList();
+        if (!actual.equals(COLUMNS)) {
+            throw new IllegalArgumentException("Unexpected CSV header " + actual + ", expected " + COLUMNS);
+        }
+    }
+
+    /**
+     * Validate one record; never throws for bad data
+     */
+    public Result validate(String[] record, LocalDateTime loadTime) {
+        if (record.length != COLUMNS.size()) {
+            return reject(record, "expected " + COLUMNS.size() + " columns but got " + record.length);
+        }
+        try {
+            Currency currency = Currency.valueOf(record[2]);
+            Money amount = Money.parse(record[1], currency);
+            PaymentRequest request = PaymentRequest.builder()
+                .idempotencyKey(record[0])
+                .amount(amount.toBigDecimal())
+                .currency(currency)
+                .merchantId(record[3])
+                .customerId(record[4])
+                .paymentMethod(record[5])
+                .description(emptyToNull(record[8]))
+                .build();
+
+            Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<PaymentRequest> first = violations.iterator().next();
+                return reject(record, first.getPropertyPath() + ": " + first.getMessage());
+            }
+
+            PaymentStatus status = record[6].isEmpty() ? PaymentStatus.PENDING : PaymentStatus.valueOf(record[6]);
+            LocalDateTime createdAt = record[7].isEmpty() ? loadTime : LocalDateTime.parse(record[7]);
+            String metadata = emptyToNull(record[9]);
+            if (metadata != null && !objectMapper.readTree(metadata).isObject()) {
+                return reject(record, "metadata must be a JSON object");
+            }
+
+            return new Result(new PaymentCopyRow(
+                request.getIdempotencyKey(),
+                status,
+                amount,
+                request.getMerchantId(),
+                request.getCustomerId(),
+                request.getPaymentMethod(),
+                request.getDescription(),
+                metadata,
+                createdAt
+            ), null, record);
+        } catch (PaymentException e) {
+            return reject(record, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return reject(record, "unknown currency or status: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            return reject(record, "created_at is not ISO-8601: " + record[7]);
+        } catch (JsonProcessingException e) {
+            return reject(record, "metadata is not valid JSON");
+        }
+    }
+
+    private Result reject(String[] record, String reason) {
+        return new Result(null, reason, record);
+    }
+
+    private String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
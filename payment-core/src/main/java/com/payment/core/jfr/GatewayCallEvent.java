@@ -0,0 +1,30 @@
+package com.payment.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Call to the payment gateway
+ */
+@Name(GatewayCallEvent.NAME)
+@Label("Gateway Call")
+@Category({"Payment"})
+@Description("Authorization call to the payment gateway")
+@StackTrace(false)
+public class GatewayCallEvent extends Event {
+
+    public static final String NAME = "com.payment.GatewayCall";
+
+    @Label("Payment Id")
+    public String paymentId;
+
+    @Label("Merchant Id")
+    public String merchantId;
+
+    @Label("Approved")
+    public boolean approved;
+}
@@ -0,0 +1,30 @@
+package com.payment.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * KafkaTemplate.send on the caller thread (serialization and buffering, not the broker ack)
+ */
+@Name(KafkaSendEvent.NAME)
+@Label("Kafka Send")
+@Category({"Payment", "Kafka"})
+@Description("Hand-off of a payment event to the Kafka producer")
+@StackTrace(false)
+public class KafkaSendEvent extends Event {
+
+    public static final String NAME = "com.payment.KafkaSend";
+
+    @Label("Topic")
+    public String topic;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Event Type")
+    public String eventType;
+}
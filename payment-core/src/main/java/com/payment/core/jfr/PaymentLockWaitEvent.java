@@ -0,0 +1,25 @@
+package com.payment.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SELECT ... FOR UPDATE on a payment row, including the time spent waiting for the lock
+ */
+@Name(PaymentLockWaitEvent.NAME)
+@Label("Payment Lock Wait")
+@Category({"Payment"})
+@Description("Pessimistic row lock taken by findByIdForUpdate")
+public class PaymentLockWaitEvent extends Event {
+
+    public static final String NAME = "com.payment.LockWait";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Payment Id")
+    public String paymentId;
+}
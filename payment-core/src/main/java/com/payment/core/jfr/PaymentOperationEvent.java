@@ -0,0 +1,30 @@
+package com.payment.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One create / process / refund call, committed when the operation returns
+ */
+@Name(PaymentOperationEvent.NAME)
+@Label("Payment Operation")
+@Category({"Payment"})
+@Description("Payment lifecycle operation from service entry to return")
+@StackTrace(false)
+public class PaymentOperationEvent extends Event {
+
+    public static final String NAME = "com.payment.Operation";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Payment Id")
+    public String paymentId;
+
+    @Label("Status")
+    public String status;
+}
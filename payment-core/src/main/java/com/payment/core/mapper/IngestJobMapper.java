@@ -0,0 +1,18 @@
+package com.payment.core.mapper;
+
+import com.payment.common.dto.IngestJobResponse;
+import com.payment.persistence.entity.IngestJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * MapStruct mapper for bulk ingest jobs
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface IngestJobMapper {
+
+    /**
+     * Convert IngestJob entity to IngestJobResponse DTO
+     */
+    IngestJobResponse toResponse(IngestJob job);
+}
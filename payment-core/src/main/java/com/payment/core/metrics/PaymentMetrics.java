@@ -0,0 +1,170 @@
+package com.payment.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage-level latency and outcome counters for the payment write paths
+ *
+ * Every (operation, stage) timer is registered up front and looked up by array index,
+ * so recording a stage is two nanoTime reads and one histogram update. Tags are the
+ * two enums only.
+ *
+ * JPA writes are flushed when the transaction commits, so the INSERT / UPDATE round trips
+ * are part of the commit stage; the save stages only cover the persistence context.
+ * Connection pool wait is not a stage here: it happens when the transaction starts and
+ * is reported by Hikari as hikari.connections.acquire.
+ */
+@Component
+public class PaymentMetrics {
+
+    /**
+     * Instrumented service operation
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Operation {
+        CREATE("create"),
+        PROCESS("process"),
+        REFUND("refund"),
+        EXPIRE("expire");
+
+        private final String tag;
+    }
+
+    /**
+     * Step inside an operation
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Stage {
+        IDEMPOTENCY_LOOKUP("idempotency_lookup"),
+        IDEMPOTENCY_STORE("idempotency_store"),
+        LOCK("lock"),
+        PAYMENT_SAVE("payment_save"),
+        EVENT_SAVE("event_save"),
+        GATEWAY("gateway"),
+        KAFKA_SEND("kafka_send"),
+        KAFKA_ACK("kafka_ack"),
+        COMMIT("commit");
+
+        private final String tag;
+    }
+
+    private final Timer[][] stages;
+    private final Counter[] retries;
+    private final Counter[] lockConflicts;
+    private final Counter idempotencyReplays;
+    private final Counter idempotencyConflicts;
+    private final Map<String, Counter> deadlinesExceeded = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Operation[] operations = Operation.values();
+        Stage[] stageValues = Stage.values();
+        stages = new Timer[operations.length][stageValues.length];
+        retries = new Counter[operations.length];
+        lockConflicts = new Counter[operations.length];
+        for (Operation operation : operations) {
+            for (Stage stage : stageValues) {
+                stages[operation.ordinal()][stage.ordinal()] = Timer.builder("payment.stage")
+                    .description("Latency of one stage of a payment operation")
+                    .tag("operation", operation.getTag())
+                    .tag("stage", stage.getTag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+            }
+            retries[operation.ordinal()] = Counter.builder("payment.retries")
+                .description("Operation attempts repeated after a transient failure")
+                .tag("operation", operation.getTag())
+                .register(registry);
+            lockConflicts[operation.ordinal()] = Counter.builder("payment.lock.conflicts")
+                .description("Optimistic locking conflicts")
+                .tag("operation", operation.getTag())
+                .register(registry);
+        }
+        idempotencyReplays = Counter.builder("payment.idempotency.hits")
+            .description("Requests answered from an existing payment or rejected as duplicates")
+            .tag("outcome", "replayed")
+            .register(registry);
+        idempotencyConflicts = Counter.builder("payment.idempotency.hits")
+            .description("Requests answered from an existing payment or rejected as duplicates")
+            .tag("outcome", "conflict")
+            .register(registry);
+    }
+
+    /**
+     * Record a stage that started at {@code startNanos} (from System.nanoTime) and ends now
+     */
+    public void record(Operation operation, Stage stage, long startNanos) {
+        stages[operation.ordinal()][stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time the flush and commit of the current transaction, if there is one
+     */
+    public void timeCommit(Operation operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long startNanos;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                record(operation, Stage.COMMIT, startNanos);
+            }
+        });
+    }
+
+    public void retry(Operation operation) {
+        retries[operation.ordinal()].increment();
+    }
+
+    public void lockConflict(Operation operation) {
+        lockConflicts[operation.ordinal()].increment();
+    }
+
+    /**
+     * Request with a known idempotency key answered with the existing payment
+     */
+    public void idempotencyReplay() {
+        idempotencyReplays.increment();
+    }
+
+    /**
+     * Duplicate idempotency key rejected while storing it
+     */
+    public void idempotencyConflict() {
+        idempotencyConflicts.increment();
+    }
+
+    /**
+     * Request given up because its deadline passed, by the stage that noticed
+     */
+    public void deadlineExceeded(String stage) {
+        deadlinesExceeded.computeIfAbsent(stage, s -> Counter.builder("payment.deadline.exceeded")
+            .description("Requests abandoned because their deadline passed, by stage")
+            .tag("stage", s)
+            .register(registry)).increment();
+    }
+}
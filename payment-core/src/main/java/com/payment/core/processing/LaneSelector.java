@@ -0,0 +1,95 @@
+package com.payment.core.processing;
+
+import com.payment.common.dto.PaymentRequest;
+import com.payment.infrastructure.ratelimit.MerchantRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Picks the processing lane of a payment
+ *
+ * The payment goes to the most urgent lane any rule gives it, STANDARD if none:
+ * - the merchant's rate-limit tier, through tier-lanes ("tier:LANE", comma separated)
+ * - amount >= high-value-amount: PRIORITY
+ * - amount < low-value-amount: BULK (0 disables the rule)
+ * Amounts are compared in the payment's own currency. A lane named in the metadata (key
+ * {@code payment.processing.lanes.metadata-key}) can only move the payment to a less urgent
+ * lane, e.g. a payout run tagging itself BULK; clients cannot promote themselves.
+ */
+@Slf4j
+@Component
+public class LaneSelector {
+
+    private final MerchantRateLimiter merchantRateLimiter;
+    private final String metadataKey;
+    private final Map<String, ProcessingLane> tierLanes = new HashMap<>();
+    private final BigDecimal highValueAmount;
+    private final BigDecimal lowValueAmount;
+
+    public LaneSelector(MerchantRateLimiter merchantRateLimiter,
+                        @Value("${payment.processing.lanes.metadata-key:lane}") String metadataKey,
+                        @Value("${payment.processing.lanes.tier-lanes:}") String tierLanes,
+                        @Value("${payment.processing.lanes.high-value-amount:10000}") BigDecimal highValueAmount,
+                        @Value("${payment.processing.lanes.low-value-amount:0}") BigDecimal lowValueAmount) {
+        this.merchantRateLimiter = merchantRateLimiter;
+        this.metadataKey = metadataKey;
+        this.highValueAmount = highValueAmount;
+        this.lowValueAmount = lowValueAmount;
+        for (String entry : tierLanes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("payment.processing.lanes.tier-lanes entry must be tier:LANE, got " + entry);
+            }
+            this.tierLanes.put(parts[0], ProcessingLane.valueOf(parts[1].toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    public ProcessingLane select(PaymentRequest request) {
+        return select(request.getMerchantId(), request.getAmount(), request.getMetadata());
+    }
+
+    public ProcessingLane select(String merchantId, BigDecimal amount, Map<String, Object> metadata) {
+        ProcessingLane lane = null;
+        if (merchantId != null) {
+            lane = tierLanes.get(merchantRateLimiter.tierOf(merchantId));
+        }
+        if (amount != null) {
+            if (amount.compareTo(highValueAmount) >= 0) {
+                lane = moreUrgent(lane, ProcessingLane.PRIORITY);
+            } else if (amount.compareTo(lowValueAmount) < 0) {
+                lane = moreUrgent(lane, ProcessingLane.BULK);
+            }
+        }
+        if (lane == null) {
+            lane = ProcessingLane.STANDARD;
+        }
+        ProcessingLane requested = requestedLane(merchantId, metadata);
+        return requested != null && requested.ordinal() > lane.ordinal() ? requested : lane;
+    }
+
+    private ProcessingLane requestedLane(String merchantId, Map<String, Object> metadata) {
+        Object requested = metadata == null ? null : metadata.get(metadataKey);
+        if (requested == null) {
+            return null;
+        }
+        try {
+            return ProcessingLane.valueOf(requested.toString().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring unknown processing lane {} for merchant {}", requested, merchantId);
+            return null;
+        }
+    }
+
+    private static ProcessingLane moreUrgent(ProcessingLane current, ProcessingLane candidate) {
+        return current == null || candidate.ordinal() < current.ordinal() ? candidate : current;
+    }
+}
@@ -0,0 +1,356 @@
+package com.payment.core.processing;
+
+import com.payment.common.exception.PaymentException;
+import com.payment.core.metrics.PaymentMetrics;
+import com.payment.core.metrics.PaymentMetrics.Operation;
+import com.payment.core.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor for payment processing
+ *
+ * Creates hand the payment id over with {@link #submit}; a fixed number of virtual-thread
+ * workers take ids from a bounded queue and run {@link PaymentService#processPayment},
+ * so a slow gateway fills the queue instead of piling up threads and connections.
+ * The queue has one FIFO lane per {@link ProcessingLane} ({@link LaneSelector} picks it), each
+ * holding queue-capacity payments, served by weighted fair queuing: while lanes are backlogged
+ * workers split between them by weight, so a payout burst in BULK neither delays PRIORITY
+ * beyond its share nor starves itself. Recovered payments go to STANDARD.
+ * When a lane is full the overflow policy decides:
+ * - REJECT: {@link #admit} turns the create away with 503 before anything is written
+ * - DEFER: the payment is created and stays PENDING until {@link StuckPaymentSweeper} claims it
+ * Transient database failures (lock conflicts, serialization failures) are retried in a new
+ * transaction: the payment is re-queued from a timer after an exponential backoff with full
+ * jitter, so no worker, connection or row lock is held while it waits. After max-attempts it
+ * is left PENDING for the sweeper.
+ * On shutdown new work is refused and the queue is drained for up to drain-timeout; whatever
+ * is left stays PENDING in the database for the sweeper on this or another node.
+ */
+@Slf4j
+@Component
+public class PaymentProcessingScheduler implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        REJECT,
+        DEFER
+    }
+
+    /**
+     * @param attempt 1 for the first run, incremented by every retry
+     */
+    private record Task(String paymentId, ProcessingLane lane, int attempt) {
+    }
+
+    private final PaymentService paymentService;
+    private final PaymentMetrics metrics;
+    private final int concurrency;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration drainTimeout;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+
+    private final WeightedFairQueue<Task> queue;
+    private final Set<String> queuedIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger retryWaiting = new AtomicInteger();
+    private ScheduledExecutorService retryTimer;
+
+    private final Map<ProcessingLane, Timer> queueWait = new EnumMap<>(ProcessingLane.class);
+    private final Counter accepted;
+    private final Counter deferred;
+    private final Counter rejected;
+    private final Counter failed;
+    private final DistributionSummary attemptsCompleted;
+    private final DistributionSummary attemptsExhausted;
+    private final DistributionSummary attemptsFailed;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public PaymentProcessingScheduler(PaymentService paymentService,
+                                      PaymentMetrics metrics,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${payment.processing.concurrency:16}") int concurrency,
+                                      @Value("${payment.processing.queue-capacity:10000}") int capacity,
+                                      @Value("${payment.processing.overflow-policy:REJECT}") OverflowPolicy overflowPolicy,
+                                      @Value("${payment.processing.drain-timeout-ms:20000}") long drainTimeoutMillis,
+                                      @Value("${payment.processing.retry.max-attempts:4}") int maxAttempts,
+                                      @Value("${payment.processing.retry.base-delay-ms:100}") long retryBaseMillis,
+                                      @Value("${payment.processing.retry.max-delay-ms:5000}") long retryMaxMillis,
+                                      @Value("${payment.processing.lanes.priority-weight:8}") int priorityWeight,
+                                      @Value("${payment.processing.lanes.standard-weight:4}") int standardWeight,
+                                      @Value("${payment.processing.lanes.bulk-weight:1}") int bulkWeight) {
+        this.paymentService = paymentService;
+        this.metrics = metrics;
+        this.concurrency = concurrency;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.drainTimeout = Duration.ofMillis(drainTimeoutMillis);
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.queue = new WeightedFairQueue<>(new int[]{priorityWeight, standardWeight, bulkWeight}, capacity);
+
+        for (ProcessingLane lane : ProcessingLane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            queueWait.put(lane, Timer.builder("payment.processing.queue.wait")
+                .description("Time payments spent queued before a worker picked them up, by lane")
+                .tag("lane", tag)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            Gauge.builder("payment.processing.queue.depth", queue, q -> q.size(lane.ordinal()))
+                .description("Payments waiting for a processing worker, by lane")
+                .tag("lane", tag)
+                .register(meterRegistry);
+            TimeGauge.builder("payment.processing.queue.age", queue, TimeUnit.NANOSECONDS,
+                    q -> q.oldestNanos(lane.ordinal()))
+                .description("How long the oldest queued payment of the lane has been waiting")
+                .tag("lane", tag)
+                .register(meterRegistry);
+        }
+        this.accepted = submitted(meterRegistry, "accepted");
+        this.deferred = submitted(meterRegistry, "deferred");
+        this.rejected = submitted(meterRegistry, "rejected");
+        this.failed = Counter.builder("payment.processing.failed")
+            .description("Processing attempts that threw; the payment is left for the sweeper")
+            .register(meterRegistry);
+        Gauge.builder("payment.processing.active", active, AtomicInteger::get)
+            .description("Payments being processed")
+            .register(meterRegistry);
+        this.attemptsCompleted = attempts(meterRegistry, "completed");
+        this.attemptsExhausted = attempts(meterRegistry, "exhausted");
+        this.attemptsFailed = attempts(meterRegistry, "failed");
+        Gauge.builder("payment.processing.retry.waiting", retryWaiting, AtomicInteger::get)
+            .description("Payments waiting out a retry backoff")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Retry depth: attempts a payment took, by final outcome
+     * completed (processed), exhausted (still transient after max-attempts), failed (non-retryable error)
+     */
+    private static DistributionSummary attempts(MeterRegistry registry, String outcome) {
+        return DistributionSummary.builder("payment.processing.attempts")
+            .description("Processing attempts per payment, by final outcome")
+            .tag("outcome", outcome)
+            .serviceLevelObjectives(1, 2, 3, 4, 5, 8)
+            .register(registry);
+    }
+
+    private static Counter submitted(MeterRegistry registry, String outcome) {
+        return Counter.builder("payment.processing.submitted")
+            .description("Payments handed to processing by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Called before a payment is created; pushes back while its lane is saturated
+     *
+     * @throws PaymentException 503 PROCESSING_SATURATED under the REJECT policy when the lane is full
+     */
+    public void admit(ProcessingLane lane) {
+        if (overflowPolicy == OverflowPolicy.REJECT && (!accepting || queue.remainingCapacity(lane.ordinal()) == 0)) {
+            rejected.increment();
+            throw new PaymentException("Payment processing is saturated, please retry later",
+                "PROCESSING_SATURATED", 503);
+        }
+    }
+
+    /**
+     * Queue a payment in the STANDARD lane
+     */
+    public boolean submit(String paymentId) {
+        return submit(paymentId, ProcessingLane.STANDARD);
+    }
+
+    /**
+     * Queue a created payment for processing
+     *
+     * @return false if it was left PENDING for the sweeper (lane full or shutting down)
+     */
+    public boolean submit(String paymentId, ProcessingLane lane) {
+        if (!accepting) {
+            deferred.increment();
+            return false;
+        }
+        if (!queuedIds.add(paymentId)) {
+            return true;
+        }
+        if (!queue.offer(lane.ordinal(), new Task(paymentId, lane, 1))) {
+            queuedIds.remove(paymentId);
+            deferred.increment();
+            log.warn("Processing lane {} full, payment {} left PENDING for the sweeper", lane, paymentId);
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Slots the sweeper may fill in the STANDARD lane: half of it is kept for fresh creates
+     */
+    public int spareCapacity() {
+        return accepting ? Math.max(0, queue.remainingCapacity(ProcessingLane.STANDARD.ordinal()) - capacity / 2) : 0;
+    }
+
+    private void runWorker() {
+        while (running) {
+            WeightedFairQueue.Polled<Task> polled;
+            try {
+                polled = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (polled == null) {
+                continue;
+            }
+            Task task = polled.item();
+            queuedIds.remove(task.paymentId());
+            queueWait.get(task.lane()).record(polled.waitedNanos(), TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+            try {
+                paymentService.processPayment(task.paymentId());
+                attemptsCompleted.record(task.attempt());
+            } catch (TransientDataAccessException e) {
+                if (e instanceof OptimisticLockingFailureException) {
+                    metrics.lockConflict(Operation.PROCESS);
+                }
+                retryLater(task, e);
+            } catch (Exception e) {
+                failed.increment();
+                attemptsFailed.record(task.attempt());
+                log.error("Payment processing failed for: {}", task.paymentId(), e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Re-queue after min(max-delay, base-delay * 2^(attempt-1)) with full jitter
+     * The id stays in queuedIds meanwhile, so the sweeper does not queue it a second time
+     */
+    private void retryLater(Task task, TransientDataAccessException cause) {
+        if (task.attempt() >= maxAttempts || !accepting) {
+            queuedIds.remove(task.paymentId());
+            attemptsExhausted.record(task.attempt());
+            log.warn("Payment {} still conflicting after {} attempts, left PENDING for the sweeper: {}",
+                task.paymentId(), task.attempt(), cause.getMessage());
+            return;
+        }
+        long ceiling = Math.min(retryMaxMillis, retryBaseMillis << Math.min(task.attempt() - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        queuedIds.add(task.paymentId());
+        retryWaiting.incrementAndGet();
+        metrics.retry(Operation.PROCESS);
+        log.debug("Retrying payment {} in {} ms (attempt {}): {}",
+            task.paymentId(), delay, task.attempt() + 1, cause.getMessage());
+        try {
+            retryTimer.schedule(() -> requeue(task), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // timer already shut down
+            retryWaiting.decrementAndGet();
+            queuedIds.remove(task.paymentId());
+        }
+    }
+
+    private void requeue(Task task) {
+        retryWaiting.decrementAndGet();
+        if (!accepting || !queue.offer(task.lane().ordinal(), new Task(task.paymentId(), task.lane(), task.attempt() + 1))) {
+            queuedIds.remove(task.paymentId());
+            attemptsExhausted.record(task.attempt());
+            log.warn("Could not re-queue payment {} for retry, left PENDING for the sweeper", task.paymentId());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        accepting = true;
+        retryTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-processing-retry").daemon().factory());
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("payment-processor-" + i).start(this::runWorker));
+        }
+        log.info("Payment processing started ({} workers, lane capacity {}, overflow {})",
+            concurrency, capacity, overflowPolicy);
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        // payments waiting out a backoff stay PENDING for the sweeper
+        int abandoned = retryTimer.shutdownNow().size();
+        retryWaiting.addAndGet(-abandoned);
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while ((queue.size() > 0 || active.get() > 0) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // workers finish the payment in hand (an interrupt would fail it at the gateway); joining
+        // also covers one polled but not yet counted in active
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0)).plusMillis(200));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Task> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(task -> queuedIds.remove(task.paymentId()));
+        if (!left.isEmpty() || active.get() > 0) {
+            log.warn("Processing drain timed out: {} queued payments left PENDING, {} still in progress",
+                left.size(), active.get());
+        }
+        workers.clear();
+    }
+
+    /**
+     * Stop after the web server has finished its requests, so no create is accepted after the drain
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 3072;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
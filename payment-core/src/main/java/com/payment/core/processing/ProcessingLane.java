@@ -0,0 +1,10 @@
+package com.payment.core.processing;
+
+/**
+ * Lanes of the processing queue, most urgent first
+ */
+public enum ProcessingLane {
+    PRIORITY,
+    STANDARD,
+    BULK
+}
@@ -0,0 +1,94 @@
+package com.payment.core.processing;
+
+import com.payment.persistence.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recovers payments stuck in PENDING or PROCESSING
+ *
+ * A payment nobody finished (node died between create and processing, deferred on
+ * overflow, left in the queue at shutdown) is claimed in batches with
+ * FOR UPDATE SKIP LOCKED and handed to {@link PaymentProcessingScheduler}.
+ * Runs on every node without coordination:
+ * - payments in processing hold their row lock, so they are skipped
+ * - a claim moves updated_at forward, so other nodes leave the payment alone for stale-after
+ * - a payment queued on two nodes is processed once, the second run finds it terminal
+ * A claimed payment that is not processed (queue full, crash) simply goes stale again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.recovery.enabled", matchIfMissing = true)
+public class StuckPaymentSweeper {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentProcessingScheduler processingScheduler;
+    private final Duration staleAfter;
+    private final int batchSize;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter claimed;
+    private final Timer sweeps;
+
+    public StuckPaymentSweeper(PaymentRepository paymentRepository,
+                               PaymentProcessingScheduler processingScheduler,
+                               MeterRegistry meterRegistry,
+                               @Value("${payment.recovery.stale-after-ms:60000}") long staleAfterMillis,
+                               @Value("${payment.recovery.batch-size:500}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.processingScheduler = processingScheduler;
+        this.staleAfter = Duration.ofMillis(staleAfterMillis);
+        this.batchSize = batchSize;
+
+        this.claimed = Counter.builder("payment.recovery.claimed")
+            .description("Stuck payments claimed by this node and handed to processing")
+            .register(meterRegistry);
+        this.sweeps = Timer.builder("payment.recovery.sweep")
+            .description("Duration of recovery sweeps")
+            .register(meterRegistry);
+        Gauge.builder("payment.recovery.backlog", backlog, AtomicLong::get)
+            .description("Stuck payments waiting to be claimed, as of the last sweep")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Claim batches while they come back full and the processing queue has room
+     */
+    @Scheduled(fixedDelayString = "${payment.recovery.sweep-interval-ms:10000}",
+               initialDelayString = "${payment.recovery.sweep-interval-ms:10000}")
+    public void sweep() {
+        sweeps.record(() -> {
+            int total = 0;
+            while (true) {
+                int limit = Math.min(batchSize, processingScheduler.spareCapacity());
+                if (limit == 0) {
+                    break;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                List<String> paymentIds = paymentRepository.claimStale(now.minus(staleAfter), now, limit);
+                paymentIds.forEach(processingScheduler::submit);
+                claimed.increment(paymentIds.size());
+                total += paymentIds.size();
+                if (paymentIds.size() < limit) {
+                    break;
+                }
+            }
+            backlog.set(paymentRepository.countStale(LocalDateTime.now().minus(staleAfter)));
+            if (total > 0) {
+                log.info("Claimed {} stuck payments for processing, {} still waiting", total, backlog.get());
+            }
+        });
+    }
+}
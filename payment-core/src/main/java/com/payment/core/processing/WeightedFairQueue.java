@@ -0,0 +1,171 @@
+package com.payment.core.processing;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking multi-lane queue served by start-time fair queuing
+ *
+ * Every lane is a bounded FIFO with a weight. An item is tagged on arrival with a virtual
+ * start time, max(virtual clock, finish of the lane's previous item), and finishes 1/weight
+ * later; {@link #poll} serves the lane head with the smallest start tag and moves the clock
+ * there. Backlogged lanes therefore share the consumers in proportion to their weights, so a
+ * burst in one lane only delays the others by its weight share and no lane with a non-zero
+ * weight starves. A lane that was idle restarts at the current clock: it gets no credit for
+ * the time it had nothing queued.
+ *
+ * @param <T> Queued item
+ */
+public class WeightedFairQueue<T> {
+
+    /**
+     * @param lane Index of the lane the item was queued in
+     * @param waitedNanos Time between offer and poll
+     */
+    public record Polled<T>(T item, int lane, long waitedNanos) {
+    }
+
+    private record Entry<T>(T item, double startTag, long enqueuedNanos) {
+    }
+
+    private final double[] costs;
+    private final int capacityPerLane;
+    private final ArrayDeque<Entry<T>>[] lanes;
+    private final double[] lastFinish;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private double virtualTime;
+    private int size;
+
+    /**
+     * @param weights Share of each lane while all are backlogged, each >= 1
+     * @param capacityPerLane Items each lane holds before {@link #offer} refuses
+     */
+    @SuppressWarnings("unchecked")
+    public WeightedFairQueue(int[] weights, int capacityPerLane) {
+        if (weights.length == 0 || capacityPerLane < 1) {
+            throw new IllegalArgumentException("need at least one lane and a capacity >= 1");
+        }
+        this.costs = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 1) {
+                throw new IllegalArgumentException("lane weights must be >= 1");
+            }
+            costs[i] = 1.0 / weights[i];
+        }
+        this.capacityPerLane = capacityPerLane;
+        this.lanes = new ArrayDeque[weights.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+        this.lastFinish = new double[weights.length];
+    }
+
+    /**
+     * @return false if the lane is full
+     */
+    public boolean offer(int lane, T item) {
+        lock.lock();
+        try {
+            if (lanes[lane].size() >= capacityPerLane) {
+                return false;
+            }
+            double start = Math.max(virtualTime, lastFinish[lane]);
+            lastFinish[lane] = start + costs[lane];
+            lanes[lane].addLast(new Entry<>(item, start, System.nanoTime()));
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next item in fair order, waiting up to the timeout for one
+     *
+     * @return null on timeout
+     */
+    public Polled<T> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            int next = -1;
+            for (int lane = 0; lane < lanes.length; lane++) {
+                Entry<T> head = lanes[lane].peekFirst();
+                if (head != null && (next < 0 || head.startTag() < lanes[next].peekFirst().startTag())) {
+                    next = lane;
+                }
+            }
+            Entry<T> entry = lanes[next].pollFirst();
+            size--;
+            virtualTime = entry.startTag();
+            return new Polled<>(entry.item(), next, System.nanoTime() - entry.enqueuedNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size(int lane) {
+        lock.lock();
+        try {
+            return lanes[lane].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int remainingCapacity(int lane) {
+        return capacityPerLane - size(lane);
+    }
+
+    /**
+     * How long the lane's oldest item has been waiting, 0 if it is empty
+     */
+    public long oldestNanos(int lane) {
+        lock.lock();
+        try {
+            Entry<T> head = lanes[lane].peekFirst();
+            return head == null ? 0 : System.nanoTime() - head.enqueuedNanos();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove every queued item, lane by lane
+     */
+    public void drainTo(List<? super T> into) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry<T>> lane : lanes) {
+                for (Entry<T> entry : lane) {
+                    into.add(entry.item());
+                }
+                lane.clear();
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.payment.core.reporting;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Aggregates a {@link PaymentColumns} snapshot per (merchant, currency, status) group
+ *
+ * Groups are cut into segments of at most {@value #SEGMENT_ROWS} rows so one very large
+ * merchant still spreads over every worker; segments are aggregated on a fork/join pool
+ * and merged per group afterwards. Percentiles are exact (nearest rank) and cost a sort
+ * of each group, so they are only computed on request.
+ */
+final class ColumnarReportEngine {
+
+    static final int SEGMENT_ROWS = 1 << 20;
+    private static final int LEAF_ROWS = 1 << 18;
+
+    private final ForkJoinPool pool;
+    private final RangeAggregator vectorAggregator;
+    private final RangeAggregator scalarAggregator = new ScalarRangeAggregator();
+
+    ColumnarReportEngine(ForkJoinPool pool, RangeAggregator vectorAggregator) {
+        this.pool = pool;
+        this.vectorAggregator = vectorAggregator;
+    }
+
+    boolean isVectorized() {
+        return vectorAggregator.isVectorized();
+    }
+
+    /**
+     * Aggregate groups [firstGroup, endGroup) over rows created in [tsFrom, tsTo)
+     *
+     * @param filter false when the snapshot window equals the query window
+     */
+    List<GroupResult> aggregate(PaymentColumns columns, int firstGroup, int endGroup,
+                                long tsFrom, long tsTo, boolean filter, boolean percentiles) {
+        int[] groupStart = columns.getGroupStart();
+        long[] amounts = columns.getAmounts();
+        long[] timestamps = columns.getTimestamps();
+        RangeAggregator aggregator = columns.sumsFitInLong() ? vectorAggregator : scalarAggregator;
+
+        // segment boundaries, each segment inside exactly one group
+        int[] segmentBounds = new int[segmentCount(groupStart, firstGroup, endGroup) + 1];
+        int[] segmentGroup = new int[segmentBounds.length - 1];
+        int s = 0;
+        for (int g = firstGroup; g < endGroup; g++) {
+            for (int start = groupStart[g]; start < groupStart[g + 1]; start += SEGMENT_ROWS) {
+                segmentBounds[s] = start;
+                segmentGroup[s++] = g;
+            }
+        }
+        segmentBounds[s] = groupStart[endGroup];
+
+        RangeStats[] segmentStats = new RangeStats[segmentGroup.length];
+        run(segmentBounds, segment -> {
+            RangeStats stats = new RangeStats();
+            aggregator.aggregate(amounts, timestamps, segmentBounds[segment], segmentBounds[segment + 1],
+                tsFrom, tsTo, filter, stats);
+            segmentStats[segment] = stats;
+        });
+
+        int groups = endGroup - firstGroup;
+        RangeStats[] groupStats = new RangeStats[groups];
+        for (int i = 0; i < groups; i++) {
+            groupStats[i] = new RangeStats();
+        }
+        for (int i = 0; i < segmentStats.length; i++) {
+            groupStats[segmentGroup[i] - firstGroup].merge(segmentStats[i]);
+        }
+
+        long[][] groupPercentiles = new long[groups][];
+        if (percentiles) {
+            int[] bounds = Arrays.copyOfRange(groupStart, firstGroup, endGroup + 1);
+            run(bounds, i -> {
+                if (groupStats[i].count > 0) {
+                    groupPercentiles[i] = percentiles(amounts, timestamps, bounds[i], bounds[i + 1],
+                        tsFrom, tsTo, filter, (int) groupStats[i].count);
+                }
+            });
+        }
+
+        List<GroupResult> results = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            RangeStats stats = groupStats[i];
+            if (stats.count == 0) {
+                continue;
+            }
+            int g = firstGroup + i;
+            long[] p = groupPercentiles[i];
+            results.add(new GroupResult(columns.getGroupMerchant()[g], columns.getGroupCurrency()[g],
+                columns.getGroupStatus()[g], stats.count, stats.sum, stats.min, stats.max,
+                p == null ? null : p[0], p == null ? null : p[1], p == null ? null : p[2]));
+        }
+        return results;
+    }
+
+    private static int segmentCount(int[] groupStart, int firstGroup, int endGroup) {
+        int count = 0;
+        for (int g = firstGroup; g < endGroup; g++) {
+            int rows = groupStart[g + 1] - groupStart[g];
+            count += (rows + SEGMENT_ROWS - 1) / SEGMENT_ROWS;
+        }
+        return count;
+    }
+
+    private static long[] percentiles(long[] amounts, long[] timestamps, int from, int to,
+                                      long tsFrom, long tsTo, boolean filter, int count) {
+        long[] values;
+        if (filter) {
+            values = new long[count];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (timestamps[i] >= tsFrom && timestamps[i] < tsTo) {
+                    values[n++] = amounts[i];
+                }
+            }
+        } else {
+            values = Arrays.copyOfRange(amounts, from, to);
+        }
+        if (values.length > SEGMENT_ROWS) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+        return new long[] {nearestRank(values, 50), nearestRank(values, 95), nearestRank(values, 99)};
+    }
+
+    private static long nearestRank(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private void run(int[] bounds, IntConsumer body) {
+        pool.invoke(new ForEachTask(bounds, 0, bounds.length - 1, body));
+    }
+
+    /**
+     * Runs a body for every item in [lo, hi), splitting while the items span many rows;
+     * item i spans rows [bounds[i], bounds[i + 1])
+     */
+    private static final class ForEachTask extends RecursiveAction {
+
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+        private final IntConsumer body;
+
+        ForEachTask(int[] bounds, int lo, int hi, IntConsumer body) {
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= 1 || bounds[hi] - bounds[lo] <= LEAF_ROWS) {
+                for (int i = lo; i < hi; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ForEachTask(bounds, lo, mid, body), new ForEachTask(bounds, mid, hi, body));
+        }
+    }
+
+    /**
+     * Aggregate of one group, amounts in minor units; percentiles are null when not requested
+     */
+    record GroupResult(String merchantId, Currency currency, PaymentStatus status, long count,
+                       long sum, long min, long max, Long p50, Long p95, Long p99) {
+    }
+}
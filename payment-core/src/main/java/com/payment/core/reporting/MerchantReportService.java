@@ -0,0 +1,161 @@
+package com.payment.core.reporting;
+
+import com.payment.common.dto.MerchantReportResponse;
+import com.payment.common.exception.PaymentException;
+import com.payment.common.money.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merchant reporting over a columnar snapshot of the payments table
+ *
+ * The first report for a window scans the table once into primitive columns; later
+ * reports for the same window, a narrower one or a single merchant inside it are served
+ * from that snapshot until it expires. Aggregation runs on a dedicated fork/join pool
+ * with the JDK Vector API when the jdk.incubator.vector module is enabled.
+ */
+@Slf4j
+@Service
+public class MerchantReportService {
+
+    private final ReportWindowLoader loader;
+    private final ForkJoinPool pool;
+    private final ColumnarReportEngine engine;
+    private final Duration maxWindow;
+    private final long snapshotTtlNanos;
+
+    // not synchronized: a virtual thread loading a window under a monitor would pin its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public MerchantReportService(ReportWindowLoader loader,
+                                 @Value("${payment.reporting.parallelism:0}") int parallelism,
+                                 @Value("${payment.reporting.max-window-days:366}") long maxWindowDays,
+                                 @Value("${payment.reporting.snapshot-ttl-seconds:300}") long snapshotTtlSeconds) {
+        this.loader = loader;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.engine = new ColumnarReportEngine(pool, RangeAggregator.best());
+        this.maxWindow = Duration.ofDays(maxWindowDays);
+        this.snapshotTtlNanos = Duration.ofSeconds(snapshotTtlSeconds).toNanos();
+        log.info("Merchant reporting uses {} aggregation", engine.isVectorized() ? "vector" : "scalar");
+    }
+
+    /**
+     * Aggregate payments created in [from, to) per merchant, currency and status
+     *
+     * @param merchantId Optional merchant filter
+     * @param percentiles Also compute exact p50 / p95 / p99 amounts
+     * @param refresh Reload the window from the database instead of reusing the snapshot
+     */
+    public MerchantReportResponse report(LocalDateTime from, LocalDateTime to, String merchantId,
+                                         boolean percentiles, boolean refresh) {
+        if (!from.isBefore(to)) {
+            throw new PaymentException("Report window start must be before its end", "INVALID_REPORT_WINDOW", 400);
+        }
+        if (Duration.between(from, to).compareTo(maxWindow) > 0) {
+            throw new PaymentException("Report window exceeds " + maxWindow.toDays() + " days",
+                "INVALID_REPORT_WINDOW", 400);
+        }
+
+        long loadStart = System.nanoTime();
+        Snapshot current = snapshot(from, to, merchantId, refresh);
+        long loadNanos = current.loadedAt >= loadStart ? current.loadedAt - loadStart : 0;
+
+        PaymentColumns columns = current.columns;
+        int firstGroup = 0;
+        int endGroup = columns.groupCount();
+        if (merchantId != null && columns.getMerchantId() == null) {
+            firstGroup = columns.firstGroup(merchantId);
+            endGroup = firstGroup;
+            while (endGroup < columns.groupCount() && columns.getGroupMerchant()[endGroup].equals(merchantId)) {
+                endGroup++;
+            }
+        }
+        boolean filter = !from.equals(columns.getFrom()) || !to.equals(columns.getTo());
+
+        long aggregateStart = System.nanoTime();
+        List<ColumnarReportEngine.GroupResult> groups = engine.aggregate(columns, firstGroup, endGroup,
+            epochMillis(from), epochMillis(to), filter, percentiles);
+        long aggregateNanos = System.nanoTime() - aggregateStart;
+
+        log.debug("Merchant report {} - {}: {} groups, snapshot rows {}, aggregated in {} ms",
+            from, to, groups.size(), columns.size(), aggregateNanos / 1_000_000);
+
+        return MerchantReportResponse.builder()
+            .from(from)
+            .to(to)
+            .merchantId(merchantId)
+            .snapshotRows(columns.size())
+            .loadMillis(loadNanos / 1_000_000)
+            .aggregateMillis(aggregateNanos / 1_000_000)
+            .vectorized(engine.isVectorized())
+            .entries(groups.stream().map(MerchantReportService::toEntry).toList())
+            .build();
+    }
+
+    private Snapshot snapshot(LocalDateTime from, LocalDateTime to, String merchantId, boolean refresh) {
+        Snapshot current = snapshot;
+        if (!refresh && usable(current, from, to, merchantId)) {
+            return current;
+        }
+        // one load at a time, a window can be large
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (!refresh && usable(current, from, to, merchantId)) {
+                return current;
+            }
+            snapshot = null;
+            PaymentColumns columns = loader.load(from, to, merchantId);
+            current = new Snapshot(columns, System.nanoTime());
+            snapshot = current;
+            log.info("Loaded report window {} - {} ({} rows, {} groups)",
+                from, to, columns.size(), columns.groupCount());
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private boolean usable(Snapshot current, LocalDateTime from, LocalDateTime to, String merchantId) {
+        return current != null
+            && System.nanoTime() - current.loadedAt < snapshotTtlNanos
+            && current.columns.covers(from, to, merchantId);
+    }
+
+    private static MerchantReportResponse.Entry toEntry(ColumnarReportEngine.GroupResult group) {
+        return MerchantReportResponse.Entry.builder()
+            .merchantId(group.merchantId())
+            .currency(group.currency())
+            .status(group.status())
+            .count(group.count())
+            .totalAmount(Money.of(group.sum(), group.currency()).toBigDecimal())
+            .minAmount(Money.of(group.min(), group.currency()).toBigDecimal())
+            .maxAmount(Money.of(group.max(), group.currency()).toBigDecimal())
+            .p50Amount(group.p50() == null ? null : Money.of(group.p50(), group.currency()).toBigDecimal())
+            .p95Amount(group.p95() == null ? null : Money.of(group.p95(), group.currency()).toBigDecimal())
+            .p99Amount(group.p99() == null ? null : Money.of(group.p99(), group.currency()).toBigDecimal())
+            .build();
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private record Snapshot(PaymentColumns columns, long loadedAt) {
+    }
+}
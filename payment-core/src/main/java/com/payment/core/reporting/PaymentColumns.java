@@ -0,0 +1,225 @@
+package com.payment.core.reporting;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.persistence.repository.PaymentReportRepository;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar, read-only snapshot of the payments in a time window
+ *
+ * Rows are stored grouped by (merchant, currency, status), merchants in ascending
+ * order, so every group is one contiguous range of the primitive columns:
+ * group g spans rows [groupStart[g], groupStart[g + 1]).
+ *
+ * Memory: 16 bytes per row once built, about 37 bytes per row while building.
+ */
+@Getter
+public final class PaymentColumns {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final int KEYS_PER_MERCHANT = CURRENCIES.length * STATUSES.length;
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String merchantId;
+
+    /**
+     * Amount in minor units of the group's currency
+     */
+    private final long[] amounts;
+
+    /**
+     * Creation time, epoch millis (UTC)
+     */
+    private final long[] timestamps;
+
+    private final int[] groupStart;
+    private final String[] groupMerchant;
+    private final Currency[] groupCurrency;
+    private final PaymentStatus[] groupStatus;
+
+    /**
+     * Largest absolute amount in the snapshot, used to prove sums cannot overflow
+     */
+    private final long maxAbsAmount;
+
+    private PaymentColumns(LocalDateTime from, LocalDateTime to, String merchantId,
+                           long[] amounts, long[] timestamps, int[] groupStart, String[] groupMerchant,
+                           Currency[] groupCurrency, PaymentStatus[] groupStatus, long maxAbsAmount) {
+        this.from = from;
+        this.to = to;
+        this.merchantId = merchantId;
+        this.amounts = amounts;
+        this.timestamps = timestamps;
+        this.groupStart = groupStart;
+        this.groupMerchant = groupMerchant;
+        this.groupCurrency = groupCurrency;
+        this.groupStatus = groupStatus;
+        this.maxAbsAmount = maxAbsAmount;
+    }
+
+    public int size() {
+        return amounts.length;
+    }
+
+    public int groupCount() {
+        return groupMerchant.length;
+    }
+
+    /**
+     * Whether the snapshot holds every row a query for this window and merchant needs
+     */
+    public boolean covers(LocalDateTime from, LocalDateTime to, String merchantId) {
+        return !from.isBefore(this.from) && !to.isAfter(this.to)
+            && (this.merchantId == null || this.merchantId.equals(merchantId));
+    }
+
+    /**
+     * First group of a merchant, or the insertion point if it has no rows
+     */
+    public int firstGroup(String merchantId) {
+        int lo = 0;
+        int hi = groupMerchant.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (groupMerchant[mid].compareTo(merchantId) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Whether a sum over any range of the snapshot fits in a long without checks
+     */
+    public boolean sumsFitInLong() {
+        return amounts.length == 0 || maxAbsAmount <= Long.MAX_VALUE / amounts.length;
+    }
+
+    public static Builder builder(LocalDateTime from, LocalDateTime to, String merchantId) {
+        return new Builder(from, to, merchantId);
+    }
+
+    /**
+     * Collects scanned rows in arrival order and regroups them with a counting sort
+     */
+    public static final class Builder implements PaymentReportRepository.ReportRowHandler {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final String merchantId;
+
+        private final Map<String, Integer> merchantIndex = new HashMap<>();
+        private String lastMerchant;
+        private int lastMerchantIndex;
+
+        private int[] merchants = new int[1024];
+        private byte[] keys = new byte[1024];
+        private long[] amounts = new long[1024];
+        private long[] timestamps = new long[1024];
+        private int size;
+        private long maxAbsAmount;
+
+        private Builder(LocalDateTime from, LocalDateTime to, String merchantId) {
+            this.from = from;
+            this.to = to;
+            this.merchantId = merchantId;
+        }
+
+        @Override
+        public void accept(String merchantId, Currency currency, PaymentStatus status,
+                           long amountMinor, long createdAtMillis) {
+            if (size == amounts.length) {
+                grow();
+            }
+            // rows of one merchant tend to arrive together, skip the hash lookup for them
+            if (!merchantId.equals(lastMerchant)) {
+                lastMerchantIndex = merchantIndex.computeIfAbsent(merchantId, m -> merchantIndex.size());
+                lastMerchant = merchantId;
+            }
+            merchants[size] = lastMerchantIndex;
+            keys[size] = (byte) (currency.ordinal() * STATUSES.length + status.ordinal());
+            amounts[size] = amountMinor;
+            timestamps[size] = createdAtMillis;
+            maxAbsAmount = Math.max(maxAbsAmount, Math.abs(amountMinor));
+            size++;
+        }
+
+        private void grow() {
+            int capacity = amounts.length + (amounts.length >> 1);
+            if (capacity < 0 || capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Report window exceeds " + amounts.length + " rows");
+            }
+            merchants = Arrays.copyOf(merchants, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+
+        public PaymentColumns build() {
+            String[] names = new String[merchantIndex.size()];
+            merchantIndex.forEach((name, index) -> names[index] = name);
+            String[] sortedNames = names.clone();
+            Arrays.sort(sortedNames);
+            int[] rank = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                rank[merchantIndex.get(sortedNames[i])] = i;
+            }
+
+            // counting sort on slot = merchant rank * KEYS_PER_MERCHANT + key
+            int slots = names.length * KEYS_PER_MERCHANT;
+            int[] offsets = new int[slots + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[slot(rank, i) + 1]++;
+            }
+            int groups = 0;
+            for (int s = 0; s < slots; s++) {
+                if (offsets[s + 1] > 0) {
+                    groups++;
+                }
+                offsets[s + 1] += offsets[s];
+            }
+
+            int[] groupStart = new int[groups + 1];
+            String[] groupMerchant = new String[groups];
+            Currency[] groupCurrency = new Currency[groups];
+            PaymentStatus[] groupStatus = new PaymentStatus[groups];
+            int g = 0;
+            for (int s = 0; s < slots; s++) {
+                if (offsets[s + 1] > offsets[s]) {
+                    int key = s % KEYS_PER_MERCHANT;
+                    groupStart[g] = offsets[s];
+                    groupMerchant[g] = sortedNames[s / KEYS_PER_MERCHANT];
+                    groupCurrency[g] = CURRENCIES[key / STATUSES.length];
+                    groupStatus[g] = STATUSES[key % STATUSES.length];
+                    g++;
+                }
+            }
+            groupStart[groups] = size;
+
+            long[] groupedAmounts = new long[size];
+            long[] groupedTimestamps = new long[size];
+            for (int i = 0; i < size; i++) {
+                int target = offsets[slot(rank, i)]++;
+                groupedAmounts[target] = amounts[i];
+                groupedTimestamps[target] = timestamps[i];
+            }
+
+            return new PaymentColumns(from, to, merchantId, groupedAmounts, groupedTimestamps,
+                groupStart, groupMerchant, groupCurrency, groupStatus, maxAbsAmount);
+        }
+
+        private int slot(int[] rank, int row) {
+            return rank[merchants[row]] * KEYS_PER_MERCHANT + keys[row];
+        }
+    }
+}
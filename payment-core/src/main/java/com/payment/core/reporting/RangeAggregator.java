@@ -0,0 +1,36 @@
+package com.payment.core.reporting;
+
+/**
+ * Aggregates a contiguous range of the amount column, filtered on the timestamp column
+ */
+interface RangeAggregator {
+
+    /**
+     * Aggregate rows [from, to) whose timestamp is in [tsFrom, tsTo) into {@code out}
+     *
+     * @param filter false when every row of the range is known to be inside the time bounds
+     */
+    void aggregate(long[] amounts, long[] timestamps, int from, int to,
+                   long tsFrom, long tsTo, boolean filter, RangeStats out);
+
+    default boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Vector implementation when the jdk.incubator.vector module is resolved, scalar otherwise
+     * Loaded by name: VectorRangeAggregator is compiled in a javac execution of its own (see pom.xml)
+     */
+    static RangeAggregator best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (RangeAggregator) Class.forName("com.payment.core.reporting.VectorRangeAggregator")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar loop
+            }
+        }
+        return new ScalarRangeAggregator();
+    }
+}
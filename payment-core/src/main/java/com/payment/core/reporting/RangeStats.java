@@ -0,0 +1,23 @@
+package com.payment.core.reporting;
+
+/**
+ * Mutable count / sum / min / max accumulator for one range of rows
+ * Amounts are minor units
+ */
+final class RangeStats {
+
+    long count;
+    long sum;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+
+    void merge(RangeStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        sum = Math.addExact(sum, other.sum);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+}
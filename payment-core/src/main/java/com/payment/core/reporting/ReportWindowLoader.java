@@ -0,0 +1,26 @@
+package com.payment.core.reporting;
+
+import com.payment.persistence.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Loads a report window into columns
+ * Separate bean so the scan runs in its own read-only transaction (cursor fetch)
+ */
+@Component
+@RequiredArgsConstructor
+class ReportWindowLoader {
+
+    private final PaymentRepository paymentRepository;
+
+    @Transactional(readOnly = true)
+    public PaymentColumns load(LocalDateTime from, LocalDateTime to, String merchantId) {
+        PaymentColumns.Builder builder = PaymentColumns.builder(from, to, merchantId);
+        paymentRepository.scanForReport(from, to, merchantId, builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.payment.core.reporting;
+
+/**
+ * Plain loop implementation, used when the Vector API is not available
+ * Sums are overflow checked
+ */
+final class ScalarRangeAggregator implements RangeAggregator {
+
+    @Override
+    public void aggregate(long[] amounts, long[] timestamps, int from, int to,
+                          long tsFrom, long tsTo, boolean filter, RangeStats out) {
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            if (filter && (timestamps[i] < tsFrom || timestamps[i] >= tsTo)) {
+                continue;
+            }
+            long amount = amounts[i];
+            count++;
+            sum = Math.addExact(sum, amount);
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+        out.count += count;
+        out.sum = Math.addExact(out.sum, sum);
+        out.min = Math.min(out.min, min);
+        out.max = Math.max(out.max, max);
+    }
+}
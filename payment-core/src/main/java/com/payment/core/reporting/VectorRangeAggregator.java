@@ -0,0 +1,76 @@
+package com.payment.core.reporting;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation on the JDK Vector API (incubator, needs --add-modules jdk.incubator.vector)
+ *
+ * The only class compiled against the incubator module: the compile-vector execution in
+ * pom.xml builds it on its own, and {@link RangeAggregator#best()} loads it by name.
+ *
+ * Lane sums wrap on overflow; callers only use it when the snapshot proves they cannot
+ * (see {@link PaymentColumns#sumsFitInLong()}).
+ */
+final class VectorRangeAggregator implements RangeAggregator {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public void aggregate(long[] amounts, long[] timestamps, int from, int to,
+                          long tsFrom, long tsTo, boolean filter, RangeStats out) {
+        int lanes = SPECIES.length();
+        int upper = from + SPECIES.loopBound(to - from);
+        LongVector sum = LongVector.zero(SPECIES);
+        LongVector min = LongVector.broadcast(SPECIES, Long.MAX_VALUE);
+        LongVector max = LongVector.broadcast(SPECIES, Long.MIN_VALUE);
+        long count = 0;
+
+        int i = from;
+        if (filter) {
+            for (; i < upper; i += lanes) {
+                LongVector ts = LongVector.fromArray(SPECIES, timestamps, i);
+                VectorMask<Long> inWindow = ts.compare(VectorOperators.GE, tsFrom)
+                    .and(ts.compare(VectorOperators.LT, tsTo));
+                LongVector amount = LongVector.fromArray(SPECIES, amounts, i);
+                sum = sum.add(amount, inWindow);
+                min = min.blend(min.min(amount), inWindow);
+                max = max.blend(max.max(amount), inWindow);
+                count += inWindow.trueCount();
+            }
+        } else {
+            for (; i < upper; i += lanes) {
+                LongVector amount = LongVector.fromArray(SPECIES, amounts, i);
+                sum = sum.add(amount);
+                min = min.min(amount);
+                max = max.max(amount);
+            }
+            count = upper - from;
+        }
+
+        long total = sum.reduceLanes(VectorOperators.ADD);
+        long low = min.reduceLanes(VectorOperators.MIN);
+        long high = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            if (filter && (timestamps[i] < tsFrom || timestamps[i] >= tsTo)) {
+                continue;
+            }
+            count++;
+            total += amounts[i];
+            low = Math.min(low, amounts[i]);
+            high = Math.max(high, amounts[i]);
+        }
+
+        out.count += count;
+        out.sum += total;
+        out.min = Math.min(out.min, low);
+        out.max = Math.max(out.max, high);
+    }
+}
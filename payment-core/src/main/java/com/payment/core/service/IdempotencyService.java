@@ -1,17 +1,27 @@
 package com.payment.core.service;
 
+import com.payment.common.deadline.Deadline;
+import com.payment.common.exception.DeadlineExceededException;
 import com.payment.common.exception.IdempotencyException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
 import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Idempotency service using Redis distributed cache
  * Prevents duplicate payment processing
+ *
+ * The lookup waits for Redis no longer than the request's {@link Deadline} (Redisson's own
+ * timeout and retries can take several seconds). The store is not cut short: it runs after
+ * the payment is saved, and abandoning it could leave a key pointing at a rolled-back payment.
  */
 @Slf4j
 @Service
@@ -60,7 +70,46 @@ public class IdempotencyService {
     public String getPaymentId(String idempotencyKey) {
         String redisKey = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
         RMapCache<String, String> cache = redissonClient.getMapCache("idempotency");
-        return cache.get(redisKey);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return cache.get(redisKey);
+        }
+        deadline.check("idempotency_lookup");
+        return await(cache.getAsync(redisKey), deadline, "idempotency_lookup");
+    }
+
+    /**
+     * Wait for a Redis reply until the deadline; on expiry the command is cancelled
+     */
+    private static <V> V await(RFuture<V> reply, Deadline deadline, String stage) {
+        CompletableFuture<V> future = reply.toCompletableFuture();
+        try {
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new DeadlineExceededException(stage);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    /**
+     * Remove the key if it still points at this payment
+     * Called when the transaction that stored it rolls back, so a retry is not sent to a payment that was never saved
+     */
+    public void release(String idempotencyKey, String paymentId) {
+        String redisKey = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
+        RMapCache<String, String> cache = redissonClient.getMapCache("idempotency");
+        if (cache.remove(redisKey, paymentId)) {
+            log.debug("Idempotency key released: {} -> {}", idempotencyKey, paymentId);
+        }
     }
 
     /**
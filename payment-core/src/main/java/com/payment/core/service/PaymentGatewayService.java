@@ -1,16 +1,21 @@
 package com.payment.core.service;
 
+import com.payment.common.deadline.Deadline;
+import com.payment.common.exception.DeadlineExceededException;
 import com.payment.persistence.entity.Payment;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Simulated payment gateway integration
  * 
  * In real world, this would call Stripe/Adyen/PayPal APIs
  * For now just randomly succeed/fail for testing purposes
+ * Calls made for a request give up at its {@link Deadline}; a real client would use the
+ * remaining time as its read timeout
  */
 @Slf4j
 @Service
@@ -33,10 +38,7 @@ public class PaymentGatewayService {
         log.info("Simulating payment gateway call for payment: {}", payment.getPaymentId());
 
         // simulate network delay
-        try {
-            Thread.sleep(100 + random.nextInt(400)); // 100-500ms delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (!simulateLatency(100 + random.nextInt(400))) { // 100-500ms delay
             return false;
         }
 
@@ -54,6 +56,29 @@ public class PaymentGatewayService {
         return success;
     }
 
+    /**
+     * Wait out a simulated network round trip, giving up at the request deadline
+     *
+     * @return false if interrupted
+     * @throws DeadlineExceededException if the deadline passes first
+     */
+    protected static boolean simulateLatency(long delayMillis) {
+        Deadline deadline = Deadline.current();
+        try {
+            if (deadline != null && deadline.remainingNanos() < TimeUnit.MILLISECONDS.toNanos(delayMillis)) {
+                TimeUnit.NANOSECONDS.sleep(deadline.remainingNanos());
+                throw new DeadlineExceededException("gateway");
+            }
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     /**
      * Check payment status with gateway
      * Not implemented yet - need this for reconciliation
@@ -69,6 +94,7 @@ public class PaymentGatewayService {
      */
     public boolean processRefund(Payment payment, String reason) {
         log.info("Processing refund for payment: {}, reason: {}", payment.getPaymentId(), reason);
+        Deadline.checkCurrent("gateway");
         
         // HACK: just return true for now
         // actual refund would need to call gateway API
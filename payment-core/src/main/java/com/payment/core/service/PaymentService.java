@@ -1,26 +1,49 @@
 package com.payment.core.service;
 
+import com.payment.common.deadline.Deadline;
+import com.payment.common.dto.PaymentLookupResponse;
+import com.payment.common.dto.PaymentLookupResult;
 import com.payment.common.dto.PaymentRequest;
 import com.payment.common.dto.PaymentResponse;
+import com.payment.common.enums.PaymentEventType;
 import com.payment.common.enums.PaymentStatus;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.common.exception.IdempotencyException;
 import com.payment.common.exception.PaymentException;
+import com.payment.common.money.Money;
+import com.payment.core.event.PaymentStatusChanged;
+import com.payment.core.jfr.GatewayCallEvent;
+import com.payment.core.jfr.KafkaSendEvent;
+import com.payment.core.jfr.PaymentLockWaitEvent;
+import com.payment.core.jfr.PaymentOperationEvent;
 import com.payment.core.mapper.PaymentMapper;
+import com.payment.core.metrics.PaymentMetrics;
+import com.payment.core.metrics.PaymentMetrics.Operation;
+import com.payment.core.metrics.PaymentMetrics.Stage;
+import com.payment.infrastructure.config.KafkaConfig;
 import com.payment.persistence.entity.Payment;
 import com.payment.persistence.entity.PaymentEvent;
 import com.payment.persistence.repository.PaymentEventRepository;
 import com.payment.persistence.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Core payment processing service
@@ -37,9 +60,13 @@ public class PaymentService {
     private final PaymentMapper paymentMapper;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final PaymentGatewayService gatewayService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentMetrics metrics;
 
-    private static final String PAYMENT_TOPIC = "payment-events";
-    private static final int MAX_RETRY_ATTEMPTS = 3;
+    private static final String PAYMENT_TOPIC = KafkaConfig.PAYMENT_EVENTS_TOPIC;
+
+    // a power of two: IN-clause padding never grows a full chunk
+    private static final int LOOKUP_CHUNK_SIZE = 256;
 
     /**
      * Create a new payment
@@ -53,112 +80,149 @@ public class PaymentService {
         log.info("Creating payment for merchant: {}, amount: {}, idempotency key: {}", 
                  request.getMerchantId(), request.getAmount(), request.getIdempotencyKey());
 
+        metrics.timeCommit(Operation.CREATE);
+        PaymentOperationEvent operationEvent = new PaymentOperationEvent();
+        operationEvent.begin();
+
         // Check idempotency first (in Redis)
+        long stageStart = System.nanoTime();
         String existingPaymentId = idempotencyService.getPaymentId(request.getIdempotencyKey());
+        metrics.record(Operation.CREATE, Stage.IDEMPOTENCY_LOOKUP, stageStart);
         if (existingPaymentId != null) {
             log.info("Payment already exists for idempotency key: {}", request.getIdempotencyKey());
+            metrics.idempotencyReplay();
             Payment existing = paymentRepository.findById(existingPaymentId)
+                // a key left behind by a create that rolled back before its release reached Redis
+                .or(() -> paymentRepository.findByIdempotencyKey(request.getIdempotencyKey()))
                 .orElseThrow(() -> new PaymentException(
                     "Payment not found: " + existingPaymentId,
                     "PAYMENT_NOT_FOUND",
                     404
                 ));
-            return paymentMapper.toResponse(existing);
+            return completed(operationEvent, Operation.CREATE, existing);
         }
 
+        // Reject amounts with more decimals than the currency has (e.g. JPY 100.5)
+        Money amount = request.toMoney();
+
         // Create payment entity
         Payment payment = paymentMapper.toEntity(request);
+        payment.setMoney(amount);
         payment.setStatus(PaymentStatus.PENDING);
 
+        // Nothing is written for a caller that has already given up
+        Deadline.checkCurrent(Stage.PAYMENT_SAVE.getTag());
+
         // Save payment
+        stageStart = System.nanoTime();
         Payment savedPayment = paymentRepository.save(payment);
+        metrics.record(Operation.CREATE, Stage.PAYMENT_SAVE, stageStart);
 
         // Store idempotency key
-        idempotencyService.checkAndStore(request.getIdempotencyKey(), savedPayment.getPaymentId());
+        stageStart = System.nanoTime();
+        try {
+            idempotencyService.checkAndStore(request.getIdempotencyKey(), savedPayment.getPaymentId());
+            releaseOnRollback(request.getIdempotencyKey(), savedPayment.getPaymentId());
+        } catch (IdempotencyException e) {
+            metrics.idempotencyConflict();
+            throw e;
+        } finally {
+            metrics.record(Operation.CREATE, Stage.IDEMPOTENCY_STORE, stageStart);
+        }
 
         // Create event
-        createPaymentEvent(savedPayment.getPaymentId(), "PAYMENT_CREATED", null, PaymentStatus.PENDING);
+        createPaymentEvent(Operation.CREATE, savedPayment.getPaymentId(), "PAYMENT_CREATED", null, PaymentStatus.PENDING);
 
         // Publish to Kafka for async processing
-        publishPaymentEvent(savedPayment, "PAYMENT_CREATED");
+        publishPaymentEvent(Operation.CREATE, savedPayment, PaymentEventType.PAYMENT_CREATED, null);
 
         log.info("Payment created successfully: {}", savedPayment.getPaymentId());
-        return paymentMapper.toResponse(savedPayment);
+        return completed(operationEvent, Operation.CREATE, savedPayment);
     }
 
-    // process payment async - gets called from Kafka consumer
+    /**
+     * Drop the Redis entry if the create does not commit
+     * The unique key on payments only fails at flush, after the entry is stored; left in place it would send
+     * every retry to a payment that does not exist
+     */
+    private void releaseOnRollback(String idempotencyKey, String paymentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    idempotencyService.release(idempotencyKey, paymentId);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to release idempotency key {} after rollback", idempotencyKey, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Process a payment through the gateway, single attempt
+     * A concurrent update surfaces as a {@link org.springframework.dao.TransientDataAccessException};
+     * the caller retries in a new transaction (see PaymentProcessingScheduler), never by
+     * sleeping here with the connection and the row lock held
+     */
     @Transactional
     public PaymentResponse processPayment(String paymentId) {
         log.info("Processing payment: {}", paymentId);
+        metrics.timeCommit(Operation.PROCESS);
+        PaymentOperationEvent operationEvent = new PaymentOperationEvent();
+        operationEvent.begin();
 
-        int attempts = 0;
-        while (attempts < MAX_RETRY_ATTEMPTS) {
-            try {
-                // Lock payment for update
-                Payment payment = paymentRepository.findByIdForUpdate(paymentId)
-                    .orElseThrow(() -> new PaymentException(
-                        "Payment not found: " + paymentId,
-                        "PAYMENT_NOT_FOUND",
-                        404
-                    ));
-
-                // Check if already processed
-                if (payment.getStatus().isTerminal()) {
-                    log.info("Payment already in terminal state: {}", payment.getStatus());
-                    return paymentMapper.toResponse(payment);
-                }
+        // Lock payment for update
+        Payment payment = lockForUpdate(Operation.PROCESS, paymentId);
 
-                // Update status to PROCESSING
-                PaymentStatus previousStatus = payment.getStatus();
-                payment.setStatus(PaymentStatus.PROCESSING);
-                payment = paymentRepository.save(payment);
-
-                createPaymentEvent(paymentId, "STATUS_CHANGED", previousStatus, PaymentStatus.PROCESSING);
-
-                // Simulate payment processing (replace with actual payment gateway integration)
-                boolean success = simulatePaymentProcessing(payment);
-
-                // Update final status
-                previousStatus = payment.getStatus();
-                if (success) {
-                    payment.setStatus(PaymentStatus.COMPLETED);
-                    log.info("Payment completed successfully: {}", paymentId);
-                } else {
-                    payment.setStatus(PaymentStatus.FAILED);
-                    payment.setFailureReason("Payment processing failed");
-                    log.error("Payment processing failed: {}", paymentId);
-                }
-
-                payment = paymentRepository.save(payment);
-                createPaymentEvent(paymentId, "STATUS_CHANGED", previousStatus, payment.getStatus());
+        // Check if already processed
+        if (payment.getStatus().isTerminal()) {
+            log.info("Payment already in terminal state: {}", payment.getStatus());
+            return completed(operationEvent, Operation.PROCESS, payment);
+        }
 
-                // Publish completion event
-                publishPaymentEvent(payment, success ? "PAYMENT_COMPLETED" : "PAYMENT_FAILED");
+        // Update status to PROCESSING
+        PaymentStatus previousStatus = payment.getStatus();
+        payment.setStatus(PaymentStatus.PROCESSING);
+        long stageStart = System.nanoTime();
+        payment = paymentRepository.save(payment);
+        metrics.record(Operation.PROCESS, Stage.PAYMENT_SAVE, stageStart);
+
+        createPaymentEvent(Operation.PROCESS, paymentId, "STATUS_CHANGED", previousStatus, PaymentStatus.PROCESSING);
+        publishPaymentEvent(Operation.PROCESS, payment, PaymentEventType.PAYMENT_PROCESSING, previousStatus);
+
+        // Simulate payment processing (replace with actual payment gateway integration)
+        stageStart = System.nanoTime();
+        boolean success = simulatePaymentProcessing(payment);
+        metrics.record(Operation.PROCESS, Stage.GATEWAY, stageStart);
+
+        // Update final status
+        previousStatus = payment.getStatus();
+        if (success) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            log.info("Payment completed successfully: {}", paymentId);
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason("Payment processing failed");
+            log.error("Payment processing failed: {}", paymentId);
+        }
 
-                return paymentMapper.toResponse(payment);
+        stageStart = System.nanoTime();
+        payment = paymentRepository.save(payment);
+        metrics.record(Operation.PROCESS, Stage.PAYMENT_SAVE, stageStart);
+        createPaymentEvent(Operation.PROCESS, paymentId, "STATUS_CHANGED", previousStatus, payment.getStatus());
 
-            } catch (OptimisticLockingFailureException e) {
-                attempts++;
-                log.warn("Optimistic locking failure, attempt {}/{}", attempts, MAX_RETRY_ATTEMPTS);
-                if (attempts >= MAX_RETRY_ATTEMPTS) {
-                    throw new PaymentException(
-                        "Failed to update payment after " + MAX_RETRY_ATTEMPTS + " attempts",
-                        "CONCURRENT_UPDATE_FAILURE",
-                        409,
-                        e
-                    );
-                }
-                // Wait before retry (exponential backoff)
-                try {
-                    Thread.sleep((long) Math.pow(2, attempts) * 100);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new PaymentException("Interrupted during retry", "INTERRUPTED", 500, ie);
-                }
-            }
-        }
+        // Publish completion event
+        publishPaymentEvent(Operation.PROCESS, payment,
+            success ? PaymentEventType.PAYMENT_COMPLETED : PaymentEventType.PAYMENT_FAILED,
+            previousStatus);
 
-        throw new PaymentException("Unexpected error in payment processing", "UNEXPECTED_ERROR", 500);
+        return completed(operationEvent, Operation.PROCESS, payment);
     }
 
     /**
@@ -175,6 +239,57 @@ public class PaymentService {
         return paymentMapper.toResponse(payment);
     }
 
+    /**
+     * Payment stored under an idempotency key Redis does not know: loaded by a bulk ingest,
+     * or its Redis entry expired. createPayment then fails on the unique constraint, and the
+     * caller replays this payment instead
+     */
+    @Transactional(readOnly = true)
+    public Optional<PaymentResponse> findByIdempotencyKey(String idempotencyKey) {
+        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        log.info("Payment already exists for idempotency key (not in Redis): {}", idempotencyKey);
+        metrics.idempotencyReplay();
+        return Optional.of(paymentMapper.toResponse(existing.get()));
+    }
+
+    /**
+     * Look up many payments in one read-only transaction
+     * IDs are fetched in IN-clause chunks of LOOKUP_CHUNK_SIZE; results follow the request
+     * order, one per distinct ID, with found=false for IDs that do not exist
+     */
+    @Transactional(readOnly = true)
+    public PaymentLookupResponse lookupPayments(Collection<String> paymentIds) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(paymentIds));
+        Map<String, PaymentResponse> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+            if (from > 0) {
+                Deadline.checkCurrent("lookup");
+            }
+            List<String> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size()));
+            for (Payment payment : paymentRepository.findAllByPaymentIdIn(chunk)) {
+                found.put(payment.getPaymentId(), paymentMapper.toResponse(payment));
+            }
+        }
+
+        List<PaymentLookupResult> results = new ArrayList<>(distinct.size());
+        for (String paymentId : distinct) {
+            PaymentResponse payment = found.get(paymentId);
+            results.add(PaymentLookupResult.builder()
+                .paymentId(paymentId)
+                .found(payment != null)
+                .payment(payment)
+                .build());
+        }
+        return PaymentLookupResponse.builder()
+            .requested(distinct.size())
+            .found(found.size())
+            .results(results)
+            .build();
+    }
+
     /**
      * Get payments by merchant
      */
@@ -190,13 +305,11 @@ public class PaymentService {
     @Transactional
     public PaymentResponse refundPayment(String paymentId) {
         log.info("Refunding payment: {}", paymentId);
+        metrics.timeCommit(Operation.REFUND);
+        PaymentOperationEvent operationEvent = new PaymentOperationEvent();
+        operationEvent.begin();
 
-        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
-            .orElseThrow(() -> new PaymentException(
-                "Payment not found: " + paymentId,
-                "PAYMENT_NOT_FOUND",
-                404
-            ));
+        Payment payment = lockForUpdate(Operation.REFUND, paymentId);
 
         // Validate can refund
         if (!payment.getStatus().canRefund()) {
@@ -207,22 +320,95 @@ public class PaymentService {
             );
         }
 
+        Deadline.checkCurrent(Stage.PAYMENT_SAVE.getTag());
         PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(PaymentStatus.REFUNDED);
+        long stageStart = System.nanoTime();
         payment = paymentRepository.save(payment);
+        metrics.record(Operation.REFUND, Stage.PAYMENT_SAVE, stageStart);
 
-        createPaymentEvent(paymentId, "PAYMENT_REFUNDED", previousStatus, PaymentStatus.REFUNDED);
-        publishPaymentEvent(payment, "PAYMENT_REFUNDED");
+        createPaymentEvent(Operation.REFUND, paymentId, "PAYMENT_REFUNDED", previousStatus, PaymentStatus.REFUNDED);
+        publishPaymentEvent(Operation.REFUND, payment, PaymentEventType.PAYMENT_REFUNDED, previousStatus);
 
         log.info("Payment refunded successfully: {}", paymentId);
+        return completed(operationEvent, Operation.REFUND, payment);
+    }
+
+    /**
+     * Cancel payments whose TTL ran out while they were still PENDING
+     * Payments another transaction holds (being processed) are skipped, they are about to finish
+     *
+     * @param paymentIds Payments whose EXPIRE timer fired
+     * @return Number of payments cancelled
+     */
+    @Transactional
+    public int expirePayments(Collection<String> paymentIds) {
+        long stageStart = System.nanoTime();
+        List<Payment> payments = paymentRepository.findAllByIdAndStatusSkipLocked(paymentIds, PaymentStatus.PENDING);
+        metrics.record(Operation.EXPIRE, Stage.LOCK, stageStart);
+
+        for (Payment payment : payments) {
+            payment.setStatus(PaymentStatus.CANCELLED);
+            payment.setFailureReason("Payment expired before it was processed");
+        }
+        stageStart = System.nanoTime();
+        paymentRepository.saveAll(payments);
+        metrics.record(Operation.EXPIRE, Stage.PAYMENT_SAVE, stageStart);
+
+        for (Payment payment : payments) {
+            createPaymentEvent(Operation.EXPIRE, payment.getPaymentId(), "PAYMENT_EXPIRED",
+                PaymentStatus.PENDING, PaymentStatus.CANCELLED);
+            publishPaymentEvent(Operation.EXPIRE, payment, PaymentEventType.PAYMENT_CANCELLED, PaymentStatus.PENDING);
+        }
+        if (!payments.isEmpty()) {
+            log.info("Expired {} pending payments", payments.size());
+        }
+        return payments.size();
+    }
+
+    /**
+     * Load a payment with SELECT ... FOR UPDATE, timing the lock wait
+     */
+    private Payment lockForUpdate(Operation operation, String paymentId) {
+        PaymentLockWaitEvent lockEvent = new PaymentLockWaitEvent();
+        lockEvent.begin();
+        long stageStart = System.nanoTime();
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+            .orElseThrow(() -> new PaymentException(
+                "Payment not found: " + paymentId,
+                "PAYMENT_NOT_FOUND",
+                404
+            ));
+        metrics.record(operation, Stage.LOCK, stageStart);
+        lockEvent.end();
+        if (lockEvent.shouldCommit()) {
+            lockEvent.operation = operation.getTag();
+            lockEvent.paymentId = paymentId;
+            lockEvent.commit();
+        }
+        return payment;
+    }
+
+    /**
+     * Commit the operation's JFR event and map the payment to a response
+     */
+    private PaymentResponse completed(PaymentOperationEvent operationEvent, Operation operation, Payment payment) {
+        operationEvent.end();
+        if (operationEvent.shouldCommit()) {
+            operationEvent.operation = operation.getTag();
+            operationEvent.paymentId = payment.getPaymentId();
+            operationEvent.status = payment.getStatus().name();
+            operationEvent.commit();
+        }
         return paymentMapper.toResponse(payment);
     }
 
     /**
      * Create payment event for audit trail
      */
-    private void createPaymentEvent(String paymentId, String eventType, 
+    private void createPaymentEvent(Operation operation, String paymentId, String eventType,
                                    PaymentStatus previousStatus, PaymentStatus newStatus) {
+        long stageStart = System.nanoTime();
         PaymentEvent event = PaymentEvent.builder()
             .paymentId(paymentId)
             .eventType(eventType)
@@ -232,24 +418,53 @@ public class PaymentService {
             .build();
         
         paymentEventRepository.save(event);
+        metrics.record(operation, Stage.EVENT_SAVE, stageStart);
     }
 
     /**
      * Publish payment event to Kafka
+     * Encoded with the binary payment-events codec (see KafkaConfig)
+     * Also published in-process as {@link PaymentStatusChanged}, delivered to
+     * transactional listeners after commit
      */
-    private void publishPaymentEvent(Payment payment, String eventType) {
+    private void publishPaymentEvent(Operation operation, Payment payment, PaymentEventType eventType,
+                                     PaymentStatus previousStatus) {
+        // converted from the NUMERIC column once, for both events
+        Money amount = payment.getMoney();
+        eventPublisher.publishEvent(new PaymentStatusChanged(
+            payment.getPaymentId(),
+            payment.getMerchantId(),
+            amount,
+            previousStatus,
+            payment.getStatus(),
+            System.currentTimeMillis()
+        ));
+
         try {
-            Map<String, Object> eventData = new HashMap<>();
-            eventData.put("paymentId", payment.getPaymentId());
-            eventData.put("merchantId", payment.getMerchantId());
-            eventData.put("customerId", payment.getCustomerId());
-            eventData.put("amount", payment.getAmount());
-            eventData.put("currency", payment.getCurrency());
-            eventData.put("status", payment.getStatus());
-            eventData.put("eventType", eventType);
-            eventData.put("timestamp", System.currentTimeMillis());
-
-            kafkaTemplate.send(PAYMENT_TOPIC, payment.getPaymentId(), eventData);
+            PaymentEventMessage message = new PaymentEventMessage(
+                payment.getPaymentId(),
+                payment.getMerchantId(),
+                payment.getCustomerId(),
+                eventType,
+                previousStatus,
+                payment.getStatus(),
+                amount,
+                System.currentTimeMillis()
+            );
+
+            KafkaSendEvent sendEvent = new KafkaSendEvent();
+            sendEvent.begin();
+            long stageStart = System.nanoTime();
+            kafkaTemplate.send(PAYMENT_TOPIC, payment.getPaymentId(), message)
+                .whenComplete((result, ex) -> metrics.record(operation, Stage.KAFKA_ACK, stageStart));
+            metrics.record(operation, Stage.KAFKA_SEND, stageStart);
+            sendEvent.end();
+            if (sendEvent.shouldCommit()) {
+                sendEvent.topic = PAYMENT_TOPIC;
+                sendEvent.key = payment.getPaymentId();
+                sendEvent.eventType = eventType.name();
+                sendEvent.commit();
+            }
             log.debug("Published event to Kafka: {}", eventType);
         } catch (Exception e) {
             log.error("Failed to publish event to Kafka", e);
@@ -263,6 +478,16 @@ public class PaymentService {
      */
     private boolean simulatePaymentProcessing(Payment payment) {
         // call actual gateway (well, simulated for now but architecture is there)
-        return gatewayService.processPaymentWithGateway(payment);
+        GatewayCallEvent gatewayEvent = new GatewayCallEvent();
+        gatewayEvent.begin();
+        boolean approved = gatewayService.processPaymentWithGateway(payment);
+        gatewayEvent.end();
+        if (gatewayEvent.shouldCommit()) {
+            gatewayEvent.paymentId = payment.getPaymentId();
+            gatewayEvent.merchantId = payment.getMerchantId();
+            gatewayEvent.approved = approved;
+            gatewayEvent.commit();
+        }
+        return approved;
     }
 }
@@ -0,0 +1,105 @@
+package com.payment.core.stats;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.persistence.stats.MerchantStatsEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-merchant, per-currency, per-status payment counts and amount totals
+ *
+ * Cells are striped {@link LongAdder}s created on first use, so concurrent consumer
+ * threads never contend on a single counter. Reads are not atomic across cells.
+ */
+final class MerchantCounters {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final int SLOTS = CURRENCIES.length * STATUSES.length;
+
+    private final Map<String, Cells> merchants = new ConcurrentHashMap<>();
+
+    /**
+     * Move a payment from its previous status (if any) to its new one
+     */
+    void transition(String merchantId, Currency currency, PaymentStatus previousStatus,
+                    PaymentStatus status, long amountMinor) {
+        Cells cells = merchants.computeIfAbsent(merchantId, m -> new Cells());
+        if (previousStatus != null) {
+            cells.add(slot(currency, previousStatus), -1, -amountMinor);
+        }
+        cells.add(slot(currency, status), 1, amountMinor);
+    }
+
+    void load(MerchantStatsEntry entry) {
+        merchants.computeIfAbsent(entry.merchantId(), m -> new Cells())
+            .add(slot(entry.currency(), entry.status()), entry.count(), entry.amountMinor());
+    }
+
+    /**
+     * Non-empty cells of one merchant
+     */
+    List<MerchantStatsEntry> entries(String merchantId) {
+        List<MerchantStatsEntry> entries = new ArrayList<>();
+        Cells cells = merchants.get(merchantId);
+        if (cells != null) {
+            cells.collect(merchantId, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Non-empty cells of every merchant
+     */
+    List<MerchantStatsEntry> snapshot() {
+        List<MerchantStatsEntry> entries = new ArrayList<>();
+        merchants.forEach((merchantId, cells) -> cells.collect(merchantId, entries));
+        return entries;
+    }
+
+    private static int slot(Currency currency, PaymentStatus status) {
+        return currency.ordinal() * STATUSES.length + status.ordinal();
+    }
+
+    private static final class Cells {
+
+        private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(SLOTS);
+        private final AtomicReferenceArray<LongAdder> amounts = new AtomicReferenceArray<>(SLOTS);
+
+        void add(int slot, long count, long amountMinor) {
+            adder(counts, slot).add(count);
+            adder(amounts, slot).add(amountMinor);
+        }
+
+        void collect(String merchantId, List<MerchantStatsEntry> out) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                LongAdder count = counts.get(slot);
+                if (count == null) {
+                    continue;
+                }
+                long n = count.sum();
+                LongAdder amount = amounts.get(slot);
+                long total = amount == null ? 0 : amount.sum();
+                if (n != 0 || total != 0) {
+                    out.add(new MerchantStatsEntry(merchantId, CURRENCIES[slot / STATUSES.length],
+                        STATUSES[slot % STATUSES.length], n, total));
+                }
+            }
+        }
+
+        private static LongAdder adder(AtomicReferenceArray<LongAdder> cells, int slot) {
+            LongAdder adder = cells.get(slot);
+            if (adder == null) {
+                cells.compareAndSet(slot, null, new LongAdder());
+                adder = cells.get(slot);
+            }
+            return adder;
+        }
+    }
+}
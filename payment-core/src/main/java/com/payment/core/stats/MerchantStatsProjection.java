@@ -0,0 +1,296 @@
+package com.payment.core.stats;
+
+import com.payment.common.dto.MerchantStatsResponse;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.common.exception.PaymentException;
+import com.payment.common.money.Money;
+import com.payment.infrastructure.config.KafkaConfig;
+import com.payment.persistence.entity.MerchantStatsCheckpoint;
+import com.payment.persistence.repository.PaymentEventRepository;
+import com.payment.persistence.stats.MerchantStatsEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read model of payment counts and amount totals per merchant, currency and status,
+ * kept in memory from the payment-events topic
+ *
+ * Every node consumes the whole topic in its own consumer group and serves its own copy.
+ * Offsets are never committed to Kafka; they are stored in the checkpoints together with
+ * the counters they produced, so a restart resumes exactly where the checkpoint was taken.
+ *
+ * Consistency:
+ * - eventually consistent: a transition is visible once this node consumed its event
+ * - a (payment, status) transition is applied at most once within the de-duplication window
+ * - restored from a checkpoint younger than {@code checkpoint-max-age}, otherwise rebuilt
+ *   from the database; events around the rebuild point are replayed and de-duplicated
+ *   against the transitions recorded in payment_events
+ * - not covered until the next rebuild: bulk ingested payments (they are not published)
+ *   and events whose database transaction rolled back after publishing
+ * - a response is not a point-in-time snapshot; cells are read one by one
+ */
+@Slf4j
+@Service
+public class MerchantStatsProjection implements ConsumerSeekAware {
+
+    static final String LISTENER_ID = "merchantStatsProjection";
+
+    private final MerchantStatsStore store;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Executor executor;
+    private final String nodeId;
+    private final Duration replayMargin;
+    private final Duration checkpointMaxAge;
+    private final TransitionWindow transitions;
+    private final boolean consumeEvents;
+
+    // consumer threads apply under the read lock, checkpoints copy under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Long> nextOffsets = new ConcurrentHashMap<>();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Lock checkpointLock = new ReentrantLock();
+
+    private volatile MerchantCounters counters;
+    private volatile boolean ready;
+    private volatile long lastEventTimestamp;
+    private volatile Map<Integer, Long> seekOffsets = Map.of();
+    private volatile long replayFrom;
+    private Map<Integer, Long> checkpointedOffsets = Map.of();
+
+    public MerchantStatsProjection(MerchantStatsStore store,
+                                   KafkaListenerEndpointRegistry listenerRegistry,
+                                   @Qualifier("paymentTaskExecutor") Executor executor,
+                                   @Value("${payment.stats.node-id:${HOSTNAME:local}}") String nodeId,
+                                   @Value("${payment.stats.replay-margin-seconds:300}") long replayMarginSeconds,
+                                   @Value("${payment.stats.checkpoint-max-age-minutes:60}") long checkpointMaxAgeMinutes,
+                                   @Value("${payment.stats.dedupe-window:200000}") int dedupeWindow,
+                                   @Value("${payment.stats.consume-events:true}") boolean consumeEvents) {
+        this.store = store;
+        this.listenerRegistry = listenerRegistry;
+        this.executor = executor;
+        this.nodeId = nodeId;
+        this.replayMargin = Duration.ofSeconds(replayMarginSeconds);
+        this.checkpointMaxAge = Duration.ofMinutes(checkpointMaxAgeMinutes);
+        this.transitions = new TransitionWindow(dedupeWindow);
+        this.consumeEvents = consumeEvents;
+    }
+
+    /**
+     * Load state in the background once the application is up, then start consuming
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestLoad(false);
+    }
+
+    /**
+     * Discard the in-memory state and rebuild it from the database
+     */
+    public void rebuild() {
+        if (!requestLoad(true)) {
+            throw new PaymentException("Merchant stats are already being loaded", "STATS_NOT_READY", 409);
+        }
+    }
+
+    private boolean requestLoad(boolean forceRebuild) {
+        if (!loading.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                load(forceRebuild);
+            } catch (Exception e) {
+                log.error("Failed to load merchant stats", e);
+            } finally {
+                loading.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void load(boolean forceRebuild) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isRunning()) {
+            container.stop();
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            transitions.clear();
+            nextOffsets.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        MerchantCounters loaded = new MerchantCounters();
+
+        Optional<MerchantStatsCheckpoint> checkpoint = forceRebuild ? Optional.empty() : store.latestCheckpoint()
+            .filter(c -> c.getCreatedAt().isAfter(LocalDateTime.now().minus(checkpointMaxAge)));
+        if (checkpoint.isPresent()) {
+            checkpoint.get().getCounters().forEach(loaded::load);
+            Map<Integer, Long> offsets = new HashMap<>();
+            checkpoint.get().getPartitionOffsets().forEach((partition, offset) ->
+                offsets.put(Integer.valueOf(partition), offset));
+            seekOffsets = offsets;
+            replayFrom = checkpoint.get().getReplayFrom();
+            log.info("Merchant stats restored from checkpoint {} ({} cells)",
+                checkpoint.get().getCheckpointId(), checkpoint.get().getCounters().size());
+        } else {
+            // replay events from one margin before now; seed the de-duplication window
+            // from one margin earlier, as events are recorded slightly before they are sent
+            Instant now = Instant.now();
+            Instant replayStart = now.minus(replayMargin);
+            MerchantStatsStore.Rebuild rebuild = store.rebuild(
+                LocalDateTime.ofInstant(replayStart.minus(replayMargin), ZoneId.systemDefault()));
+            rebuild.totals().forEach(loaded::load);
+            for (PaymentEventRepository.StatusTransition transition : rebuild.transitions()) {
+                transitions.add(transition.getPaymentId(), transition.getNewStatus());
+            }
+            seekOffsets = Map.of();
+            replayFrom = replayStart.toEpochMilli();
+            log.info("Merchant stats rebuilt from database ({} cells, {} recent transitions)",
+                rebuild.totals().size(), rebuild.transitions().size());
+        }
+
+        lock.writeLock().lock();
+        try {
+            counters = loaded;
+            checkpointedOffsets = Map.of();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // without a broker (standin profile) the counters stay at the database snapshot
+        if (container != null && consumeEvents) {
+            container.start();
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> byTime = new ArrayList<>();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long offset = seekOffsets.get(partition.partition());
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            } else {
+                byTime.add(partition);
+            }
+        }
+        if (!byTime.isEmpty()) {
+            callback.seekToTimestamp(byTime, replayFrom);
+        }
+    }
+
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = KafkaConfig.PAYMENT_EVENTS_TOPIC,
+        groupId = "payment-stats-${payment.stats.node-id:${HOSTNAME:local}}",
+        containerFactory = "paymentEventListenerContainerFactory",
+        autoStartup = "false"
+    )
+    public void onPaymentEvent(ConsumerRecord<String, PaymentEventMessage> record) {
+        PaymentEventMessage event = record.value();
+        lock.readLock().lock();
+        try {
+            if (transitions.add(event.paymentId(), event.status())) {
+                counters.transition(event.merchantId(), event.amount().currency(),
+                    event.previousStatus(), event.status(), event.amount().minorUnits());
+            }
+            nextOffsets.put(record.partition(), record.offset() + 1);
+            lastEventTimestamp = event.timestamp();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the counters and the offsets they include to the database
+     */
+    @Scheduled(fixedDelayString = "${payment.stats.checkpoint-interval-ms:30000}",
+               initialDelayString = "${payment.stats.checkpoint-interval-ms:30000}")
+    public void checkpoint() {
+        // a ReentrantLock rather than synchronized, the database write would pin a virtual thread
+        checkpointLock.lock();
+        try {
+            writeCheckpoint();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void writeCheckpoint() {
+        List<MerchantStatsEntry> snapshot;
+        Map<Integer, Long> offsets;
+        long replayStart;
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            snapshot = counters.snapshot();
+            offsets = new HashMap<>(nextOffsets);
+            replayStart = replayFrom;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (offsets.equals(checkpointedOffsets)) {
+            return;
+        }
+
+        Map<String, Long> partitionOffsets = new HashMap<>();
+        offsets.forEach((partition, offset) -> partitionOffsets.put(String.valueOf(partition), offset));
+        store.saveCheckpoint(nodeId, snapshot, partitionOffsets, replayStart,
+            LocalDateTime.now().minus(checkpointMaxAge));
+        checkpointedOffsets = offsets;
+        log.debug("Merchant stats checkpoint written ({} cells)", snapshot.size());
+    }
+
+    /**
+     * Counts and totals of one merchant
+     */
+    public MerchantStatsResponse getStats(String merchantId) {
+        if (!ready) {
+            throw new PaymentException("Merchant stats are being loaded", "STATS_NOT_READY", 503);
+        }
+        List<MerchantStatsResponse.Entry> entries = counters.entries(merchantId).stream()
+            .map(entry -> MerchantStatsResponse.Entry.builder()
+                .currency(entry.currency())
+                .status(entry.status())
+                .count(entry.count())
+                .totalAmount(Money.of(entry.amountMinor(), entry.currency()).toBigDecimal())
+                .build())
+            .toList();
+        long eventTimestamp = lastEventTimestamp;
+        return MerchantStatsResponse.builder()
+            .merchantId(merchantId)
+            .lastEventAt(eventTimestamp == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(eventTimestamp), ZoneId.systemDefault()))
+            .entries(entries)
+            .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.core.stats;
+
+import com.payment.persistence.entity.MerchantStatsCheckpoint;
+import com.payment.persistence.repository.MerchantStatsCheckpointRepository;
+import com.payment.persistence.repository.PaymentEventRepository;
+import com.payment.persistence.repository.PaymentRepository;
+import com.payment.persistence.stats.MerchantStatsEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database side of the merchant stats read model: rebuild reads and checkpoints
+ */
+@Component
+@RequiredArgsConstructor
+class MerchantStatsStore {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventRepository paymentEventRepository;
+    private final MerchantStatsCheckpointRepository checkpointRepository;
+
+    /**
+     * Current totals and the transitions recorded since {@code seedSince}, read from one snapshot
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Rebuild rebuild(LocalDateTime seedSince) {
+        List<MerchantStatsEntry> totals = paymentRepository.merchantTotals();
+        List<PaymentEventRepository.StatusTransition> transitions =
+            paymentEventRepository.findTransitionsSince(seedSince);
+        return new Rebuild(totals, transitions);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<MerchantStatsCheckpoint> latestCheckpoint() {
+        return checkpointRepository.findFirstByOrderByCheckpointIdDesc();
+    }
+
+    /**
+     * Store a checkpoint and drop the ones it supersedes
+     */
+    @Transactional
+    public void saveCheckpoint(String nodeId, List<MerchantStatsEntry> counters,
+                               Map<String, Long> partitionOffsets, long replayFrom, LocalDateTime cutoff) {
+        MerchantStatsCheckpoint checkpoint = checkpointRepository.save(MerchantStatsCheckpoint.builder()
+            .nodeId(nodeId)
+            .counters(counters)
+            .partitionOffsets(partitionOffsets)
+            .replayFrom(replayFrom)
+            .build());
+        checkpointRepository.deleteSuperseded(nodeId, checkpoint.getCheckpointId(), cutoff);
+    }
+
+    record Rebuild(List<MerchantStatsEntry> totals, List<PaymentEventRepository.StatusTransition> transitions) {
+    }
+}
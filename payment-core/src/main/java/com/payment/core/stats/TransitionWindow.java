@@ -0,0 +1,41 @@
+package com.payment.core.stats;
+
+import com.payment.common.enums.PaymentStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded set of recently applied (payment, status) transitions
+ *
+ * A payment reaches each status at most once, so the pair identifies an event;
+ * the oldest keys are evicted once the window is full.
+ */
+final class TransitionWindow {
+
+    private final Map<String, Boolean> keys;
+
+    TransitionWindow(int capacity) {
+        this.keys = new LinkedHashMap<>(16, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return true if the transition was not seen before
+     */
+    synchronized boolean add(String paymentId, PaymentStatus status) {
+        return keys.put(paymentId + ':' + status.name(), Boolean.TRUE) == null;
+    }
+
+    synchronized void clear() {
+        keys.clear();
+    }
+
+    synchronized int size() {
+        return keys.size();
+    }
+}
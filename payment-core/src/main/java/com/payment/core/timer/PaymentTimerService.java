@@ -0,0 +1,240 @@
+package com.payment.core.timer;
+
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.enums.PaymentTimerAction;
+import com.payment.core.event.PaymentStatusChanged;
+import com.payment.core.service.PaymentService;
+import com.payment.persistence.repository.PaymentTimerRepository;
+import com.payment.persistence.timer.DueTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timed payment transitions on a {@link TimingWheel}
+ *
+ * Every timer is a row in payment_timers, written in the transaction that schedules it, and
+ * an entry in this node's wheel. The wheel is reloaded from the table on startup; a periodic
+ * catch-up fires rows that are overdue by more than the grace period, i.e. timers whose
+ * node died. Firing is batched per action and goes through {@link PaymentService}, which
+ * only changes payments still in the expected status, so a timer fired by two nodes is harmless.
+ *
+ * Created payments get an EXPIRE timer (PENDING→CANCELLED after pending-ttl); it is
+ * cancelled as soon as the payment reaches a terminal status.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.timers.enabled", matchIfMissing = true)
+public class PaymentTimerService implements SmartLifecycle {
+
+    private record TimerKey(String paymentId, PaymentTimerAction action) {
+    }
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final PaymentTimerRepository timerRepository;
+    private final PaymentService paymentService;
+    private final Duration pendingTtl;
+    private final long tickMillis;
+    private final int batchSize;
+    private final Duration catchUpGrace;
+
+    private final TimingWheel<TimerKey> wheel;
+    private final Map<TimerKey, TimingWheel.Timeout<TimerKey>> timeouts = new ConcurrentHashMap<>();
+    private final Map<PaymentTimerAction, Counter> fired = new EnumMap<>(PaymentTimerAction.class);
+
+    private volatile boolean running;
+
+    public PaymentTimerService(PaymentTimerRepository timerRepository,
+                               PaymentService paymentService,
+                               MeterRegistry meterRegistry,
+                               @Value("${payment.timers.pending-ttl-ms:1800000}") long pendingTtlMillis,
+                               @Value("${payment.timers.tick-ms:100}") long tickMillis,
+                               @Value("${payment.timers.wheel-size:512}") int wheelSize,
+                               @Value("${payment.timers.batch-size:500}") int batchSize,
+                               @Value("${payment.timers.catch-up-grace-ms:60000}") long catchUpGraceMillis) {
+        this.timerRepository = timerRepository;
+        this.paymentService = paymentService;
+        this.pendingTtl = Duration.ofMillis(pendingTtlMillis);
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.catchUpGrace = Duration.ofMillis(catchUpGraceMillis);
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+
+        for (PaymentTimerAction action : PaymentTimerAction.values()) {
+            fired.put(action, Counter.builder("payment.timers.fired")
+                .description("Payment timers fired, by action")
+                .tag("action", action.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+        Gauge.builder("payment.timers.pending", wheel, TimingWheel::size)
+            .description("Timers waiting in this node's wheel")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Schedule (or move) a timer; the row joins the caller's transaction if there is one
+     */
+    public void schedule(String paymentId, PaymentTimerAction action, LocalDateTime dueAt) {
+        timerRepository.upsert(paymentId, action.name(), dueAt);
+        arm(new TimerKey(paymentId, action), dueAt);
+    }
+
+    /**
+     * Cancel every timer of a payment
+     */
+    public void cancelAll(String paymentId) {
+        for (PaymentTimerAction action : PaymentTimerAction.values()) {
+            disarm(new TimerKey(paymentId, action));
+        }
+        timerRepository.deleteByPaymentId(paymentId);
+    }
+
+    /**
+     * Runs inside the transition's transaction, so the timer row commits or rolls back with it
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStatusChanged(PaymentStatusChanged event) {
+        if (event.previousStatus() == null && event.status() == PaymentStatus.PENDING) {
+            schedule(event.paymentId(), PaymentTimerAction.EXPIRE, LocalDateTime.now().plus(pendingTtl));
+        } else if (event.status().isTerminal()
+                && (event.previousStatus() == null || !event.previousStatus().isTerminal())) {
+            cancelAll(event.paymentId());
+        }
+    }
+
+    /**
+     * Fire timers that are overdue beyond the grace period: their node died, or firing failed
+     */
+    @Scheduled(fixedDelayString = "${payment.timers.catch-up-interval-ms:60000}",
+               initialDelayString = "${payment.timers.catch-up-interval-ms:60000}")
+    public void catchUp() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(catchUpGrace);
+        List<DueTimer> overdue;
+        boolean firedAll = true;
+        do {
+            overdue = timerRepository.findDueBefore(before, PageRequest.of(0, batchSize));
+            if (!overdue.isEmpty()) {
+                log.warn("Firing {} overdue payment timers", overdue.size());
+                firedAll = fire(overdue.stream().map(t -> new TimerKey(t.paymentId(), t.action())).toList());
+            }
+        } while (overdue.size() == batchSize && firedAll && running);
+    }
+
+    private void arm(TimerKey key, LocalDateTime dueAt) {
+        TimingWheel.Timeout<TimerKey> timeout = wheel.schedule(key, dueAt.atZone(ZONE).toInstant().toEpochMilli());
+        TimingWheel.Timeout<TimerKey> previous = timeouts.put(key, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void disarm(TimerKey key) {
+        TimingWheel.Timeout<TimerKey> timeout = timeouts.remove(key);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * @return false if a batch failed; its rows stay for the catch-up
+     */
+    private boolean fire(List<TimerKey> due) {
+        Map<PaymentTimerAction, List<String>> byAction = new EnumMap<>(PaymentTimerAction.class);
+        for (TimerKey key : due) {
+            timeouts.remove(key);
+            byAction.computeIfAbsent(key.action(), a -> new ArrayList<>()).add(key.paymentId());
+        }
+        boolean firedAll = true;
+        for (Map.Entry<PaymentTimerAction, List<String>> entry : byAction.entrySet()) {
+            PaymentTimerAction action = entry.getKey();
+            List<String> paymentIds = entry.getValue();
+            for (int from = 0; from < paymentIds.size(); from += batchSize) {
+                List<String> batch = paymentIds.subList(from, Math.min(from + batchSize, paymentIds.size()));
+                try {
+                    switch (action) {
+                        case EXPIRE -> paymentService.expirePayments(batch);
+                    }
+                    timerRepository.deleteFired(action, batch);
+                    fired.get(action).increment(batch.size());
+                } catch (Exception e) {
+                    firedAll = false;
+                    log.error("Failed to fire {} {} timers", batch.size(), action, e);
+                }
+            }
+        }
+        return firedAll;
+    }
+
+    private void runDriver() {
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<TimerKey> due = wheel.advance(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                fire(due);
+            }
+        }
+    }
+
+    private int reload() {
+        int loaded = 0;
+        long afterId = 0;
+        List<DueTimer> page;
+        do {
+            page = timerRepository.findPageAfter(afterId, PageRequest.of(0, 10_000));
+            for (DueTimer timer : page) {
+                arm(new TimerKey(timer.paymentId(), timer.action()), timer.dueAt());
+                afterId = timer.timerId();
+            }
+            loaded += page.size();
+        } while (!page.isEmpty());
+        return loaded;
+    }
+
+    @Override
+    public void start() {
+        int loaded = reload();
+        running = true;
+        Thread.ofPlatform().daemon().name("payment-timers").start(this::runDriver);
+        log.info("Payment timers started: {} loaded, {} ms tick", loaded, tickMillis);
+    }
+
+    /**
+     * The driver is not interrupted: it finishes the batch in hand and exits after its next tick
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,239 @@
+package com.payment.core.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical hashed timing wheel
+ *
+ * Time is counted in ticks of {@code tickMillis}. Level l has {@code wheelSize} slots of
+ * wheelSize^l ticks each; a timer goes to the lowest level on which its deadline and the
+ * current tick still differ, so a level-0 slot holds exactly the timers of one tick and
+ * higher slots are cascaded down when the clock reaches them. Every slot is an intrusive
+ * doubly linked list: {@link #schedule} and {@link Timeout#cancel} are O(1) whatever the
+ * number of timers, and an advance costs O(ticks passed + timers fired or cascaded).
+ *
+ * Timers fire at or up to one tick after their deadline. Not a thread of its own: the
+ * owner calls {@link #advance} periodically.
+ *
+ * @param <T> Payload handed back when the timer fires
+ */
+public class TimingWheel<T> {
+
+    /**
+     * Handle of a scheduled timer
+     */
+    public static final class Timeout<T> {
+
+        private final TimingWheel<T> wheel;
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> wheel, T payload, long deadlineTick) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        /**
+         * @return false if the timer had already fired or been cancelled
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * Unlink every timer, returning the old head of the chain
+         */
+        private Timeout<T> detachAll() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> t = first; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            return first;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Bucket<T>[][] levels;
+    // deadline already reached when scheduled or cascaded, fired on the next advance
+    private final Bucket<T> due = new Bucket<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+    private volatile int size;
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param wheelSize Slots per level, a power of two
+     * @param startMillis Current time, epoch millis
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMillis must be >= 1 and wheelSize a power of two >= 2");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = new Bucket[63 / bits + 1][];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule a timer; a deadline in the past fires on the next advance
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, payload, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        lock.lock();
+        try {
+            place(timeout);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+    private boolean cancel(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (timeout.bucket == null) {
+                return false;
+            }
+            timeout.bucket.remove(timeout);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move the clock to {@code nowMillis}
+     *
+     * @return Payloads of the timers that fired
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> fired = new ArrayList<>();
+        lock.lock();
+        try {
+            long target = Math.floorDiv(nowMillis, tickMillis);
+            drain(due, fired);
+            while (currentTick < target) {
+                tick(fired);
+            }
+            size -= fired.size();
+        } finally {
+            lock.unlock();
+        }
+        return fired;
+    }
+
+    /**
+     * Timers scheduled and not yet fired or cancelled
+     */
+    public int size() {
+        return size;
+    }
+
+    private void tick(List<T> fired) {
+        currentTick++;
+        // levels whose lower digits all wrapped to zero reach a new slot: cascade it, top down
+        int top = 0;
+        while (top + 1 < levels.length && (currentTick & ((1L << (bits * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            if (levels[level] == null) {
+                continue;
+            }
+            Bucket<T> bucket = levels[level][(int) (currentTick >>> (bits * level)) & mask];
+            Timeout<T> timeout = bucket.detachAll();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                place(timeout);
+                timeout = next;
+            }
+        }
+        if (levels[0] != null) {
+            drain(levels[0][(int) currentTick & mask], fired);
+        }
+        drain(due, fired);
+    }
+
+    private void place(Timeout<T> timeout) {
+        if (timeout.deadlineTick <= currentTick) {
+            due.add(timeout);
+            return;
+        }
+        // highest base-wheelSize digit in which the deadline differs from now
+        int level = (63 - Long.numberOfLeadingZeros(timeout.deadlineTick ^ currentTick)) / bits;
+        Bucket<T>[] slots = levels[level];
+        if (slots == null) {
+            slots = newLevel();
+            levels[level] = slots;
+        }
+        slots[(int) (timeout.deadlineTick >>> (bits * level)) & mask].add(timeout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bucket<T>[] newLevel() {
+        Bucket<T>[] slots = new Bucket[mask + 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Bucket<>();
+        }
+        return slots;
+    }
+
+    private static <T> void drain(Bucket<T> bucket, List<T> fired) {
+        Timeout<T> timeout = bucket.detachAll();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            fired.add(timeout.payload);
+            timeout = next;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.payment.core.watch;
+
+import com.payment.common.dto.PaymentStatusUpdate;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.common.exception.PaymentException;
+import com.payment.core.event.PaymentStatusChanged;
+import com.payment.infrastructure.config.KafkaConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wakes clients waiting on a payment's status (long-poll and server-sent events)
+ *
+ * Waiters are registered per payment and told about transitions instead of polling for them:
+ * transitions committed on this node arrive as {@link PaymentStatusChanged}, those made on
+ * other nodes through the payment-events topic, which every node reads from its end in its
+ * own consumer group (payment-watch-<node-id>). A transition usually arrives both ways; a
+ * subscription skips a status it already has and anything older than what it last saw.
+ * Waiting holds no thread and no database connection. Subscriptions are capped per node
+ * (503) and per payment (429); streams get a heartbeat so dead clients free their slot.
+ */
+@Slf4j
+@Service
+public class PaymentStatusWatcher implements ConsumerSeekAware {
+
+    static final String LISTENER_ID = "paymentStatusWatcher";
+
+    /**
+     * How the client waits
+     */
+    public enum Kind {
+        LONG_POLL, STREAM
+    }
+
+    private enum Source {
+        LOCAL, KAFKA
+    }
+
+    /**
+     * Receives the updates of one subscription, one at a time
+     * Throwing closes the subscription.
+     */
+    public interface Listener {
+
+        void onStatus(PaymentStatusUpdate update) throws Exception;
+
+        default void onHeartbeat() throws Exception {
+        }
+    }
+
+    /**
+     * One client waiting on one payment
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final String paymentId;
+        private final Kind kind;
+        private final Listener listener;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private PaymentStatusUpdate last;
+
+        private Subscription(String paymentId, Kind kind, Listener listener) {
+            this.paymentId = paymentId;
+            this.kind = kind;
+            this.listener = listener;
+        }
+
+        /**
+         * Pass the update to the listener unless it is not news to this subscription
+         */
+        public void deliver(PaymentStatusUpdate update) {
+            // a lock rather than synchronized: listeners write to the client or read the database
+            lock.lock();
+            try {
+                if (closed.get() || !isNews(update)) {
+                    return;
+                }
+                last = update;
+                delivered[kind.ordinal()].increment();
+                listener.onStatus(update);
+            } catch (Exception e) {
+                log.debug("Closing {} watch on payment {}: {}", kind, paymentId, e.toString());
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isNews(PaymentStatusUpdate update) {
+            if (last == null) {
+                return true;
+            }
+            if (update.getStatus() == last.getStatus()) {
+                return false;
+            }
+            // the same transitions arrive from two sources; an older one was overtaken
+            return update.getChangedAt() == null || last.getChangedAt() == null
+                || !update.getChangedAt().isBefore(last.getChangedAt());
+        }
+
+        private void heartbeat() {
+            lock.lock();
+            try {
+                if (!closed.get()) {
+                    listener.onHeartbeat();
+                }
+            } catch (Exception e) {
+                log.debug("Closing {} watch on payment {} after a failed heartbeat: {}", kind, paymentId, e.toString());
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stop receiving updates and free the slot; idempotent
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unregister(this);
+            }
+        }
+    }
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Executor executor;
+    private final int maxConnections;
+    private final int maxPerPayment;
+    private final boolean consumeEvents;
+
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger[] active = new AtomicInteger[Kind.values().length];
+
+    private final Counter[] delivered = new Counter[Kind.values().length];
+    private final Counter[] transitions = new Counter[Source.values().length];
+    private final Counter rejectedNodeLimit;
+    private final Counter rejectedPaymentLimit;
+
+    public PaymentStatusWatcher(KafkaListenerEndpointRegistry listenerRegistry,
+                                @Qualifier("paymentTaskExecutor") Executor executor,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.watch.max-connections:5000}") int maxConnections,
+                                @Value("${payment.watch.max-per-payment:16}") int maxPerPayment,
+                                @Value("${payment.watch.consume-events:true}") boolean consumeEvents) {
+        this.listenerRegistry = listenerRegistry;
+        this.executor = executor;
+        this.maxConnections = maxConnections;
+        this.maxPerPayment = maxPerPayment;
+        this.consumeEvents = consumeEvents;
+
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            AtomicInteger count = new AtomicInteger();
+            active[kind.ordinal()] = count;
+            Gauge.builder("payment.watch.active", count, AtomicInteger::get)
+                .description("Clients waiting on a payment status on this node")
+                .tag("kind", tag)
+                .register(meterRegistry);
+            delivered[kind.ordinal()] = Counter.builder("payment.watch.delivered")
+                .description("Status updates delivered to waiting clients")
+                .tag("kind", tag)
+                .register(meterRegistry);
+        }
+        for (Source source : Source.values()) {
+            transitions[source.ordinal()] = Counter.builder("payment.watch.transitions")
+                .description("Transitions of payments that had waiting clients, by where they came from")
+                .tag("source", source.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+        this.rejectedNodeLimit = rejected(meterRegistry, "node_limit");
+        this.rejectedPaymentLimit = rejected(meterRegistry, "payment_limit");
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("payment.watch.rejected")
+            .description("Watch requests turned away by the connection limits")
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    /**
+     * Register a waiter for the payment's transitions
+     * Register before reading the current status, then {@link Subscription#deliver} it, so
+     * a transition committed in between is not missed.
+     *
+     * @throws PaymentException 503 when the node is at max-connections, 429 when the payment is at max-per-payment
+     */
+    public Subscription subscribe(String paymentId, Kind kind, Listener listener) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejectedNodeLimit.increment();
+            throw new PaymentException("Too many clients waiting on payment status", "WATCH_LIMIT_REACHED", 503);
+        }
+        Subscription subscription = new Subscription(paymentId, kind, listener);
+        AtomicBoolean added = new AtomicBoolean();
+        subscriptions.compute(paymentId, (id, current) -> {
+            if (current == null) {
+                added.set(true);
+                return List.of(subscription);
+            }
+            if (current.size() >= maxPerPayment) {
+                return current;
+            }
+            List<Subscription> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(subscription);
+            added.set(true);
+            return List.copyOf(updated);
+        });
+        if (!added.get()) {
+            connections.decrementAndGet();
+            rejectedPaymentLimit.increment();
+            throw new PaymentException("Too many clients waiting on payment " + paymentId, "WATCH_LIMIT_REACHED", 429);
+        }
+        active[kind.ordinal()].incrementAndGet();
+        return subscription;
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.paymentId, (id, current) -> {
+            List<Subscription> updated = new ArrayList<>(current);
+            updated.remove(subscription);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+        active[subscription.kind.ordinal()].decrementAndGet();
+        connections.decrementAndGet();
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Transitions committed on this node, without waiting for the topic
+     */
+    @TransactionalEventListener
+    public void onStatusChanged(PaymentStatusChanged event) {
+        publish(event.paymentId(), event.previousStatus(), event.status(), event.timestamp(), Source.LOCAL);
+    }
+
+    /**
+     * Start consuming once the application is up; without a broker (standin profile) only
+     * this node's transitions wake waiters
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && consumeEvents) {
+            container.start();
+        }
+    }
+
+    /**
+     * Waiters read the current status when they subscribe; nothing older is of interest
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = KafkaConfig.PAYMENT_EVENTS_TOPIC,
+        groupId = "payment-watch-${payment.stats.node-id:${HOSTNAME:local}}",
+        containerFactory = "paymentEventListenerContainerFactory",
+        autoStartup = "false"
+    )
+    public void onPaymentEvent(ConsumerRecord<String, PaymentEventMessage> record) {
+        PaymentEventMessage event = record.value();
+        publish(event.paymentId(), event.previousStatus(), event.status(), event.timestamp(), Source.KAFKA);
+    }
+
+    private void publish(String paymentId, PaymentStatus previousStatus, PaymentStatus status, long timestamp, Source source) {
+        List<Subscription> waiting = subscriptions.get(paymentId);
+        if (waiting == null) {
+            return;
+        }
+        transitions[source.ordinal()].increment();
+        PaymentStatusUpdate update = PaymentStatusUpdate.builder()
+            .paymentId(paymentId)
+            .previousStatus(previousStatus)
+            .status(status)
+            .changedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()))
+            .build();
+        // listeners write to slow clients; keep them off the consumer and committing threads
+        for (Subscription subscription : waiting) {
+            executor.execute(() -> subscription.deliver(update));
+        }
+    }
+
+    /**
+     * Write a keep-alive to every stream; a client that has gone away fails it and is dropped
+     */
+    @Scheduled(fixedDelayString = "${payment.watch.heartbeat-ms:15000}",
+               initialDelayString = "${payment.watch.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (List<Subscription> waiting : subscriptions.values()) {
+            for (Subscription subscription : waiting) {
+                if (subscription.kind == Kind.STREAM) {
+                    executor.execute(subscription::heartbeat);
+                }
+            }
+        }
+    }
+}
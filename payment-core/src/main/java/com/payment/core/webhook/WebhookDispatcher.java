@@ -0,0 +1,559 @@
+package com.payment.core.webhook;
+
+import com.payment.core.timer.TimingWheel;
+import com.payment.persistence.webhook.WebhookDelivery;
+import com.payment.persistence.webhook.WebhookDeliveryStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends webhook deliveries to merchant endpoints
+ *
+ * Deliveries wait in one FIFO lane per merchant. A lane has at most the endpoint's
+ * max-concurrency callbacks in flight, each carrying up to batch-size events, and never two
+ * callbacks with events of the same payment, so a payment's transitions arrive in order
+ * (all of a merchant's, with max-concurrency 1). Requests go through one shared HttpClient,
+ * which keeps connections alive and reuses them, and complete asynchronously: no thread waits
+ * on a merchant. A failed callback puts its events back at the head of the lane and pauses
+ * the lane for min(max-delay, base-delay * 2^(failures-1)) with full jitter, or longer if the
+ * merchant sent Retry-After; the pause is an entry in a {@link TimingWheel}, not a sleeping
+ * thread. An event that failed max-attempts callbacks is kept as dead and not retried.
+ *
+ * Before each callback the URL is checked against the {@link WebhookUrlPolicy}; a URL that
+ * now resolves to a private address fails like an unreachable endpoint.
+ *
+ * Outcomes reach the {@link WebhookDeliveryStore} in batches, every flush interval. At most
+ * max-pending deliveries are held, and max-pending-per-merchant per lane; {@link #offer}
+ * hands the others back, to stay in the table until there is room.
+ */
+@Slf4j
+public class WebhookDispatcher {
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    // deliveries looked at per batch when the head of the lane belongs to busy payments
+    private static final int MAX_SCAN = 1024;
+
+    private enum Outcome {
+        DELIVERED, RETRIED, DEAD, DROPPED
+    }
+
+    private enum RequestOutcome {
+        ACKNOWLEDGED, REJECTED, ERROR
+    }
+
+    private static final class Lane {
+
+        private final String merchantId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<WebhookDelivery> queue = new ArrayDeque<>();
+        // payments with events in a callback in flight
+        private final Set<String> busyPayments = new HashSet<>();
+        private int inFlight;
+        // consecutive failed callbacks
+        private int failures;
+        // epoch millis, 0 while not paused
+        private volatile long pausedUntil;
+        private boolean resumeScheduled;
+
+        private Lane(String merchantId) {
+            this.merchantId = merchantId;
+        }
+    }
+
+    /**
+     * Delivery IDs (and attempt counts) waiting to be written
+     */
+    private static final class Outcomes {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] ids = new long[1024];
+        private int[] attempts = new int[1024];
+        private int size;
+
+        private void add(long id, int attempt) {
+            lock.lock();
+            try {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    attempts = Arrays.copyOf(attempts, size * 2);
+                }
+                ids[size] = id;
+                attempts[size] = attempt;
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Drained drain() {
+            lock.lock();
+            try {
+                Drained drained = new Drained(Arrays.copyOf(ids, size), Arrays.copyOf(attempts, size));
+                size = 0;
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void restore(Drained drained) {
+            for (int i = 0; i < drained.ids().length; i++) {
+                add(drained.ids()[i], drained.attempts()[i]);
+            }
+        }
+    }
+
+    private record Drained(long[] ids, int[] attempts) {
+    }
+
+    private final WebhookDeliveryStore store;
+    private final HttpClient client;
+    private final WebhookUrlPolicy urlPolicy;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final int maxPendingPerMerchant;
+    private final long tickMillis;
+    private final long flushIntervalMillis;
+
+    private final TimingWheel<Lane> wheel;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Set<Long> owned = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Outcomes acknowledged = new Outcomes();
+    private final Outcomes retried = new Outcomes();
+    private final Outcomes dead = new Outcomes();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<String, WebhookTarget> targets = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    private final Timer latency;
+    private final Timer[] requests = new Timer[RequestOutcome.values().length];
+    private final Counter[] outcomes = new Counter[Outcome.values().length];
+
+    public WebhookDispatcher(WebhookDeliveryStore store,
+                             HttpClient client,
+                             WebhookUrlPolicy urlPolicy,
+                             Duration requestTimeout,
+                             int maxAttempts,
+                             long baseDelayMillis,
+                             long maxDelayMillis,
+                             int maxPending,
+                             int maxPendingPerMerchant,
+                             long tickMillis,
+                             long flushIntervalMillis,
+                             MeterRegistry meterRegistry) {
+        if (maxAttempts < 1 || maxPending < 1 || maxPendingPerMerchant < 1) {
+            throw new IllegalArgumentException("maxAttempts, maxPending and maxPendingPerMerchant must be >= 1");
+        }
+        this.store = store;
+        this.client = client;
+        this.urlPolicy = urlPolicy;
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPending = maxPending;
+        this.maxPendingPerMerchant = maxPendingPerMerchant;
+        this.tickMillis = tickMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.wheel = new TimingWheel<>(tickMillis, 512, System.currentTimeMillis());
+
+        this.latency = Timer.builder("payment.webhook.delivery.latency")
+            .description("Time from a payment transition to the merchant acknowledging its callback")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        for (RequestOutcome outcome : RequestOutcome.values()) {
+            requests[outcome.ordinal()] = Timer.builder("payment.webhook.request")
+                .description("Callback round trips, by outcome (2xx, other status, no response)")
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomes[outcome.ordinal()] = Counter.builder("payment.webhook.events")
+                .description("Webhook events by outcome of their callback")
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+        Gauge.builder("payment.webhook.pending", owned, Set::size)
+            .description("Webhook events held by this node, queued or in flight")
+            .register(meterRegistry);
+        Gauge.builder("payment.webhook.in.flight", inFlight, AtomicInteger::get)
+            .description("Callbacks waiting for a response")
+            .register(meterRegistry);
+        Gauge.builder("payment.webhook.paused", lanes, l -> l.values().stream().filter(lane -> lane.pausedUntil != 0).count())
+            .description("Merchants whose callbacks are backing off after a failure")
+            .register(meterRegistry);
+    }
+
+    /**
+     * One client for every merchant: HTTP/1.1 keep-alive connections are pooled per host,
+     * responses are handled on virtual threads
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    /**
+     * Replace the endpoints; events of merchants that no longer have one are dropped
+     */
+    public void setTargets(Map<String, WebhookTarget> targets) {
+        this.targets.putAll(targets);
+        this.targets.keySet().retainAll(targets.keySet());
+        lanes.values().forEach(this::pump);
+    }
+
+    public void putTarget(WebhookTarget target) {
+        targets.put(target.merchantId(), target);
+        Lane lane = lanes.get(target.merchantId());
+        if (lane != null) {
+            pump(lane);
+        }
+    }
+
+    public void removeTarget(String merchantId) {
+        targets.remove(merchantId);
+        Lane lane = lanes.get(merchantId);
+        if (lane != null) {
+            pump(lane);
+        }
+    }
+
+    public boolean hasTarget(String merchantId) {
+        return targets.containsKey(merchantId);
+    }
+
+    /**
+     * Queue stored deliveries for sending
+     *
+     * @return Deliveries refused for lack of room (or because the dispatcher is stopped);
+     *         they stay with the caller
+     */
+    public List<WebhookDelivery> offer(List<WebhookDelivery> deliveries) {
+        List<WebhookDelivery> refused = new ArrayList<>(0);
+        Set<Lane> touched = new LinkedHashSet<>();
+        for (WebhookDelivery delivery : deliveries) {
+            if (!targets.containsKey(delivery.merchantId())) {
+                acknowledged.add(delivery.deliveryId(), delivery.attempts());
+                outcomes[Outcome.DROPPED.ordinal()].increment();
+                continue;
+            }
+            Lane lane = lanes.computeIfAbsent(delivery.merchantId(), Lane::new);
+            lane.lock.lock();
+            try {
+                if (!running || owned.size() >= maxPending || lane.queue.size() >= maxPendingPerMerchant) {
+                    refused.add(delivery);
+                } else if (owned.add(delivery.deliveryId())) {
+                    // (already held: claimed again after its lease ran out while still queued here)
+                    lane.queue.addLast(delivery);
+                }
+            } finally {
+                lane.lock.unlock();
+            }
+            touched.add(lane);
+        }
+        touched.forEach(this::pump);
+        return refused;
+    }
+
+    /**
+     * Room for more deliveries, node-wide
+     */
+    public int room() {
+        return Math.max(0, maxPending - owned.size());
+    }
+
+    /**
+     * IDs of the deliveries held here, whose leases the owner keeps renewing
+     */
+    public long[] ownedIds() {
+        return owned.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public int pending() {
+        return owned.size();
+    }
+
+    /**
+     * Start as many callbacks as the lane allows
+     */
+    private void pump(Lane lane) {
+        while (true) {
+            WebhookTarget target = targets.get(lane.merchantId);
+            List<WebhookDelivery> batch;
+            lane.lock.lock();
+            try {
+                if (target == null) {
+                    dropQueued(lane);
+                    return;
+                }
+                if (!running || lane.pausedUntil != 0 || lane.inFlight >= target.maxConcurrency() || lane.queue.isEmpty()) {
+                    return;
+                }
+                batch = takeBatch(lane, target.batchSize());
+                if (batch.isEmpty()) {
+                    return;
+                }
+                lane.inFlight++;
+            } finally {
+                lane.lock.unlock();
+            }
+            send(lane, target, batch);
+        }
+    }
+
+    /**
+     * Oldest events whose payments have nothing in flight; the events of one payment can
+     * share a callback, in order
+     */
+    private static List<WebhookDelivery> takeBatch(Lane lane, int batchSize) {
+        List<WebhookDelivery> batch = new ArrayList<>(Math.min(batchSize, lane.queue.size()));
+        Set<String> taken = batchSize == 1 ? Set.of() : new HashSet<>();
+        Iterator<WebhookDelivery> queued = lane.queue.iterator();
+        int scanned = 0;
+        while (queued.hasNext() && batch.size() < batchSize && scanned++ < MAX_SCAN) {
+            WebhookDelivery delivery = queued.next();
+            if (lane.busyPayments.contains(delivery.paymentId()) && !taken.contains(delivery.paymentId())) {
+                continue;
+            }
+            queued.remove();
+            batch.add(delivery);
+            if (lane.busyPayments.add(delivery.paymentId()) && batchSize > 1) {
+                taken.add(delivery.paymentId());
+            }
+        }
+        return batch;
+    }
+
+    private void dropQueued(Lane lane) {
+        for (WebhookDelivery delivery : lane.queue) {
+            owned.remove(delivery.deliveryId());
+            acknowledged.add(delivery.deliveryId(), delivery.attempts());
+        }
+        outcomes[Outcome.DROPPED.ordinal()].increment(lane.queue.size());
+        lane.queue.clear();
+    }
+
+    private void send(Lane lane, WebhookTarget target, List<WebhookDelivery> batch) {
+        long startNanos = System.nanoTime();
+        inFlight.incrementAndGet();
+        try {
+            urlPolicy.check(target.url());
+            byte[] body = WebhookPayload.encode(batch);
+            HttpRequest request = HttpRequest.newBuilder(target.url())
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header(SIGNATURE_HEADER, target.sign(System.currentTimeMillis(), body))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> completed(lane, batch, response, error, startNanos));
+        } catch (RuntimeException e) {
+            completed(lane, batch, null, e, startNanos);
+        }
+    }
+
+    private void completed(Lane lane, List<WebhookDelivery> batch, HttpResponse<Void> response,
+                           Throwable error, long startNanos) {
+        inFlight.decrementAndGet();
+        RequestOutcome outcome = error != null ? RequestOutcome.ERROR
+            : response.statusCode() / 100 == 2 ? RequestOutcome.ACKNOWLEDGED : RequestOutcome.REJECTED;
+        requests[outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        long now = System.currentTimeMillis();
+
+        lane.lock.lock();
+        try {
+            lane.inFlight--;
+            for (WebhookDelivery delivery : batch) {
+                lane.busyPayments.remove(delivery.paymentId());
+            }
+            if (outcome == RequestOutcome.ACKNOWLEDGED) {
+                lane.failures = 0;
+            } else {
+                lane.failures++;
+                // back at the head in their original order, ahead of everything queued after them
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    WebhookDelivery delivery = batch.get(i);
+                    int attempts = delivery.attempts() + 1;
+                    if (attempts >= maxAttempts) {
+                        owned.remove(delivery.deliveryId());
+                        dead.add(delivery.deliveryId(), attempts);
+                        outcomes[Outcome.DEAD.ordinal()].increment();
+                    } else {
+                        retried.add(delivery.deliveryId(), attempts);
+                        lane.queue.addFirst(delivery.withAttempts(attempts));
+                        outcomes[Outcome.RETRIED.ordinal()].increment();
+                    }
+                }
+                pause(lane, now + backoff(lane.failures, response));
+            }
+        } finally {
+            lane.lock.unlock();
+        }
+
+        if (outcome == RequestOutcome.ACKNOWLEDGED) {
+            for (WebhookDelivery delivery : batch) {
+                owned.remove(delivery.deliveryId());
+                acknowledged.add(delivery.deliveryId(), delivery.attempts());
+                latency.record(Math.max(0, now - delivery.occurredAt()), TimeUnit.MILLISECONDS);
+            }
+            outcomes[Outcome.DELIVERED.ordinal()].increment(batch.size());
+        } else {
+            log.debug("Webhook callback to merchant {} failed ({} events): {}", lane.merchantId, batch.size(),
+                error != null ? error.toString() : "HTTP " + response.statusCode());
+        }
+        pump(lane);
+    }
+
+    /**
+     * Full jitter over the exponential ceiling; a Retry-After (seconds) sets the minimum
+     */
+    private long backoff(int failures, HttpResponse<Void> response) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(failures - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (response != null) {
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                try {
+                    delay = Math.max(delay, Math.min(maxDelayMillis,
+                        TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.get().trim()))));
+                } catch (NumberFormatException e) {
+                    // an HTTP date: keep the computed delay
+                }
+            }
+        }
+        return delay;
+    }
+
+    private void pause(Lane lane, long untilMillis) {
+        lane.pausedUntil = Math.max(lane.pausedUntil, untilMillis);
+        if (!lane.resumeScheduled) {
+            lane.resumeScheduled = true;
+            wheel.schedule(lane, lane.pausedUntil);
+        }
+    }
+
+    private void resume(Lane lane, long now) {
+        lane.lock.lock();
+        try {
+            lane.resumeScheduled = false;
+            if (lane.pausedUntil > now) {
+                // paused again by another failure after this timer was set
+                pause(lane, lane.pausedUntil);
+                return;
+            }
+            lane.pausedUntil = 0;
+        } finally {
+            lane.lock.unlock();
+        }
+        pump(lane);
+    }
+
+    /**
+     * Write the outcomes collected since the last flush; on failure they are kept for the next one
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Drained deadBatch = dead.drain();
+            Drained retriedBatch = retried.drain();
+            Drained acknowledgedBatch = acknowledged.drain();
+            try {
+                store.markDead(deadBatch.ids(), deadBatch.attempts());
+                deadBatch = null;
+                store.recordAttempts(retriedBatch.ids(), retriedBatch.attempts());
+                retriedBatch = null;
+                store.delete(acknowledgedBatch.ids());
+            } catch (RuntimeException e) {
+                if (deadBatch != null) {
+                    dead.restore(deadBatch);
+                }
+                if (retriedBatch != null) {
+                    retried.restore(retriedBatch);
+                }
+                acknowledged.restore(acknowledgedBatch);
+                log.warn("Failed to write webhook outcomes, retrying with the next flush: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void start() {
+        running = true;
+        Thread.ofPlatform().daemon().name("payment-webhooks").start(this::runDriver);
+        Thread.ofPlatform().daemon().name("payment-webhooks-flush").start(this::runFlusher);
+    }
+
+    /**
+     * Stop taking deliveries and write the outcomes so far; callbacks still in flight are
+     * abandoned and their rows delivered again once the lease expires
+     */
+    public void stop() {
+        running = false;
+        flush();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runDriver() {
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (Lane lane : wheel.advance(now)) {
+                resume(lane, now);
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.payment.core.webhook;
+
+import com.payment.persistence.webhook.WebhookDelivery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JSON body of a callback: {@code {"events":[...]}} with one or more transitions, oldest first
+ *
+ * Written by hand rather than through Jackson: the shape is fixed and this runs for every
+ * callback. Receivers de-duplicate on the event id, as a callback can arrive more than once.
+ */
+final class WebhookPayload {
+
+    private WebhookPayload() {
+    }
+
+    static byte[] encode(List<WebhookDelivery> deliveries) {
+        StringBuilder json = new StringBuilder(64 + deliveries.size() * 320);
+        json.append("{\"events\":[");
+        for (int i = 0; i < deliveries.size(); i++) {
+            WebhookDelivery delivery = deliveries.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(delivery.deliveryId());
+            json.append(",\"type\":\"payment.").append(delivery.status().name().toLowerCase(Locale.ROOT)).append('"');
+            json.append(",\"paymentId\":");
+            string(json, delivery.paymentId());
+            json.append(",\"merchantId\":");
+            string(json, delivery.merchantId());
+            json.append(",\"previousStatus\":");
+            if (delivery.previousStatus() == null) {
+                json.append("null");
+            } else {
+                json.append('"').append(delivery.previousStatus().name()).append('"');
+            }
+            json.append(",\"status\":\"").append(delivery.status().name()).append('"');
+            json.append(",\"amount\":\"").append(delivery.amount().toBigDecimal().toPlainString()).append('"');
+            json.append(",\"currency\":\"").append(delivery.amount().currency().name()).append('"');
+            json.append(",\"occurredAt\":").append(delivery.occurredAt());
+            json.append(",\"attempt\":").append(delivery.attempts() + 1);
+            json.append('}');
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,334 @@
+package com.payment.core.webhook;
+
+import com.payment.common.dto.WebhookEndpointRequest;
+import com.payment.common.dto.WebhookEndpointResponse;
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.common.exception.PaymentException;
+import com.payment.infrastructure.config.KafkaConfig;
+import com.payment.persistence.entity.WebhookEndpoint;
+import com.payment.persistence.repository.WebhookEndpointRepository;
+import com.payment.persistence.webhook.JdbcWebhookDeliveryStore;
+import com.payment.persistence.webhook.WebhookDelivery;
+import com.payment.persistence.webhook.WebhookDeliveryStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merchant webhooks: endpoint registration and the feed of the {@link WebhookDispatcher}
+ *
+ * Nodes share the payment-webhooks consumer group, so each event is taken by one node. Events
+ * of merchants with an enabled endpoint are written to webhook_deliveries, leased to this node,
+ * and only then acknowledged on the topic; the lease is renewed while the dispatcher holds them.
+ * Which merchants have one is decided by webhook_endpoints, not by this node's copy of the
+ * endpoints, which can be up to a refresh interval behind a change made through another node.
+ * Rows whose lease runs out (the node died, or had no room for them) are claimed by any node
+ * with room. Delivery is at least once: receivers deduplicate by event id.
+ */
+@Slf4j
+@Service
+public class WebhookService implements SmartLifecycle {
+
+    static final String LISTENER_ID = "webhookDispatcher";
+
+    private final WebhookEndpointRepository endpointRepository;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final WebhookDeliveryStore store;
+    private final WebhookDispatcher dispatcher;
+    private final WebhookUrlPolicy urlPolicy;
+    private final long leaseMillis;
+    private final int claimBatchSize;
+    private final boolean consumeEvents;
+
+    private volatile boolean running;
+
+    public WebhookService(WebhookEndpointRepository endpointRepository,
+                          KafkaListenerEndpointRegistry listenerRegistry,
+                          DataSource dataSource,
+                          MeterRegistry meterRegistry,
+                          @Value("${payment.webhooks.max-attempts:12}") int maxAttempts,
+                          @Value("${payment.webhooks.base-delay-ms:1000}") long baseDelayMillis,
+                          @Value("${payment.webhooks.max-delay-ms:300000}") long maxDelayMillis,
+                          @Value("${payment.webhooks.request-timeout-ms:10000}") long requestTimeoutMillis,
+                          @Value("${payment.webhooks.connect-timeout-ms:5000}") long connectTimeoutMillis,
+                          @Value("${payment.webhooks.max-pending:50000}") int maxPending,
+                          @Value("${payment.webhooks.max-pending-per-merchant:10000}") int maxPendingPerMerchant,
+                          @Value("${payment.webhooks.lease-ms:60000}") long leaseMillis,
+                          @Value("${payment.webhooks.claim-batch-size:1000}") int claimBatchSize,
+                          @Value("${payment.webhooks.tick-ms:50}") long tickMillis,
+                          @Value("${payment.webhooks.flush-interval-ms:100}") long flushIntervalMillis,
+                          @Value("${payment.webhooks.allow-private-targets:false}") boolean allowPrivateTargets,
+                          @Value("${payment.webhooks.consume-events:true}") boolean consumeEvents) {
+        this.endpointRepository = endpointRepository;
+        this.listenerRegistry = listenerRegistry;
+        this.store = new JdbcWebhookDeliveryStore(dataSource);
+        this.urlPolicy = WebhookUrlPolicy.of(allowPrivateTargets);
+        this.dispatcher = new WebhookDispatcher(store,
+            WebhookDispatcher.newHttpClient(Duration.ofMillis(connectTimeoutMillis)), urlPolicy,
+            Duration.ofMillis(requestTimeoutMillis), maxAttempts, baseDelayMillis, maxDelayMillis,
+            maxPending, maxPendingPerMerchant, tickMillis, flushIntervalMillis, meterRegistry);
+        this.leaseMillis = leaseMillis;
+        this.claimBatchSize = claimBatchSize;
+        this.consumeEvents = consumeEvents;
+    }
+
+    /**
+     * Register or replace the merchant's endpoint; other nodes pick it up on their next refresh
+     *
+     * @throws PaymentException 400 WEBHOOK_URL_NOT_ALLOWED for URLs the {@link WebhookUrlPolicy} refuses
+     */
+    @Transactional
+    public WebhookEndpointResponse saveEndpoint(String merchantId, WebhookEndpointRequest request) {
+        try {
+            urlPolicy.check(URI.create(request.getUrl()));
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException(e.getMessage(), "WEBHOOK_URL_NOT_ALLOWED", 400);
+        }
+        WebhookEndpoint endpoint = endpointRepository.findById(merchantId)
+            .orElseGet(() -> WebhookEndpoint.builder().merchantId(merchantId).build());
+        endpoint.setUrl(request.getUrl());
+        endpoint.setSecret(request.getSecret());
+        endpoint.setBatchSize(request.getBatchSize() == null ? 1 : request.getBatchSize());
+        endpoint.setMaxConcurrency(request.getMaxConcurrency() == null ? 4 : request.getMaxConcurrency());
+        endpoint.setEnabled(request.getEnabled() == null || request.getEnabled());
+        WebhookEndpoint saved = endpointRepository.save(endpoint);
+
+        if (saved.isEnabled()) {
+            dispatcher.putTarget(toTarget(saved));
+        } else {
+            dispatcher.removeTarget(merchantId);
+        }
+        log.info("Webhook endpoint saved for merchant {}: {}", merchantId, saved.getUrl());
+        return toResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public WebhookEndpointResponse getEndpoint(String merchantId) {
+        return endpointRepository.findById(merchantId)
+            .map(WebhookService::toResponse)
+            .orElseThrow(() -> notFound(merchantId));
+    }
+
+    /**
+     * Remove the endpoint; events still queued for the merchant are dropped
+     */
+    @Transactional
+    public void deleteEndpoint(String merchantId) {
+        if (!endpointRepository.existsById(merchantId)) {
+            throw notFound(merchantId);
+        }
+        endpointRepository.deleteById(merchantId);
+        dispatcher.removeTarget(merchantId);
+        log.info("Webhook endpoint deleted for merchant {}", merchantId);
+    }
+
+    /**
+     * Reload the enabled endpoints, including changes made through other nodes
+     */
+    @Scheduled(fixedDelayString = "${payment.webhooks.refresh-interval-ms:30000}",
+               initialDelayString = "${payment.webhooks.refresh-interval-ms:30000}")
+    public void refreshEndpoints() {
+        Map<String, WebhookTarget> targets = new HashMap<>();
+        for (WebhookEndpoint endpoint : endpointRepository.findByEnabledTrue()) {
+            try {
+                targets.put(endpoint.getMerchantId(), toTarget(endpoint));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping webhook endpoint of merchant {}: {}", endpoint.getMerchantId(), e.getMessage());
+            }
+        }
+        dispatcher.setTargets(targets);
+    }
+
+    /**
+     * Start consuming once the application is up; without a broker (standin profile) only
+     * claimed rows are delivered
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && consumeEvents) {
+            container.start();
+        }
+    }
+
+    /**
+     * Store the poll's events for merchants with an endpoint, hand them to the dispatcher,
+     * then commit the offsets; a failed insert leaves the batch unacknowledged and redelivered
+     *
+     * The insert keeps the events of merchants with an enabled row in webhook_endpoints, so an
+     * endpoint registered through another node since the last refresh still gets its events
+     */
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = KafkaConfig.PAYMENT_EVENTS_TOPIC,
+        groupId = "payment-webhooks",
+        containerFactory = "paymentEventBatchListenerContainerFactory",
+        autoStartup = "false"
+    )
+    public void onPaymentEvents(List<ConsumerRecord<String, PaymentEventMessage>> records, Acknowledgment acknowledgment) {
+        List<WebhookDelivery> deliveries = new ArrayList<>();
+        for (ConsumerRecord<String, PaymentEventMessage> record : records) {
+            PaymentEventMessage event = record.value();
+            if (event != null) {
+                deliveries.add(new WebhookDelivery(0, event.paymentId(), event.merchantId(), event.previousStatus(),
+                    event.status(), event.amount(), event.timestamp(), 0));
+            }
+        }
+        if (!deliveries.isEmpty()) {
+            long now = System.currentTimeMillis();
+            List<WebhookDelivery> inserted = store.insert(deliveries, now + leaseMillis);
+            loadMissingTargets(inserted);
+            release(dispatcher.offer(inserted), now);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Keep the leases of the deliveries this node holds
+     */
+    @Scheduled(fixedDelayString = "${payment.webhooks.renew-interval-ms:20000}",
+               initialDelayString = "${payment.webhooks.renew-interval-ms:20000}")
+    public void renewLeases() {
+        if (!running) {
+            return;
+        }
+        try {
+            store.renewLeases(dispatcher.ownedIds(), System.currentTimeMillis() + leaseMillis);
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew webhook delivery leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Take over deliveries whose lease expired, as many as the dispatcher has room for
+     */
+    @Scheduled(fixedDelayString = "${payment.webhooks.claim-interval-ms:5000}",
+               initialDelayString = "${payment.webhooks.claim-interval-ms:5000}")
+    public void claimExpired() {
+        if (!running) {
+            return;
+        }
+        try {
+            int limit = Math.min(dispatcher.room(), claimBatchSize);
+            long now = System.currentTimeMillis();
+            List<WebhookDelivery> claimed = store.claimExpired(now, now + leaseMillis, limit);
+            if (!claimed.isEmpty()) {
+                log.info("Claimed {} webhook deliveries with expired leases", claimed.size());
+                loadMissingTargets(claimed);
+                release(dispatcher.offer(claimed), now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim webhook deliveries: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoints saved through another node since the last refresh; the dispatcher drops the
+     * deliveries of merchants it has no target for, which is right only once the table agrees
+     */
+    private void loadMissingTargets(List<WebhookDelivery> deliveries) {
+        Set<String> missing = new HashSet<>();
+        for (WebhookDelivery delivery : deliveries) {
+            if (!dispatcher.hasTarget(delivery.merchantId())) {
+                missing.add(delivery.merchantId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (WebhookEndpoint endpoint : endpointRepository.findAllById(missing)) {
+            if (!endpoint.isEnabled()) {
+                continue;
+            }
+            try {
+                dispatcher.putTarget(toTarget(endpoint));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping webhook endpoint of merchant {}: {}", endpoint.getMerchantId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deliveries the dispatcher had no room for: expire their lease so a node with room claims them
+     */
+    private void release(List<WebhookDelivery> refused, long now) {
+        if (refused.isEmpty()) {
+            return;
+        }
+        long[] ids = refused.stream().mapToLong(WebhookDelivery::deliveryId).toArray();
+        store.renewLeases(ids, now);
+    }
+
+    public int pending() {
+        return dispatcher.pending();
+    }
+
+    @Override
+    public void start() {
+        refreshEndpoints();
+        dispatcher.start();
+        running = true;
+        log.info("Webhook dispatcher started");
+    }
+
+    /**
+     * Queued deliveries are abandoned; their leases expire and any node delivers them
+     */
+    @Override
+    public void stop() {
+        running = false;
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null) {
+            container.stop();
+        }
+        dispatcher.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static WebhookTarget toTarget(WebhookEndpoint endpoint) {
+        return new WebhookTarget(endpoint.getMerchantId(), URI.create(endpoint.getUrl()), endpoint.getSecret(),
+            endpoint.getBatchSize(), endpoint.getMaxConcurrency());
+    }
+
+    private static WebhookEndpointResponse toResponse(WebhookEndpoint endpoint) {
+        return WebhookEndpointResponse.builder()
+            .merchantId(endpoint.getMerchantId())
+            .url(endpoint.getUrl())
+            .batchSize(endpoint.getBatchSize())
+            .maxConcurrency(endpoint.getMaxConcurrency())
+            .enabled(endpoint.isEnabled())
+            .createdAt(endpoint.getCreatedAt())
+            .updatedAt(endpoint.getUpdatedAt())
+            .build();
+    }
+
+    private static PaymentException notFound(String merchantId) {
+        return new PaymentException("Webhook endpoint not found for merchant: " + merchantId,
+            "WEBHOOK_ENDPOINT_NOT_FOUND", 404);
+    }
+}
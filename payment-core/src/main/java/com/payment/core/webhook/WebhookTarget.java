@@ -0,0 +1,75 @@
+package com.payment.core.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * A merchant's webhook endpoint as the dispatcher uses it
+ *
+ * Callbacks are signed with HMAC-SHA256 over "timestamp.body"; the header value is
+ * {@code t=<epoch millis>,v1=<hex digest>}, so receivers can reject replays by timestamp.
+ */
+public final class WebhookTarget {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final String merchantId;
+    private final URI url;
+    private final int batchSize;
+    private final int maxConcurrency;
+    // initialised once, cloned per signature
+    private final Mac mac;
+
+    public WebhookTarget(String merchantId, URI url, String secret, int batchSize, int maxConcurrency) {
+        if (batchSize < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("batchSize and maxConcurrency must be >= 1");
+        }
+        this.merchantId = merchantId;
+        this.url = url;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        try {
+            this.mac = Mac.getInstance(ALGORITHM);
+            this.mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public String merchantId() {
+        return merchantId;
+    }
+
+    public URI url() {
+        return url;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Signature header value of a callback body sent at the given time
+     */
+    public String sign(long timestamp, byte[] body) {
+        Mac signer;
+        try {
+            signer = (Mac) mac.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC-SHA256 provider does not support cloning", e);
+        }
+        signer.update(Long.toString(timestamp).getBytes(StandardCharsets.US_ASCII));
+        signer.update((byte) '.');
+        signer.update(body);
+        return "t=" + timestamp + ",v1=" + HEX.formatHex(signer.doFinal());
+    }
+}
@@ -0,0 +1,82 @@
+package com.payment.core.webhook;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+
+/**
+ * Which callback URLs may be called
+ *
+ * Merchants choose the URL, so without this the service would POST wherever it is told from
+ * inside the network: the cloud metadata service (169.254.169.254), localhost, internal hosts.
+ * Only http(s) URLs whose host resolves to public addresses only are allowed. The check runs
+ * when an endpoint is saved and again before each callback, as DNS may have changed since.
+ */
+public final class WebhookUrlPolicy {
+
+    /**
+     * Public addresses only
+     */
+    public static final WebhookUrlPolicy PUBLIC_ONLY = new WebhookUrlPolicy(false);
+
+    /**
+     * Any address, for receivers on the same machine or network (benchmarks, tests)
+     */
+    public static final WebhookUrlPolicy ANY_ADDRESS = new WebhookUrlPolicy(true);
+
+    private final boolean allowPrivate;
+
+    private WebhookUrlPolicy(boolean allowPrivate) {
+        this.allowPrivate = allowPrivate;
+    }
+
+    public static WebhookUrlPolicy of(boolean allowPrivate) {
+        return allowPrivate ? ANY_ADDRESS : PUBLIC_ONLY;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the URL may not be called
+     */
+    public void check(URI url) {
+        String scheme = url.getScheme() == null ? "" : url.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new IllegalArgumentException("Webhook URL must be http or https: " + url);
+        }
+        if (url.getHost() == null || url.getRawUserInfo() != null) {
+            throw new IllegalArgumentException("Webhook URL must have a host and no user info: " + url);
+        }
+        if (allowPrivate) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(url.getHost());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Webhook host does not resolve: " + url.getHost());
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new IllegalArgumentException("Webhook host " + url.getHost()
+                    + " resolves to a non-public address: " + address.getHostAddress());
+            }
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7 unique local
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        int first = bytes[0] & 0xff;
+        int second = bytes[1] & 0xff;
+        // 0.0.0.0/8 "this network", 100.64.0.0/10 carrier-grade NAT, 240.0.0.0/4 reserved and broadcast
+        return first != 0 && !(first == 100 && (second & 0xc0) == 64) && first < 240;
+    }
+}
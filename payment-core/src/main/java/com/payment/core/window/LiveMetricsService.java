@@ -0,0 +1,229 @@
+package com.payment.core.window;
+
+import com.payment.common.dto.LiveMerchantStatsResponse;
+import com.payment.common.enums.Currency;
+import com.payment.common.exception.PaymentException;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RMapAsync;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Query side of the rolling windows, for one node or merged across the cluster
+ *
+ * Every node periodically publishes its per-merchant window sums to a Redis hash of its
+ * own ({@code payment:window:node:<node-id>}, swapped in atomically with RENAME) and
+ * registers itself in a sorted set scored by publish time. A cluster query adds this
+ * node's live values to the published values of every other node seen recently, so
+ * other nodes' contributions are up to one flush interval old.
+ */
+@Slf4j
+@Service
+public class LiveMetricsService {
+
+    private static final String NODE_KEY_PREFIX = "payment:window:node:";
+    private static final String NODES_KEY = "payment:window:nodes";
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final RollingWindow[] WINDOWS = RollingWindow.values();
+    private static final int PUBLISH_BATCH = 1000;
+
+    private final RollingWindowAggregator aggregator;
+    private final RedissonClient redissonClient;
+    private final String nodeId;
+    private final boolean clusterEnabled;
+    private final long flushMillis;
+
+    public LiveMetricsService(RollingWindowAggregator aggregator,
+                              RedissonClient redissonClient,
+                              @Value("${payment.stats.node-id:${HOSTNAME:local}}") String nodeId,
+                              @Value("${payment.window.cluster-enabled:true}") boolean clusterEnabled,
+                              @Value("${payment.window.redis-flush-ms:5000}") long flushMillis) {
+        this.aggregator = aggregator;
+        this.redissonClient = redissonClient;
+        this.nodeId = nodeId;
+        this.clusterEnabled = clusterEnabled;
+        this.flushMillis = flushMillis;
+    }
+
+    /**
+     * Window metrics of one merchant per currency
+     *
+     * @param cluster Merge the values published by other nodes
+     */
+    public LiveMerchantStatsResponse getLiveStats(String merchantId, boolean cluster) {
+        long now = System.currentTimeMillis();
+        long[][][] sums = new long[CURRENCIES.length][WINDOWS.length][WindowCounters.FIELDS + 1];
+        for (Currency currency : CURRENCIES) {
+            for (RollingWindow window : WINDOWS) {
+                WindowTotals local = aggregator.merchant(merchantId, currency, window, now);
+                if (local != null) {
+                    add(sums[currency.ordinal()][window.ordinal()], local);
+                }
+            }
+        }
+
+        int nodes = 1;
+        if (cluster) {
+            if (!clusterEnabled) {
+                throw new PaymentException("Cluster merge of live metrics is disabled", "CLUSTER_METRICS_DISABLED", 400);
+            }
+            nodes += mergeRemote(merchantId, now, sums);
+        }
+
+        List<LiveMerchantStatsResponse.Entry> entries = new ArrayList<>();
+        for (Currency currency : CURRENCIES) {
+            for (RollingWindow window : WINDOWS) {
+                WindowTotals totals = WindowTotals.of(sums[currency.ordinal()][window.ordinal()]);
+                if (!totals.isEmpty()) {
+                    entries.add(totals.toEntry(currency, window));
+                }
+            }
+        }
+        return LiveMerchantStatsResponse.builder()
+            .merchantId(merchantId)
+            .scope(cluster ? "cluster" : "node")
+            .nodes(nodes)
+            .entries(entries)
+            .build();
+    }
+
+    /**
+     * @return Number of other nodes merged
+     */
+    private int mergeRemote(String merchantId, long now, long[][][] sums) {
+        RScoredSortedSet<String> registry = redissonClient.getScoredSortedSet(NODES_KEY, StringCodec.INSTANCE);
+        Collection<String> nodes = registry.valueRange(now - 3 * flushMillis, true, Double.POSITIVE_INFINITY, true);
+        Set<String> fields = new HashSet<>();
+        for (Currency currency : CURRENCIES) {
+            fields.add(field(merchantId, currency));
+        }
+
+        RBatch batch = redissonClient.createBatch();
+        List<String> remote = new ArrayList<>();
+        for (String node : nodes) {
+            if (!node.equals(nodeId)) {
+                RMapAsync<String, String> map = batch.getMap(NODE_KEY_PREFIX + node, StringCodec.INSTANCE);
+                map.getAllAsync(fields);
+                remote.add(node);
+            }
+        }
+        if (remote.isEmpty()) {
+            return 0;
+        }
+        List<?> responses = batch.execute().getResponses();
+        for (Object response : responses) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> values = (Map<String, String>) response;
+            for (Currency currency : CURRENCIES) {
+                String encoded = values.get(field(merchantId, currency));
+                if (encoded != null) {
+                    decodeInto(encoded, sums[currency.ordinal()]);
+                }
+            }
+        }
+        return remote.size();
+    }
+
+    /**
+     * Publish this node's window sums for the other nodes
+     */
+    @Scheduled(fixedDelayString = "${payment.window.redis-flush-ms:5000}",
+               initialDelayString = "${payment.window.redis-flush-ms:5000}")
+    public void publish() {
+        if (!clusterEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, String> values = new HashMap<>();
+        aggregator.forEachMerchant((merchantId, currency) -> {
+            StringBuilder encoded = new StringBuilder(64);
+            boolean empty = true;
+            for (RollingWindow window : WINDOWS) {
+                WindowTotals totals = aggregator.merchant(merchantId, currency, window, now);
+                empty &= totals == null || totals.isEmpty();
+                encode(totals, encoded);
+            }
+            if (!empty) {
+                values.put(field(merchantId, currency), encoded.toString());
+            }
+        });
+
+        String nodeKey = NODE_KEY_PREFIX + nodeId;
+        String stagingKey = nodeKey + ":staging";
+        try {
+            RBatch batch = redissonClient.createBatch();
+            batch.getKeys().deleteAsync(stagingKey);
+            if (values.isEmpty()) {
+                batch.getKeys().deleteAsync(nodeKey);
+            } else {
+                RMapAsync<String, String> staging = batch.getMap(stagingKey, StringCodec.INSTANCE);
+                Map<String, String> chunk = new HashMap<>();
+                for (Map.Entry<String, String> entry : values.entrySet()) {
+                    chunk.put(entry.getKey(), entry.getValue());
+                    if (chunk.size() == PUBLISH_BATCH) {
+                        staging.putAllAsync(chunk);
+                        chunk = new HashMap<>();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    staging.putAllAsync(chunk);
+                }
+                batch.getKeys().renameAsync(stagingKey, nodeKey);
+                batch.getMap(nodeKey, StringCodec.INSTANCE)
+                    .expireAsync(Duration.ofMillis(3 * flushMillis));
+            }
+            batch.getScoredSortedSet(NODES_KEY, StringCodec.INSTANCE).addAsync(now, nodeId);
+            batch.getScoredSortedSet(NODES_KEY, StringCodec.INSTANCE)
+                .removeRangeByScoreAsync(0, true, now - 3 * flushMillis, false);
+            batch.execute();
+        } catch (Exception e) {
+            log.warn("Failed to publish live window metrics to Redis: {}", e.getMessage());
+        }
+    }
+
+    private static String field(String merchantId, Currency currency) {
+        return merchantId + '|' + currency.name();
+    }
+
+    // windows in enum order, fields CREATED..FAILED, comma separated
+    private static void encode(WindowTotals totals, StringBuilder out) {
+        long[] values = totals == null ? new long[WindowCounters.FIELDS]
+            : new long[] {totals.created(), totals.createdAmount(), totals.approved(),
+                          totals.approvedAmount(), totals.failed()};
+        for (long value : values) {
+            if (!out.isEmpty()) {
+                out.append(',');
+            }
+            out.append(value);
+        }
+    }
+
+    private static void decodeInto(String encoded, long[][] windowSums) {
+        String[] parts = encoded.split(",");
+        if (parts.length != WINDOWS.length * WindowCounters.FIELDS) {
+            return;
+        }
+        int i = 0;
+        for (RollingWindow window : WINDOWS) {
+            for (int field = 1; field <= WindowCounters.FIELDS; field++) {
+                windowSums[window.ordinal()][field] += Long.parseLong(parts[i++]);
+            }
+        }
+    }
+
+    private static void add(long[] sums, WindowTotals totals) {
+        sums[WindowCounters.CREATED] += totals.created();
+        sums[WindowCounters.CREATED_AMOUNT] += totals.createdAmount();
+        sums[WindowCounters.APPROVED] += totals.approved();
+        sums[WindowCounters.APPROVED_AMOUNT] += totals.approvedAmount();
+        sums[WindowCounters.FAILED] += totals.failed();
+    }
+}
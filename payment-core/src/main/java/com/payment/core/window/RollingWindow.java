@@ -0,0 +1,22 @@
+package com.payment.core.window;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rolling windows served by the live metrics, each kept in its own ring of buckets
+ *
+ * The current bucket is only partly filled, so a window covers between
+ * (buckets - 1) and buckets whole bucket lengths.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RollingWindow {
+    ONE_MINUTE("1m", 10_000, 6),
+    FIVE_MINUTES("5m", 30_000, 10),
+    SIXTY_MINUTES("60m", 300_000, 12);
+
+    private final String label;
+    private final long bucketMillis;
+    private final int buckets;
+}
@@ -0,0 +1,179 @@
+package com.payment.core.window;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.core.event.PaymentStatusChanged;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Rolling 1 / 5 / 60 minute volume, approval and ticket metrics per merchant and currency
+ *
+ * Fed by committed state transitions from PaymentService. Per-merchant state is bounded
+ * by {@code payment.window.max-merchants} (new merchants beyond it only count towards
+ * the totals) and merchants idle for a whole hour are evicted. Per-currency totals are
+ * striped over several counter sets so hot currencies do not contend on one CAS, and
+ * are exported as gauges; per-merchant values are only served by the query API.
+ */
+@Slf4j
+@Service
+public class RollingWindowAggregator {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final RollingWindow[] WINDOWS = RollingWindow.values();
+    private static final long IDLE_MILLIS = RollingWindow.SIXTY_MINUTES.getBucketMillis()
+        * RollingWindow.SIXTY_MINUTES.getBuckets();
+
+    private final Map<String, AtomicReferenceArray<WindowCounters>> merchants = new ConcurrentHashMap<>();
+    private final WindowCounters[][] totals;
+    private final int stripeMask;
+    private final int maxMerchants;
+    private final Counter rejectedMerchants;
+
+    public RollingWindowAggregator(MeterRegistry meterRegistry,
+                                   @Value("${payment.window.max-merchants:100000}") int maxMerchants) {
+        this.maxMerchants = maxMerchants;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.totals = new WindowCounters[CURRENCIES.length][stripes];
+        for (WindowCounters[] currencyStripes : totals) {
+            for (int i = 0; i < stripes; i++) {
+                currencyStripes[i] = new WindowCounters();
+            }
+        }
+
+        this.rejectedMerchants = Counter.builder("payment.window.merchants.rejected")
+            .description("Transitions of merchants not tracked because the merchant limit was reached")
+            .register(meterRegistry);
+        Gauge.builder("payment.window.merchants", merchants, Map::size)
+            .description("Merchants with live window state")
+            .register(meterRegistry);
+        for (Currency currency : CURRENCIES) {
+            for (RollingWindow window : WINDOWS) {
+                String[] tags = {"currency", currency.name(), "window", window.getLabel()};
+                Gauge.builder("payment.window.payments", this, a -> a.total(currency, window).created())
+                    .description("Payments created in the window").tags(tags).register(meterRegistry);
+                Gauge.builder("payment.window.volume", this,
+                        a -> a.total(currency, window).createdAmount() / Math.pow(10, currency.getFractionDigits()))
+                    .description("Amount of payments created in the window").tags(tags).register(meterRegistry);
+                Gauge.builder("payment.window.approval.rate", this, a -> a.total(currency, window).approvalRate())
+                    .description("Completed / (completed + failed) in the window").tags(tags).register(meterRegistry);
+                Gauge.builder("payment.window.average.ticket", this,
+                        a -> a.total(currency, window).averageTicket() / Math.pow(10, currency.getFractionDigits()))
+                    .description("Mean completed amount in the window").tags(tags).register(meterRegistry);
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(PaymentStatusChanged event) {
+        record(event, System.currentTimeMillis());
+    }
+
+    void record(PaymentStatusChanged event, long nowMillis) {
+        int countField;
+        int amountField;
+        if (event.previousStatus() == null && event.status() == PaymentStatus.PENDING) {
+            countField = WindowCounters.CREATED;
+            amountField = WindowCounters.CREATED_AMOUNT;
+        } else if (event.status() == PaymentStatus.COMPLETED) {
+            countField = WindowCounters.APPROVED;
+            amountField = WindowCounters.APPROVED_AMOUNT;
+        } else if (event.status() == PaymentStatus.FAILED) {
+            countField = WindowCounters.FAILED;
+            amountField = 0;
+        } else {
+            return;
+        }
+
+        Currency currency = event.amount().currency();
+        long amount = event.amount().minorUnits();
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        totals[currency.ordinal()][stripe].record(nowMillis, countField, amountField, amount);
+
+        AtomicReferenceArray<WindowCounters> cells = merchants.get(event.merchantId());
+        if (cells == null) {
+            if (merchants.size() >= maxMerchants) {
+                rejectedMerchants.increment();
+                return;
+            }
+            cells = merchants.computeIfAbsent(event.merchantId(),
+                m -> new AtomicReferenceArray<>(CURRENCIES.length));
+        }
+        WindowCounters counters = cells.get(currency.ordinal());
+        if (counters == null) {
+            cells.compareAndSet(currency.ordinal(), null, new WindowCounters());
+            counters = cells.get(currency.ordinal());
+        }
+        counters.record(nowMillis, countField, amountField, amount);
+    }
+
+    /**
+     * Window sums of one merchant and currency on this node, null if the merchant is not tracked
+     */
+    WindowTotals merchant(String merchantId, Currency currency, RollingWindow window, long nowMillis) {
+        AtomicReferenceArray<WindowCounters> cells = merchants.get(merchantId);
+        WindowCounters counters = cells == null ? null : cells.get(currency.ordinal());
+        if (counters == null) {
+            return null;
+        }
+        long[] sums = new long[WindowCounters.FIELDS + 1];
+        counters.sum(window, nowMillis, sums);
+        return WindowTotals.of(sums);
+    }
+
+    /**
+     * Visit every tracked merchant and currency
+     */
+    void forEachMerchant(BiConsumer<String, Currency> visitor) {
+        merchants.forEach((merchantId, cells) -> {
+            for (Currency currency : CURRENCIES) {
+                if (cells.get(currency.ordinal()) != null) {
+                    visitor.accept(merchantId, currency);
+                }
+            }
+        });
+    }
+
+    WindowTotals total(Currency currency, RollingWindow window) {
+        long now = System.currentTimeMillis();
+        long[] sums = new long[WindowCounters.FIELDS + 1];
+        for (WindowCounters stripe : totals[currency.ordinal()]) {
+            stripe.sum(window, now, sums);
+        }
+        return WindowTotals.of(sums);
+    }
+
+    /**
+     * Drop merchants without any transition in the longest window
+     */
+    @Scheduled(fixedDelayString = "${payment.window.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - IDLE_MILLIS;
+        int before = merchants.size();
+        merchants.values().removeIf(cells -> {
+            for (int i = 0; i < cells.length(); i++) {
+                WindowCounters counters = cells.get(i);
+                if (counters != null && counters.lastUpdate() >= cutoff) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        int evicted = before - merchants.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle merchants from live windows", evicted);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.payment.core.window;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free rings of time buckets for one merchant and currency
+ *
+ * All rings live in a single {@link AtomicLongArray}: per bucket one epoch slot
+ * (bucket start / bucket length) followed by the counter fields. A writer that finds
+ * a bucket from an older epoch claims it with a CAS, clears it and publishes the new
+ * epoch; other writers spin for those few stores. An increment racing the rollover can
+ * land in the new bucket. Readers only sum buckets whose epoch is inside the window.
+ *
+ * About 1.4 KB per instance.
+ */
+final class WindowCounters {
+
+    static final int CREATED = 1;
+    static final int CREATED_AMOUNT = 2;
+    static final int APPROVED = 3;
+    static final int APPROVED_AMOUNT = 4;
+    static final int FAILED = 5;
+    static final int FIELDS = 5;
+
+    private static final int STRIDE = FIELDS + 1;
+    private static final long RESETTING = -1;
+    private static final RollingWindow[] WINDOWS = RollingWindow.values();
+    private static final int[] RING_BASE = new int[WINDOWS.length];
+    private static final int LENGTH;
+
+    static {
+        int base = 0;
+        for (RollingWindow window : WINDOWS) {
+            RING_BASE[window.ordinal()] = base;
+            base += window.getBuckets() * STRIDE;
+        }
+        LENGTH = base;
+    }
+
+    private final AtomicLongArray data = new AtomicLongArray(LENGTH);
+    private volatile long lastUpdate;
+
+    /**
+     * Add a count (and optionally an amount) to the current bucket of every ring
+     *
+     * @param amountField Field for the amount, or 0 for none
+     */
+    void record(long nowMillis, int countField, int amountField, long amountMinor) {
+        for (RollingWindow window : WINDOWS) {
+            long epoch = nowMillis / window.getBucketMillis();
+            int base = RING_BASE[window.ordinal()] + (int) (epoch % window.getBuckets()) * STRIDE;
+            if (!claim(base, epoch)) {
+                continue;
+            }
+            data.getAndAdd(base + countField, 1);
+            if (amountField != 0) {
+                data.getAndAdd(base + amountField, amountMinor);
+            }
+        }
+        lastUpdate = nowMillis;
+    }
+
+    /**
+     * Make the bucket at {@code base} belong to {@code epoch}
+     *
+     * @return false if the bucket already moved on to a later epoch (clock went backwards)
+     */
+    private boolean claim(int base, long epoch) {
+        long seen = data.get(base);
+        while (seen != epoch) {
+            if (seen > epoch) {
+                return false;
+            }
+            if (seen != RESETTING && data.compareAndSet(base, seen, RESETTING)) {
+                for (int field = 1; field <= FIELDS; field++) {
+                    data.set(base + field, 0);
+                }
+                data.set(base, epoch);
+                return true;
+            }
+            Thread.onSpinWait();
+            seen = data.get(base);
+        }
+        return true;
+    }
+
+    /**
+     * Add the window's field sums to {@code out} (indexed by field constant)
+     */
+    void sum(RollingWindow window, long nowMillis, long[] out) {
+        long current = nowMillis / window.getBucketMillis();
+        long oldest = current - window.getBuckets() + 1;
+        int ringBase = RING_BASE[window.ordinal()];
+        for (int bucket = 0; bucket < window.getBuckets(); bucket++) {
+            int base = ringBase + bucket * STRIDE;
+            long epoch = data.get(base);
+            if (epoch < oldest || epoch > current) {
+                continue;
+            }
+            for (int field = 1; field <= FIELDS; field++) {
+                out[field] += data.get(base + field);
+            }
+        }
+    }
+
+    long lastUpdate() {
+        return lastUpdate;
+    }
+}
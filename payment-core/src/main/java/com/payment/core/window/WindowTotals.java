@@ -0,0 +1,49 @@
+package com.payment.core.window;
+
+import com.payment.common.dto.LiveMerchantStatsResponse;
+import com.payment.common.enums.Currency;
+import com.payment.common.money.Money;
+
+/**
+ * Field sums of one currency over one window, amounts in minor units
+ */
+record WindowTotals(long created, long createdAmount, long approved, long approvedAmount, long failed) {
+
+    static WindowTotals of(long[] sums) {
+        return new WindowTotals(sums[WindowCounters.CREATED], sums[WindowCounters.CREATED_AMOUNT],
+            sums[WindowCounters.APPROVED], sums[WindowCounters.APPROVED_AMOUNT], sums[WindowCounters.FAILED]);
+    }
+
+    /**
+     * Approved share of decided payments, NaN when none were decided
+     */
+    double approvalRate() {
+        long decided = approved + failed;
+        return decided == 0 ? Double.NaN : (double) approved / decided;
+    }
+
+    /**
+     * Mean approved amount in minor units, NaN when nothing was approved
+     */
+    double averageTicket() {
+        return approved == 0 ? Double.NaN : (double) approvedAmount / approved;
+    }
+
+    boolean isEmpty() {
+        return created == 0 && approved == 0 && failed == 0;
+    }
+
+    LiveMerchantStatsResponse.Entry toEntry(Currency currency, RollingWindow window) {
+        double rate = approvalRate();
+        return LiveMerchantStatsResponse.Entry.builder()
+            .currency(currency)
+            .window(window.getLabel())
+            .payments(created)
+            .volume(Money.of(createdAmount, currency).toBigDecimal())
+            .approved(approved)
+            .failed(failed)
+            .approvalRate(Double.isNaN(rate) ? null : rate)
+            .averageTicket(approved == 0 ? null : Money.of(approvedAmount / approved, currency).toBigDecimal())
+            .build();
+    }
+}
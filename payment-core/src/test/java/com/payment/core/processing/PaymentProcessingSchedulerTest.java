@@ -0,0 +1,215 @@
+package com.payment.core.processing;
+
+import com.payment.common.exception.PaymentException;
+import com.payment.core.metrics.PaymentMetrics;
+import com.payment.core.processing.PaymentProcessingScheduler.OverflowPolicy;
+import com.payment.core.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PaymentProcessingScheduler admission, queueing and shutdown
+ *
+ * Tests that look at the queue run the scheduler without workers, so nothing leaves it but
+ * stop(); the others wait for the workers with a bounded poll.
+ */
+class PaymentProcessingSchedulerTest {
+
+    private MeterRegistry meterRegistry;
+    private PaymentService paymentService;
+    private PaymentProcessingScheduler scheduler;
+
+    // ids the mocked PaymentService processed, in order
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    // transient failures still to throw, by payment id
+    private final Map<String, AtomicInteger> conflicts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        paymentService = mock(PaymentService.class);
+        doAnswer(invocation -> {
+            process(invocation.getArgument(0));
+            return null;
+        }).when(paymentService).processPayment(anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null && scheduler.isRunning()) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void submit_BeforeStart_ShouldLeavePaymentForSweeper() {
+        // Given
+        PaymentProcessingScheduler processing = create(0, 4, OverflowPolicy.REJECT, 1_000);
+
+        // When
+        boolean queued = processing.submit("PAY-1", ProcessingLane.STANDARD);
+
+        // Then
+        assertFalse(queued);
+        assertEquals(0, depth(ProcessingLane.STANDARD));
+    }
+
+    @Test
+    void submit_SamePaymentTwice_ShouldQueueItOnce() {
+        // Given
+        PaymentProcessingScheduler processing = start(0, 4, OverflowPolicy.REJECT, 1_000);
+
+        // When
+        boolean first = processing.submit("PAY-1", ProcessingLane.STANDARD);
+        boolean second = processing.submit("PAY-1", ProcessingLane.BULK);
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1, depth(ProcessingLane.STANDARD));
+        assertEquals(0, depth(ProcessingLane.BULK));
+    }
+
+    @Test
+    void admit_LaneFullUnderRejectPolicy_ShouldThrow503ForThatLaneOnly() {
+        // Given
+        PaymentProcessingScheduler processing = start(0, 2, OverflowPolicy.REJECT, 1_000);
+        processing.submit("PAY-1", ProcessingLane.BULK);
+        processing.submit("PAY-2", ProcessingLane.BULK);
+
+        // When
+        PaymentException e = assertThrows(PaymentException.class, () -> processing.admit(ProcessingLane.BULK));
+
+        // Then
+        assertEquals(503, e.getHttpStatus());
+        assertEquals("PROCESSING_SATURATED", e.getErrorCode());
+        assertDoesNotThrow(() -> processing.admit(ProcessingLane.PRIORITY));
+        assertFalse(processing.submit("PAY-3", ProcessingLane.BULK));
+    }
+
+    @Test
+    void admit_LaneFullUnderDeferPolicy_ShouldLetCreateThrough() {
+        // Given
+        PaymentProcessingScheduler processing = start(0, 1, OverflowPolicy.DEFER, 1_000);
+        processing.submit("PAY-1", ProcessingLane.BULK);
+
+        // When / Then
+        assertDoesNotThrow(() -> processing.admit(ProcessingLane.BULK));
+        assertFalse(processing.submit("PAY-2", ProcessingLane.BULK));
+    }
+
+    @Test
+    void spareCapacity_ShouldKeepHalfOfStandardLaneForCreates() {
+        // Given
+        PaymentProcessingScheduler processing = start(0, 4, OverflowPolicy.REJECT, 1_000);
+
+        // When / Then
+        assertEquals(2, processing.spareCapacity());
+        processing.submit("PAY-1", ProcessingLane.BULK);
+        assertEquals(2, processing.spareCapacity());
+        processing.submit("PAY-2", ProcessingLane.STANDARD);
+        assertEquals(1, processing.spareCapacity());
+        processing.submit("PAY-3", ProcessingLane.STANDARD);
+        processing.submit("PAY-4", ProcessingLane.STANDARD);
+        assertEquals(0, processing.spareCapacity());
+    }
+
+    @Test
+    void stop_WithQueuedPayments_ShouldProcessThemBeforeReturning() {
+        // Given
+        PaymentProcessingScheduler processing = start(2, 100, OverflowPolicy.REJECT, 10_000);
+        for (int i = 0; i < 50; i++) {
+            processing.submit("PAY-" + i, ProcessingLane.values()[i % 3]);
+        }
+
+        // When
+        processing.stop();
+
+        // Then
+        assertEquals(50, processed.size());
+        assertFalse(processing.submit("PAY-LATE", ProcessingLane.STANDARD));
+        assertEquals(0, processing.spareCapacity());
+        assertThrows(PaymentException.class, () -> processing.admit(ProcessingLane.PRIORITY));
+    }
+
+    @Test
+    void stop_DrainTimesOut_ShouldForgetQueuedPayments() {
+        // Given: no workers, so nothing drains
+        PaymentProcessingScheduler processing = start(0, 4, OverflowPolicy.REJECT, 10);
+        processing.submit("PAY-1", ProcessingLane.STANDARD);
+
+        // When
+        processing.stop();
+        processing.start();
+
+        // Then: queuedIds was cleared, so the sweeper can queue it again
+        assertEquals(0, depth(ProcessingLane.STANDARD));
+        assertTrue(processing.submit("PAY-1", ProcessingLane.STANDARD));
+        assertEquals(1, depth(ProcessingLane.STANDARD));
+    }
+
+    @Test
+    void worker_TransientConflict_ShouldRetryPaymentInNewAttempt() throws InterruptedException {
+        // Given
+        PaymentProcessingScheduler processing = start(1, 4, OverflowPolicy.REJECT, 1_000);
+        conflicts.put("PAY-1", new AtomicInteger(2));
+
+        // When
+        processing.submit("PAY-1", ProcessingLane.STANDARD);
+
+        // Then: two conflicts, then processed on the third attempt
+        awaitProcessed(1);
+        assertEquals(List.of("PAY-1"), processed);
+        verify(paymentService, times(3)).processPayment("PAY-1");
+    }
+
+    private PaymentProcessingScheduler create(int concurrency, int capacity, OverflowPolicy policy, long drainMillis) {
+        // zero retry backoff: a conflicting payment is re-queued at once
+        scheduler = new PaymentProcessingScheduler(paymentService, mock(PaymentMetrics.class),
+            meterRegistry, concurrency, capacity, policy, drainMillis, 4, 0, 0, 8, 4, 1);
+        return scheduler;
+    }
+
+    private PaymentProcessingScheduler start(int concurrency, int capacity, OverflowPolicy policy, long drainMillis) {
+        PaymentProcessingScheduler processing = create(concurrency, capacity, policy, drainMillis);
+        processing.start();
+        return processing;
+    }
+
+    private void process(String paymentId) {
+        AtomicInteger remaining = conflicts.get(paymentId);
+        if (remaining != null && remaining.getAndDecrement() > 0) {
+            throw new CannotAcquireLockException("row locked: " + paymentId);
+        }
+        processed.add(paymentId);
+    }
+
+    private int depth(ProcessingLane lane) {
+        return (int) meterRegistry.get("payment.processing.queue.depth")
+            .tag("lane", lane.name().toLowerCase(Locale.ROOT))
+            .gauge()
+            .value();
+    }
+
+    private void awaitProcessed(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (processed.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
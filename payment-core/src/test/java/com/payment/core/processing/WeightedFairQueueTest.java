@@ -0,0 +1,137 @@
+package com.payment.core.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeightedFairQueue tagging and service order
+ * Single-threaded: with items queued, poll never waits, so the order is fully determined
+ */
+class WeightedFairQueueTest {
+
+    @Test
+    void poll_AllLanesBacklogged_ShouldServeInWeightRatio() throws InterruptedException {
+        // Given
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{6, 3, 1}, 1_000);
+        fill(queue, 0, 500);
+        fill(queue, 1, 500);
+        fill(queue, 2, 500);
+
+        // When
+        int[] served = pollCounts(queue, 3, 100);
+
+        // Then
+        assertEquals(60, served[0], 1);
+        assertEquals(30, served[1], 1);
+        assertEquals(10, served[2], 1);
+    }
+
+    @Test
+    void poll_SameLane_ShouldServeInArrivalOrder() throws InterruptedException {
+        // Given
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{1, 1}, 10);
+        fill(queue, 0, 3);
+
+        // When / Then
+        for (int i = 0; i < 3; i++) {
+            WeightedFairQueue.Polled<Integer> polled = queue.poll(0, TimeUnit.MILLISECONDS);
+            assertEquals(i, polled.item());
+            assertEquals(0, polled.lane());
+        }
+    }
+
+    @Test
+    void poll_WeightOneLaneBehindBurst_ShouldBeServedWithinItsShare() throws InterruptedException {
+        // Given: a burst in the heavy lane that has been draining for a while
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{10, 1}, 10_000);
+        fill(queue, 0, 5_000);
+        pollCounts(queue, 2, 1_000);
+
+        // When: one item arrives in the light lane
+        assertTrue(queue.offer(1, -1));
+
+        // Then: it waits for at most one round of the heavy lane, not for the burst
+        int polls = 0;
+        while (queue.poll(0, TimeUnit.MILLISECONDS).lane() != 1) {
+            polls++;
+        }
+        assertTrue(polls <= 10, "served after " + polls + " polls");
+    }
+
+    @Test
+    void offer_AfterLaneWasIdle_ShouldStartAtVirtualClockWithoutCredit() throws InterruptedException {
+        // Given: lane 1 had nothing queued while lane 0 was served 50 times
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{1, 1}, 1_000);
+        fill(queue, 0, 100);
+        pollCounts(queue, 2, 50);
+
+        // When
+        fill(queue, 1, 50);
+        int[] served = pollCounts(queue, 2, 20);
+
+        // Then: equal weights alternate; lane 1 does not catch up on the 50 it missed
+        assertEquals(10, served[0], 1);
+        assertEquals(10, served[1], 1);
+    }
+
+    @Test
+    void offer_LaneFull_ShouldRefuseOnlyThatLane() {
+        // Given
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{1, 1}, 2);
+        fill(queue, 0, 2);
+
+        // When
+        boolean accepted = queue.offer(0, 99);
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(0, queue.remainingCapacity(0));
+        assertTrue(queue.offer(1, 99));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void poll_Empty_ShouldReturnNullAfterTimeout() throws InterruptedException {
+        // Given
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{1}, 1);
+
+        // When / Then
+        assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void drainTo_ShouldRemoveEveryItem() {
+        // Given
+        WeightedFairQueue<Integer> queue = new WeightedFairQueue<>(new int[]{2, 1}, 10);
+        fill(queue, 0, 3);
+        fill(queue, 1, 2);
+
+        // When
+        List<Integer> drained = new ArrayList<>();
+        queue.drainTo(drained);
+
+        // Then
+        assertEquals(List.of(0, 1, 2, 0, 1), drained);
+        assertEquals(0, queue.size());
+        assertEquals(10, queue.remainingCapacity(0));
+    }
+
+    private static void fill(WeightedFairQueue<Integer> queue, int lane, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(queue.offer(lane, i));
+        }
+    }
+
+    private static int[] pollCounts(WeightedFairQueue<Integer> queue, int lanes, int polls) throws InterruptedException {
+        int[] served = new int[lanes];
+        for (int i = 0; i < polls; i++) {
+            served[queue.poll(0, TimeUnit.MILLISECONDS).lane()]++;
+        }
+        return served;
+    }
+}
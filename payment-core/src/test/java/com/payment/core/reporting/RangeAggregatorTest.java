@@ -0,0 +1,82 @@
+package com.payment.core.reporting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests that the vector and scalar aggregators agree
+ * Surefire runs with --add-modules jdk.incubator.vector, so best() is the vector implementation
+ */
+class RangeAggregatorTest {
+
+    private static final int ROWS = 10_000;
+
+    private final RangeAggregator scalar = new ScalarRangeAggregator();
+    private final RangeAggregator vector = RangeAggregator.best();
+
+    @Test
+    void best_WithIncubatorModule_ShouldBeVectorized() {
+        assertTrue(vector.isVectorized());
+        assertFalse(scalar.isVectorized());
+    }
+
+    @Test
+    void aggregate_RandomRangesAndWindows_ShouldMatchScalar() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        long[] amounts = new long[ROWS];
+        long[] timestamps = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = random.nextLong(-1_000_000, 1_000_000_000);
+            timestamps[i] = random.nextLong(0, 1_000_000);
+        }
+
+        for (int run = 0; run < 2_000; run++) {
+            // short ranges too, so the scalar tail alone and empty ranges are covered
+            int from = random.nextInt(ROWS);
+            int to = from + random.nextInt(Math.min(ROWS - from, run % 2 == 0 ? 20 : ROWS) + 1);
+            long tsFrom = random.nextLong(0, 1_000_000);
+            long tsTo = tsFrom + random.nextLong(0, 1_000_000);
+            boolean filter = random.nextBoolean();
+            RangeStats expected = seeded(random.nextLong());
+            RangeStats actual = copy(expected);
+
+            // When
+            scalar.aggregate(amounts, timestamps, from, to, tsFrom, tsTo, filter, expected);
+            vector.aggregate(amounts, timestamps, from, to, tsFrom, tsTo, filter, actual);
+
+            // Then
+            String range = "[" + from + ", " + to + ") window [" + tsFrom + ", " + tsTo + ") filter=" + filter;
+            assertEquals(expected.count, actual.count, range);
+            assertEquals(expected.sum, actual.sum, range);
+            assertEquals(expected.min, actual.min, range);
+            assertEquals(expected.max, actual.max, range);
+        }
+    }
+
+    /**
+     * Accumulator already holding an earlier range, or empty
+     */
+    private static RangeStats seeded(long seed) {
+        RangeStats stats = new RangeStats();
+        if (seed % 2 == 0) {
+            stats.count = 3;
+            stats.sum = 1_500;
+            stats.min = 100;
+            stats.max = 900;
+        }
+        return stats;
+    }
+
+    private static RangeStats copy(RangeStats stats) {
+        RangeStats copy = new RangeStats();
+        copy.count = stats.count;
+        copy.sum = stats.sum;
+        copy.min = stats.min;
+        copy.max = stats.max;
+        return copy;
+    }
+}
@@ -1,10 +1,12 @@
 package com.payment.core.service;
 
+import com.payment.common.dto.PaymentLookupResponse;
 import com.payment.common.dto.PaymentRequest;
 import com.payment.common.dto.PaymentResponse;
 import com.payment.common.enums.Currency;
 import com.payment.common.enums.PaymentStatus;
 import com.payment.core.mapper.PaymentMapper;
+import com.payment.core.metrics.PaymentMetrics;
 import com.payment.persistence.entity.Payment;
 import com.payment.persistence.repository.PaymentEventRepository;
 import com.payment.persistence.repository.PaymentRepository;
@@ -14,13 +16,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -46,6 +56,15 @@ class PaymentServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Mock
+    private PaymentGatewayService gatewayService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PaymentMetrics metrics;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -121,6 +140,68 @@ class PaymentServiceTest {
         verify(paymentRepository, never()).save(any(Payment.class));
     }
 
+    @Test
+    void findByIdempotencyKey_WithBulkLoadedKey_ShouldReturnExistingPayment() {
+        // Given: loaded by a bulk ingest, so never registered in Redis
+        when(paymentRepository.findByIdempotencyKey("test-key-001")).thenReturn(Optional.of(payment));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        Optional<PaymentResponse> result = paymentService.findByIdempotencyKey("test-key-001");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("payment-id-001", result.get().getPaymentId());
+        verify(metrics).idempotencyReplay();
+    }
+
+    @Test
+    void createPayment_BulkLoadedKeyRetriedTwice_ShouldNotLeaveStaleKeyInRedis() {
+        // Given: Redis as a map; the key is only in payments, so each create's insert rolls back at commit
+        Map<String, String> redis = new HashMap<>();
+        when(idempotencyService.getPaymentId(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> redis.putIfAbsent(inv.getArgument(0), inv.getArgument(1)))
+            .when(idempotencyService).checkAndStore(anyString(), anyString());
+        doAnswer(inv -> redis.remove(inv.getArgument(0), inv.getArgument(1)))
+            .when(idempotencyService).release(anyString(), anyString());
+        Payment attempt = Payment.builder().paymentId("payment-id-new").status(PaymentStatus.PENDING).build();
+        when(paymentMapper.toEntity(any(PaymentRequest.class))).thenReturn(attempt);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(attempt);
+
+        // When: the first retry and the second
+        for (int i = 0; i < 2; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                paymentService.createPayment(validRequest);
+                TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        // Then: neither attempt was sent to the rolled-back payment
+        assertTrue(redis.isEmpty());
+        verify(paymentRepository, never()).findById(anyString());
+        verify(idempotencyService, times(2)).release("test-key-001", "payment-id-new");
+    }
+
+    @Test
+    void createPayment_WithKeyPointingAtMissingPayment_ShouldReplayPaymentStoredUnderKey() {
+        // Given: a Redis entry left by a rollback whose release did not reach Redis
+        when(idempotencyService.getPaymentId("test-key-001")).thenReturn("payment-id-rolled-back");
+        when(paymentRepository.findById("payment-id-rolled-back")).thenReturn(Optional.empty());
+        when(paymentRepository.findByIdempotencyKey("test-key-001")).thenReturn(Optional.of(payment));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        PaymentResponse result = paymentService.createPayment(validRequest);
+
+        // Then
+        assertEquals("payment-id-001", result.getPaymentId());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
     @Test
     void getPayment_WithValidId_ShouldReturnPayment() {
         // Given
@@ -145,6 +226,42 @@ class PaymentServiceTest {
         assertThrows(Exception.class, () -> paymentService.getPayment("invalid-id"));
     }
 
+    @Test
+    void lookupPayments_WithDuplicateAndUnknownIds_ShouldReturnOneResultPerIdInRequestOrder() {
+        // Given
+        when(paymentRepository.findAllByPaymentIdIn(anyCollection())).thenReturn(List.of(payment));
+        when(paymentMapper.toResponse(payment)).thenReturn(paymentResponse);
+
+        // When
+        PaymentLookupResponse result = paymentService.lookupPayments(
+            List.of("unknown-id", "payment-id-001", "unknown-id"));
+
+        // Then
+        assertEquals(2, result.getRequested());
+        assertEquals(1, result.getFound());
+        assertEquals("unknown-id", result.getResults().get(0).getPaymentId());
+        assertFalse(result.getResults().get(0).isFound());
+        assertNull(result.getResults().get(0).getPayment());
+        assertTrue(result.getResults().get(1).isFound());
+        assertEquals(paymentResponse, result.getResults().get(1).getPayment());
+        verify(paymentRepository, times(1)).findAllByPaymentIdIn(anyCollection());
+    }
+
+    @Test
+    void lookupPayments_WithMoreIdsThanAChunk_ShouldQueryInChunks() {
+        // Given
+        List<String> paymentIds = IntStream.range(0, 600).mapToObj(i -> "payment-" + i).toList();
+        when(paymentRepository.findAllByPaymentIdIn(anyCollection())).thenReturn(List.of());
+
+        // When
+        PaymentLookupResponse result = paymentService.lookupPayments(paymentIds);
+
+        // Then: 256 + 256 + 88
+        assertEquals(600, result.getResults().size());
+        assertEquals(0, result.getFound());
+        verify(paymentRepository, times(3)).findAllByPaymentIdIn(anyCollection());
+    }
+
     @Test
     void processPayment_ShouldUpdateStatusToCompleted() {
         // Given
@@ -0,0 +1,89 @@
+package com.payment.core.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimingWheel placement, cascading and cancellation
+ */
+class TimingWheelTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long TICK = 100;
+
+    @Test
+    void advance_BeforeDeadline_ShouldNotFire() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, T0);
+        wheel.schedule("a", T0 + 1_000);
+
+        // When
+        List<String> fired = wheel.advance(T0 + 999);
+
+        // Then
+        assertTrue(fired.isEmpty());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void advance_AcrossSeveralLevels_ShouldFireEachTimerWithinOneTick() {
+        // Given: with 8 slots a level spans 0.8 s, 6.4 s, 51.2 s, ... so these cascade through four levels
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, T0);
+        long[] delays = {150, 790, 800, 6_399, 6_400, 51_250, 123_456};
+        for (long delay : delays) {
+            wheel.schedule(delay, T0 + delay);
+        }
+
+        // When
+        List<long[]> firings = new ArrayList<>();
+        for (long now = T0; now <= T0 + 130_000; now += 10) {
+            for (long delay : wheel.advance(now)) {
+                firings.add(new long[]{delay, now - T0});
+            }
+        }
+
+        // Then
+        assertEquals(delays.length, firings.size());
+        for (long[] firing : firings) {
+            assertTrue(firing[1] >= firing[0], "fired early: " + firing[0]);
+            assertTrue(firing[1] < firing[0] + TICK, "fired late: " + firing[0]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_DeadlineInThePast_ShouldFireOnNextAdvance() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, T0);
+        wheel.schedule("overdue", T0 - 60_000);
+
+        // When
+        List<String> fired = wheel.advance(T0);
+
+        // Then
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    @Test
+    void cancel_ScheduledTimer_ShouldNeverFire() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, T0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", T0 + 10_000);
+        wheel.schedule("kept", T0 + 10_000);
+
+        // When
+        boolean first = cancelled.cancel();
+        boolean second = cancelled.cancel();
+        List<String> fired = wheel.advance(T0 + 20_000);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.payment.core.watch;
+
+import com.payment.common.dto.PaymentStatusUpdate;
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.exception.PaymentException;
+import com.payment.common.money.Money;
+import com.payment.core.event.PaymentStatusChanged;
+import com.payment.core.watch.PaymentStatusWatcher.Kind;
+import com.payment.core.watch.PaymentStatusWatcher.Subscription;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PaymentStatusWatcher fan-out, de-duplication and connection limits
+ */
+class PaymentStatusWatcherTest {
+
+    private final PaymentStatusWatcher watcher =
+        new PaymentStatusWatcher(null, Runnable::run, new SimpleMeterRegistry(), 2, 1, false);
+
+    @Test
+    void onStatusChanged_SameTransitionFromBothSources_ShouldDeliverOnce() {
+        // Given
+        List<PaymentStatus> received = new ArrayList<>();
+        watcher.subscribe("PAY-1", Kind.STREAM, update -> received.add(update.getStatus()));
+        long now = System.currentTimeMillis();
+
+        // When: committed locally, then the same transition and an overtaken one arrive from the topic
+        watcher.onStatusChanged(changed("PAY-1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, now));
+        watcher.onStatusChanged(changed("PAY-1", PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, now + 3));
+        watcher.onStatusChanged(changed("PAY-1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, now - 5));
+        watcher.onStatusChanged(changed("PAY-2", PaymentStatus.PENDING, PaymentStatus.PROCESSING, now));
+
+        // Then
+        assertEquals(List.of(PaymentStatus.COMPLETED), received);
+    }
+
+    @Test
+    void deliver_CurrentStatusReadAfterNewerTransition_ShouldBeSkipped() {
+        // Given: the transition arrives between subscribing and reading the payment
+        List<PaymentStatus> received = new ArrayList<>();
+        Subscription subscription = watcher.subscribe("PAY-1", Kind.LONG_POLL, update -> received.add(update.getStatus()));
+        long now = System.currentTimeMillis();
+        watcher.onStatusChanged(changed("PAY-1", PaymentStatus.PENDING, PaymentStatus.PROCESSING, now));
+
+        // When
+        subscription.deliver(PaymentStatusUpdate.builder()
+            .paymentId("PAY-1")
+            .status(PaymentStatus.PENDING)
+            .changedAt(LocalDateTime.now().minusSeconds(1))
+            .build());
+
+        // Then
+        assertEquals(List.of(PaymentStatus.PROCESSING), received);
+    }
+
+    @Test
+    void subscribe_OverLimits_ShouldRejectUntilASlotIsFreed() {
+        // Given: 2 per node, 1 per payment
+        Subscription first = watcher.subscribe("PAY-1", Kind.LONG_POLL, update -> { });
+
+        // When / Then
+        PaymentException samePayment = assertThrows(PaymentException.class,
+            () -> watcher.subscribe("PAY-1", Kind.STREAM, update -> { }));
+        assertEquals(429, samePayment.getHttpStatus());
+
+        watcher.subscribe("PAY-2", Kind.STREAM, update -> { });
+        PaymentException node = assertThrows(PaymentException.class,
+            () -> watcher.subscribe("PAY-3", Kind.STREAM, update -> { }));
+        assertEquals(503, node.getHttpStatus());
+
+        first.close();
+        first.close();
+        assertEquals(1, watcher.connections());
+        assertNotNull(watcher.subscribe("PAY-1", Kind.STREAM, update -> { }));
+    }
+
+    private static PaymentStatusChanged changed(String paymentId, PaymentStatus previous, PaymentStatus status,
+                                                long timestamp) {
+        return new PaymentStatusChanged(paymentId, "MERCHANT-1", Money.of(new BigDecimal("10.00"),
+            Currency.USD), previous, status, timestamp);
+    }
+}
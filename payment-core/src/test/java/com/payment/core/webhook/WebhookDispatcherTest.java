@@ -0,0 +1,409 @@
+package com.payment.core.webhook;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+import com.payment.persistence.webhook.WebhookDelivery;
+import com.payment.persistence.webhook.WebhookDeliveryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WebhookDispatcher batching, ordering, retries and outcome flushing
+ *
+ * Callbacks go to a stub HttpClient whose responses the test completes, so everything but
+ * the resume after a backoff (zero here, but fired by the driver thread) runs on the test
+ * thread. Outcomes are only written when the test calls flush().
+ */
+class WebhookDispatcherTest {
+
+    private static final String MERCHANT_ID = "MERCHANT-1";
+
+    private StubHttpClient client;
+    private MemoryStore store;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        client = new StubHttpClient();
+        store = new MemoryStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void offer_MoreEventsThanBatchSize_ShouldSendFullBatchesInOrder() {
+        // Given
+        start(3, 1, 12);
+
+        // When
+        dispatcher.offer(List.of(delivery(1, "PAY-1"), delivery(2, "PAY-2"), delivery(3, "PAY-3"),
+            delivery(4, "PAY-4"), delivery(5, "PAY-5")));
+
+        // Then: one callback at a time, the next one once the first is acknowledged
+        assertEquals(1, client.calls.size());
+        assertArrayEquals(new long[]{1, 2, 3}, client.calls.get(0).eventIds());
+        client.respond(0, 200);
+        assertEquals(2, client.calls.size());
+        assertArrayEquals(new long[]{4, 5}, client.calls.get(1).eventIds());
+        client.respond(1, 200);
+        assertEquals(2, client.calls.size());
+        assertEquals(0, dispatcher.pending());
+
+        dispatcher.flush();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), store.deleted);
+    }
+
+    @Test
+    void offer_SamePaymentTwice_ShouldHoldSecondEventUntilFirstIsAcknowledged() {
+        // Given
+        start(1, 4, 12);
+
+        // When
+        dispatcher.offer(List.of(delivery(1, "PAY-1"), delivery(2, "PAY-1"), delivery(3, "PAY-2")));
+
+        // Then: PAY-2 overtakes the second PAY-1 event, which waits for the first
+        assertEquals(2, client.calls.size());
+        assertArrayEquals(new long[]{1}, client.calls.get(0).eventIds());
+        assertArrayEquals(new long[]{3}, client.calls.get(1).eventIds());
+        client.respond(1, 200);
+        assertEquals(2, client.calls.size());
+        client.respond(0, 200);
+        assertEquals(3, client.calls.size());
+        assertArrayEquals(new long[]{2}, client.calls.get(2).eventIds());
+    }
+
+    @Test
+    void offer_CallbackFails_ShouldRetryBatchAtHeadOfLane() {
+        // Given
+        start(2, 1, 12);
+        dispatcher.offer(List.of(delivery(1, "PAY-1"), delivery(2, "PAY-2"), delivery(3, "PAY-3")));
+
+        // When
+        client.respond(0, 503);
+
+        // Then: the same events again, ahead of PAY-3, with the attempt counted
+        client.await(2);
+        assertArrayEquals(new long[]{1, 2}, client.calls.get(1).eventIds());
+        assertTrue(client.calls.get(1).body().contains("\"attempt\":2"));
+        client.respond(1, 200);
+        assertArrayEquals(new long[]{3}, client.calls.get(2).eventIds());
+
+        dispatcher.flush();
+        assertEquals(Map.of(1L, 1, 2L, 1), store.attempts);
+        assertEquals(List.of(1L, 2L), store.deleted);
+    }
+
+    @Test
+    void offer_OutOfAttempts_ShouldMarkDeadAndStopRetrying() {
+        // Given
+        start(1, 1, 2);
+        dispatcher.offer(List.of(delivery(1, "PAY-1")));
+
+        // When
+        client.respond(0, 500);
+        client.await(2);
+        client.respond(1, 500);
+
+        // Then
+        assertEquals(0, dispatcher.pending());
+        dispatcher.flush();
+        assertEquals(Map.of(1L, 2), store.dead);
+        assertTrue(store.deleted.isEmpty());
+        assertEquals(2, client.calls.size());
+    }
+
+    @Test
+    void flush_StoreFails_ShouldKeepOutcomesForNextFlush() {
+        // Given
+        start(1, 1, 12);
+        dispatcher.offer(List.of(delivery(1, "PAY-1")));
+        client.respond(0, 200);
+        store.failNextDelete = true;
+
+        // When
+        dispatcher.flush();
+        List<Long> afterFailure = List.copyOf(store.deleted);
+        dispatcher.flush();
+
+        // Then
+        assertTrue(afterFailure.isEmpty());
+        assertEquals(List.of(1L), store.deleted);
+    }
+
+    @Test
+    void offer_MerchantWithoutTarget_ShouldDropDelivery() {
+        // Given
+        start(1, 1, 12);
+
+        // When
+        List<WebhookDelivery> refused = dispatcher.offer(List.of(
+            new WebhookDelivery(7, "PAY-7", "MERCHANT-UNKNOWN", PaymentStatus.PENDING, PaymentStatus.COMPLETED,
+                Money.of(1_000, Currency.USD), 1L, 0)));
+
+        // Then
+        assertTrue(refused.isEmpty());
+        assertTrue(client.calls.isEmpty());
+        dispatcher.flush();
+        assertEquals(List.of(7L), store.deleted);
+    }
+
+    private void start(int batchSize, int maxConcurrency, int maxAttempts) {
+        // zero backoff: a failed lane resumes on the next tick
+        dispatcher = new WebhookDispatcher(store, client, WebhookUrlPolicy.ANY_ADDRESS, Duration.ofSeconds(5),
+            maxAttempts, 0, 0, 100, 100, 5, Duration.ofHours(1).toMillis(), new SimpleMeterRegistry());
+        dispatcher.setTargets(Map.of(MERCHANT_ID, new WebhookTarget(MERCHANT_ID, URI.create("http://merchant.test/hooks"),
+            "test-secret-test-secret-test-secret", batchSize, maxConcurrency)));
+        dispatcher.start();
+    }
+
+    private static WebhookDelivery delivery(long deliveryId, String paymentId) {
+        return new WebhookDelivery(deliveryId, paymentId, MERCHANT_ID, PaymentStatus.PENDING, PaymentStatus.COMPLETED,
+            Money.of(1_000, Currency.USD), 1_700_000_000_000L + deliveryId, 0);
+    }
+
+    private record Call(HttpRequest request, String body, CompletableFuture<HttpResponse<Void>> response) {
+
+        private static final Pattern EVENT_ID = Pattern.compile("\\{\"id\":(\\d+)");
+
+        long[] eventIds() {
+            List<Long> ids = new ArrayList<>();
+            Matcher matcher = EVENT_ID.matcher(body);
+            while (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+            return ids.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    /**
+     * Records requests; each stays in flight until the test responds to it
+     */
+    private static final class StubHttpClient extends HttpClient {
+
+        private final List<Call> calls = new CopyOnWriteArrayList<>();
+
+        void respond(int call, int status) {
+            Call target = calls.get(call);
+            target.response().complete(new StubResponse(target.request(), status));
+        }
+
+        void await(int count) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (calls.size() < count) {
+                if (System.nanoTime() > deadline) {
+                    fail("expected " + count + " callbacks, got " + calls.size());
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            CompletableFuture<HttpResponse<T>> response = new CompletableFuture<>();
+            calls.add(new Call(request, body(request), (CompletableFuture) response));
+            return response;
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+
+        private static String body(HttpRequest request) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    byte[] bytes = new byte[item.remaining()];
+                    item.get(bytes);
+                    out.write(bytes, 0, bytes.length);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private record StubResponse(HttpRequest request, int statusCode) implements HttpResponse<Void> {
+
+        @Override
+        public Optional<HttpResponse<Void>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Void body() {
+            return null;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+
+    private static final class MemoryStore implements WebhookDeliveryStore {
+
+        private final List<Long> deleted = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Long, Integer> attempts = Collections.synchronizedMap(new HashMap<>());
+        private final Map<Long, Integer> dead = Collections.synchronizedMap(new HashMap<>());
+        private volatile boolean failNextDelete;
+
+        @Override
+        public List<WebhookDelivery> insert(List<WebhookDelivery> deliveries, long leaseUntil) {
+            return deliveries;
+        }
+
+        @Override
+        public void delete(long[] deliveryIds) {
+            if (failNextDelete) {
+                failNextDelete = false;
+                throw new IllegalStateException("database unavailable");
+            }
+            for (long id : deliveryIds) {
+                deleted.add(id);
+            }
+        }
+
+        @Override
+        public void recordAttempts(long[] deliveryIds, int[] attemptCounts) {
+            for (int i = 0; i < deliveryIds.length; i++) {
+                attempts.put(deliveryIds[i], attemptCounts[i]);
+            }
+        }
+
+        @Override
+        public void markDead(long[] deliveryIds, int[] attemptCounts) {
+            for (int i = 0; i < deliveryIds.length; i++) {
+                dead.put(deliveryIds[i], attemptCounts[i]);
+            }
+        }
+
+        @Override
+        public void renewLeases(long[] deliveryIds, long leaseUntil) {
+        }
+
+        @Override
+        public List<WebhookDelivery> claimExpired(long now, long leaseUntil, int limit) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.payment.core.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WebhookUrlPolicy; IP literals only, so nothing is looked up
+ */
+class WebhookUrlPolicyTest {
+
+    @Test
+    void check_InternalAddresses_ShouldReject() {
+        // Given
+        String[] urls = {
+            "http://169.254.169.254/latest/meta-data/",
+            "http://127.0.0.1:8080/hook",
+            "http://10.1.2.3/hook",
+            "http://172.16.0.1/hook",
+            "http://192.168.1.10/hook",
+            "http://100.64.0.1/hook",
+            "http://0.0.0.0/hook",
+            "http://[::1]/hook",
+            "http://[fe80::1]/hook",
+            "http://[fd00::1]/hook",
+            "http://[::ffff:127.0.0.1]/hook"
+        };
+
+        // When / Then
+        for (String url : urls) {
+            assertThrows(IllegalArgumentException.class, () -> WebhookUrlPolicy.PUBLIC_ONLY.check(URI.create(url)), url);
+        }
+    }
+
+    @Test
+    void check_PublicAddress_ShouldAccept() {
+        // When / Then
+        assertDoesNotThrow(() -> WebhookUrlPolicy.PUBLIC_ONLY.check(URI.create("https://93.184.216.34/hook")));
+        assertDoesNotThrow(() -> WebhookUrlPolicy.PUBLIC_ONLY.check(URI.create("https://[2606:2800:220:1::1]/hook")));
+    }
+
+    @Test
+    void check_OtherSchemeOrUserInfo_ShouldRejectEvenWhenPrivateAllowed() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+            () -> WebhookUrlPolicy.ANY_ADDRESS.check(URI.create("file:///etc/passwd")));
+        assertThrows(IllegalArgumentException.class,
+            () -> WebhookUrlPolicy.ANY_ADDRESS.check(URI.create("http://user:pw@127.0.0.1/hook")));
+        assertDoesNotThrow(() -> WebhookUrlPolicy.ANY_ADDRESS.check(URI.create("http://127.0.0.1:9000/hook")));
+    }
+}
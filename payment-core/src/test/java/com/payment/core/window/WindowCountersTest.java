@@ -0,0 +1,69 @@
+package com.payment.core.window;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WindowCounters bucket rotation
+ */
+class WindowCountersTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void sum_WithinBucket_ShouldCountEveryRecord() {
+        // Given
+        WindowCounters counters = new WindowCounters();
+
+        // When
+        counters.record(T0, WindowCounters.CREATED, WindowCounters.CREATED_AMOUNT, 150);
+        counters.record(T0 + 1, WindowCounters.CREATED, WindowCounters.CREATED_AMOUNT, 250);
+        counters.record(T0 + 2, WindowCounters.FAILED, 0, 999);
+
+        // Then
+        long[] sums = sum(counters, RollingWindow.ONE_MINUTE, T0 + 2);
+        assertEquals(2, sums[WindowCounters.CREATED]);
+        assertEquals(400, sums[WindowCounters.CREATED_AMOUNT]);
+        assertEquals(1, sums[WindowCounters.FAILED]);
+        assertEquals(0, sums[WindowCounters.APPROVED_AMOUNT]);
+    }
+
+    @Test
+    void sum_AfterWindowPassed_ShouldExpireOldBuckets() {
+        // Given
+        WindowCounters counters = new WindowCounters();
+        counters.record(T0, WindowCounters.APPROVED, WindowCounters.APPROVED_AMOUNT, 100);
+
+        // When
+        long later = T0 + 2 * 60_000;
+        counters.record(later, WindowCounters.APPROVED, WindowCounters.APPROVED_AMOUNT, 300);
+
+        // Then
+        assertEquals(1, sum(counters, RollingWindow.ONE_MINUTE, later)[WindowCounters.APPROVED]);
+        assertEquals(2, sum(counters, RollingWindow.FIVE_MINUTES, later)[WindowCounters.APPROVED]);
+        assertEquals(400, sum(counters, RollingWindow.SIXTY_MINUTES, later)[WindowCounters.APPROVED_AMOUNT]);
+    }
+
+    @Test
+    void record_WhenSlotIsReused_ShouldClearPreviousValues() {
+        // Given
+        WindowCounters counters = new WindowCounters();
+        counters.record(T0, WindowCounters.CREATED, WindowCounters.CREATED_AMOUNT, 100);
+
+        // When - same ring slot one full minute later
+        long sameSlot = T0 + RollingWindow.ONE_MINUTE.getBucketMillis() * RollingWindow.ONE_MINUTE.getBuckets();
+        counters.record(sameSlot, WindowCounters.CREATED, WindowCounters.CREATED_AMOUNT, 7);
+
+        // Then
+        long[] sums = sum(counters, RollingWindow.ONE_MINUTE, sameSlot);
+        assertEquals(1, sums[WindowCounters.CREATED]);
+        assertEquals(7, sums[WindowCounters.CREATED_AMOUNT]);
+    }
+
+    private static long[] sum(WindowCounters counters, RollingWindow window, long now) {
+        long[] sums = new long[WindowCounters.FIELDS + 1];
+        counters.sum(window, now, sums);
+        return sums;
+    }
+}
@@ -0,0 +1,296 @@
+package com.payment.infrastructure.admission;
+
+import com.payment.common.deadline.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission gate for database-bound requests, sized to the connection pool, that sheds load
+ * on queueing delay (CoDel)
+ *
+ * At most {@code permits} requests run at once; the rest wait, highest priority first, and
+ * only {@code maxQueue} of them. Every permit handed to a waiter measures how long it waited.
+ * A queue that drains keeps that delay under {@code target} at least once per
+ * {@code interval}; when the delay stays above target for a whole interval the queue is
+ * standing, not absorbing a burst, and the gate is overloaded until a wait drops below target:
+ * - LOW requests are rejected unless a permit is free
+ * - NORMAL requests wait at most target, HIGH requests at most interval
+ * - a full queue makes room for a higher-priority arrival by dropping the newest lower one
+ * Otherwise every request waits up to interval, and none past its {@link Deadline}.
+ * Rejections are cheap 503s, so throughput stays at pool capacity however far offered load
+ * goes past it instead of collapsing into requests that time out after holding a connection.
+ */
+public class ConnectionAdmission {
+
+    /**
+     * Priority class of a request
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private enum Reason {
+        QUEUE_FULL, TIMEOUT, OVERLOAD, DEADLINE
+    }
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int DROPPED = 2;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 2;
+    private static final long OVERLOADED_LOW_RETRY_AFTER_SECONDS = 5;
+
+    private final class Waiter {
+
+        private final Priority priority;
+        private final long enqueuedNanos;
+        private final Condition condition = lock.newCondition();
+        private int state = WAITING;
+
+        private Waiter(Priority priority, long enqueuedNanos) {
+            this.priority = priority;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final int permits;
+    private final int maxQueue;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] waiters;
+    private int available;
+    private int queued;
+    // when the waits first went above target, 0 while below
+    private long aboveTargetSinceNanos;
+    private volatile boolean overloaded;
+
+    private final Timer[] waits;
+    private final Counter[][] rejected;
+
+    @SuppressWarnings("unchecked")
+    public ConnectionAdmission(int permits, int maxQueue, Duration target, Duration interval, MeterRegistry registry) {
+        if (permits < 1 || maxQueue < 0 || target.isNegative() || interval.compareTo(target) < 0) {
+            throw new IllegalArgumentException("permits must be >= 1, maxQueue >= 0 and 0 <= target <= interval");
+        }
+        this.permits = permits;
+        this.maxQueue = maxQueue;
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.available = permits;
+        this.waiters = new ArrayDeque[Priority.values().length];
+
+        this.waits = new Timer[Priority.values().length];
+        this.rejected = new Counter[Reason.values().length][Priority.values().length];
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            waiters[priority.ordinal()] = new ArrayDeque<>();
+            waits[priority.ordinal()] = Timer.builder("payment.admission.wait")
+                .description("Time admitted requests waited for a database permit")
+                .tag("priority", tag)
+                .publishPercentileHistogram()
+                .register(registry);
+            for (Reason reason : Reason.values()) {
+                rejected[reason.ordinal()][priority.ordinal()] = Counter.builder("payment.admission.rejected")
+                    .description("Requests turned away before reaching the database")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .tag("priority", tag)
+                    .register(registry);
+            }
+        }
+        Gauge.builder("payment.admission.active", this, ConnectionAdmission::active)
+            .description("Requests holding a database permit")
+            .register(registry);
+        Gauge.builder("payment.admission.queued", this, ConnectionAdmission::queued)
+            .description("Requests waiting for a database permit")
+            .register(registry);
+        Gauge.builder("payment.admission.overloaded", this, a -> a.isOverloaded() ? 1 : 0)
+            .description("1 while queueing delay has stayed above target for an interval")
+            .register(registry);
+    }
+
+    /**
+     * Wait for a permit within the priority's budget
+     *
+     * @return false when the request should be rejected; otherwise call {@link #release()} when done
+     */
+    public boolean acquire(Priority priority) throws InterruptedException {
+        Waiter waiter;
+        long budgetNanos;
+        lock.lock();
+        try {
+            if (available > 0) {
+                available--;
+                observe(0, System.nanoTime());
+                waits[priority.ordinal()].record(0, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            if (overloaded && priority == Priority.LOW) {
+                return reject(Reason.OVERLOAD, priority);
+            }
+            budgetNanos = overloaded && priority == Priority.NORMAL ? targetNanos : intervalNanos;
+            Deadline deadline = Deadline.current();
+            boolean deadlineBound = deadline != null && deadline.remainingNanos() < budgetNanos;
+            if (deadlineBound) {
+                budgetNanos = deadline.remainingNanos();
+                if (budgetNanos <= 0) {
+                    return reject(Reason.DEADLINE, priority);
+                }
+            }
+            if (queued >= maxQueue && !dropLowerThan(priority)) {
+                return reject(Reason.QUEUE_FULL, priority);
+            }
+            waiter = new Waiter(priority, System.nanoTime());
+            waiters[priority.ordinal()].addLast(waiter);
+            queued++;
+
+            long remaining = budgetNanos;
+            try {
+                while (waiter.state == WAITING && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.state == GRANTED) {
+                    releaseLocked();
+                } else if (waiter.state == WAITING) {
+                    dequeue(waiter);
+                }
+                throw e;
+            }
+            if (waiter.state == GRANTED) {
+                waits[priority.ordinal()].record(System.nanoTime() - waiter.enqueuedNanos, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            if (waiter.state == DROPPED) {
+                return false;
+            }
+            dequeue(waiter);
+            if (deadlineBound) {
+                // the caller ran out of time, which says nothing about the queue
+                return reject(Reason.DEADLINE, priority);
+            }
+            // waited out the whole budget: that is a sojourn above target as far as CoDel is concerned
+            long now = System.nanoTime();
+            observe(now - waiter.enqueuedNanos, now);
+            return reject(Reason.TIMEOUT, priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            releaseLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seconds a rejected caller of this priority should wait before retrying
+     */
+    public long retryAfterSeconds(Priority priority) {
+        if (!overloaded) {
+            return RETRY_AFTER_SECONDS;
+        }
+        return priority == Priority.LOW ? OVERLOADED_LOW_RETRY_AFTER_SECONDS : OVERLOADED_RETRY_AFTER_SECONDS;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    public int active() {
+        lock.lock();
+        try {
+            return permits - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand the permit to the oldest waiter of the highest priority, or return it to the pool
+     */
+    private void releaseLocked() {
+        for (ArrayDeque<Waiter> queue : waiters) {
+            Waiter next = queue.pollFirst();
+            if (next != null) {
+                queued--;
+                next.state = GRANTED;
+                long now = System.nanoTime();
+                observe(now - next.enqueuedNanos, now);
+                next.condition.signal();
+                return;
+            }
+        }
+        available++;
+    }
+
+    /**
+     * CoDel's control law: overloaded once the waits stay above target for a full interval
+     */
+    private void observe(long sojournNanos, long now) {
+        if (sojournNanos < targetNanos) {
+            aboveTargetSinceNanos = 0;
+            overloaded = false;
+        } else if (aboveTargetSinceNanos == 0) {
+            aboveTargetSinceNanos = now;
+        } else if (now - aboveTargetSinceNanos >= intervalNanos) {
+            overloaded = true;
+        }
+    }
+
+    /**
+     * Make room for an arrival by dropping the newest waiter of the lowest priority below it
+     */
+    private boolean dropLowerThan(Priority priority) {
+        for (int p = waiters.length - 1; p > priority.ordinal(); p--) {
+            Waiter victim = waiters[p].pollLast();
+            if (victim != null) {
+                queued--;
+                victim.state = DROPPED;
+                rejected[Reason.QUEUE_FULL.ordinal()][p].increment();
+                victim.condition.signal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dequeue(Waiter waiter) {
+        if (waiters[waiter.priority.ordinal()].remove(waiter)) {
+            queued--;
+        }
+    }
+
+    private boolean reject(Reason reason, Priority priority) {
+        rejected[reason.ordinal()][priority.ordinal()].increment();
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.payment.infrastructure.audit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What a request thread does when the audit buffer is full
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuditOverflowPolicy {
+    DROP("Discard the record and count it"),
+    BLOCK("Wait for free space up to the block timeout, then discard");
+
+    private final String description;
+}
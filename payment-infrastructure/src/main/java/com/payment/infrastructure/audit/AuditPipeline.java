@@ -0,0 +1,168 @@
+package com.payment.infrastructure.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail
+ *
+ * Request threads hand records to a bounded lock-free ring buffer ({@link #record} does
+ * no I/O and no formatting); a single background thread drains it in batches into an
+ * {@link AuditWriter}. When the buffer is full the {@link AuditOverflowPolicy} decides
+ * whether the request thread drops the record or waits for room. Records still buffered
+ * at shutdown are written before the writer closes; records offered after stop() are
+ * refused and counted as rejected.
+ */
+@Slf4j
+public class AuditPipeline implements SmartLifecycle {
+
+    private final MpscRingBuffer<AuditRecord> buffer;
+    private final AuditWriter writer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long idleWaitNanos;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditPipeline(AuditWriter writer, int capacity, AuditOverflowPolicy overflowPolicy,
+                         long blockTimeoutMillis, int batchSize, long flushIntervalMillis,
+                         MeterRegistry meterRegistry) {
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.writer = writer;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+
+        this.written = outcome(meterRegistry, "written");
+        this.dropped = outcome(meterRegistry, "dropped");
+        this.failed = outcome(meterRegistry, "failed");
+        this.rejected = outcome(meterRegistry, "rejected");
+        Gauge.builder("audit.queue.depth", buffer, MpscRingBuffer::size)
+            .description("Audit records waiting for the writer")
+            .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("audit.records")
+            .description("Audit records by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Queue a record for writing
+     *
+     * @return false if the record was dropped, or refused because the pipeline is stopped
+     */
+    public boolean record(AuditRecord record) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        if (buffer.offer(record)) {
+            return true;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(10_000);
+                if (buffer.offer(record)) {
+                    return true;
+                }
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    private void runWriter() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            if (batch.size() < batchSize && running) {
+                // partial batch: let the next one fill up instead of spinning
+                LockSupport.parkNanos(idleWaitNanos);
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<AuditRecord> batch) {
+        try {
+            writer.write(batch);
+            written.increment(batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} audit records", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::runWriter);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            if (!writerThread.isAlive()) {
+                // a record offered while the writer was exiting would otherwise stay in the buffer
+                List<AuditRecord> batch = new ArrayList<>(batchSize);
+                while (buffer.drain(batch::add, batchSize) > 0) {
+                    flush(batch);
+                    batch.clear();
+                }
+            }
+            int left = buffer.size();
+            if (left > 0) {
+                dropped.increment(left);
+                log.warn("{} audit records not written at shutdown", left);
+            }
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to close audit writer", e);
+        }
+    }
+
+    /**
+     * Start before and stop after the web server, so in-flight requests are still written
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int queued() {
+        return buffer.size();
+    }
+}
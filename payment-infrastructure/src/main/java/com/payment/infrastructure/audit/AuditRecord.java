@@ -0,0 +1,22 @@
+package com.payment.infrastructure.audit;
+
+/**
+ * One audited API request
+ *
+ * @param timestamp Completion time, epoch millis
+ * @param durationNanos Time between preHandle and afterCompletion
+ * @param idempotencyKey X-Idempotency-Key header, null if absent
+ * @param error Exception type and message if the handler threw, null otherwise
+ */
+public record AuditRecord(
+    long timestamp,
+    String method,
+    String uri,
+    int status,
+    long durationNanos,
+    String clientIp,
+    String userAgent,
+    String idempotencyKey,
+    String error
+) {
+}
@@ -0,0 +1,16 @@
+package com.payment.infrastructure.audit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Where the audit writer stores records
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuditSink {
+    FILE("Append-only JSON lines file"),
+    TABLE("audit_log table");
+
+    private final String description;
+}
@@ -0,0 +1,16 @@
+package com.payment.infrastructure.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stores batches of audit records; only called from the audit writer thread
+ */
+public interface AuditWriter extends AutoCloseable {
+
+    void write(List<AuditRecord> batch) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
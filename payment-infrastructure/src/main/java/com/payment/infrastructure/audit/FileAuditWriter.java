@@ -0,0 +1,77 @@
+package com.payment.infrastructure.audit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends audit records to a file as JSON lines, one flush per batch
+ */
+public class FileAuditWriter implements AuditWriter {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(512);
+
+    public FileAuditWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) throws IOException {
+        for (AuditRecord record : batch) {
+            line.setLength(0);
+            line.append("{\"ts\":\"").append(Instant.ofEpochMilli(record.timestamp())).append('"');
+            field("method", record.method());
+            field("uri", record.uri());
+            line.append(",\"status\":").append(record.status());
+            line.append(",\"durationNanos\":").append(record.durationNanos());
+            field("clientIp", record.clientIp());
+            field("userAgent", record.userAgent());
+            field("idempotencyKey", record.idempotencyKey());
+            field("error", record.error());
+            line.append("}\n");
+            out.append(line);
+        }
+        out.flush();
+    }
+
+    private void field(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
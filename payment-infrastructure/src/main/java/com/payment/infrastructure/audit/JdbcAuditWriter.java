@@ -0,0 +1,66 @@
+package com.payment.infrastructure.audit;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts audit records into the append-only audit_log table, one JDBC batch per batch
+ */
+public class JdbcAuditWriter implements AuditWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_log (occurred_at, method, uri, status, duration_nanos, " +
+        "client_ip, user_agent, idempotency_key, error) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public JdbcAuditWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (AuditRecord record : batch) {
+                    statement.setTimestamp(1, new Timestamp(record.timestamp()));
+                    statement.setString(2, record.method());
+                    statement.setString(3, truncate(record.uri(), 2000));
+                    statement.setInt(4, record.status());
+                    statement.setLong(5, record.durationNanos());
+                    setNullable(statement, 6, truncate(record.clientIp(), 100));
+                    setNullable(statement, 7, truncate(record.userAgent(), 500));
+                    setNullable(statement, 8, truncate(record.idempotencyKey(), 255));
+                    setNullable(statement, 9, truncate(record.error(), 1000));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to insert " + batch.size() + " audit records", e);
+        }
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,57 @@
+package com.payment.infrastructure.config;
+
+import com.payment.infrastructure.admission.ConnectionAdmission;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Request admission configuration
+ * Permits default to the Hikari pool size minus the connections kept for background work
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "payment.admission.enabled", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Value("${payment.admission.max-concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${payment.admission.reserved-connections:20}")
+    private int reservedConnections;
+
+    @Value("${payment.admission.max-queue:200}")
+    private int maxQueue;
+
+    @Value("${payment.admission.codel.target-ms:5}")
+    private long targetMillis;
+
+    @Value("${payment.admission.codel.interval-ms:100}")
+    private long intervalMillis;
+
+    @Bean
+    public ConnectionAdmission connectionAdmission(DataSource dataSource, MeterRegistry meterRegistry)
+            throws SQLException {
+        int permits = maxConcurrent;
+        if (permits <= 0) {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                throw new IllegalStateException(
+                    "payment.admission.max-concurrent must be set when the DataSource is not Hikari");
+            }
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            permits = Math.max(1, poolSize - reservedConnections);
+        }
+        log.info("Request admission: {} concurrent, {} queued, CoDel target {} ms / interval {} ms",
+            permits, maxQueue, targetMillis, intervalMillis);
+        return new ConnectionAdmission(permits, maxQueue,
+            Duration.ofMillis(targetMillis), Duration.ofMillis(intervalMillis), meterRegistry);
+    }
+}
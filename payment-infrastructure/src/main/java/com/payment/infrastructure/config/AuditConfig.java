@@ -0,0 +1,51 @@
+package com.payment.infrastructure.config;
+
+import com.payment.infrastructure.audit.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Audit pipeline configuration
+ * Records go through a bounded ring buffer to a file or the audit_log table
+ */
+@Configuration
+public class AuditConfig {
+
+    @Value("${payment.audit.sink:FILE}")
+    private AuditSink sink;
+
+    @Value("${payment.audit.file:logs/audit.log}")
+    private String file;
+
+    @Value("${payment.audit.capacity:65536}")
+    private int capacity;
+
+    @Value("${payment.audit.overflow-policy:DROP}")
+    private AuditOverflowPolicy overflowPolicy;
+
+    @Value("${payment.audit.block-timeout-ms:5}")
+    private long blockTimeoutMillis;
+
+    @Value("${payment.audit.batch-size:512}")
+    private int batchSize;
+
+    @Value("${payment.audit.flush-interval-ms:100}")
+    private long flushIntervalMillis;
+
+    @Bean
+    public AuditPipeline auditPipeline(ObjectProvider<DataSource> dataSource,
+                                       MeterRegistry meterRegistry) throws IOException {
+        AuditWriter writer = sink == AuditSink.TABLE
+            ? new JdbcAuditWriter(dataSource.getObject())
+            : new FileAuditWriter(Path.of(file));
+        return new AuditPipeline(writer, capacity, overflowPolicy, blockTimeoutMillis,
+            batchSize, flushIntervalMillis, meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.payment.infrastructure.config;
 
+import com.payment.infrastructure.deadline.DeadlineTransactionManager;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
@@ -118,10 +119,11 @@ public class DatabaseConfig {
 
     /**
      * Transaction Manager
+     * Bounds request transactions by the request deadline
      */
     @Bean
     public PlatformTransactionManager transactionManager(LocalContainerEntityManagerFactoryBean entityManagerFactory) {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        JpaTransactionManager transactionManager = new DeadlineTransactionManager();
         transactionManager.setEntityManagerFactory(entityManagerFactory.getObject());
         return transactionManager;
     }
@@ -0,0 +1,47 @@
+package com.payment.infrastructure.config;
+
+import com.payment.infrastructure.jfr.JfrEventMetrics;
+import com.payment.infrastructure.jfr.JfrRecordingEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Flight recorder configuration
+ * Continuous event stream into meters, plus the on-demand /actuator/jfr recording
+ */
+@Configuration
+public class JfrConfig {
+
+    @Value("${payment.jfr.slow-threshold-ms:200}")
+    private long slowThresholdMillis;
+
+    @Value("${payment.jfr.pinned-threshold-ms:20}")
+    private long pinnedThresholdMillis;
+
+    @Value("${payment.jfr.recording.default-seconds:60}")
+    private long defaultSeconds;
+
+    @Value("${payment.jfr.recording.max-seconds:300}")
+    private long maxSeconds;
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.jfr.streaming.enabled", matchIfMissing = true)
+    public JfrEventMetrics jfrEventMetrics(MeterRegistry meterRegistry) {
+        return new JfrEventMetrics(meterRegistry,
+            Duration.ofMillis(slowThresholdMillis), Duration.ofMillis(pinnedThresholdMillis));
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint(endpoint = JfrRecordingEndpoint.class)
+    public JfrRecordingEndpoint jfrRecordingEndpoint() throws IOException, ParseException {
+        return new JfrRecordingEndpoint(Duration.ofSeconds(defaultSeconds), Duration.ofSeconds(maxSeconds));
+    }
+}
@@ -1,28 +1,42 @@
 package com.payment.infrastructure.config;
 
+import com.payment.common.event.PaymentEventMessage;
+import com.payment.infrastructure.kafka.PaymentEventDeserializer;
+import com.payment.infrastructure.kafka.PaymentEventSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Kafka configuration for event-driven architecture
  * Producer: idempotent with exactly-once semantics
  * Consumer: manual offset commit for reliability
+ * payment-events carry {@link PaymentEventMessage} in a compact binary encoding,
+ * everything else is JSON
  */
 @Configuration
 public class KafkaConfig {
 
+    /**
+     * Topic carrying payment lifecycle events
+     */
+    public static final String PAYMENT_EVENTS_TOPIC = "payment-events";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
@@ -32,14 +46,14 @@ public class KafkaConfig {
     /**
      * Producer configuration with idempotent delivery
      * Ensures exactly-once message delivery
+     * The standin profile replaces it with an in-process producer
      */
     @Bean
+    @Profile("!standin")
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         
         // Enable idempotence to prevent duplicate messages
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
@@ -63,12 +77,27 @@ public class KafkaConfig {
         // Transactional producer for exactly-once semantics
         config.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "payment-producer-tx-");
         
-        return new DefaultKafkaProducerFactory<>(config);
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer());
+    }
+
+    /**
+     * Value serializer chosen by payload type
+     * PaymentEventMessage gets the binary codec, anything else falls back to JSON
+     */
+    public static Serializer<Object> valueSerializer() {
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(PaymentEventMessage.class, new PaymentEventSerializer());
+        delegates.put(Object.class, new JsonSerializer<>());
+        return new DelegatingByTypeSerializer(delegates, true);
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        KafkaTemplate<String, Object> template = new KafkaTemplate<>(producerFactory);
+        // events are published from database transactions, not Kafka transactions;
+        // without this every send outside executeInTransaction is rejected
+        template.setAllowNonTransactional(true);
+        return template;
     }
 
     /**
@@ -77,12 +106,25 @@ public class KafkaConfig {
      */
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        Map<String, Object> config = consumerConfig();
+        
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        
+        // Only trust our own packages for JSON type headers
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, "com.payment.*");
+        
+        return new DefaultKafkaConsumerFactory<>(config);
+    }
+
+    /**
+     * Consumer settings shared by the JSON and payment-events consumers
+     */
+    private Map<String, Object> consumerConfig() {
         Map<String, Object> config = new HashMap<>();
         
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
-        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         
         // Manual offset commit for precise control
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
@@ -93,13 +135,10 @@ public class KafkaConfig {
         // Isolation level for reading transactional messages
         config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         
-        // Trust all packages for JSON deserialization
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        
         // Max poll records
         config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
         
-        return new DefaultKafkaConsumerFactory<>(config);
+        return config;
     }
 
     @Bean
@@ -119,4 +158,45 @@ public class KafkaConfig {
         
         return factory;
     }
+
+    /**
+     * Consumer for the payment-events topic with the binary codec
+     */
+    @Bean
+    public ConsumerFactory<String, PaymentEventMessage> paymentEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+            consumerConfig(), new StringDeserializer(), new PaymentEventDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEventMessage> paymentEventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEventMessage> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        
+        factory.setConsumerFactory(paymentEventConsumerFactory());
+        factory.getContainerProperties().setAckMode(
+            org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL
+        );
+        factory.setConcurrency(3);
+        
+        return factory;
+    }
+
+    /**
+     * payment-events delivered a poll at a time, for listeners that write each batch in one statement
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEventMessage> paymentEventBatchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEventMessage> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        
+        factory.setConsumerFactory(paymentEventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(
+            org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL
+        );
+        factory.setConcurrency(3);
+        
+        return factory;
+    }
 }
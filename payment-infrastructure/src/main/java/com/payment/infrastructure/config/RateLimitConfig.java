@@ -0,0 +1,60 @@
+package com.payment.infrastructure.config;
+
+import com.payment.infrastructure.ratelimit.MerchantRateLimiter;
+import com.payment.infrastructure.ratelimit.RateLimitTier;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-merchant rate limit configuration
+ * Tiers are "name:rate:burst" and merchants "merchant:tier", both comma separated
+ */
+@Slf4j
+@Configuration
+public class RateLimitConfig {
+
+    @Value("${payment.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.ratelimit.lease-window-ms:100}")
+    private long leaseWindowMillis;
+
+    @Value("${payment.ratelimit.tiers:standard:100:200}")
+    private String tiers;
+
+    @Value("${payment.ratelimit.merchants:}")
+    private String merchants;
+
+    @Value("${payment.ratelimit.default-tier:standard}")
+    private String defaultTier;
+
+    @Bean
+    public MerchantRateLimiter merchantRateLimiter(RedissonClient redissonClient, MeterRegistry meterRegistry) {
+        Map<String, RateLimitTier> parsedTiers = RateLimitTier.parseAll(tiers);
+        Map<String, String> merchantTiers = new LinkedHashMap<>();
+        for (String entry : merchants.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !parsedTiers.containsKey(parts[1])) {
+                throw new IllegalArgumentException("payment.ratelimit.merchants entry must be merchant:tier, got " + entry);
+            }
+            merchantTiers.put(parts[0], parts[1]);
+        }
+        if (enabled) {
+            log.info("Merchant rate limits: tiers {}, default {}, {} ms lease window",
+                parsedTiers.values(), defaultTier, leaseWindowMillis);
+        }
+        return new MerchantRateLimiter(redissonClient, enabled, Duration.ofMillis(leaseWindowMillis),
+            parsedTiers, merchantTiers, defaultTier, meterRegistry);
+    }
+}
@@ -7,6 +7,7 @@ import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
@@ -15,8 +16,10 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 /**
  * Redis configuration for distributed caching and idempotency
  * Uses Redisson for advanced features like distributed locks
+ * Not loaded under the standin profile, which provides an in-process client
  */
 @Configuration
+@Profile("!standin")
 public class RedisConfig {
 
     @Value("${spring.data.redis.host:localhost}")
@@ -28,11 +31,22 @@ public class RedisConfig {
     @Value("${spring.data.redis.password:}")
     private String redisPassword;
 
+    @Value("${payment.redis.timeout-ms:3000}")
+    private int timeoutMillis;
+
+    @Value("${payment.redis.retry-attempts:3}")
+    private int retryAttempts;
+
+    @Value("${payment.redis.retry-interval-ms:1500}")
+    private int retryIntervalMillis;
+
     /**
      * Redisson client for advanced Redis features
      * - Distributed locks
      * - Rate limiters
      * - Semaphores
+     * A command can take timeout + retries * (retry interval + timeout); request paths
+     * bound their own wait by the request deadline
      */
     @Bean(destroyMethod = "shutdown")
     public RedissonClient redissonClient() {
@@ -46,9 +60,9 @@ public class RedisConfig {
             .setConnectionPoolSize(50)
             .setConnectionMinimumIdleSize(10)
             .setConnectTimeout(10000)
-            .setTimeout(3000)
-            .setRetryAttempts(3)
-            .setRetryInterval(1500);
+            .setTimeout(timeoutMillis)
+            .setRetryAttempts(retryAttempts)
+            .setRetryInterval(retryIntervalMillis);
         
         // Use JSON codec for object serialization
         config.setCodec(new JsonJacksonCodec());
@@ -3,7 +3,6 @@ package com.payment.infrastructure.config;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.retry.RetryConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,7 +10,9 @@ import java.time.Duration;
 
 /**
  * Resilience4j configuration for fault tolerance
- * Implements circuit breakers, retries, rate limiting, and bulkheads
+ * Implements circuit breakers, rate limiting, and bulkheads
+ * Nothing here retries by sleeping on a request thread: payment processing retries
+ * transient failures from a timer (see PaymentProcessingScheduler)
  */
 @Configuration
 public class ResilienceConfig {
@@ -49,32 +50,6 @@ public class ResilienceConfig {
             .build();
     }
 
-    /**
-     * Retry Configuration
-     * Automatically retries failed calls with exponential backoff
-     */
-    @Bean
-    public RetryConfig retryConfig() {
-        return RetryConfig.custom()
-            // Maximum 3 retry attempts
-            .maxAttempts(3)
-            
-            // Initial wait duration of 1 second
-            .waitDuration(Duration.ofSeconds(1))
-            
-            // Exponential backoff multiplier (1s, 2s, 4s)
-            .intervalFunction(retry -> Duration.ofSeconds(1).toMillis() * (1L << (retry - 1)))
-            
-            // Retry on specific exceptions
-            .retryExceptions(
-                java.util.concurrent.TimeoutException.class,
-                java.io.IOException.class,
-                org.springframework.dao.OptimisticLockingFailureException.class
-            )
-            
-            .build();
-    }
-
     /**
      * Rate Limiter Configuration
      * Limits number of requests per time period
@@ -88,8 +63,8 @@ public class ResilienceConfig {
             // Refresh period of 1 second
             .limitRefreshPeriod(Duration.ofSeconds(1))
             
-            // Wait up to 5 seconds for permission
-            .timeoutDuration(Duration.ofSeconds(5))
+            // Fail fast: queueing is left to the admission gate, which sheds on delay
+            .timeoutDuration(Duration.ZERO)
             
             .build();
     }
@@ -104,8 +79,8 @@ public class ResilienceConfig {
             // Maximum 25 concurrent calls
             .maxConcurrentCalls(25)
             
-            // Wait up to 100ms for permission
-            .maxWaitDuration(Duration.ofMillis(100))
+            // Fail fast: queueing is left to the admission gate, which sheds on delay
+            .maxWaitDuration(Duration.ZERO)
             
             .build();
     }
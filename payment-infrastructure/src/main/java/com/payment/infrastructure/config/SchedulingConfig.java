@@ -0,0 +1,12 @@
+package com.payment.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (checkpoints, sweeps)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,54 @@
+package com.payment.infrastructure.config;
+
+import com.payment.infrastructure.tracing.TailSamplingSpanProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing configuration
+ * Every request is sampled at the head (probability 1.0); the tail sampler decides
+ * which finished traces reach the exporter
+ */
+@Configuration
+public class TracingConfig {
+
+    @Value("${payment.tracing.tail-sampling.slow-threshold-ms:1000}")
+    private long slowThresholdMillis;
+
+    @Value("${payment.tracing.tail-sampling.baseline-ratio:0.01}")
+    private double baselineRatio;
+
+    @Value("${payment.tracing.tail-sampling.decision-wait-ms:10000}")
+    private long decisionWaitMillis;
+
+    @Value("${payment.tracing.tail-sampling.max-traces:10000}")
+    private int maxTraces;
+
+    @Value("${payment.tracing.tail-sampling.max-spans-per-trace:256}")
+    private int maxSpansPerTrace;
+
+    @Value("${payment.tracing.tail-sampling.decision-ttl-ms:60000}")
+    private long decisionTtlMillis;
+
+    @Value("${payment.tracing.tail-sampling.max-decisions:100000}")
+    private int maxDecisions;
+
+    /**
+     * Replaces Spring Boot's default SpanProcessors: the exporting processors it would
+     * register (the BatchSpanProcessor) sit behind the tail sampler
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.tracing.tail-sampling.enabled", matchIfMissing = true)
+    public SpanProcessors tailSamplingSpanProcessors(ObjectProvider<SpanProcessor> spanProcessors,
+                                                     MeterRegistry meterRegistry) {
+        SpanProcessor exporting = SpanProcessor.composite(spanProcessors.orderedStream().toList());
+        return SpanProcessors.of(new TailSamplingSpanProcessor(exporting, slowThresholdMillis, baselineRatio,
+            decisionWaitMillis, maxTraces, maxSpansPerTrace, decisionTtlMillis, maxDecisions, meterRegistry));
+    }
+}
@@ -0,0 +1,38 @@
+package com.payment.infrastructure.deadline;
+
+import com.payment.common.deadline.Deadline;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPA transaction manager that keeps transactions inside the request's {@link Deadline}
+ *
+ * A transaction is not started once the deadline has passed, so no connection is taken for
+ * a response nobody will read. Otherwise the transaction timeout is capped at the remaining
+ * time (rounded up to whole seconds, the unit Spring uses), which Spring turns into a JDBC
+ * query timeout on every statement and a {@link org.springframework.transaction.TransactionTimedOutException}
+ * before statements issued after it ran out. Transactions without a deadline are unchanged.
+ */
+public class DeadlineTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Deadline.checkCurrent("transaction");
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return timeout;
+        }
+        long remainingNanos = Math.max(1, deadline.remainingNanos());
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE,
+            (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
@@ -0,0 +1,144 @@
+package com.payment.infrastructure.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Continuous in-process JFR stream turned into meters
+ *
+ * Only a handful of events are enabled, each behind a threshold, so the stream costs
+ * next to nothing while the node is healthy:
+ * - jdk.VirtualThreadPinned: carrier threads blocked by a pinned virtual thread; the stack
+ *   of each new pinning site (usually blocking I/O or a lock wait inside synchronized) is logged once
+ * - jdk.GarbageCollection: total pause time per collection
+ * - payment events (see com.payment.core.jfr) slower than the slow threshold
+ */
+@Slf4j
+public class JfrEventMetrics implements SmartLifecycle {
+
+    /**
+     * Names of the custom payment events, kept in sync with com.payment.core.jfr
+     */
+    static final List<String> PAYMENT_EVENTS = List.of(
+        "com.payment.Operation",
+        "com.payment.GatewayCall",
+        "com.payment.LockWait",
+        "com.payment.KafkaSend"
+    );
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String GC = "jdk.GarbageCollection";
+    private static final int MAX_PINNING_SITES = 100;
+    private static final int LOGGED_FRAMES = 20;
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+    private final Duration pinnedThreshold;
+
+    private final Timer pinned;
+    private final Map<String, Timer> slow = new ConcurrentHashMap<>();
+    private final Map<String, Timer> gcPauses = new ConcurrentHashMap<>();
+    private final Set<String> pinningSites = ConcurrentHashMap.newKeySet();
+
+    private volatile RecordingStream stream;
+
+    public JfrEventMetrics(MeterRegistry registry, Duration slowThreshold, Duration pinnedThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+        this.pinnedThreshold = pinnedThreshold;
+        this.pinned = Timer.builder("jfr.vthread.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(registry);
+        for (String event : PAYMENT_EVENTS) {
+            slow.put(event, Timer.builder("jfr.payment.slow")
+                .description("Payment JFR events slower than the slow threshold")
+                .tag("event", event)
+                .register(registry));
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || pinningSites.size() >= MAX_PINNING_SITES) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String site = frames.stream()
+            .map(JfrEventMetrics::frame)
+            .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+            .findFirst()
+            .orElse(frames.isEmpty() ? "unknown" : frame(frames.get(0)));
+        if (pinningSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(LOGGED_FRAMES).forEach(frame -> stack.append("\n\tat ").append(frame(frame)));
+            log.warn("Virtual thread pinned to its carrier for {} ms at {}{}",
+                event.getDuration().toMillis(), site, stack);
+        }
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+
+    private void onGc(RecordedEvent event) {
+        String collector = event.getString("name");
+        gcPauses.computeIfAbsent(collector, name -> Timer.builder("jfr.gc.pause")
+                .description("Summed stop-the-world pauses per collection")
+                .tag("collector", name)
+                .register(registry))
+            .record(event.getDuration("sumOfPauses"));
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recordingStream = new RecordingStream();
+        // keep the on-disk chunk repository small, nothing reads it after dispatch
+        recordingStream.setMaxAge(Duration.ofSeconds(30));
+
+        recordingStream.enable(PINNED).withThreshold(pinnedThreshold).withStackTrace();
+        recordingStream.onEvent(PINNED, this::onPinned);
+
+        recordingStream.enable(GC);
+        recordingStream.onEvent(GC, this::onGc);
+
+        for (String name : PAYMENT_EVENTS) {
+            Timer timer = slow.get(name);
+            recordingStream.enable(name).withThreshold(slowThreshold).withoutStackTrace();
+            recordingStream.onEvent(name, event -> timer.record(event.getDuration()));
+        }
+
+        recordingStream.onError(e -> log.warn("JFR event stream failed", e));
+        recordingStream.startAsync();
+        stream = recordingStream;
+        log.info("JFR event stream started (slow threshold {} ms, pinned threshold {} ms)",
+            slowThreshold.toMillis(), pinnedThreshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recordingStream = stream;
+        stream = null;
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+}
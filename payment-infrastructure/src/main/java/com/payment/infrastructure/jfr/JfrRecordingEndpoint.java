@@ -0,0 +1,129 @@
+package com.payment.infrastructure.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * On-demand flight recording: POST /actuator/jfr?seconds=N (admin only, see SecurityConfig)
+ *
+ * Records for N seconds (capped) with the JDK default profile plus the overrides in
+ * jfr/payments.jfc, then streams the .jfr file back and deletes it. A write operation:
+ * it starts a recording and holds the request thread for its whole duration. One recording
+ * at a time; a second request gets 429.
+ */
+@Slf4j
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    static final String PROFILE = "jfr/payments.jfc";
+
+    private final Map<String, String> settings;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final Semaphore inProgress = new Semaphore(1);
+
+    public JfrRecordingEndpoint(Duration defaultDuration, Duration maxDuration) throws IOException, ParseException {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.settings = loadSettings();
+    }
+
+    private static Map<String, String> loadSettings() throws IOException, ParseException {
+        Map<String, String> merged = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource(PROFILE).getInputStream(), StandardCharsets.UTF_8)) {
+            merged.putAll(Configuration.create(reader).getSettings());
+        }
+        return merged;
+    }
+
+    @WriteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@Nullable Integer seconds) {
+        Duration duration = seconds == null ? defaultDuration : Duration.ofSeconds(seconds);
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!inProgress.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Path file = Files.createTempFile("payments-", ".jfr");
+            try (Recording recording = new Recording(settings)) {
+                recording.setName("payments-on-demand");
+                recording.setToDisk(true);
+                recording.start();
+                log.info("JFR recording started for {} s", duration.toSeconds());
+                Thread.sleep(duration.toMillis());
+                recording.stop();
+                recording.dump(file);
+            }
+            return new WebEndpointResponse<>(new TemporaryFileResource(file), WebEndpointResponse.STATUS_OK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
+            log.error("JFR recording failed", e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            inProgress.release();
+        }
+    }
+
+    /**
+     * Recording file deleted once the response body has been read
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return Channels.newChannel(getInputStream());
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
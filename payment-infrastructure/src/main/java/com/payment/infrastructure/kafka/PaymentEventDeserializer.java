@@ -0,0 +1,24 @@
+package com.payment.infrastructure.kafka;
+
+import com.payment.common.event.PaymentEventCodec;
+import com.payment.common.event.PaymentEventMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer for payment-events using the compact binary codec
+ */
+public class PaymentEventDeserializer implements Deserializer<PaymentEventMessage> {
+
+    @Override
+    public PaymentEventMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return PaymentEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode payment event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.payment.infrastructure.kafka;
+
+import com.payment.common.event.PaymentEventCodec;
+import com.payment.common.event.PaymentEventMessage;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer for payment-events using the compact binary codec
+ * Adds no type headers; the version byte travels in the payload
+ */
+public class PaymentEventSerializer implements Serializer<PaymentEventMessage> {
+
+    @Override
+    public byte[] serialize(String topic, PaymentEventMessage data) {
+        return data == null ? null : PaymentEventCodec.encode(data);
+    }
+}
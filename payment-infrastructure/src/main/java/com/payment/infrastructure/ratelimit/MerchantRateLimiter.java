@@ -0,0 +1,271 @@
+package com.payment.infrastructure.ratelimit;
+
+import com.payment.common.exception.MerchantRateLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-merchant token buckets enforced across the cluster
+ *
+ * The bucket itself lives in Redis ({@code payment:ratelimit:bucket:<merchant>}) and is only
+ * touched by a Lua script that refills it from Redis' clock and hands out a block of tokens.
+ * Each node spends its leased block with a lock-free counter and leases the next block in
+ * the background once half of it is gone, so {@link #acquire} never waits on Redis.
+ * Blocks are lease-window worth of the merchant's rate, which bounds how far the cluster
+ * can overshoot: at most one block per node, plus one provisional block when a node first
+ * sees a merchant. When Redis is unreachable the node fails open with a local block.
+ *
+ * Tiers and merchant assignments come from configuration and are overridden by the Redis
+ * hashes {@code payment:ratelimit:tiers} (name → rate:burst) and
+ * {@code payment:ratelimit:merchants} (merchant → tier), re-read every refresh interval.
+ */
+@Slf4j
+public class MerchantRateLimiter {
+
+    static final String TIERS_KEY = "payment:ratelimit:tiers";
+    static final String MERCHANTS_KEY = "payment:ratelimit:merchants";
+    private static final String BUCKET_KEY_PREFIX = "payment:ratelimit:bucket:";
+
+    // ARGV: rate (tokens per ms), burst, tokens wanted; returns tokens granted
+    private static final String LEASE_SCRIPT =
+        "local rate = tonumber(ARGV[1]) " +
+        "local burst = tonumber(ARGV[2]) " +
+        "local want = tonumber(ARGV[3]) " +
+        "local time = redis.call('TIME') " +
+        "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+        "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+        "local tokens = tonumber(state[1]) or burst " +
+        "local ts = tonumber(state[2]) or now " +
+        "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate) " +
+        "local granted = math.min(want, math.floor(tokens)) " +
+        "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - granted), 'ts', tostring(now)) " +
+        "redis.call('PEXPIRE', KEYS[1], math.ceil(burst / rate) + 1000) " +
+        "return granted";
+
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /**
+     * This node's share of one merchant's bucket
+     */
+    private static final class LocalBucket {
+
+        private final String merchantId;
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean leasing = new AtomicBoolean();
+        private volatile RateLimitTier tier;
+        private volatile long block;
+        // no lease before this (the Redis bucket was empty, or Redis failed)
+        private volatile long nextLeaseNanos;
+        private volatile long lastLeaseNanos;
+
+        private LocalBucket(String merchantId) {
+            this.merchantId = merchantId;
+        }
+    }
+
+    private final RedissonClient redissonClient;
+    private final boolean enabled;
+    private final Duration leaseWindow;
+    private final Map<String, RateLimitTier> configuredTiers;
+    private final Map<String, String> configuredMerchants;
+    private final String defaultTier;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedByTier = new ConcurrentHashMap<>();
+    private volatile Map<String, RateLimitTier> tiers;
+    private volatile Map<String, String> merchantTiers;
+
+    private final Counter leasesGranted;
+    private final Counter leasesExhausted;
+    private final Counter leaseErrors;
+
+    public MerchantRateLimiter(RedissonClient redissonClient,
+                               boolean enabled,
+                               Duration leaseWindow,
+                               Map<String, RateLimitTier> configuredTiers,
+                               Map<String, String> configuredMerchants,
+                               String defaultTier,
+                               MeterRegistry meterRegistry) {
+        if (!configuredTiers.containsKey(defaultTier)) {
+            throw new IllegalArgumentException("Default rate limit tier " + defaultTier + " is not configured");
+        }
+        this.redissonClient = redissonClient;
+        this.enabled = enabled;
+        this.leaseWindow = leaseWindow;
+        this.configuredTiers = Map.copyOf(configuredTiers);
+        this.configuredMerchants = Map.copyOf(configuredMerchants);
+        this.defaultTier = defaultTier;
+        this.meterRegistry = meterRegistry;
+        this.tiers = this.configuredTiers;
+        this.merchantTiers = this.configuredMerchants;
+
+        this.leasesGranted = leases(meterRegistry, "granted");
+        this.leasesExhausted = leases(meterRegistry, "exhausted");
+        this.leaseErrors = leases(meterRegistry, "error");
+        Gauge.builder("payment.ratelimit.merchants", buckets, Map::size)
+            .description("Merchants with a token bucket on this node")
+            .register(meterRegistry);
+    }
+
+    private static Counter leases(MeterRegistry registry, String outcome) {
+        return Counter.builder("payment.ratelimit.leases")
+            .description("Token block leases from Redis, by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Take one token for the merchant
+     *
+     * @throws MerchantRateLimitException 429 with a retry hint when the merchant is over its rate
+     */
+    public void acquire(String merchantId) {
+        if (!enabled) {
+            return;
+        }
+        LocalBucket bucket = buckets.get(merchantId);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(merchantId, this::newBucket);
+        }
+        long before = bucket.tokens.getAndUpdate(t -> t > 0 ? t - 1 : t);
+        if (before <= bucket.block / 2 + 1) {
+            maybeLease(bucket);
+        }
+        if (before > 0) {
+            return;
+        }
+        rejected(bucket.tier).increment();
+        long waitNanos = Math.max(bucket.nextLeaseNanos - System.nanoTime(),
+            (long) (TimeUnit.SECONDS.toNanos(1) / bucket.tier.ratePerSecond()));
+        throw new MerchantRateLimitException(merchantId, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos)));
+    }
+
+    /**
+     * Name of the tier the merchant is assigned to, including Redis overrides as of the last refresh
+     */
+    public String tierOf(String merchantId) {
+        String tier = merchantTiers.getOrDefault(merchantId, defaultTier);
+        return tiers.containsKey(tier) ? tier : defaultTier;
+    }
+
+    /**
+     * Starts with one provisional block so the first requests do not wait for Redis
+     */
+    private LocalBucket newBucket(String merchantId) {
+        LocalBucket bucket = new LocalBucket(merchantId);
+        applyTier(bucket);
+        bucket.tokens.set(bucket.block);
+        // nanoTime has an arbitrary origin and may be negative, so 0 is not "in the past"
+        long now = System.nanoTime();
+        bucket.nextLeaseNanos = now;
+        bucket.lastLeaseNanos = now;
+        return bucket;
+    }
+
+    private void applyTier(LocalBucket bucket) {
+        RateLimitTier tier = tiers.get(merchantTiers.getOrDefault(bucket.merchantId, defaultTier));
+        if (tier == null) {
+            tier = tiers.getOrDefault(defaultTier, configuredTiers.get(defaultTier));
+        }
+        bucket.tier = tier;
+        bucket.block = Math.max(1, Math.min(tier.burst(),
+            (long) Math.ceil(tier.ratePerSecond() * leaseWindow.toMillis() / 1000.0)));
+    }
+
+    private void maybeLease(LocalBucket bucket) {
+        if (System.nanoTime() - bucket.nextLeaseNanos < 0 || !bucket.leasing.compareAndSet(false, true)) {
+            return;
+        }
+        RateLimitTier tier = bucket.tier;
+        long block = bucket.block;
+        bucket.lastLeaseNanos = System.nanoTime();
+        try {
+            RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+            script.<Long>evalAsync(RScript.Mode.READ_WRITE, LEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                    List.of(BUCKET_KEY_PREFIX + bucket.merchantId),
+                    Double.toString(tier.ratePerSecond() / 1000.0), Long.toString(tier.burst()), Long.toString(block))
+                .whenComplete((granted, error) -> {
+                    if (error != null) {
+                        leaseFailed(bucket, block, error);
+                    } else {
+                        leased(bucket, tier, block, granted);
+                    }
+                    bucket.leasing.set(false);
+                });
+        } catch (RuntimeException e) {
+            leaseFailed(bucket, block, e);
+            bucket.leasing.set(false);
+        }
+    }
+
+    private void leased(LocalBucket bucket, RateLimitTier tier, long block, long granted) {
+        if (granted > 0) {
+            leasesGranted.increment();
+            bucket.tokens.addAndGet(granted);
+        }
+        if (granted < block) {
+            // the cluster bucket is drained: wait until it has refilled what we asked for
+            leasesExhausted.increment();
+            bucket.nextLeaseNanos = System.nanoTime()
+                + (long) ((block - granted) * TimeUnit.SECONDS.toNanos(1) / tier.ratePerSecond());
+        }
+    }
+
+    private void leaseFailed(LocalBucket bucket, long block, Throwable error) {
+        leaseErrors.increment();
+        bucket.tokens.addAndGet(block);
+        bucket.nextLeaseNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        log.warn("Token lease for merchant {} failed, admitting a local block: {}", bucket.merchantId, error.getMessage());
+    }
+
+    private Counter rejected(RateLimitTier tier) {
+        return rejectedByTier.computeIfAbsent(tier.name(), name -> Counter.builder("payment.ratelimit.rejected")
+            .description("Requests rejected by the merchant rate limit, by tier")
+            .tag("tier", name.toLowerCase(Locale.ROOT))
+            .register(meterRegistry));
+    }
+
+    /**
+     * Re-read tier overrides from Redis, re-tier known merchants and drop idle buckets
+     */
+    @Scheduled(fixedDelayString = "${payment.ratelimit.refresh-interval-ms:30000}",
+               initialDelay = 0)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<String, RateLimitTier> reloadedTiers = new HashMap<>(configuredTiers);
+            redissonClient.<String, String>getMap(TIERS_KEY, StringCodec.INSTANCE).readAllMap()
+                .forEach((name, spec) -> reloadedTiers.put(name, RateLimitTier.parse(name, spec)));
+            Map<String, String> reloadedMerchants = new HashMap<>(configuredMerchants);
+            reloadedMerchants.putAll(
+                redissonClient.<String, String>getMap(MERCHANTS_KEY, StringCodec.INSTANCE).readAllMap());
+            tiers = reloadedTiers;
+            merchantTiers = reloadedMerchants;
+        } catch (Exception e) {
+            log.warn("Failed to reload merchant rate limits, keeping the current ones: {}", e.getMessage());
+        }
+
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.lastLeaseNanos > IDLE_EVICT_NANOS);
+        buckets.values().forEach(this::applyTier);
+    }
+}
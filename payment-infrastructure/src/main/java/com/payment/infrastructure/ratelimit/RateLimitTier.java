@@ -0,0 +1,49 @@
+package com.payment.infrastructure.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token bucket of a merchant tier, enforced across the cluster
+ *
+ * @param ratePerSecond Sustained requests per second
+ * @param burst Bucket size
+ */
+public record RateLimitTier(String name, double ratePerSecond, long burst) {
+
+    public RateLimitTier {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Tier " + name + " needs a positive rate and a burst >= 1");
+        }
+    }
+
+    /**
+     * Parse "rate:burst"
+     */
+    public static RateLimitTier parse(String name, String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Tier " + name + " must be rate:burst, got " + spec);
+        }
+        return new RateLimitTier(name, Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+    }
+
+    /**
+     * Parse "name:rate:burst,name:rate:burst"
+     */
+    public static Map<String, RateLimitTier> parseAll(String specs) {
+        Map<String, RateLimitTier> tiers = new LinkedHashMap<>();
+        for (String spec : specs.split(",")) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            int colon = spec.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Tier must be name:rate:burst, got " + spec);
+            }
+            String name = spec.substring(0, colon).trim();
+            tiers.put(name, parse(name, spec.substring(colon + 1)));
+        }
+        return tiers;
+    }
+}
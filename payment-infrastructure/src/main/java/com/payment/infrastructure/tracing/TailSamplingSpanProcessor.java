@@ -0,0 +1,322 @@
+package com.payment.infrastructure.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process tail sampling in front of the exporting span processor
+ *
+ * Ended spans are held per trace until the local root span ends (or the decision wait
+ * runs out), then the whole trace is either handed to the delegate or dropped:
+ * - kept if any span errored (status ERROR or a SERVER_ERROR outcome)
+ * - kept if any span took longer than the slow threshold
+ * - otherwise kept with the baseline probability
+ *
+ * Decisions are remembered per trace ID for the decision TTL (at most maxDecisions of
+ * them): a span ending after its trace was decided follows that decision, exported
+ * straight away if kept and dropped if not, so a dropped trace is never exported in part.
+ * A trace that crosses Kafka has one local root per hop; a hop ending within the TTL
+ * follows the earlier decision, a later one is decided on its own.
+ * Memory is bounded by maxTraces x maxSpansPerTrace; spans beyond either bound are
+ * dropped and counted.
+ */
+@Slf4j
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private record Decision(boolean kept, long decidedNanos) {
+    }
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double baselineRatio;
+    private final long decisionWaitNanos;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final long decisionTtlNanos;
+
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // insertion order is decision order, so expired entries are always the eldest
+    private final LinkedHashMap<String, Decision> decisions;
+    private final ScheduledExecutorService sweeper;
+
+    private final Counter exportedSlow;
+    private final Counter exportedError;
+    private final Counter exportedBaseline;
+    private final Counter droppedSampledOut;
+    private final Counter exportedSpans;
+    private final Counter droppedSpans;
+    private final Counter droppedBufferFull;
+    private final Counter droppedSpanLimit;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, long slowThresholdMillis, double baselineRatio,
+                                     long decisionWaitMillis, int maxTraces, int maxSpansPerTrace,
+                                     long decisionTtlMillis, int maxDecisions, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.baselineRatio = baselineRatio;
+        this.decisionWaitNanos = TimeUnit.MILLISECONDS.toNanos(decisionWaitMillis);
+        this.maxTraces = maxTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.decisionTtlNanos = TimeUnit.MILLISECONDS.toNanos(decisionTtlMillis);
+        this.decisions = new LinkedHashMap<>(16, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Decision> eldest) {
+                return size() > maxDecisions;
+            }
+        };
+
+        this.exportedSlow = traces(meterRegistry, "exported", "slow");
+        this.exportedError = traces(meterRegistry, "exported", "error");
+        this.exportedBaseline = traces(meterRegistry, "exported", "baseline");
+        this.droppedSampledOut = traces(meterRegistry, "dropped", "sampled_out");
+        this.exportedSpans = spans(meterRegistry, "exported", "sampled");
+        this.droppedSpans = spans(meterRegistry, "dropped", "sampled_out");
+        this.droppedBufferFull = spans(meterRegistry, "dropped", "buffer_full");
+        this.droppedSpanLimit = spans(meterRegistry, "dropped", "span_limit");
+        Gauge.builder("tracing.tail.pending", pendingCount, AtomicInteger::get)
+            .description("Traces waiting for a sampling decision")
+            .register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("tail-sampling-sweeper").daemon(true).factory());
+        this.sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter traces(MeterRegistry registry, String outcome, String reason) {
+        return Counter.builder("tracing.tail.traces")
+            .description("Tail sampling decisions")
+            .tag("outcome", outcome)
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    private static Counter spans(MeterRegistry registry, String outcome, String reason) {
+        return Counter.builder("tracing.tail.spans")
+            .description("Spans exported or dropped by tail sampling")
+            .tag("outcome", outcome)
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (!spanContext.isSampled()) {
+            return;
+        }
+        String traceId = spanContext.getTraceId();
+        while (true) {
+            Decision decision = decision(traceId);
+            if (decision != null) {
+                if (decision.kept()) {
+                    exportedSpans.increment();
+                    delegate.onEnd(span);
+                } else {
+                    droppedSpans.increment();
+                }
+                return;
+            }
+            PendingTrace trace = pending.get(traceId);
+            if (trace == null) {
+                if (pendingCount.get() >= maxTraces) {
+                    droppedBufferFull.increment();
+                    return;
+                }
+                PendingTrace created = new PendingTrace(System.nanoTime());
+                trace = pending.putIfAbsent(traceId, created);
+                if (trace == null) {
+                    pendingCount.incrementAndGet();
+                    trace = created;
+                }
+            }
+            synchronized (trace) {
+                if (trace.decided) {
+                    // decided while we were looking it up, start over
+                    continue;
+                }
+                trace.add(span);
+                if (isLocalRoot(span)) {
+                    decide(traceId, trace);
+                }
+            }
+            return;
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        try {
+            pending.forEach((traceId, trace) -> {
+                if (now - trace.firstSeenNanos >= decisionWaitNanos) {
+                    synchronized (trace) {
+                        if (!trace.decided) {
+                            decide(traceId, trace);
+                        }
+                    }
+                }
+            });
+            expireDecisions(now);
+        } catch (RuntimeException e) {
+            log.warn("Tail sampling sweep failed", e);
+        }
+    }
+
+    /**
+     * Export or drop the buffered spans of a trace; caller holds the trace monitor
+     */
+    private void decide(String traceId, PendingTrace trace) {
+        Counter reason;
+        if (trace.error) {
+            reason = exportedError;
+        } else if (trace.slow) {
+            reason = exportedSlow;
+        } else if (ThreadLocalRandom.current().nextDouble() < baselineRatio) {
+            reason = exportedBaseline;
+        } else {
+            reason = null;
+        }
+        // remembered before the trace leaves pending, so a span ending meanwhile finds one or the other
+        remember(traceId, reason != null);
+        trace.decided = true;
+        pending.remove(traceId, trace);
+        pendingCount.decrementAndGet();
+
+        if (reason == null) {
+            droppedSampledOut.increment();
+            droppedSpans.increment(trace.spans.size());
+            return;
+        }
+        reason.increment();
+        exportedSpans.increment(trace.spans.size());
+        for (ReadableSpan span : trace.spans) {
+            delegate.onEnd(span);
+        }
+    }
+
+    private boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    /**
+     * @return The decision taken for the trace within the TTL, null if none
+     */
+    private Decision decision(String traceId) {
+        synchronized (decisions) {
+            Decision decision = decisions.get(traceId);
+            if (decision != null && System.nanoTime() - decision.decidedNanos() >= decisionTtlNanos) {
+                decisions.remove(traceId);
+                return null;
+            }
+            return decision;
+        }
+    }
+
+    private void remember(String traceId, boolean kept) {
+        synchronized (decisions) {
+            decisions.put(traceId, new Decision(kept, System.nanoTime()));
+        }
+    }
+
+    private void expireDecisions(long now) {
+        synchronized (decisions) {
+            Iterator<Decision> eldestFirst = decisions.values().iterator();
+            while (eldestFirst.hasNext() && now - eldestFirst.next().decidedNanos() >= decisionTtlNanos) {
+                eldestFirst.remove();
+            }
+        }
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        sweeper.shutdownNow();
+        pending.forEach((traceId, trace) -> {
+            synchronized (trace) {
+                if (!trace.decided) {
+                    decide(traceId, trace);
+                }
+            }
+        });
+        return delegate.shutdown();
+    }
+
+    /**
+     * Ended spans of one trace hop, guarded by its own monitor
+     */
+    private final class PendingTrace {
+
+        private final long firstSeenNanos;
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean error;
+        private boolean slow;
+        private boolean decided;
+
+        private PendingTrace(long firstSeenNanos) {
+            this.firstSeenNanos = firstSeenNanos;
+        }
+
+        private void add(ReadableSpan span) {
+            SpanData data = span.toSpanData();
+            if (data.getStatus().getStatusCode() == StatusCode.ERROR
+                    || "SERVER_ERROR".equals(data.getAttributes().get(OUTCOME))) {
+                error = true;
+            }
+            if (span.getLatencyNanos() >= slowThresholdNanos) {
+                slow = true;
+            }
+            if (spans.size() < maxSpansPerTrace) {
+                spans.add(span);
+            } else {
+                droppedSpanLimit.increment();
+            }
+        }
+    }
+}
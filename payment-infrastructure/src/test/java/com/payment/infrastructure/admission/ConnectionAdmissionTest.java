@@ -0,0 +1,174 @@
+package com.payment.infrastructure.admission;
+
+import com.payment.infrastructure.admission.ConnectionAdmission.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConnectionAdmission ordering, CoDel shedding and behaviour past saturation
+ */
+class ConnectionAdmissionTest {
+
+    @Test
+    void release_WithWaitersOfEveryPriority_ShouldGrantHighestPriorityFirst() throws Exception {
+        // Given
+        ConnectionAdmission admission = new ConnectionAdmission(1, 10,
+            Duration.ofSeconds(5), Duration.ofSeconds(10), new SimpleMeterRegistry());
+        assertTrue(admission.acquire(Priority.NORMAL));
+        List<Priority> granted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        for (Priority priority : List.of(Priority.LOW, Priority.NORMAL, Priority.HIGH)) {
+            int queuedBefore = admission.queued();
+            Thread.startVirtualThread(() -> {
+                try {
+                    if (admission.acquire(priority)) {
+                        granted.add(priority);
+                        admission.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            while (admission.queued() == queuedBefore) {
+                Thread.onSpinWait();
+            }
+        }
+
+        // When
+        admission.release();
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Priority.HIGH, Priority.NORMAL, Priority.LOW), granted);
+        assertEquals(0, admission.active());
+    }
+
+    @Test
+    void acquire_LowPriorityAfterDelayAboveTargetForAnInterval_ShouldBeShedAtOnce() throws Exception {
+        // Given: the only permit is held, so two waiters in a row time out after a full interval
+        ConnectionAdmission admission = new ConnectionAdmission(1, 10,
+            Duration.ofMillis(1), Duration.ofMillis(20), new SimpleMeterRegistry());
+        assertTrue(admission.acquire(Priority.NORMAL));
+        assertFalse(admission.acquire(Priority.HIGH));
+        assertFalse(admission.isOverloaded());
+        assertFalse(admission.acquire(Priority.HIGH));
+
+        // When
+        long start = System.nanoTime();
+        boolean admitted = admission.acquire(Priority.LOW);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertTrue(admission.isOverloaded());
+        assertFalse(admitted);
+        assertTrue(waitedMillis < 20, "shed request waited " + waitedMillis + " ms");
+        assertEquals(5, admission.retryAfterSeconds(Priority.LOW));
+
+        // and a free permit with no queue ends the overload
+        admission.release();
+        assertTrue(admission.acquire(Priority.LOW));
+        assertFalse(admission.isOverloaded());
+    }
+
+    @Test
+    void acquire_OfferedLoadPastSaturation_ShouldKeepGoodputFlat() throws Exception {
+        // Given: 4 permits held 20 ms each serve 200 requests/s; a request is good if it finishes within 250 ms
+        int permits = 4;
+        long serviceMillis = 20;
+        double capacity = permits * 1000.0 / serviceMillis;
+
+        // When
+        Map<Integer, LoadResult> results = new TreeMap<>();
+        for (int multiple : new int[]{1, 2, 4}) {
+            ConnectionAdmission admission = new ConnectionAdmission(permits, 200,
+                Duration.ofMillis(5), Duration.ofMillis(100), new SimpleMeterRegistry());
+            results.put(multiple, offer(admission, capacity * multiple, Duration.ofSeconds(1), serviceMillis, 250));
+        }
+
+        // Then: past saturation the gate serves about capacity, within the SLO, and sheds the rest
+        double baseline = results.get(1).goodput();
+        for (int multiple : new int[]{2, 4}) {
+            LoadResult result = results.get(multiple);
+            assertTrue(result.goodput() >= 0.8 * capacity,
+                multiple + "x offered load: goodput " + result.goodput() + "/s, capacity " + capacity + "/s");
+            assertTrue(result.goodput() >= 0.8 * baseline,
+                multiple + "x offered load: goodput " + result.goodput() + "/s, at 1x " + baseline + "/s");
+        }
+        LoadResult saturated = results.get(4);
+        assertTrue(saturated.admittedShare(Priority.HIGH) > saturated.admittedShare(Priority.LOW),
+            "high " + saturated.admittedShare(Priority.HIGH) + " vs low " + saturated.admittedShare(Priority.LOW));
+    }
+
+    private record LoadResult(double goodput, Map<Priority, int[]> offeredAndAdmitted) {
+
+        double admittedShare(Priority priority) {
+            int[] counts = offeredAndAdmitted.get(priority);
+            return counts[0] == 0 ? 0 : (double) counts[1] / counts[0];
+        }
+    }
+
+    /**
+     * Open-loop arrivals at a fixed rate, one in five HIGH and three in ten LOW
+     */
+    private static LoadResult offer(ConnectionAdmission admission, double ratePerSecond, Duration duration,
+                                    long serviceMillis, long sloMillis) throws InterruptedException {
+        Priority[] mix = {Priority.HIGH, Priority.NORMAL, Priority.LOW, Priority.NORMAL, Priority.LOW,
+            Priority.HIGH, Priority.NORMAL, Priority.LOW, Priority.NORMAL, Priority.NORMAL};
+        Map<Priority, int[]> counts = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            counts.put(priority, new int[2]);
+        }
+        AtomicInteger good = new AtomicInteger();
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long requests = duration.toNanos() / periodNanos;
+        CountDownLatch done = new CountDownLatch((int) requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long arrival = start + i * periodNanos;
+            LockSupport.parkNanos(arrival - System.nanoTime());
+            Priority priority = mix[i % mix.length];
+            Thread.startVirtualThread(() -> {
+                try {
+                    if (admission.acquire(priority)) {
+                        try {
+                            Thread.sleep(serviceMillis);
+                        } finally {
+                            admission.release();
+                        }
+                        synchronized (counts) {
+                            counts.get(priority)[1]++;
+                        }
+                        if (System.nanoTime() - arrival <= TimeUnit.MILLISECONDS.toNanos(sloMillis)) {
+                            good.incrementAndGet();
+                        }
+                    }
+                    synchronized (counts) {
+                        counts.get(priority)[0]++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        return new LoadResult(good.get() / (duration.toMillis() / 1000.0), counts);
+    }
+}
@@ -0,0 +1,128 @@
+package com.payment.infrastructure.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AuditPipeline overflow policies and shutdown
+ */
+class AuditPipelineTest {
+
+    // held by the writer until the test opens it, so the buffer can be filled deterministically
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    private final AuditWriter writer = batch -> {
+        writing.countDown();
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batch.forEach(record -> written.add(record.uri()));
+    };
+
+    private AuditPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (pipeline != null && pipeline.isRunning()) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void record_BufferFullUnderDropPolicy_ShouldDropWithoutWaiting() throws Exception {
+        // Given: the writer holds the first record, the next two fill the buffer
+        pipeline = start(AuditOverflowPolicy.DROP, 0);
+        fillBuffer();
+
+        // When
+        boolean accepted = pipeline.record(record("/dropped"));
+
+        // Then
+        assertFalse(accepted);
+        gate.countDown();
+        pipeline.stop();
+        assertEquals(List.of("/held", "/1", "/2"), written);
+    }
+
+    @Test
+    void record_BufferFullUnderBlockPolicy_ShouldWaitForRoom() throws Exception {
+        // Given
+        pipeline = start(AuditOverflowPolicy.BLOCK, 10_000);
+        fillBuffer();
+
+        // When
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> pipeline.record(record("/blocked")));
+        Thread.sleep(50);
+        boolean waitedWhileFull = !blocked.isDone();
+        gate.countDown();
+
+        // Then
+        assertTrue(waitedWhileFull);
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        pipeline.stop();
+        assertEquals(List.of("/held", "/1", "/2", "/blocked"), written);
+    }
+
+    @Test
+    void record_BufferFullUnderBlockPolicy_ShouldDropAfterTimeout() throws Exception {
+        // Given
+        pipeline = start(AuditOverflowPolicy.BLOCK, 20);
+        fillBuffer();
+
+        // When
+        boolean accepted = pipeline.record(record("/timed-out"));
+
+        // Then
+        assertFalse(accepted);
+    }
+
+    @Test
+    void record_AfterStop_ShouldBeRefused() {
+        // Given
+        gate.countDown();
+        pipeline = start(AuditOverflowPolicy.DROP, 0);
+        assertTrue(pipeline.record(record("/before")));
+        pipeline.stop();
+
+        // When
+        boolean accepted = pipeline.record(record("/after"));
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(0, pipeline.queued());
+        assertEquals(List.of("/before"), written);
+    }
+
+    private AuditPipeline start(AuditOverflowPolicy policy, long blockTimeoutMillis) {
+        AuditPipeline started = new AuditPipeline(writer, 2, policy, blockTimeoutMillis, 1, 1,
+            new SimpleMeterRegistry());
+        started.start();
+        return started;
+    }
+
+    private void fillBuffer() throws InterruptedException {
+        assertTrue(pipeline.record(record("/held")));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTrue(pipeline.record(record("/1")));
+        assertTrue(pipeline.record(record("/2")));
+    }
+
+    private static AuditRecord record(String uri) {
+        return new AuditRecord(System.currentTimeMillis(), "POST", uri, 201, 1_000, "10.0.0.1",
+            "test", null, null);
+    }
+}
@@ -0,0 +1,126 @@
+package com.payment.infrastructure.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MpscRingBuffer capacity, ordering and concurrent hand-off
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void constructor_ShouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(2, new MpscRingBuffer<>(2).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(1));
+    }
+
+    @Test
+    void offer_WhenFull_ShouldRefuseUntilConsumerDrains() {
+        // Given
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // When
+        boolean overflow = buffer.offer(4);
+        List<Integer> first = new ArrayList<>();
+        buffer.drain(first::add, 1);
+        boolean afterDrain = buffer.offer(4);
+
+        // Then
+        assertFalse(overflow);
+        assertTrue(afterDrain);
+        assertEquals(List.of(0), first);
+        List<Integer> rest = new ArrayList<>();
+        assertEquals(4, buffer.drain(rest::add, 10));
+        assertEquals(List.of(1, 2, 3, 4), rest);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void drain_ManyLapsOfSmallBuffer_ShouldKeepFifoOrder() {
+        // Given
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        // When: 250 laps of the ring, three in and out at a time
+        for (int i = 0; i < 1_000; i += 3) {
+            for (int j = i; j < Math.min(i + 3, 1_000); j++) {
+                assertTrue(buffer.offer(j));
+            }
+            buffer.drain(drained::add, 3);
+        }
+
+        // Then
+        assertEquals(1_000, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void drain_WithConcurrentProducers_ShouldDeliverEveryElementOnceInProducerOrder() throws Exception {
+        // Given: a small ring so producers keep hitting full and the indices wrap many times
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        long[] element = {producer, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        // When
+        int[] next = new int[producers];
+        long[] duplicatesOrGaps = new long[1];
+        int total = 0;
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (total < producers * perProducer && System.nanoTime() < deadline) {
+            int drained = buffer.drain(element -> {
+                int producer = (int) element[0];
+                if (element[1] != next[producer]) {
+                    duplicatesOrGaps[0]++;
+                }
+                next[producer] = (int) element[1] + 1;
+            }, 256);
+            if (drained == 0) {
+                Thread.yield();
+            }
+            total += drained;
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, total);
+        assertEquals(0, duplicatesOrGaps[0]);
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, next[p]);
+        }
+        assertEquals(0, buffer.size());
+    }
+}
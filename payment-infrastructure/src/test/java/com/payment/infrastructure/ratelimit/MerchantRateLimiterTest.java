@@ -0,0 +1,134 @@
+package com.payment.infrastructure.ratelimit;
+
+import com.payment.common.exception.MerchantRateLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MerchantRateLimiter leasing against a stubbed lease script
+ *
+ * The tier admits 100/s with a 100 ms lease window, so blocks are 10 tokens. The stub
+ * completes each lease synchronously, which makes the order of leases and rejections exact.
+ */
+class MerchantRateLimiterTest {
+
+    private static final String MERCHANT = "MERCHANT-1";
+
+    /**
+     * One evalAsync call on the lease script
+     */
+    private record ScriptCall(RScript.Mode mode, String script, RScript.ReturnType returnType,
+                              List<Object> keys, List<Object> values) {
+    }
+
+    private final List<ScriptCall> calls = new ArrayList<>();
+
+    @Test
+    void acquire_LeaseGranted_ShouldAskScriptForNextBlockOfMerchantBucket() {
+        // Given
+        MerchantRateLimiter limiter = limiter(() -> CompletableFuture.completedFuture(10L));
+
+        // When: three blocks' worth, each lease granted in full
+        for (int i = 0; i < 30; i++) {
+            limiter.acquire(MERCHANT);
+        }
+
+        // Then: leased once half of each block was gone
+        assertFalse(calls.isEmpty());
+        ScriptCall call = calls.get(0);
+        assertEquals(RScript.Mode.READ_WRITE, call.mode());
+        assertEquals(RScript.ReturnType.INTEGER, call.returnType());
+        assertTrue(call.script().contains("redis.call('TIME')"));
+        assertEquals(List.of("payment:ratelimit:bucket:" + MERCHANT), call.keys());
+        // tokens per millisecond, burst, block
+        assertEquals(List.of("0.1", "200", "10"), call.values());
+    }
+
+    @Test
+    void acquire_ClusterBucketDrained_ShouldRejectOnceLocalBlockIsSpent() {
+        // Given: the script grants nothing
+        MerchantRateLimiter limiter = limiter(() -> CompletableFuture.completedFuture(0L));
+
+        // When: the provisional block is spent
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(MERCHANT);
+        }
+        MerchantRateLimitException e = assertThrows(MerchantRateLimitException.class,
+            () -> limiter.acquire(MERCHANT));
+
+        // Then: no second lease before the cluster bucket has refilled a block (100 ms)
+        assertEquals(429, e.getHttpStatus());
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void acquire_RedisFails_ShouldFailOpenWithOneLocalBlock() {
+        // Given
+        MerchantRateLimiter limiter = limiter(
+            () -> CompletableFuture.failedFuture(new IllegalStateException("connection refused")));
+
+        // When: the provisional block plus the fail-open block
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(MERCHANT);
+        }
+
+        // Then: admitted locally, but still bounded until the retry a second later
+        assertThrows(MerchantRateLimitException.class, () -> limiter.acquire(MERCHANT));
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void acquire_FirstRequestOfMerchant_ShouldBeAdmittedWithoutRedis() {
+        // Given: a script that would fail the test if it was consulted before the provisional block ran low
+        MerchantRateLimiter limiter = limiter(() -> {
+            throw new AssertionError("leased too early");
+        });
+
+        // When / Then
+        for (int i = 0; i < 4; i++) {
+            assertDoesNotThrow(() -> limiter.acquire(MERCHANT));
+        }
+        assertEquals(0, calls.size());
+    }
+
+    private MerchantRateLimiter limiter(Supplier<CompletableFuture<Long>> leases) {
+        RScript script = (RScript) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {RScript.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("evalAsync") || args.length != 5) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                @SuppressWarnings("unchecked")
+                List<Object> keys = (List<Object>) args[3];
+                calls.add(new ScriptCall((RScript.Mode) args[0], (String) args[1], (RScript.ReturnType) args[2],
+                    keys, Arrays.asList((Object[]) args[4])));
+                return new CompletableFutureWrapper<>(leases.get());
+            });
+        RedissonClient redisson = (RedissonClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {RedissonClient.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("getScript")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                return script;
+            });
+        return new MerchantRateLimiter(redisson, true, Duration.ofMillis(100),
+            Map.of("standard", new RateLimitTier("standard", 100, 200)), Map.of(), "standard",
+            new SimpleMeterRegistry());
+    }
+}
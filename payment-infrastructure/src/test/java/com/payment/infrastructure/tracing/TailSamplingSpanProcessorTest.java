@@ -0,0 +1,97 @@
+package com.payment.infrastructure.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TailSamplingSpanProcessor decisions, including spans that end after them
+ */
+class TailSamplingSpanProcessorTest {
+
+    private final List<String> exported = new CopyOnWriteArrayList<>();
+    private SdkTracerProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        if (provider != null) {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    void onEnd_ChildEndingAfterDroppedRoot_ShouldBeDroppedToo() {
+        // Given: the root is neither slow nor errored and the baseline keeps nothing
+        Tracer tracer = tracer(0.0);
+        Span root = tracer.spanBuilder("root").setNoParent().startSpan();
+        Span child = tracer.spanBuilder("late-child").setParent(Context.root().with(root)).startSpan();
+        child.setStatus(StatusCode.ERROR);
+
+        // When: shutdown decides whatever is still pending
+        root.end();
+        child.end();
+        provider.shutdown();
+
+        // Then: the errored late child did not start a trace of its own and get exported without its root
+        assertEquals(List.of(), exported);
+    }
+
+    @Test
+    void onEnd_ChildEndingAfterKeptRoot_ShouldBeExportedStraightAway() {
+        // Given: the baseline keeps everything
+        Tracer tracer = tracer(1.0);
+        Span root = tracer.spanBuilder("root").setNoParent().startSpan();
+        Span early = tracer.spanBuilder("early-child").setParent(Context.root().with(root)).startSpan();
+        Span late = tracer.spanBuilder("late-child").setParent(Context.root().with(root)).startSpan();
+
+        // When
+        early.end();
+        root.end();
+        late.end();
+
+        // Then
+        assertEquals(List.of("early-child", "root", "late-child"), exported);
+    }
+
+    private Tracer tracer(double baselineRatio) {
+        TailSamplingSpanProcessor processor = new TailSamplingSpanProcessor(new RecordingProcessor(),
+            60_000, baselineRatio, 60_000, 100, 16, 60_000, 1_000, new SimpleMeterRegistry());
+        provider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        return provider.get("test");
+    }
+
+    private final class RecordingProcessor implements SpanProcessor {
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            exported.add(span.getName());
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+    }
+}
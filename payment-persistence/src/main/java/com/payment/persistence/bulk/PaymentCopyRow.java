@@ -0,0 +1,23 @@
+package com.payment.persistence.bulk;
+
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * One already-validated payment row for COPY based bulk loading
+ * Metadata is kept as raw JSON text so it is never parsed into a map and back
+ */
+public record PaymentCopyRow(
+    String idempotencyKey,
+    PaymentStatus status,
+    Money amount,
+    String merchantId,
+    String customerId,
+    String paymentMethod,
+    String description,
+    String metadataJson,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,102 @@
+package com.payment.persistence.entity;
+
+import com.payment.common.enums.IngestJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bulk ingest job entity
+ * Tracks how far a CSV file has been loaded so a failed job can resume
+ */
+@Entity
+@Table(name = "ingest_jobs", indexes = {
+    @Index(name = "idx_ingest_jobs_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    /**
+     * Absolute path of the source file on the ingesting node
+     */
+    @Column(name = "file_path", nullable = false, length = 1000)
+    private String filePath;
+
+    /**
+     * File size when the job was started, used to detect a replaced file on resume
+     */
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private IngestJobStatus status;
+
+    /**
+     * Byte offset up to which rows are committed
+     * Advanced in the same transaction as the rows it covers
+     */
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    @Column(name = "rows_read", nullable = false)
+    private long rowsRead;
+
+    @Column(name = "rows_loaded", nullable = false)
+    private long rowsLoaded;
+
+    /**
+     * Rows skipped because the idempotency key already exists
+     */
+    @Column(name = "rows_duplicate", nullable = false)
+    private long rowsDuplicate;
+
+    /**
+     * Rows that failed validation
+     */
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    /**
+     * Length of the rejects file up to the committed offset
+     * A chunk's rejects are written before the chunk commits, so anything past this
+     * belongs to a chunk that did not commit; null for jobs older than the column
+     */
+    @Column(name = "rejects_offset")
+    private Long rejectsOffset;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
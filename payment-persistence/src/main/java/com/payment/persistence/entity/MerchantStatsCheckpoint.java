@@ -0,0 +1,61 @@
+package com.payment.persistence.entity;
+
+import com.payment.persistence.stats.MerchantStatsEntry;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoint of the per-merchant stats read model
+ * Counters are consistent with the offsets: they include every event before them
+ */
+@Entity
+@Table(name = "merchant_stats_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantStatsCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "checkpoint_id")
+    private Long checkpointId;
+
+    /**
+     * Node that wrote the checkpoint
+     */
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "counters", nullable = false, columnDefinition = "jsonb")
+    private List<MerchantStatsEntry> counters;
+
+    /**
+     * Next offset to read per payment-events partition (JSON keys are strings)
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "partition_offsets", nullable = false, columnDefinition = "jsonb")
+    private Map<String, Long> partitionOffsets;
+
+    /**
+     * Epoch millis to seek partitions without an offset to
+     */
+    @Column(name = "replay_from", nullable = false)
+    private long replayFrom;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
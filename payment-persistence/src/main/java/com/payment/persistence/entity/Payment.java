@@ -2,6 +2,7 @@ package com.payment.persistence.entity;
 
 import com.payment.common.enums.Currency;
 import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -125,6 +126,20 @@ public class Payment {
     @Column(name = "version")
     private Long version;
 
+    /**
+     * Amount and currency as {@link Money}
+     * The NUMERIC amount column is the only place the decimal form is kept; every stored
+     * amount fits its currency's minor units (V8 checks JPY rows are whole yen)
+     */
+    public Money getMoney() {
+        return Money.of(amount, currency);
+    }
+
+    public void setMoney(Money money) {
+        this.amount = money.toBigDecimal();
+        this.currency = money.currency();
+    }
+
     /**
      * Automatically set timestamps before persist
      */
@@ -0,0 +1,39 @@
+package com.payment.persistence.entity;
+
+import com.payment.common.enums.PaymentTimerAction;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Timed transition of a payment, at most one per action
+ */
+@Entity
+@Table(name = "payment_timers", indexes = {
+    @Index(name = "idx_payment_timers_due_at", columnList = "due_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_payment_timers_payment_action", columnNames = {"payment_id", "action"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentTimer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "timer_id")
+    private Long timerId;
+
+    @Column(name = "payment_id", nullable = false, length = 36)
+    private String paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", nullable = false, length = 20)
+    private PaymentTimerAction action;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+}
@@ -0,0 +1,64 @@
+package com.payment.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where and how a merchant receives payment status callbacks
+ */
+@Entity
+@Table(name = "webhook_endpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEndpoint {
+
+    @Id
+    @Column(name = "merchant_id", length = 100)
+    private String merchantId;
+
+    @Column(name = "url", nullable = false, length = 2000)
+    private String url;
+
+    /**
+     * HMAC-SHA256 key of the signature header
+     */
+    @Column(name = "secret", nullable = false)
+    private String secret;
+
+    /**
+     * Events per callback; 1 sends every event on its own
+     */
+    @Column(name = "batch_size", nullable = false)
+    private int batchSize;
+
+    /**
+     * Callbacks in flight to this merchant at once, per node
+     */
+    @Column(name = "max_concurrency", nullable = false)
+    private int maxConcurrency;
+
+    @Column(name = "enabled", nullable = false)
+    private boolean enabled;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
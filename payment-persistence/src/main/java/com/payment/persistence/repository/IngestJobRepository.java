@@ -0,0 +1,20 @@
+package com.payment.persistence.repository;
+
+import com.payment.common.enums.IngestJobStatus;
+import com.payment.persistence.entity.IngestJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for bulk ingest jobs
+ */
+@Repository
+public interface IngestJobRepository extends JpaRepository<IngestJob, String> {
+
+    /**
+     * Find jobs by status (e.g. RUNNING jobs left behind by a crashed node)
+     */
+    List<IngestJob> findByStatus(IngestJobStatus status);
+}
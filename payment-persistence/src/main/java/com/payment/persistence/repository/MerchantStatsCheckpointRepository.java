@@ -0,0 +1,33 @@
+package com.payment.persistence.repository;
+
+import com.payment.persistence.entity.MerchantStatsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for merchant stats checkpoints
+ */
+@Repository
+public interface MerchantStatsCheckpointRepository extends JpaRepository<MerchantStatsCheckpoint, Long> {
+
+    /**
+     * Latest checkpoint written by any node
+     */
+    Optional<MerchantStatsCheckpoint> findFirstByOrderByCheckpointIdDesc();
+
+    /**
+     * Drop checkpoints a node has superseded and those too old to restore from
+     */
+    @Modifying
+    @Query("DELETE FROM MerchantStatsCheckpoint c " +
+           "WHERE (c.nodeId = :nodeId AND c.checkpointId < :latestId) OR c.createdAt < :cutoff")
+    int deleteSuperseded(@Param("nodeId") String nodeId,
+                         @Param("latestId") Long latestId,
+                         @Param("cutoff") LocalDateTime cutoff);
+}
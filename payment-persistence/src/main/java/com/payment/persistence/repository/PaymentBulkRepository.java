@@ -0,0 +1,22 @@
+package com.payment.persistence.repository;
+
+import com.payment.persistence.bulk.PaymentCopyRow;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for payments that bypass the entity lifecycle
+ * Implemented with the PostgreSQL COPY protocol
+ */
+public interface PaymentBulkRepository {
+
+    /**
+     * Load rows into payments and write one PAYMENT_IMPORTED event per inserted payment
+     * Rows whose idempotency key already exists are skipped
+     * Must run inside a transaction
+     *
+     * @param rows Validated rows, unique by idempotency key
+     * @return Number of payments actually inserted
+     */
+    int copyInPayments(List<PaymentCopyRow> rows);
+}
@@ -0,0 +1,135 @@
+package com.payment.persistence.repository;
+
+import com.payment.persistence.bulk.PaymentCopyRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * COPY based implementation of {@link PaymentBulkRepository}
+ *
+ * Rows are streamed as CSV into a session-local staging table, then moved into
+ * payments with ON CONFLICT (idempotency_key) DO NOTHING. Events are written from
+ * the RETURNING set so only rows that were really inserted get an audit event.
+ */
+public class PaymentBulkRepositoryImpl implements PaymentBulkRepository {
+
+    private static final String CREATE_STAGING_SQL =
+        "CREATE TEMP TABLE IF NOT EXISTS payments_ingest_staging (" +
+        "idempotency_key VARCHAR(255), status VARCHAR(20), amount NUMERIC(19, 2), currency VARCHAR(3), " +
+        "merchant_id VARCHAR(100), customer_id VARCHAR(100), payment_method VARCHAR(50), " +
+        "description VARCHAR(500), metadata JSONB, created_at TIMESTAMP, completed_at TIMESTAMP" +
+        ") ON COMMIT DELETE ROWS";
+
+    private static final String COPY_STAGING_SQL =
+        "COPY payments_ingest_staging (idempotency_key, status, amount, currency, merchant_id, " +
+        "customer_id, payment_method, description, metadata, created_at, completed_at) " +
+        "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_SQL =
+        "WITH inserted AS (" +
+        "  INSERT INTO payments (idempotency_key, status, amount, currency, merchant_id, customer_id, " +
+        "    payment_method, description, metadata, created_at, updated_at, completed_at) " +
+        "  SELECT idempotency_key, status, amount, currency, merchant_id, customer_id, " +
+        "    payment_method, description, metadata, created_at, created_at, completed_at " +
+        "  FROM payments_ingest_staging " +
+        "  ON CONFLICT (idempotency_key) DO NOTHING " +
+        "  RETURNING payment_id, status" +
+        ") " +
+        "INSERT INTO payment_events (payment_id, event_type, previous_status, new_status, event_data) " +
+        "SELECT payment_id, 'PAYMENT_IMPORTED', NULL, status, '{\"source\": \"bulk-ingest\"}'::jsonb " +
+        "FROM inserted";
+
+    // flush the CSV buffer to the server roughly every 64KB
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int copyInPayments(List<PaymentCopyRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            copyToStaging(connection, rows);
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate(MERGE_SQL);
+            }
+        });
+    }
+
+    private void copyToStaging(Connection connection, List<PaymentCopyRow> rows) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+            for (PaymentCopyRow row : rows) {
+                appendRow(buffer, row);
+                if (buffer.length() >= FLUSH_THRESHOLD) {
+                    write(copyIn, buffer);
+                }
+            }
+            write(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void appendRow(StringBuilder buffer, PaymentCopyRow row) {
+        appendField(buffer, row.idempotencyKey()).append(',');
+        appendField(buffer, row.status().name()).append(',');
+        row.amount().appendTo(buffer).append(',');
+        appendField(buffer, row.amount().currency().name()).append(',');
+        appendField(buffer, row.merchantId()).append(',');
+        appendField(buffer, row.customerId()).append(',');
+        appendField(buffer, row.paymentMethod()).append(',');
+        appendField(buffer, row.description()).append(',');
+        appendField(buffer, row.metadataJson()).append(',');
+        buffer.append(row.createdAt()).append(',');
+        if (row.status().isTerminal()) {
+            buffer.append(row.createdAt());
+        }
+        buffer.append('\n');
+    }
+
+    /**
+     * Append a CSV field; null becomes an unquoted empty field which COPY reads as NULL
+     */
+    private StringBuilder appendField(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+}
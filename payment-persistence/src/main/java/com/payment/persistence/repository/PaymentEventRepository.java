@@ -1,9 +1,12 @@
 package com.payment.persistence.repository;
 
+import com.payment.common.enums.PaymentStatus;
 import com.payment.persistence.entity.PaymentEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -34,4 +37,21 @@ public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Stri
      * Find events for a payment with pagination
      */
     Page<PaymentEvent> findByPaymentId(String paymentId, Pageable pageable);
+
+    /**
+     * Status transitions recorded since a point in time
+     * Used to seed the merchant stats de-duplication window on rebuild
+     */
+    @Query("SELECT e.paymentId AS paymentId, e.newStatus AS newStatus FROM PaymentEvent e " +
+           "WHERE e.eventTimestamp >= :since")
+    List<StatusTransition> findTransitionsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Payment ID and status reached by one event
+     */
+    interface StatusTransition {
+        String getPaymentId();
+
+        PaymentStatus getNewStatus();
+    }
 }
@@ -0,0 +1,29 @@
+package com.payment.persistence.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Claiming of stuck payments for the recovery sweeper
+ * Both queries are served by the partial index on unfinished payments
+ */
+public interface PaymentRecoveryRepository {
+
+    /**
+     * Claim the oldest PENDING / PROCESSING payments not updated since staleBefore
+     * Rows locked by another transaction (in processing, or claimed by another node) are
+     * skipped; claimed rows get updated_at = claimedAt, so nobody claims them again until
+     * they are stale once more
+     *
+     * @param staleBefore Claim payments last updated before this time
+     * @param claimedAt Claim time written to updated_at
+     * @param limit Maximum number of payments to claim
+     * @return Claimed payment IDs
+     */
+    List<String> claimStale(LocalDateTime staleBefore, LocalDateTime claimedAt, int limit);
+
+    /**
+     * Count PENDING / PROCESSING payments not updated since staleBefore
+     */
+    long countStale(LocalDateTime staleBefore);
+}
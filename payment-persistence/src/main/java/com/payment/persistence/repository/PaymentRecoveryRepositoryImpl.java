@@ -0,0 +1,72 @@
+package com.payment.persistence.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SKIP LOCKED implementation of {@link PaymentRecoveryRepository}
+ *
+ * The status list is written out literally (not bound) so the planner can match it
+ * against the predicate of idx_payments_unfinished_updated_at.
+ */
+public class PaymentRecoveryRepositoryImpl implements PaymentRecoveryRepository {
+
+    private static final String CLAIM_SQL =
+        "WITH claimed AS (" +
+        "  SELECT payment_id FROM payments " +
+        "  WHERE status IN ('PENDING', 'PROCESSING') AND updated_at < ? " +
+        "  ORDER BY updated_at LIMIT ? " +
+        "  FOR UPDATE SKIP LOCKED" +
+        ") " +
+        "UPDATE payments p SET updated_at = ? FROM claimed " +
+        "WHERE p.payment_id = claimed.payment_id " +
+        "RETURNING p.payment_id";
+
+    private static final String COUNT_SQL =
+        "SELECT COUNT(*) FROM payments WHERE status IN ('PENDING', 'PROCESSING') AND updated_at < ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<String> claimStale(LocalDateTime staleBefore, LocalDateTime claimedAt, int limit) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<String> paymentIds = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                statement.setTimestamp(1, Timestamp.valueOf(staleBefore));
+                statement.setInt(2, limit);
+                statement.setTimestamp(3, Timestamp.valueOf(claimedAt));
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        paymentIds.add(rs.getString(1));
+                    }
+                }
+            }
+            return paymentIds;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countStale(LocalDateTime staleBefore) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(COUNT_SQL)) {
+                statement.setTimestamp(1, Timestamp.valueOf(staleBefore));
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+    }
+}
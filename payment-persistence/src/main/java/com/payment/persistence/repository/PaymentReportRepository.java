@@ -0,0 +1,42 @@
+package com.payment.persistence.repository;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.persistence.stats.MerchantStatsEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Streaming scan of payments for the reporting engine
+ * Rows are pushed to a callback as primitives, no entity is materialised
+ */
+public interface PaymentReportRepository {
+
+    /**
+     * Receives one payment row
+     */
+    @FunctionalInterface
+    interface ReportRowHandler {
+
+        /**
+         * @param merchantId Merchant ID
+         * @param currency Currency
+         * @param status Current status
+         * @param amountMinor Amount in minor units of the currency
+         * @param createdAtMillis Creation time, epoch millis (UTC)
+         */
+        void accept(String merchantId, Currency currency, PaymentStatus status, long amountMinor, long createdAtMillis);
+    }
+
+    /**
+     * Stream payments created in [from, to), optionally for one merchant
+     * Must run inside a (read-only) transaction so the driver can use a cursor
+     */
+    void scanForReport(LocalDateTime from, LocalDateTime to, String merchantId, ReportRowHandler handler);
+
+    /**
+     * Payment count and amount total per merchant, currency and current status
+     */
+    List<MerchantStatsEntry> merchantTotals();
+}
@@ -0,0 +1,104 @@
+package com.payment.persistence.repository;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.persistence.stats.MerchantStatsEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC cursor implementation of {@link PaymentReportRepository}
+ *
+ * Amounts are read as integer cents (the column is NUMERIC(19, 2)) and scaled down to
+ * the currency's minor units, so no BigDecimal is created per row.
+ */
+public class PaymentReportRepositoryImpl implements PaymentReportRepository {
+
+    private static final String SCAN_SQL =
+        "SELECT merchant_id, currency, status, (amount * 100)::bigint AS amount_cents, " +
+        "(EXTRACT(EPOCH FROM created_at) * 1000)::bigint AS created_millis " +
+        "FROM payments WHERE created_at >= ? AND created_at < ?";
+
+    private static final String TOTALS_SQL =
+        "SELECT merchant_id, currency, status, COUNT(*), SUM((amount * 100)::bigint) " +
+        "FROM payments GROUP BY merchant_id, currency, status";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void scanForReport(LocalDateTime from, LocalDateTime to, String merchantId, ReportRowHandler handler) {
+        String sql = merchantId == null ? SCAN_SQL : SCAN_SQL + " AND merchant_id = ?";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setTimestamp(1, Timestamp.valueOf(from));
+                statement.setTimestamp(2, Timestamp.valueOf(to));
+                if (merchantId != null) {
+                    statement.setString(3, merchantId);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        Currency currency = currency(rs.getString(2));
+                        handler.accept(rs.getString(1), currency, status(rs.getString(3)),
+                            toMinorUnits(rs.getLong(4), currency), rs.getLong(5));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<MerchantStatsEntry> merchantTotals() {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<MerchantStatsEntry> entries = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(TOTALS_SQL)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        Currency currency = currency(rs.getString(2));
+                        entries.add(new MerchantStatsEntry(rs.getString(1), currency, status(rs.getString(3)),
+                            rs.getLong(4), toMinorUnits(rs.getLong(5), currency)));
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    private static long toMinorUnits(long cents, Currency currency) {
+        return currency.getFractionDigits() == 2 ? cents : cents / 100;
+    }
+
+    // enum valueOf without the exception path; the column only holds known names
+    private static Currency currency(String name) {
+        for (Currency currency : CURRENCIES) {
+            if (currency.name().equals(name)) {
+                return currency;
+            }
+        }
+        throw new IllegalStateException("Unknown currency in payments: " + name);
+    }
+
+    private static PaymentStatus status(String name) {
+        for (PaymentStatus status : STATUSES) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        throw new IllegalStateException("Unknown status in payments: " + name);
+    }
+}
@@ -3,23 +3,31 @@ package com.payment.persistence.repository;
 import com.payment.common.enums.PaymentStatus;
 import com.payment.persistence.entity.Payment;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for Payment entity
  * Includes custom queries with pessimistic locking for concurrent updates
+ * COPY based bulk loading (see {@link PaymentBulkRepository}), a streaming
+ * scan for reporting (see {@link PaymentReportRepository}) and SKIP LOCKED claiming
+ * of stuck payments (see {@link PaymentRecoveryRepository})
  */
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>,
+        PaymentBulkRepository, PaymentReportRepository, PaymentRecoveryRepository {
 
     /**
      * Find payment by idempotency key
@@ -85,4 +93,23 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
      * Check if idempotency key exists
      */
     boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Payments with the given IDs, in no particular order; unknown IDs are left out
+     * With in_clause_parameter_padding the IN list is padded to the next power of two,
+     * so lookups of any size share a few statement plans
+     */
+    @Query("SELECT p FROM Payment p WHERE p.paymentId IN :paymentIds")
+    List<Payment> findAllByPaymentIdIn(@Param("paymentIds") Collection<String> paymentIds);
+
+    /**
+     * Lock the given payments that are still in a status, skipping rows another
+     * transaction holds (e.g. a payment being processed)
+     * Lock timeout -2 is Hibernate's SKIP LOCKED
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM Payment p WHERE p.paymentId IN :paymentIds AND p.status = :status")
+    List<Payment> findAllByIdAndStatusSkipLocked(@Param("paymentIds") Collection<String> paymentIds,
+                                                 @Param("status") PaymentStatus status);
 }
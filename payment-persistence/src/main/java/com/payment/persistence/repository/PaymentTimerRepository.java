@@ -0,0 +1,68 @@
+package com.payment.persistence.repository;
+
+import com.payment.common.enums.PaymentTimerAction;
+import com.payment.persistence.entity.PaymentTimer;
+import com.payment.persistence.timer.DueTimer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for payment timers
+ */
+@Repository
+public interface PaymentTimerRepository extends JpaRepository<PaymentTimer, Long> {
+
+    /**
+     * Insert a timer, or move an existing one for the same payment and action
+     *
+     * @param action {@link PaymentTimerAction} name
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO payment_timers (payment_id, action, due_at) VALUES (:paymentId, :action, :dueAt) " +
+                   "ON CONFLICT (payment_id, action) DO UPDATE SET due_at = EXCLUDED.due_at",
+           nativeQuery = true)
+    int upsert(@Param("paymentId") String paymentId,
+               @Param("action") String action,
+               @Param("dueAt") LocalDateTime dueAt);
+
+    /**
+     * Keyset page of all timers, for reloading the wheel
+     */
+    @Query("SELECT new com.payment.persistence.timer.DueTimer(t.timerId, t.paymentId, t.action, t.dueAt) " +
+           "FROM PaymentTimer t WHERE t.timerId > :afterId ORDER BY t.timerId")
+    List<DueTimer> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Oldest timers due before the given time
+     */
+    @Query("SELECT new com.payment.persistence.timer.DueTimer(t.timerId, t.paymentId, t.action, t.dueAt) " +
+           "FROM PaymentTimer t WHERE t.dueAt < :before ORDER BY t.dueAt")
+    List<DueTimer> findDueBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Drop every timer of a payment
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentTimer t WHERE t.paymentId = :paymentId")
+    int deleteByPaymentId(@Param("paymentId") String paymentId);
+
+    /**
+     * Drop timers that have fired
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentTimer t WHERE t.action = :action AND t.paymentId IN :paymentIds")
+    int deleteFired(@Param("action") PaymentTimerAction action,
+                    @Param("paymentIds") Collection<String> paymentIds);
+}
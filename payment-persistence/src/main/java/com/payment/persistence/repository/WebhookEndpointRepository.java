@@ -0,0 +1,16 @@
+package com.payment.persistence.repository;
+
+import com.payment.persistence.entity.WebhookEndpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for merchant webhook endpoints
+ */
+@Repository
+public interface WebhookEndpointRepository extends JpaRepository<WebhookEndpoint, String> {
+
+    List<WebhookEndpoint> findByEnabledTrue();
+}
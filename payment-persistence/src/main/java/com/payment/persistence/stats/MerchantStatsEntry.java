@@ -0,0 +1,18 @@
+package com.payment.persistence.stats;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+
+/**
+ * Payment count and amount total of one merchant, currency and status
+ *
+ * @param amountMinor Total amount in minor units of the currency
+ */
+public record MerchantStatsEntry(
+    String merchantId,
+    Currency currency,
+    PaymentStatus status,
+    long count,
+    long amountMinor
+) {
+}
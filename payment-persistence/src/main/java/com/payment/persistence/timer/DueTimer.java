@@ -0,0 +1,16 @@
+package com.payment.persistence.timer;
+
+import com.payment.common.enums.PaymentTimerAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of payment_timers, read without materialising an entity
+ */
+public record DueTimer(
+    long timerId,
+    String paymentId,
+    PaymentTimerAction action,
+    LocalDateTime dueAt
+) {
+}
@@ -0,0 +1,250 @@
+package com.payment.persistence.webhook;
+
+import com.payment.common.enums.Currency;
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link WebhookDeliveryStore} on webhook_deliveries with plain JDBC
+ *
+ * Batches are bound as arrays and expanded with unnest, so a batch of any size is one
+ * statement and one round trip. Statuses and currencies are stored as their ordinals,
+ * which are stable (the payment-events wire format relies on them too).
+ */
+public class JdbcWebhookDeliveryStore implements WebhookDeliveryStore {
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private static final String INSERT_SQL =
+        "INSERT INTO webhook_deliveries (payment_id, merchant_id, previous_status, status, " +
+        "  amount_minor, currency, occurred_at, lease_until) " +
+        "SELECT t.payment_id, t.merchant_id, t.previous_status, t.status, t.amount_minor, t.currency, t.occurred_at, ? " +
+        "FROM unnest(?::varchar[], ?::varchar[], ?::smallint[], ?::smallint[], ?::bigint[], ?::smallint[], ?::bigint[]) " +
+        "  AS t(payment_id, merchant_id, previous_status, status, amount_minor, currency, occurred_at) " +
+        "WHERE EXISTS (SELECT 1 FROM webhook_endpoints e WHERE e.merchant_id = t.merchant_id AND e.enabled) " +
+        "ON CONFLICT (payment_id, status) DO NOTHING " +
+        "RETURNING delivery_id, payment_id, status";
+
+    private static final String DELETE_SQL =
+        "DELETE FROM webhook_deliveries WHERE delivery_id = ANY(?)";
+
+    private static final String ATTEMPTS_SQL =
+        "UPDATE webhook_deliveries d SET attempts = t.attempts " +
+        "FROM unnest(?::bigint[], ?::smallint[]) AS t(delivery_id, attempts) " +
+        "WHERE d.delivery_id = t.delivery_id";
+
+    private static final String DEAD_SQL =
+        "UPDATE webhook_deliveries d SET attempts = t.attempts, dead = TRUE " +
+        "FROM unnest(?::bigint[], ?::smallint[]) AS t(delivery_id, attempts) " +
+        "WHERE d.delivery_id = t.delivery_id";
+
+    private static final String RENEW_SQL =
+        "UPDATE webhook_deliveries SET lease_until = ? WHERE delivery_id = ANY(?) AND NOT dead";
+
+    private static final String CLAIM_SQL =
+        "WITH claimed AS (" +
+        "  SELECT delivery_id FROM webhook_deliveries " +
+        "  WHERE NOT dead AND lease_until < ? " +
+        "  ORDER BY lease_until LIMIT ? " +
+        "  FOR UPDATE SKIP LOCKED" +
+        ") " +
+        "UPDATE webhook_deliveries d SET lease_until = ? FROM claimed " +
+        "WHERE d.delivery_id = claimed.delivery_id " +
+        "RETURNING d.delivery_id, d.payment_id, d.merchant_id, d.previous_status, d.status, " +
+        "  d.amount_minor, d.currency, d.occurred_at, d.attempts";
+
+    @FunctionalInterface
+    private interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final SQLStateSQLExceptionTranslator translator = new SQLStateSQLExceptionTranslator();
+
+    public JdbcWebhookDeliveryStore(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<WebhookDelivery> insert(List<WebhookDelivery> deliveries, long leaseUntil) {
+        if (deliveries.isEmpty()) {
+            return List.of();
+        }
+        int size = deliveries.size();
+        String[] paymentIds = new String[size];
+        String[] merchantIds = new String[size];
+        Short[] previousStatuses = new Short[size];
+        Short[] statuses = new Short[size];
+        Long[] amounts = new Long[size];
+        Short[] currencies = new Short[size];
+        Long[] occurredAt = new Long[size];
+        for (int i = 0; i < size; i++) {
+            WebhookDelivery delivery = deliveries.get(i);
+            paymentIds[i] = delivery.paymentId();
+            merchantIds[i] = delivery.merchantId();
+            previousStatuses[i] = delivery.previousStatus() == null ? null : (short) delivery.previousStatus().ordinal();
+            statuses[i] = (short) delivery.status().ordinal();
+            amounts[i] = delivery.amount().minorUnits();
+            currencies[i] = (short) delivery.amount().currency().ordinal();
+            occurredAt[i] = delivery.occurredAt();
+        }
+
+        Map<String, Long> ids = execute("insert webhook deliveries", INSERT_SQL, connection -> {
+            Map<String, Long> inserted = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                statement.setLong(1, leaseUntil);
+                statement.setArray(2, connection.createArrayOf("varchar", paymentIds));
+                statement.setArray(3, connection.createArrayOf("varchar", merchantIds));
+                statement.setArray(4, connection.createArrayOf("int2", previousStatuses));
+                statement.setArray(5, connection.createArrayOf("int2", statuses));
+                statement.setArray(6, connection.createArrayOf("int8", amounts));
+                statement.setArray(7, connection.createArrayOf("int2", currencies));
+                statement.setArray(8, connection.createArrayOf("int8", occurredAt));
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        inserted.put(key(rs.getString(2), rs.getShort(3)), rs.getLong(1));
+                    }
+                }
+            }
+            return inserted;
+        });
+
+        List<WebhookDelivery> result = new ArrayList<>(ids.size());
+        for (WebhookDelivery delivery : deliveries) {
+            // remove: an event repeated within the batch was only inserted once
+            Long id = ids.remove(key(delivery.paymentId(), delivery.status().ordinal()));
+            if (id != null) {
+                result.add(delivery.withDeliveryId(id));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void delete(long[] deliveryIds) {
+        if (deliveryIds.length == 0) {
+            return;
+        }
+        execute("delete webhook deliveries", DELETE_SQL, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_SQL)) {
+                statement.setArray(1, longArray(connection, deliveryIds));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void recordAttempts(long[] deliveryIds, int[] attempts) {
+        updateAttempts("record webhook attempts", ATTEMPTS_SQL, deliveryIds, attempts);
+    }
+
+    @Override
+    public void markDead(long[] deliveryIds, int[] attempts) {
+        updateAttempts("mark webhook deliveries dead", DEAD_SQL, deliveryIds, attempts);
+    }
+
+    private void updateAttempts(String task, String sql, long[] deliveryIds, int[] attempts) {
+        if (deliveryIds.length == 0) {
+            return;
+        }
+        Short[] counts = new Short[attempts.length];
+        for (int i = 0; i < attempts.length; i++) {
+            counts[i] = (short) Math.min(attempts[i], Short.MAX_VALUE);
+        }
+        execute(task, sql, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setArray(1, longArray(connection, deliveryIds));
+                statement.setArray(2, connection.createArrayOf("int2", counts));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void renewLeases(long[] deliveryIds, long leaseUntil) {
+        if (deliveryIds.length == 0) {
+            return;
+        }
+        execute("renew webhook leases", RENEW_SQL, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(RENEW_SQL)) {
+                statement.setLong(1, leaseUntil);
+                statement.setArray(2, longArray(connection, deliveryIds));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public List<WebhookDelivery> claimExpired(long now, long leaseUntil, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<WebhookDelivery> claimed = execute("claim webhook deliveries", CLAIM_SQL, connection -> {
+            List<WebhookDelivery> rows = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(CLAIM_SQL)) {
+                statement.setLong(1, now);
+                statement.setInt(2, limit);
+                statement.setLong(3, leaseUntil);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        short previousStatus = rs.getShort(4);
+                        boolean created = rs.wasNull();
+                        rows.add(new WebhookDelivery(
+                            rs.getLong(1),
+                            rs.getString(2),
+                            rs.getString(3),
+                            created ? null : STATUSES[previousStatus],
+                            STATUSES[rs.getShort(5)],
+                            Money.of(rs.getLong(6), CURRENCIES[rs.getShort(7)]),
+                            rs.getLong(8),
+                            rs.getShort(9)));
+                    }
+                }
+            }
+            return rows;
+        });
+        claimed.sort(Comparator.comparingLong(WebhookDelivery::occurredAt).thenComparingLong(WebhookDelivery::deliveryId));
+        return claimed;
+    }
+
+    private <T> T execute(String task, String sql, Work<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            DataAccessException translated = translator.translate(task, sql, e);
+            throw translated != null ? translated : new UncategorizedSQLException(task, sql, e);
+        }
+    }
+
+    private static Array longArray(Connection connection, long[] values) throws SQLException {
+        return connection.createArrayOf("int8", Arrays.stream(values).boxed().toArray(Long[]::new));
+    }
+
+    private static String key(String paymentId, int status) {
+        return paymentId + ':' + status;
+    }
+}
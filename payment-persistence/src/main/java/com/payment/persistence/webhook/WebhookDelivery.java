@@ -0,0 +1,32 @@
+package com.payment.persistence.webhook;
+
+import com.payment.common.enums.PaymentStatus;
+import com.payment.common.money.Money;
+
+/**
+ * One row of webhook_deliveries: a status transition still to be sent to its merchant
+ *
+ * @param deliveryId 0 until inserted
+ * @param previousStatus Null when the payment was created
+ * @param occurredAt Epoch millis of the transition
+ * @param attempts Callbacks that failed so far
+ */
+public record WebhookDelivery(
+    long deliveryId,
+    String paymentId,
+    String merchantId,
+    PaymentStatus previousStatus,
+    PaymentStatus status,
+    Money amount,
+    long occurredAt,
+    int attempts
+) {
+
+    public WebhookDelivery withDeliveryId(long deliveryId) {
+        return new WebhookDelivery(deliveryId, paymentId, merchantId, previousStatus, status, amount, occurredAt, attempts);
+    }
+
+    public WebhookDelivery withAttempts(int attempts) {
+        return new WebhookDelivery(deliveryId, paymentId, merchantId, previousStatus, status, amount, occurredAt, attempts);
+    }
+}
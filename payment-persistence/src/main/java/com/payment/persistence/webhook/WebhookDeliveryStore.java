@@ -0,0 +1,47 @@
+package com.payment.persistence.webhook;
+
+import java.util.List;
+
+/**
+ * Durable state of webhook deliveries (the webhook_deliveries table)
+ *
+ * A node owns the rows it works on until their lease expires and keeps renewing it while
+ * they are queued; rows whose lease ran out (their node died, or it had no room for them)
+ * are claimed by any node. Every call is a single statement over the whole batch.
+ */
+public interface WebhookDeliveryStore {
+
+    /**
+     * Insert deliveries leased to the caller, for merchants with an enabled endpoint in
+     * webhook_endpoints; the others, and transitions that already have a row (a redelivered
+     * event), are skipped
+     *
+     * @return The inserted deliveries with their IDs, in input order
+     */
+    List<WebhookDelivery> insert(List<WebhookDelivery> deliveries, long leaseUntil);
+
+    /**
+     * Drop acknowledged deliveries
+     */
+    void delete(long[] deliveryIds);
+
+    /**
+     * Store the attempt counts of deliveries that failed and will be retried
+     */
+    void recordAttempts(long[] deliveryIds, int[] attempts);
+
+    /**
+     * Keep deliveries that ran out of attempts, without retrying them
+     */
+    void markDead(long[] deliveryIds, int[] attempts);
+
+    void renewLeases(long[] deliveryIds, long leaseUntil);
+
+    /**
+     * Take over the oldest deliveries whose lease expired before now, skipping rows locked by
+     * another claimer
+     *
+     * @return Claimed deliveries, oldest transition first
+     */
+    List<WebhookDelivery> claimExpired(long now, long leaseUntil, int limit);
+}
@@ -0,0 +1,23 @@
+-- V2__ingest_jobs.sql
+-- Progress tracking for bulk CSV ingest jobs
+
+CREATE TABLE ingest_jobs (
+    job_id VARCHAR(36) PRIMARY KEY DEFAULT uuid_generate_v4()::text,
+    file_path VARCHAR(1000) NOT NULL,
+    file_size BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    committed_offset BIGINT NOT NULL DEFAULT 0,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_loaded BIGINT NOT NULL DEFAULT 0,
+    rows_duplicate BIGINT NOT NULL DEFAULT 0,
+    rows_rejected BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_ingest_jobs_status ON ingest_jobs(status);
+
+COMMENT ON TABLE ingest_jobs IS 'Bulk ingest jobs with chunk-level progress for resume after failure';
+COMMENT ON COLUMN ingest_jobs.committed_offset IS 'Byte offset in the source file up to which rows are committed';
@@ -0,0 +1,17 @@
+-- V3__merchant_stats_checkpoints.sql
+-- Checkpoints of the in-memory per-merchant stats read model
+
+CREATE TABLE merchant_stats_checkpoints (
+    checkpoint_id BIGSERIAL PRIMARY KEY,
+    node_id VARCHAR(100) NOT NULL,
+    counters JSONB NOT NULL,
+    partition_offsets JSONB NOT NULL,
+    replay_from BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_merchant_stats_checkpoints_created_at ON merchant_stats_checkpoints(created_at DESC);
+
+COMMENT ON TABLE merchant_stats_checkpoints IS 'Per-merchant, per-status counters together with the payment-events offsets they include';
+COMMENT ON COLUMN merchant_stats_checkpoints.partition_offsets IS 'Next payment-events offset to read, per partition';
+COMMENT ON COLUMN merchant_stats_checkpoints.replay_from IS 'Epoch millis to seek partitions without an offset to';
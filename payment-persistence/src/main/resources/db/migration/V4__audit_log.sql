@@ -0,0 +1,25 @@
+-- V4__audit_log.sql
+-- Append-only API audit trail (payment.audit.sink = TABLE)
+
+CREATE TABLE audit_log (
+    audit_id BIGSERIAL PRIMARY KEY,
+    occurred_at TIMESTAMP NOT NULL,
+    method VARCHAR(10) NOT NULL,
+    uri VARCHAR(2000) NOT NULL,
+    status INTEGER NOT NULL,
+    duration_nanos BIGINT NOT NULL,
+    client_ip VARCHAR(100),
+    user_agent VARCHAR(500),
+    idempotency_key VARCHAR(255),
+    error VARCHAR(1000)
+);
+
+CREATE INDEX idx_audit_log_occurred_at ON audit_log(occurred_at);
+CREATE INDEX idx_audit_log_idempotency_key ON audit_log(idempotency_key) WHERE idempotency_key IS NOT NULL;
+
+-- Rows are never changed once written
+CREATE RULE audit_log_no_update AS ON UPDATE TO audit_log DO INSTEAD NOTHING;
+CREATE RULE audit_log_no_delete AS ON DELETE TO audit_log DO INSTEAD NOTHING;
+
+COMMENT ON TABLE audit_log IS 'Append-only audit trail of API requests';
+COMMENT ON COLUMN audit_log.duration_nanos IS 'Time from handler entry to request completion';
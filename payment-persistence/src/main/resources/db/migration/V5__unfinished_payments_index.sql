@@ -0,0 +1,9 @@
+-- V5__unfinished_payments_index.sql
+-- Partial index for the stuck-payment sweeper
+
+-- Only PENDING / PROCESSING rows are indexed, so the index stays as small as the
+-- in-flight set no matter how many finished payments the table holds
+CREATE INDEX idx_payments_unfinished_updated_at ON payments(updated_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+COMMENT ON INDEX idx_payments_unfinished_updated_at IS 'Stale unfinished payments, claimed by the recovery sweeper with FOR UPDATE SKIP LOCKED';
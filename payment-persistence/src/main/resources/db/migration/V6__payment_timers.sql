@@ -0,0 +1,21 @@
+-- V6__payment_timers.sql
+-- Durable copy of the in-memory payment timing wheel
+
+CREATE TABLE payment_timers (
+    timer_id BIGSERIAL PRIMARY KEY,
+    payment_id VARCHAR(36) NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    due_at TIMESTAMP NOT NULL,
+    CONSTRAINT uq_payment_timers_payment_action UNIQUE (payment_id, action)
+);
+
+CREATE INDEX idx_payment_timers_due_at ON payment_timers(due_at);
+
+ALTER TABLE payment_timers
+    ADD CONSTRAINT fk_payment_timers_payment
+    FOREIGN KEY (payment_id)
+    REFERENCES payments(payment_id)
+    ON DELETE CASCADE;
+
+COMMENT ON TABLE payment_timers IS 'Pending timed transitions, reloaded into the timing wheel on startup';
+COMMENT ON COLUMN payment_timers.action IS 'PaymentTimerAction, e.g. EXPIRE';
@@ -0,0 +1,37 @@
+-- V7__webhooks.sql
+-- Merchant webhook endpoints and the callbacks still to be delivered to them
+
+CREATE TABLE webhook_endpoints (
+    merchant_id VARCHAR(100) PRIMARY KEY,
+    url VARCHAR(2000) NOT NULL,
+    secret VARCHAR(255) NOT NULL,
+    batch_size INTEGER NOT NULL DEFAULT 1,
+    max_concurrency INTEGER NOT NULL DEFAULT 4,
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- narrow rows (statuses and currency as wire-format ordinals, times as epoch millis),
+-- deleted as soon as the callback is acknowledged
+CREATE TABLE webhook_deliveries (
+    delivery_id BIGSERIAL PRIMARY KEY,
+    payment_id VARCHAR(36) NOT NULL,
+    merchant_id VARCHAR(100) NOT NULL,
+    previous_status SMALLINT,
+    status SMALLINT NOT NULL,
+    amount_minor BIGINT NOT NULL,
+    currency SMALLINT NOT NULL,
+    occurred_at BIGINT NOT NULL,
+    attempts SMALLINT NOT NULL DEFAULT 0,
+    lease_until BIGINT NOT NULL,
+    dead BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uq_webhook_deliveries_payment_status UNIQUE (payment_id, status)
+);
+
+CREATE INDEX idx_webhook_deliveries_lease ON webhook_deliveries(lease_until) WHERE NOT dead;
+
+COMMENT ON TABLE webhook_endpoints IS 'Signed HTTP callbacks for payment status transitions, one endpoint per merchant';
+COMMENT ON COLUMN webhook_endpoints.batch_size IS 'Events per callback; 1 sends every event on its own';
+COMMENT ON TABLE webhook_deliveries IS 'Webhook outbox: pending callbacks, and dead ones that ran out of attempts';
+COMMENT ON COLUMN webhook_deliveries.lease_until IS 'Epoch millis until which a node owns the row; expired rows are claimed by any node';
@@ -0,0 +1,20 @@
+-- V8__whole_yen_amounts.sql
+-- JPY has no minor unit (ISO 4217 exponent 0)
+
+-- Amounts are read into Money, which refuses fractions of a yen. Stop the upgrade if any
+-- stored JPY amount has one, so those rows are corrected deliberately instead of rounded here:
+--   SELECT payment_id, amount FROM payments WHERE currency = 'JPY' AND amount <> trunc(amount);
+DO $$
+DECLARE
+    fractional BIGINT;
+BEGIN
+    SELECT count(*) INTO fractional FROM payments WHERE currency = 'JPY' AND amount <> trunc(amount);
+    IF fractional > 0 THEN
+        RAISE EXCEPTION '% JPY payments have fractional amounts; correct them before migrating', fractional;
+    END IF;
+END $$;
+
+ALTER TABLE payments ADD CONSTRAINT chk_payments_jpy_whole
+    CHECK (currency <> 'JPY' OR amount = trunc(amount));
+
+COMMENT ON CONSTRAINT chk_payments_jpy_whole ON payments IS 'JPY amounts are whole yen';
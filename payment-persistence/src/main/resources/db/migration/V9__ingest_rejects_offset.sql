@@ -0,0 +1,7 @@
+-- V9__ingest_rejects_offset.sql
+-- How much of a job's .rejects.csv file belongs to committed chunks
+
+-- NULL for jobs started before this column existed: their rejects file is kept as it is
+ALTER TABLE ingest_jobs ADD COLUMN rejects_offset BIGINT;
+
+COMMENT ON COLUMN ingest_jobs.rejects_offset IS 'Bytes of the rejects file written for committed chunks; a resumed job cuts the file back to this length';
@@ -0,0 +1,72 @@
+package com.payment.standin;
+
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the few RedissonClient calls the services make
+ *
+ * getMapCache returns a ConcurrentHashMap-backed RMapCache supporting get (and getAsync),
+ * putIfAbsent (TTL ignored), remove and clear; anything else throws. Measures the
+ * service's own cost without the network round trip. Used by the JMH suites and
+ * the standin profile.
+ */
+public final class InMemoryRedisson {
+
+    private InMemoryRedisson() {
+    }
+
+    public static RedissonClient create() {
+        Map<String, Map<Object, Object>> maps = new ConcurrentHashMap<>();
+        return (RedissonClient) Proxy.newProxyInstance(
+            InMemoryRedisson.class.getClassLoader(),
+            new Class<?>[] {RedissonClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getMapCache" -> mapCache(maps.computeIfAbsent((String) args[0], name -> new ConcurrentHashMap<>()));
+                case "shutdown" -> null;
+                case "toString" -> "InMemoryRedisson";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * Connection factory that never connects
+     * Present only so the Redisson starter does not build its own factory around the
+     * stand-in client (it requires a real Redisson instance)
+     */
+    public static RedisConnectionFactory connectionFactory() {
+        return (RedisConnectionFactory) Proxy.newProxyInstance(
+            InMemoryRedisson.class.getClassLoader(),
+            new Class<?>[] {RedisConnectionFactory.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "toString" -> "InMemoryRedisson.connectionFactory";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException("Redis is not available in the standin profile");
+            });
+    }
+
+    private static RMapCache<?, ?> mapCache(Map<Object, Object> map) {
+        return (RMapCache<?, ?>) Proxy.newProxyInstance(
+            InMemoryRedisson.class.getClassLoader(),
+            new Class<?>[] {RMapCache.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "get" -> map.get(args[0]);
+                case "getAsync" -> new CompletableFutureWrapper<>(map.get(args[0]));
+                case "putIfAbsent" -> map.putIfAbsent(args[0], args[1]);
+                case "remove" -> map.remove(args[0]);
+                case "clear" -> {
+                    map.clear();
+                    yield null;
+                }
+                case "size" -> map.size();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,65 @@
+package com.payment.standin;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer that serializes every record and acknowledges it immediately
+ *
+ * Keeps the serialization cost of a real send but no broker, no batching and no
+ * history (MockProducer keeps every record and synchronizes send, neither of which
+ * survives a load test). One instance is shared by all sends, so close is a no-op.
+ */
+public class InProcessKafkaProducer extends MockProducer<String, Object> {
+
+    private final Serializer<String> keySerializer;
+    private final Serializer<Object> valueSerializer;
+    private final int partitions;
+    private final AtomicLong offsets = new AtomicLong();
+
+    public InProcessKafkaProducer(Serializer<String> keySerializer, Serializer<Object> valueSerializer, int partitions) {
+        super(true, keySerializer, valueSerializer);
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, Object> record) {
+        return send(record, null);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+        byte[] key = keySerializer.serialize(record.topic(), record.headers(), record.key());
+        byte[] value = valueSerializer.serialize(record.topic(), record.headers(), record.value());
+        int partition = record.partition() != null ? record.partition()
+            : key == null ? 0 : Utils.toPositive(Utils.murmur2(key)) % partitions;
+
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), partition),
+            offsets.getAndIncrement(), 0, System.currentTimeMillis(),
+            key == null ? -1 : key.length, value == null ? -1 : value.length);
+        if (callback != null) {
+            callback.onCompletion(metadata, null);
+        }
+        return CompletableFuture.completedFuture(metadata);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void close(Duration timeout) {
+    }
+}
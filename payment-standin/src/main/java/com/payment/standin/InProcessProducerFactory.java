@@ -0,0 +1,21 @@
+package com.payment.standin;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.springframework.kafka.core.ProducerFactory;
+
+/**
+ * Hands out the one shared {@link InProcessKafkaProducer}
+ */
+public class InProcessProducerFactory implements ProducerFactory<String, Object> {
+
+    private final InProcessKafkaProducer producer;
+
+    public InProcessProducerFactory(InProcessKafkaProducer producer) {
+        this.producer = producer;
+    }
+
+    @Override
+    public Producer<String, Object> createProducer() {
+        return producer;
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.standin;
+
+import com.payment.core.service.PaymentGatewayService;
+import com.payment.infrastructure.config.KafkaConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+/**
+ * In-process stand-ins for Redis, Kafka and the payment gateway
+ *
+ * Active with the standin profile (see application-standin.yml) so load tests measure
+ * this service and its database, not the neighbours. PostgreSQL is still required.
+ * This module is only on the application classpath in the jar built with mvn -Pstandin.
+ */
+@Slf4j
+@Configuration
+@Profile("standin")
+public class StandInConfig {
+
+    @Value("${payment.standin.gateway.latency-ms:20}")
+    private long gatewayLatencyMs;
+
+    @Value("${payment.standin.gateway.jitter-ms:10}")
+    private long gatewayJitterMs;
+
+    @Value("${payment.standin.gateway.approval-rate:0.9}")
+    private double gatewayApprovalRate;
+
+    @Value("${payment.standin.kafka.partitions:3}")
+    private int kafkaPartitions;
+
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient() {
+        log.warn("standin profile active: Redis, Kafka and the payment gateway are in-process stand-ins");
+        return InMemoryRedisson.create();
+    }
+
+    @Bean
+    public RedisConnectionFactory redisConnectionFactory() {
+        return InMemoryRedisson.connectionFactory();
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> producerFactory() {
+        return new InProcessProducerFactory(
+            new InProcessKafkaProducer(new StringSerializer(), KafkaConfig.valueSerializer(), kafkaPartitions));
+    }
+
+    @Bean
+    @Primary
+    public PaymentGatewayService standInGatewayService() {
+        return new StandInGatewayService(gatewayLatencyMs, gatewayJitterMs, gatewayApprovalRate);
+    }
+}
@@ -0,0 +1,45 @@
+package com.payment.standin;
+
+import com.payment.core.service.PaymentGatewayService;
+import com.payment.persistence.entity.Payment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gateway stand-in for load tests (standin profile)
+ *
+ * Fixed latency plus uniform jitter and a configurable approval rate, without the
+ * per-call info logging of the simulated gateway so the log does not become the bottleneck
+ */
+@Slf4j
+public class StandInGatewayService extends PaymentGatewayService {
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double approvalRate;
+
+    public StandInGatewayService(long latencyMs, long jitterMs, double approvalRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.approvalRate = approvalRate;
+    }
+
+    @Override
+    public boolean processPaymentWithGateway(Payment payment) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (!simulateLatency(delay)) {
+            return false;
+        }
+        boolean approved = random.nextDouble() < approvalRate;
+        log.debug("Stand-in gateway {} payment {} after {}ms",
+            approved ? "approved" : "declined", payment.getPaymentId(), delay);
+        return approved;
+    }
+
+    @Override
+    public boolean processRefund(Payment payment, String reason) {
+        return true;
+    }
+}
@@ -70,6 +70,7 @@ java -Xms2G -Xmx4G ^
      -XX:HeapDumpPath=logs/heapdump.hprof ^
      -XX:+ExitOnOutOfMemoryError ^
      -XX:NativeMemoryTracking=summary ^
+     --add-modules jdk.incubator.vector ^
      -jar payment-api/target/payment-api-1.0.0.jar
 
 pause